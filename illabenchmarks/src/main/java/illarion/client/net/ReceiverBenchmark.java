@@ -0,0 +1,224 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package illarion.client.net;
+
+import illarion.client.net.server.AbstractReply;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the decoding of the data received from the server. The stream replayed to the receiver contains a
+ * generated mix of chat messages, map stripes and keep alive messages. Alternatively a recording of a real session
+ * created with the {@link StreamRecorder} is replayed.
+ *
+ * @author Martin Karing &lt;nitram@illarion.org&gt;
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class ReceiverBenchmark {
+    /**
+     * The size of the chunks the channel delivers. This simulates the segments received from the network.
+     */
+    private static final int CHUNK_SIZE = 1460;
+
+    /**
+     * The amount of messages in the generated stream.
+     */
+    @Param("1000")
+    public int messageCount;
+
+    /**
+     * The file of a recorded session. In case this is set, the recording is replayed instead of the generated stream.
+     */
+    @Param("")
+    public String recording;
+
+    /**
+     * The encoded stream of server messages.
+     */
+    private byte[] stream;
+
+    /**
+     * The reply IDs that are used for the reply factory benchmark.
+     */
+    private int[] replyIds;
+
+    /**
+     * The index of the next reply ID.
+     */
+    private int replyIndex;
+
+    /**
+     * A channel that replays a byte array and shuts the receiver down once all data is delivered.
+     */
+    private static final class ReplayChannel implements ReadableByteChannel {
+        @Nonnull
+        private final byte[] data;
+        private int position;
+        @Nullable
+        private Receiver receiver;
+
+        ReplayChannel(@Nonnull byte[] data) {
+            this.data = data;
+        }
+
+        void setReceiver(@Nonnull Receiver receiver) {
+            this.receiver = receiver;
+        }
+
+        @Override
+        public int read(@Nonnull ByteBuffer dst) throws IOException {
+            if (position >= data.length) {
+                if (receiver != null) {
+                    receiver.saveShutdown();
+                }
+                throw new ClosedChannelException();
+            }
+            int count = Math.min(Math.min(dst.remaining(), CHUNK_SIZE), data.length - position);
+            dst.put(data, position, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+            position = data.length;
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        replyIds = new int[]{CommandList.MSG_SAY, CommandList.MSG_MAP_STRIPE, CommandList.MSG_KEEP_ALIVE,
+                CommandList.MSG_MOVE, CommandList.MSG_PUT_ITEM, CommandList.MSG_REMOVE_ITEM};
+
+        if (!recording.isEmpty()) {
+            try (InputStream in = Files.newInputStream(Paths.get(recording))) {
+                stream = StreamReplay.readAll(in);
+            }
+            return;
+        }
+
+        Random random = new Random(42L);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int i = 0; i < messageCount; i++) {
+            int type = random.nextInt(10);
+            if (type < 5) {
+                writeMessage(out, CommandList.MSG_SAY, createSayPayload(random));
+            } else if (type < 9) {
+                writeMessage(out, CommandList.MSG_MAP_STRIPE, createMapStripePayload(random));
+            } else {
+                writeMessage(out, CommandList.MSG_KEEP_ALIVE, new byte[0]);
+            }
+        }
+        stream = out.toByteArray();
+    }
+
+    @Nonnull
+    private static byte[] createSayPayload(@Nonnull Random random) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeShort(random.nextInt(1000));
+        out.writeShort(random.nextInt(1000));
+        out.writeShort(0);
+        StringBuilder text = new StringBuilder();
+        int length = 10 + random.nextInt(80);
+        for (int i = 0; i < length; i++) {
+            text.append((char) ('a' + random.nextInt(26)));
+        }
+        byte[] encodedText = text.toString().getBytes(NetComm.SERVER_STRING_ENCODING);
+        out.writeShort(encodedText.length);
+        out.write(encodedText);
+        out.flush();
+        return buffer.toByteArray();
+    }
+
+    @Nonnull
+    private static byte[] createMapStripePayload(@Nonnull Random random) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeShort(random.nextInt(1000));
+        out.writeShort(random.nextInt(1000));
+        out.writeShort(0);
+        out.writeByte(random.nextBoolean() ? 0 : 1);
+        int count = 20;
+        out.writeByte(count);
+        for (int i = 0; i < count; i++) {
+            out.writeShort(1 + random.nextInt(500));
+            out.writeByte(random.nextInt(10));
+            out.writeShort(0);
+            int items = random.nextInt(3);
+            out.writeByte(items);
+            for (int j = 0; j < items; j++) {
+                out.writeShort(1 + random.nextInt(3000));
+                out.writeShort(1 + random.nextInt(10));
+            }
+        }
+        out.flush();
+        return buffer.toByteArray();
+    }
+
+    private static void writeMessage(@Nonnull ByteArrayOutputStream target, int id, @Nonnull byte[] payload)
+            throws IOException {
+        DataOutputStream out = new DataOutputStream(target);
+        out.writeByte(id);
+        out.writeByte(id ^ 0xFF);
+        out.writeShort(payload.length);
+        out.writeShort(NetComm.getCRC(ByteBuffer.wrap(payload), payload.length));
+        out.write(payload);
+        out.flush();
+    }
+
+    @Benchmark
+    public int decodeStream() {
+        BlockingQueue<AbstractReply> queue = new LinkedBlockingQueue<>();
+        ReplayChannel channel = new ReplayChannel(stream);
+        Receiver receiver = new Receiver(queue, channel);
+        channel.setReceiver(receiver);
+        receiver.run();
+        return queue.size();
+    }
+
+    @Benchmark
+    public void getReply(@Nonnull Blackhole blackhole) {
+        blackhole.consume(ReplyFactory.getInstance().getReply(replyIds[replyIndex]));
+        replyIndex = (replyIndex + 1) % replyIds.length;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package illarion.common.types;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the location arithmetic that is used all over the client to convert and compare coordinates.
+ *
+ * @author Martin Karing &lt;nitram@illarion.org&gt;
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class LocationBenchmark {
+    private Location origin;
+    private Location target;
+    private Location work;
+
+    @Setup
+    public void setup() {
+        origin = new Location(120, -43, 2);
+        target = new Location(157, 12, 2);
+        work = new Location();
+    }
+
+    @Benchmark
+    public long keyRoundTrip() {
+        work.setKey(origin.getKey());
+        return work.getKey();
+    }
+
+    @Benchmark
+    public int displayCoordinates() {
+        work.setSC(origin.getScX(), origin.getScY(), origin.getScZ());
+        work.addSC(1, -1, 0);
+        return work.getDcX() + work.getDcY() + work.getDcZ();
+    }
+
+    @Benchmark
+    public int mapCoordinates() {
+        work.setMC(origin.getCol(), origin.getRow());
+        return work.getScX() + work.getScY();
+    }
+
+    @Benchmark
+    public int distance() {
+        return origin.getDistance(target);
+    }
+
+    @Benchmark
+    public float sqrtDistance() {
+        return origin.getSqrtDistance(target);
+    }
+
+    @Benchmark
+    public Direction direction() {
+        return origin.getDirection(target);
+    }
+
+    @Benchmark
+    public Location neighbour() {
+        return new Location(origin, Direction.NorthEast);
+    }
+
+    @Benchmark
+    public boolean equality() {
+        work.set(origin);
+        return work.equals(origin) && (work.hashCode() == origin.hashCode());
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package illarion.common.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import javax.annotation.Nonnull;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.Charset;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the parsing of the data tables. The table is generated in the layout of the item table that is
+ * created by the config tool.
+ *
+ * @author Martin Karing &lt;nitram@illarion.org&gt;
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class TableLoaderBenchmark {
+    /**
+     * The amount of records in the generated table.
+     */
+    @Param("5000")
+    public int records;
+
+    /**
+     * The encoded table.
+     */
+    private byte[] table;
+
+    /**
+     * The sink that reads every column of the records.
+     */
+    private static final class ReadingSink implements TableLoaderSink<TableLoader> {
+        private long checksum;
+
+        @Override
+        public boolean processRecord(int line, @Nonnull TableLoader loader) {
+            checksum += loader.getInt(0);
+            checksum += loader.getString(1).length();
+            for (int i = 2; i < 12; i++) {
+                checksum += loader.getInt(i);
+            }
+            checksum += loader.getBoolean(12) ? 1 : 0;
+            checksum += loader.getLong(13);
+            return true;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42L);
+        StringBuilder builder = new StringBuilder();
+        builder.append("Header line\n");
+        for (int i = 0; i < records; i++) {
+            builder.append(i).append(',').append(random.nextInt(16)).append(',');
+            builder.append(i).append(",\"item_").append(random.nextInt(100000)).append("\",");
+            for (int j = 0; j < 10; j++) {
+                builder.append(random.nextInt(1000)).append(',');
+            }
+            builder.append(random.nextBoolean() ? '1' : '0').append(',');
+            builder.append(random.nextLong()).append('\n');
+            if ((i % 100) == 0) {
+                builder.append("# comment\n");
+            }
+        }
+        table = builder.toString().getBytes(Charset.forName("UTF-8"));
+    }
+
+    @Benchmark
+    public long loadTable() {
+        ReadingSink sink = new ReadingSink();
+        new TableLoader(new ByteArrayInputStream(table), true, sink, ",");
+        return sink.checksum;
+    }
+}
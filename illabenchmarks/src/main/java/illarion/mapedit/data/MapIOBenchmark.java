@@ -0,0 +1,85 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package illarion.mapedit.data;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the loading of maps in the map editor. The map is generated and stored in a temporary directory
+ * before the benchmark is executed.
+ *
+ * @author Martin Karing &lt;nitram@illarion.org&gt;
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class MapIOBenchmark {
+    /**
+     * The name of the generated map.
+     */
+    private static final String MAP_NAME = "benchmark";
+
+    /**
+     * The length of the edges of the generated map.
+     */
+    @Param("200")
+    public int mapSize;
+
+    private Path mapDirectory;
+
+    @Setup
+    public void setup() throws IOException {
+        mapDirectory = Files.createTempDirectory("illarion-map-benchmark");
+        Random random = new Random(42L);
+        Map map = new Map(MAP_NAME, mapDirectory, mapSize, mapSize, 0, 0, 0);
+        for (int x = 0; x < mapSize; x++) {
+            for (int y = 0; y < mapSize; y++) {
+                MapTile tile = MapTile.MapTileFactory.createNew(1 + random.nextInt(50), 0, 0, random.nextInt(5));
+                int items = (random.nextInt(4) == 0) ? (1 + random.nextInt(3)) : 0;
+                for (int i = 0; i < items; i++) {
+                    tile.addMapItem(new MapItem(1 + random.nextInt(3000)));
+                }
+                map.setTileAt(x, y, tile);
+            }
+        }
+        MapIO.saveMap(map);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(mapDirectory)) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(mapDirectory);
+    }
+
+    @Benchmark
+    public Map loadMap() throws IOException {
+        return MapIO.loadMapThread(mapDirectory, MAP_NAME);
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package org.illarion.engine.graphic;
+
+import illarion.common.types.Location;
+import org.openjdk.jmh.annotations.*;
+
+import javax.annotation.Nonnull;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the shadow calculation and the application of the light sources on a generated map.
+ *
+ * @author Martin Karing &lt;nitram@illarion.org&gt;
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class LightSourceBenchmark {
+    /**
+     * The size of the generated map.
+     */
+    private static final int MAP_SIZE = 64;
+
+    /**
+     * The radius of the light source.
+     */
+    @Param({"3", "6"})
+    public int radius;
+
+    private LightSource light;
+
+    /**
+     * A generated map with randomly placed obstacles that blocks the view.
+     */
+    private static final class GeneratedMap implements LightingMap {
+        @Nonnull
+        private final int[][] obstacles;
+        private long lightChecksum;
+
+        GeneratedMap(long seed) {
+            Random random = new Random(seed);
+            obstacles = new int[MAP_SIZE][MAP_SIZE];
+            for (int x = 0; x < MAP_SIZE; x++) {
+                for (int y = 0; y < MAP_SIZE; y++) {
+                    int value = random.nextInt(10);
+                    if (value == 0) {
+                        obstacles[x][y] = BLOCKED_VIEW;
+                    } else if (value < 3) {
+                        obstacles[x][y] = random.nextInt(BLOCKED_VIEW);
+                    }
+                }
+            }
+        }
+
+        private boolean isInside(@Nonnull Location loc) {
+            return (loc.getScX() >= 0) && (loc.getScX() < MAP_SIZE) && (loc.getScY() >= 0) &&
+                    (loc.getScY() < MAP_SIZE);
+        }
+
+        @Override
+        public boolean acceptsLight(@Nonnull Location loc, int dx, int dy) {
+            return isInside(loc);
+        }
+
+        @Override
+        public int blocksView(@Nonnull Location loc) {
+            if (!isInside(loc)) {
+                return BLOCKED_VIEW;
+            }
+            return obstacles[loc.getScX()][loc.getScY()];
+        }
+
+        @Override
+        public void renderLights() {
+        }
+
+        @Override
+        public void resetLights() {
+            lightChecksum = 0L;
+        }
+
+        @Override
+        public void setLight(@Nonnull Location loc, @Nonnull Color color) {
+            lightChecksum += color.getRed() + color.getGreen() + color.getBlue();
+        }
+    }
+
+    private GeneratedMap map;
+
+    @Setup
+    public void setup() {
+        map = new GeneratedMap(42L);
+        light = LightSource.createLight(new Location(MAP_SIZE / 2, MAP_SIZE / 2, 0), (radius * 10000) + 9999);
+        light.setMapSource(map);
+        light.calculateShadows();
+    }
+
+    @Benchmark
+    public boolean calculateShadows() {
+        light.refresh();
+        return light.calculateShadows();
+    }
+
+    @Benchmark
+    public long apply() {
+        map.resetLights();
+        light.apply();
+        return map.lightChecksum;
+    }
+}
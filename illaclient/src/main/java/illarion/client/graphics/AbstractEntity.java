@@ -46,7 +46,7 @@ import javax.annotation.concurrent.NotThreadSafe;
 @SuppressWarnings("nls")
 @NotThreadSafe
 public abstract class AbstractEntity<T extends AbstractEntityTemplate>
-        implements DisplayItem, AlphaHandler, AnimatedFrame {
+        implements DisplayItem, PickableSceneElement, AlphaHandler, AnimatedFrame {
     public boolean isCurrentlyEffectedByFadingCorridor() {
         return currentlyEffectedByFadingCorridor;
     }
@@ -258,6 +258,20 @@ public abstract class AbstractEntity<T extends AbstractEntityTemplate>
         }
     }
 
+    /**
+     * Apply the base color of this entity to a light. This is the color set with {@link #changeBaseColor(Color)} or
+     * the default color of the template.
+     *
+     * @param light the light that is colored
+     */
+    protected final void applyBaseColor(@Nonnull Color light) {
+        if (overWriteBaseColor != null) {
+            light.multiply(overWriteBaseColor);
+        } else if (baseColor != null) {
+            light.multiply(baseColor);
+        }
+    }
+
     /**
      * Get the frame that is currently displayed.
      *
@@ -286,6 +300,11 @@ public abstract class AbstractEntity<T extends AbstractEntityTemplate>
             int renderLocX = displayX;
             int renderLocY = displayY;
 
+            SceneRecorder recorder = World.getMapDisplay().getSceneRecorder();
+            if (recorder != null) {
+                recorder.record(template, renderLocX, renderLocY, getOrder());
+            }
+
             int highlight = getHighlight();
             if ((highlight > 0) && (highlightEffect != null)) {
                 if (highlight == 1) {
@@ -657,13 +676,7 @@ public abstract class AbstractEntity<T extends AbstractEntityTemplate>
             return;
         }
 
-        if ((baseColor != null) || (overWriteBaseColor != null)) {
-            if (overWriteBaseColor != null) {
-                renderLight.multiply(overWriteBaseColor);
-            } else {
-                renderLight.multiply(baseColor);
-            }
-        }
+        applyBaseColor(renderLight);
 
         if (!renderLight.equals(lastRenderLight)) {
             lastRenderLight.setColor(renderLight);
@@ -729,6 +742,17 @@ public abstract class AbstractEntity<T extends AbstractEntityTemplate>
         return interactionRect;
     }
 
+    /**
+     * Get the area the scene uses to locate this entity for mouse events. By default this is the interactive area.
+     *
+     * @return the area this entity is able to receive mouse events in
+     */
+    @Nullable
+    @Override
+    public Rectangle getPickArea() {
+        return getInteractionRect();
+    }
+
     /**
      * Get the current display rectangle.
      *
@@ -30,6 +30,7 @@ import illarion.client.world.World;
 import illarion.client.world.interactive.InteractiveChar;
 import illarion.client.world.movement.TargetMovementHandler;
 import illarion.common.graphics.Layers;
+import illarion.common.types.Rectangle;
 import org.illarion.engine.GameContainer;
 import org.illarion.engine.graphic.Color;
 import org.illarion.engine.graphic.Graphics;
@@ -121,6 +122,12 @@ public final class Avatar extends AbstractEntity<AvatarTemplate> implements Reso
      */
     private boolean renderName;
 
+    /**
+     * The storage for the area that is used to locate this avatar for mouse events.
+     */
+    @Nonnull
+    private final Rectangle pickArea = new Rectangle();
+
     /**
      * The target light of this avatar. In case the light is set to be animated
      * the color this avatar is rendered with will approach this target light.
@@ -387,6 +394,22 @@ public final class Avatar extends AbstractEntity<AvatarTemplate> implements Reso
         return isMouseInInteractionRect(event.getX(), event.getY());
     }
 
+    /**
+     * The avatar receives mouse events on its interactive area and on its tag, in case the tag is shown.
+     *
+     * @return the area this avatar is able to receive mouse events in
+     */
+    @Nullable
+    @Override
+    public Rectangle getPickArea() {
+        if (!renderName) {
+            return getInteractionRect();
+        }
+        pickArea.set(getInteractionRect());
+        pickArea.add(avatarTextTag.getDisplayRect());
+        return pickArea;
+    }
+
     @SuppressWarnings("UnusedDeclaration")
     private static final Logger LOGGER = LoggerFactory.getLogger(Avatar.class);
 
@@ -31,6 +31,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.file.Path;
 
 /**
  * The map display manager stores and manages all objects displayed on the map. It takes care for rendering the objects
@@ -68,6 +71,18 @@ public final class MapDisplayManager implements AnimatedMove {
     @Nonnull
     private final Scene gameScene;
 
+    /**
+     * The file that receives the recording of the next rendered frame.
+     */
+    @Nullable
+    private volatile Path pendingRecording;
+
+    /**
+     * The recorder of the frame that is currently rendered. This is only set while a frame is recorded.
+     */
+    @Nullable
+    private SceneRecorder sceneRecorder;
+
     public MapDisplayManager(@Nonnull Engine engine) {
         active = false;
 
@@ -92,6 +107,26 @@ public final class MapDisplayManager implements AnimatedMove {
         return gameScene;
     }
 
+    /**
+     * Record the entities rendered in the next frame. The recording can be replayed by the scene benchmark of the
+     * headless engine backend.
+     *
+     * @param file the file that receives the recording
+     */
+    public void recordNextFrame(@Nonnull Path file) {
+        pendingRecording = file;
+    }
+
+    /**
+     * Get the recorder of the frame that is currently rendered.
+     *
+     * @return the recorder or {@code null} in case the current frame is not recorded
+     */
+    @Nullable
+    public SceneRecorder getSceneRecorder() {
+        return sceneRecorder;
+    }
+
     public void updateElevation() {
         if (!moveAnimationInProgress) {
             setLocation(World.getPlayer().getLocation());
@@ -269,7 +304,26 @@ public final class MapDisplayManager implements AnimatedMove {
         }
 
         Camera camera = Camera.getInstance();
-        gameScene.render(c.getEngine().getGraphics(), camera.getViewportOffsetX(), camera.getViewportOffsetY());
+        Path recordingFile = pendingRecording;
+        if (recordingFile == null) {
+            gameScene.render(c.getEngine().getGraphics(), camera.getViewportOffsetX(), camera.getViewportOffsetY());
+            return;
+        }
+
+        pendingRecording = null;
+        SceneRecorder recorder = new SceneRecorder(recordingFile);
+        sceneRecorder = recorder;
+        try {
+            gameScene.render(c.getEngine().getGraphics(), camera.getViewportOffsetX(), camera.getViewportOffsetY());
+        } finally {
+            sceneRecorder = null;
+        }
+        try {
+            recorder.write();
+            LOGGER.info("Recorded {} scene elements to {}", recorder.getCount(), recorder.getFile());
+        } catch (IOException e) {
+            LOGGER.error("Failed to write the scene recording to {}", recorder.getFile(), e);
+        }
     }
 
     public void setActive(boolean active) {
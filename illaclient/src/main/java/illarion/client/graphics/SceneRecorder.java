@@ -0,0 +1,123 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package illarion.client.graphics;
+
+import illarion.client.resources.data.AbstractEntityTemplate;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * This class records the entities that are rendered on the map during one frame. The recording uses the text format
+ * of the scene recordings of the headless engine backend, so the scene benchmark is able to replay it. Each line
+ * contains one entity:
+ * <pre>
+ * &lt;texture&gt; &lt;x&gt; &lt;y&gt; &lt;order&gt;
+ * </pre>
+ * The texture is named by the kind of the template and its ID, for example {@code tile/12}.
+ *
+ * @author Martin Karing &lt;nitram@illarion.org&gt;
+ */
+@NotThreadSafe
+public final class SceneRecorder {
+    /**
+     * The character set used to store the recordings.
+     */
+    @Nonnull
+    private static final Charset CHARSET = Charset.forName("UTF-8");
+
+    /**
+     * The file that receives the recording.
+     */
+    @Nonnull
+    private final Path file;
+
+    /**
+     * The recorded lines.
+     */
+    @Nonnull
+    private final StringBuilder recording;
+
+    /**
+     * The amount of recorded entities.
+     */
+    private int count;
+
+    /**
+     * Create a new recorder.
+     *
+     * @param file the file that receives the recording
+     */
+    public SceneRecorder(@Nonnull Path file) {
+        this.file = file;
+        recording = new StringBuilder();
+        recording.append("# texture x y order\n");
+    }
+
+    /**
+     * Record a rendered entity.
+     *
+     * @param template the template of the entity
+     * @param x the x coordinate the entity is rendered at
+     * @param y the y coordinate the entity is rendered at
+     * @param order the render order of the entity
+     */
+    public void record(@Nonnull AbstractEntityTemplate template, int x, int y, int order) {
+        String kind = template.getClass().getSimpleName();
+        if (kind.endsWith("Template")) {
+            kind = kind.substring(0, kind.length() - 8);
+        }
+        recording.append(kind.toLowerCase(Locale.ENGLISH)).append('/').append(template.getTemplateId()).append(' ');
+        recording.append(x).append(' ').append(y).append(' ').append(order).append('\n');
+        count++;
+    }
+
+    /**
+     * Get the amount of recorded entities.
+     *
+     * @return the amount of recorded entities
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Get the file that receives the recording.
+     *
+     * @return the file
+     */
+    @Nonnull
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Write the recording to the file.
+     *
+     * @throws IOException in case writing the file fails
+     */
+    public void write() throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, CHARSET)) {
+            writer.write(recording.toString());
+        }
+    }
+}
@@ -29,15 +29,14 @@ import illarion.client.world.World;
 import illarion.client.world.movement.TargetMovementHandler;
 import illarion.common.graphics.MapVariance;
 import illarion.common.graphics.TileInfo;
+import illarion.common.types.Direction;
 import illarion.common.types.Location;
 import illarion.common.types.Rectangle;
-import org.illarion.engine.EngineException;
 import org.illarion.engine.GameContainer;
 import org.illarion.engine.graphic.Color;
 import org.illarion.engine.graphic.Graphics;
 import org.illarion.engine.graphic.SceneEvent;
 import org.illarion.engine.graphic.effects.TextureEffect;
-import org.illarion.engine.graphic.effects.TileLightEffect;
 import org.illarion.engine.input.Button;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -129,30 +128,89 @@ public class Tile extends AbstractEntity<TileTemplate> implements Resource {
                 return;
             }
 
-            super.render(g);
-            showHighlight = 0;
-
-            /* This is the new light based tile. Sadly the performance of this thing is too poor,
-             * so its disabled for now.
-            if ((showHighlight != 0) || (tileLightEffect == null) || !parentTile.hasLightGradient()) {
+            // The gradient is drawn without texture effects, so tiles that show a effect are rendered normally.
+            if ((showHighlight != 0) || !parentTile.hasLightGradient()) {
                 super.render(g);
-                showHighlight = 0;
             } else {
-                tileLightEffect.setTopLeftColor(parentTile.getLight(Location.DIR_NORTH));
-                tileLightEffect.setTopRightColor(parentTile.getLight(Location.DIR_EAST));
-                tileLightEffect.setBottomLeftColor(parentTile.getLight(Location.DIR_WEST));
-                tileLightEffect.setBottomRightColor(parentTile.getLight(Location.DIR_SOUTH));
-                tileLightEffect.setTopColor(parentTile.getLight(Location.DIR_NORTHEAST));
-                tileLightEffect.setBottomColor(parentTile.getLight(Location.DIR_SOUTHWEST));
-                tileLightEffect.setLeftColor(parentTile.getLight(Location.DIR_NORTHWEST));
-                tileLightEffect.setRightColor(parentTile.getLight(Location.DIR_SOUTHEAST));
-                tileLightEffect.setCenterColor(parentTile.getLight());
-                renderSprite(g, getDisplayX(), getDisplayY(), Color.WHITE, tileLightEffect);
+                renderLightGradient(g);
             }
-            */
+            showHighlight = 0;
+        }
+    }
+
+    /**
+     * The light of the top left corner of the tile graphic.
+     */
+    @Nonnull
+    private final Color topLeftLight = new Color(Color.WHITE);
+
+    /**
+     * The light of the top right corner of the tile graphic.
+     */
+    @Nonnull
+    private final Color topRightLight = new Color(Color.WHITE);
+
+    /**
+     * The light of the bottom left corner of the tile graphic.
+     */
+    @Nonnull
+    private final Color bottomLeftLight = new Color(Color.WHITE);
+
+    /**
+     * The light of the bottom right corner of the tile graphic.
+     */
+    @Nonnull
+    private final Color bottomRightLight = new Color(Color.WHITE);
+
+    /**
+     * Render the tile with the light of the surrounding tiles blended into the corners of the graphic. The lights are
+     * applied as corner colors of the sprite, so this does not require any special effect. The corner colors include
+     * the same light, base color and alpha value the tile is rendered with otherwise.
+     *
+     * @param g the graphics object that is used to render the tile
+     */
+    private void renderLightGradient(@Nonnull Graphics g) {
+        Color center = parentTile.getLight();
+        calculateCornerLight(topLeftLight, center, Direction.North, Direction.NorthEast, Direction.NorthWest);
+        calculateCornerLight(topRightLight, center, Direction.East, Direction.NorthEast, Direction.SouthEast);
+        calculateCornerLight(bottomLeftLight, center, Direction.West, Direction.SouthWest, Direction.NorthWest);
+        calculateCornerLight(bottomRightLight, center, Direction.South, Direction.SouthWest, Direction.SouthEast);
+
+        int x = getDisplayX();
+        int y = getDisplayY();
+        g.drawSprite(getTemplate().getSprite(), x, y, topLeftLight, topRightLight, bottomLeftLight,
+                     bottomRightLight, getCurrentFrame(), getScale());
+        if (overlay != null) {
+            g.drawSprite(overlay.getSprite(), x, y, topLeftLight, topRightLight, bottomLeftLight, bottomRightLight,
+                         overlayShape, getScale());
         }
     }
 
+    /**
+     * Calculate the light of one corner of the tile graphic. This is the average of the light of this tile and the
+     * three tiles touching this corner, colored with the light and the base color of this entity.
+     *
+     * @param target the color instance that receives the result
+     * @param center the light of this tile
+     * @param corner the direction of the tile located at the corner
+     * @param side1 the direction of the first tile next to the corner
+     * @param side2 the direction of the second tile next to the corner
+     */
+    private void calculateCornerLight(
+            @Nonnull Color target,
+            @Nonnull Color center,
+            @Nonnull Direction corner,
+            @Nonnull Direction side1,
+            @Nonnull Direction side2) {
+        target.setColor(center);
+        target.add(parentTile.getLight(corner));
+        target.add(parentTile.getLight(side1));
+        target.add(parentTile.getLight(side2));
+        target.multiply(0.25f);
+        target.multiply(getLight());
+        applyBaseColor(target);
+    }
+
     @Override
     protected void renderSprite(
             @Nonnull Graphics g, int x, int y, @Nonnull Color light, @Nonnull TextureEffect... effects) {
@@ -186,16 +244,8 @@ public class Tile extends AbstractEntity<TileTemplate> implements Resource {
         }
     }
 
-    private TileLightEffect tileLightEffect;
-
     @Override
     public void update(@Nonnull GameContainer container, int delta) {
-        if (tileLightEffect == null) {
-            try {
-                tileLightEffect = container.getEngine().getAssets().getEffectManager().getTileLightEffect(true);
-            } catch (EngineException ignored) {
-            }
-        }
         parentTile.updateColor(delta);
         MapGroup group = parentTile.getMapGroup();
         if ((group != null) && group.isHidden()) {
@@ -15,7 +15,8 @@
  */
 package illarion.client.input;
 
-import org.illarion.engine.graphic.SceneEvent;
+import illarion.client.graphics.Camera;
+import org.illarion.engine.graphic.LocatedSceneEvent;
 
 import javax.annotation.Nonnull;
 
@@ -24,7 +25,7 @@ import javax.annotation.Nonnull;
  *
  * @author Martin Karing &lt;nitram@illarion.org&gt;
  */
-public abstract class AbstractMouseLocationEvent implements SceneEvent {
+public abstract class AbstractMouseLocationEvent implements LocatedSceneEvent {
     /**
      * The x coordinate on the screen where the click occurred.
      */
@@ -74,6 +75,26 @@ public abstract class AbstractMouseLocationEvent implements SceneEvent {
         return y;
     }
 
+    /**
+     * Get the x coordinate of the event on the game map. This applies the current offset of the viewport.
+     *
+     * @return the x coordinate on the game map
+     */
+    @Override
+    public int getSceneX() {
+        return getX() + Camera.getInstance().getViewportOffsetX();
+    }
+
+    /**
+     * Get the y coordinate of the event on the game map. This applies the current offset of the viewport.
+     *
+     * @return the y coordinate on the game map
+     */
+    @Override
+    public int getSceneY() {
+        return getY() + Camera.getInstance().getViewportOffsetY();
+    }
+
     @Override
     public void notHandled() {
         // nothing
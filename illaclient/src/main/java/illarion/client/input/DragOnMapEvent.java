@@ -15,6 +15,7 @@
  */
 package illarion.client.input;
 
+import illarion.client.graphics.Camera;
 import org.illarion.engine.input.Button;
 
 import javax.annotation.Nonnull;
@@ -98,6 +99,26 @@ public class DragOnMapEvent extends AbstractMouseOnMapEvent {
         return getY();
     }
 
+    /**
+     * The scene location of a dragging event is the location where the dragging operation started.
+     *
+     * @return the x coordinate of the start location on the game map
+     */
+    @Override
+    public int getSceneX() {
+        return oldX + Camera.getInstance().getViewportOffsetX();
+    }
+
+    /**
+     * The scene location of a dragging event is the location where the dragging operation started.
+     *
+     * @return the y coordinate of the start location on the game map
+     */
+    @Override
+    public int getSceneY() {
+        return oldY + Camera.getInstance().getViewportOffsetY();
+    }
+
     @Nonnull
     public InputReceiver getInputReceiver() {
         return inputReceiver;
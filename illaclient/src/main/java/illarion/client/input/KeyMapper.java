@@ -23,6 +23,7 @@ import illarion.client.world.items.InventorySlot;
 import illarion.client.world.movement.KeyboardMovementHandler;
 import illarion.common.config.ConfigChangedEvent;
 import illarion.common.types.Direction;
+import illarion.common.util.DirectoryManager;
 import org.bushe.swing.event.EventBus;
 import org.bushe.swing.event.annotation.AnnotationProcessor;
 import org.bushe.swing.event.annotation.EventTopicSubscriber;
@@ -30,6 +31,7 @@ import org.illarion.engine.input.Input;
 import org.illarion.engine.input.Key;
 
 import javax.annotation.Nonnull;
+import java.nio.file.Path;
 import java.util.EnumMap;
 import java.util.Map;
 
@@ -159,6 +161,10 @@ public final class KeyMapper {
             case F1:
                 World.getGameGui().getDocumentationGui().toggleDocumentation();
                 break;
+            case F12:
+                Path userDir = DirectoryManager.getInstance().getDirectory(DirectoryManager.Directory.User);
+                World.getMapDisplay().recordNextFrame(userDir.resolve("scene-" + System.currentTimeMillis() + ".txt"));
+                break;
             case P:
                 World.getNet().sendCommand(new PickUpAllItemsCmd());
                 break;
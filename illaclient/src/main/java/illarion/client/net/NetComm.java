@@ -33,9 +33,12 @@ import javax.annotation.Nullable;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.SocketChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.channels.spi.SelectorProvider;
 import java.nio.charset.Charset;
+import java.nio.file.Paths;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 
@@ -94,6 +97,25 @@ public final class NetComm {
      */
     private static final int THREAD_WAIT_TIME = 100;
 
+    /**
+     * The system property that contains the file the data received from the server is recorded to.
+     */
+    @SuppressWarnings("nls")
+    private static final String RECORD_PROPERTY = "illarion.net.record";
+
+    /**
+     * The system property that contains the recording that is replayed instead of connecting to the server.
+     */
+    @SuppressWarnings("nls")
+    private static final String REPLAY_PROPERTY = "illarion.net.replay";
+
+    /**
+     * The system property that contains the factor the replay is accelerated with. {@code 0} replays the recording
+     * as fast as possible.
+     */
+    @SuppressWarnings("nls")
+    private static final String REPLAY_SPEED_PROPERTY = "illarion.net.replaySpeed";
+
     /**
      * List of server messages that got received and decoded but were not yet executed.
      */
@@ -131,6 +153,12 @@ public final class NetComm {
     @Nullable
     private SocketChannel socket;
 
+    /**
+     * The channel the receiver reads the data from. This is the socket or a recorder or replay of the server data.
+     */
+    @Nullable
+    private ReadableByteChannel inputChannel;
+
     /**
      * Default constructor that prepares all values of the NetComm.
      */
@@ -203,6 +231,53 @@ public final class NetComm {
         log.debug(builder.toString());
     }
 
+    /**
+     * Get the speed the recorded server data is replayed with.
+     *
+     * @return the replay speed
+     */
+    @SuppressWarnings("nls")
+    private static float getReplaySpeed() {
+        String speed = System.getProperty(REPLAY_SPEED_PROPERTY);
+        if (speed == null) {
+            return 1.f;
+        }
+        try {
+            return Math.max(0.f, Float.parseFloat(speed));
+        } catch (@Nonnull NumberFormatException e) {
+            log.warn("Invalid replay speed: {}", speed);
+            return 1.f;
+        }
+    }
+
+    /**
+     * This channel discards all data written to it. It replaces the connection to the server while recorded server
+     * data is replayed.
+     */
+    private static final class DiscardingChannel implements WritableByteChannel {
+        /**
+         * This is {@code true} while the channel is open.
+         */
+        private boolean open = true;
+
+        @Override
+        public int write(@Nonnull ByteBuffer src) {
+            int count = src.remaining();
+            src.position(src.limit());
+            return count;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() {
+            open = false;
+        }
+    }
+
     /**
      * Establish a connection with the server.
      *
@@ -212,38 +287,57 @@ public final class NetComm {
     public boolean connect() {
         setLoginDone(false);
         try {
-            Servers usedServer = IllaClient.getInstance().getUsedServer();
-
-            String serverAddress;
-            int serverPort;
-            if (usedServer == Servers.customserver) {
-                serverAddress = IllaClient.getCfg().getString("serverAddress");
-                serverPort = IllaClient.getCfg().getInteger("serverPort");
+            ReadableByteChannel inChannel;
+            WritableByteChannel outChannel;
+            String replayFile = System.getProperty(REPLAY_PROPERTY);
+            if (replayFile != null) {
+                log.info("Replaying the recorded server data from {}", replayFile);
+                inChannel = new StreamReplay(Paths.get(replayFile), getReplaySpeed());
+                outChannel = new DiscardingChannel();
             } else {
-                serverAddress = usedServer.getServerHost();
-                serverPort = usedServer.getServerPort();
-            }
+                Servers usedServer = IllaClient.getInstance().getUsedServer();
+
+                String serverAddress;
+                int serverPort;
+                if (usedServer == Servers.customserver) {
+                    serverAddress = IllaClient.getCfg().getString("serverAddress");
+                    serverPort = IllaClient.getCfg().getInteger("serverPort");
+                } else {
+                    serverAddress = usedServer.getServerHost();
+                    serverPort = usedServer.getServerPort();
+                }
 
-            InetSocketAddress address = new InetSocketAddress(serverAddress, serverPort);
-            socket = SelectorProvider.provider().openSocketChannel();
-            socket.configureBlocking(true);
-            socket.socket().setPerformancePreferences(0, 2, 1);
-            socket.socket().setTcpNoDelay(true);
-
-            if (!socket.connect(address)) {
-                while (socket.isConnectionPending()) {
-                    socket.finishConnect();
-                    try {
-                        Thread.sleep(1);
-                    } catch (@Nonnull InterruptedException e) {
-                        log.warn("Waiting time for connection finished got interrupted");
+                InetSocketAddress address = new InetSocketAddress(serverAddress, serverPort);
+                socket = SelectorProvider.provider().openSocketChannel();
+                socket.configureBlocking(true);
+                socket.socket().setPerformancePreferences(0, 2, 1);
+                socket.socket().setTcpNoDelay(true);
+
+                if (!socket.connect(address)) {
+                    while (socket.isConnectionPending()) {
+                        socket.finishConnect();
+                        try {
+                            Thread.sleep(1);
+                        } catch (@Nonnull InterruptedException e) {
+                            log.warn("Waiting time for connection finished got interrupted");
+                        }
                     }
                 }
+
+                inChannel = socket;
+                outChannel = socket;
+
+                String recordFile = System.getProperty(RECORD_PROPERTY);
+                if (recordFile != null) {
+                    log.info("Recording the data received from the server to {}", recordFile);
+                    inChannel = new StreamRecorder(socket, Paths.get(recordFile));
+                }
             }
+            inputChannel = inChannel;
 
-            sender = new Sender(outputQueue, socket);
+            sender = new Sender(outputQueue, outChannel);
             sender.setUncaughtExceptionHandler(NetCommCrashHandler.getInstance());
-            inputThread = new Receiver(inputQueue, socket);
+            inputThread = new Receiver(inputQueue, inChannel);
             inputThread.setUncaughtExceptionHandler(NetCommCrashHandler.getInstance());
             messageHandler = new MessageExecutor(inputQueue);
             messageHandler.setUncaughtExceptionHandler(NetCommCrashHandler.getInstance());
@@ -313,6 +407,10 @@ public final class NetComm {
             outputQueue.clear();
 
             // close connection
+            if (inputChannel != null) {
+                inputChannel.close();
+                inputChannel = null;
+            }
             if (socket != null) {
                 socket.close();
                 socket = null;
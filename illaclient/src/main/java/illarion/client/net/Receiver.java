@@ -25,6 +25,7 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.NotThreadSafe;
+import java.io.EOFException;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
@@ -412,6 +413,9 @@ final class Receiver extends Thread implements NetCommReader {
         while (true) {
             if (inChannel.isOpen()) {
                 newData = inChannel.read(buffer);
+                if (newData < 0) {
+                    throw new EOFException("End of the data stream reached.");
+                }
             }
             data += newData;
             if (data >= neededDataInBuffer) {
@@ -0,0 +1,117 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package illarion.client.net;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * This channel forwards all data read from the server and stores a copy of the data along with the time it arrived
+ * in a recording file. The recording can be played back with the {@link StreamReplay}.
+ * <p/>
+ * The file starts with the {@link #MAGIC} value and the {@link #VERSION} of the format. Each read operation that
+ * received data adds one record: the time since the start of the recording in nanoseconds as {@code long}, the
+ * length of the data as {@code int} and the received bytes.
+ *
+ * @author Martin Karing &lt;nitram@illarion.org&gt;
+ */
+@NotThreadSafe
+final class StreamRecorder implements ReadableByteChannel {
+    /**
+     * The value every recording starts with.
+     */
+    static final int MAGIC = 0x494C5253;
+
+    /**
+     * The version of the recording format.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * The channel the data is received from.
+     */
+    @Nonnull
+    private final ReadableByteChannel source;
+
+    /**
+     * The stream the recording is written to.
+     */
+    @Nonnull
+    private final DataOutputStream out;
+
+    /**
+     * The time the recording started.
+     */
+    private final long startTime;
+
+    /**
+     * Create a new recorder.
+     *
+     * @param source the channel that delivers the data
+     * @param recordingFile the file the recording is written to, an existing file is replaced
+     * @throws IOException in case the recording file can't be created
+     */
+    StreamRecorder(@Nonnull ReadableByteChannel source, @Nonnull Path recordingFile) throws IOException {
+        this.source = source;
+        out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(recordingFile)));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        startTime = System.nanoTime();
+    }
+
+    @Override
+    public int read(@Nonnull ByteBuffer dst) throws IOException {
+        int start = dst.position();
+        int count = source.read(dst);
+        if (count > 0) {
+            out.writeLong(System.nanoTime() - startTime);
+            out.writeInt(count);
+            if (dst.hasArray()) {
+                out.write(dst.array(), dst.arrayOffset() + start, count);
+            } else {
+                ByteBuffer received = dst.duplicate();
+                received.position(start);
+                received.limit(start + count);
+                while (received.hasRemaining()) {
+                    out.write(received.get());
+                }
+            }
+            out.flush();
+        }
+        return count;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return source.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            out.close();
+        } finally {
+            source.close();
+        }
+    }
+}
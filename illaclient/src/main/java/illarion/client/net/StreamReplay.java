@@ -0,0 +1,213 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package illarion.client.net;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This channel plays back a recording created by the {@link StreamRecorder}. The data is delivered in the same
+ * chunks it was received from the server. The timing of the original connection is reproduced, optionally
+ * accelerated by a speed factor. Once the end of the recording is reached, the channel reports the end of the
+ * stream.
+ *
+ * @author Martin Karing &lt;nitram@illarion.org&gt;
+ */
+@NotThreadSafe
+final class StreamReplay implements ReadableByteChannel {
+    /**
+     * The stream the recording is read from.
+     */
+    @Nonnull
+    private final DataInputStream in;
+
+    /**
+     * The factor the replay is accelerated with. {@code 0} replays the data as fast as possible.
+     */
+    private final float speed;
+
+    /**
+     * The data of the current record.
+     */
+    @Nonnull
+    private byte[] chunk;
+
+    /**
+     * The amount of valid bytes in the current record.
+     */
+    private int chunkLength;
+
+    /**
+     * The amount of bytes of the current record that are already delivered.
+     */
+    private int chunkPosition;
+
+    /**
+     * The time the replay started or {@code -1} in case it did not start yet.
+     */
+    private long startTime = -1L;
+
+    /**
+     * This is {@code true} once the end of the recording was reached.
+     */
+    private boolean endOfStream;
+
+    /**
+     * This is {@code true} once the channel was closed.
+     */
+    private boolean closed;
+
+    /**
+     * Create a new replay.
+     *
+     * @param recordingFile the file created by the {@link StreamRecorder}
+     * @param speed the factor the replay is accelerated with, {@code 1} replays the original timing, {@code 0}
+     * replays the data as fast as possible
+     * @throws IOException in case the file can't be read or is not a recording
+     */
+    StreamReplay(@Nonnull Path recordingFile, float speed) throws IOException {
+        this(Files.newInputStream(recordingFile), speed);
+    }
+
+    /**
+     * Create a new replay.
+     *
+     * @param recording the stream that contains the recording
+     * @param speed the factor the replay is accelerated with, {@code 1} replays the original timing, {@code 0}
+     * replays the data as fast as possible
+     * @throws IOException in case the stream can't be read or is not a recording
+     */
+    StreamReplay(@Nonnull InputStream recording, float speed) throws IOException {
+        if (speed < 0.f) {
+            throw new IllegalArgumentException("The replay speed must not be negative.");
+        }
+        in = new DataInputStream(new BufferedInputStream(recording));
+        this.speed = speed;
+        chunk = new byte[0];
+        try {
+            if (in.readInt() != StreamRecorder.MAGIC) {
+                throw new IOException("The data is not a network stream recording.");
+            }
+            int version = in.readInt();
+            if (version != StreamRecorder.VERSION) {
+                throw new IOException("Unsupported version of the recording: " + version);
+            }
+        } catch (@Nonnull IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Read the entire remaining data of a recording. The timing of the recording is ignored.
+     *
+     * @param recording the stream that contains the recording
+     * @return the data of the recording
+     * @throws IOException in case the stream can't be read or is not a recording
+     */
+    @Nonnull
+    static byte[] readAll(@Nonnull InputStream recording) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (StreamReplay replay = new StreamReplay(recording, 0.f)) {
+            ByteBuffer buffer = ByteBuffer.allocate(4096);
+            while (replay.read(buffer) >= 0) {
+                out.write(buffer.array(), 0, buffer.position());
+                buffer.clear();
+            }
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public int read(@Nonnull ByteBuffer dst) throws IOException {
+        if (closed) {
+            throw new ClosedChannelException();
+        }
+        if (chunkPosition >= chunkLength) {
+            if (endOfStream || !readNextChunk()) {
+                endOfStream = true;
+                return -1;
+            }
+        }
+        int count = Math.min(dst.remaining(), chunkLength - chunkPosition);
+        dst.put(chunk, chunkPosition, count);
+        chunkPosition += count;
+        return count;
+    }
+
+    /**
+     * Load the next record and wait until it is due.
+     *
+     * @return {@code true} in case a record was loaded, {@code false} in case the end of the recording is reached
+     * @throws IOException in case reading the record fails or the waiting is interrupted
+     */
+    private boolean readNextChunk() throws IOException {
+        long timestamp;
+        try {
+            timestamp = in.readLong();
+        } catch (@Nonnull EOFException e) {
+            return false;
+        }
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Corrupted record length: " + length);
+        }
+        if (chunk.length < length) {
+            chunk = new byte[length];
+        }
+        in.readFully(chunk, 0, length);
+        chunkLength = length;
+        chunkPosition = 0;
+
+        if (startTime < 0L) {
+            startTime = System.nanoTime();
+        }
+        if (speed > 0.f) {
+            long dueTime = startTime + (long) (timestamp / speed);
+            long waitTime = dueTime - System.nanoTime();
+            if (waitTime > 0L) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(waitTime);
+                } catch (@Nonnull InterruptedException e) {
+                    close();
+                    throw new ClosedByInterruptException();
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return !closed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            in.close();
+        }
+    }
+}
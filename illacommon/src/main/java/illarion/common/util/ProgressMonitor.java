@@ -17,12 +17,16 @@ package illarion.common.util;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * This utility class is used to track the progress of any action. Its very handy of complex tasks need to be
  * monitored.
+ * <p/>
+ * The monitor is thread safe. Children may report their progress from different threads at the same time, the
+ * callback is only called by one thread at a time.
  *
  * @author Martin Karing &lt;nitram@illarion.org&gt;
  */
@@ -31,37 +35,34 @@ public final class ProgressMonitor implements ProgressMonitorCallback {
     /**
      * The progress of this monitor. This value does not apply in case there are any children applied to this class.
      */
-    private float progress;
+    private volatile float progress;
 
     /**
      * The weight of this loading operation. This applies in case this monitor is a child to another progress monitor,
      * The weight is compared to the siblings of this monitor. A monitor with a weight of two has twice the effect to
      * the resulting progress of the monitor compared to a monitor with a weight of one.
      */
-    private float weight;
+    private volatile float weight;
 
     /**
      * The list of children of this monitor.
      */
-    @Nullable
-    private List<ProgressMonitor> children;
+    @Nonnull
+    private final List<ProgressMonitor> children = new CopyOnWriteArrayList<>();
 
     /**
      * The callback that is required to receive the updates of the monitor in case there is any.
      */
     @Nullable
-    private ProgressMonitorCallback callback;
+    private volatile ProgressMonitorCallback callback;
 
     /**
-     * This is set {@code true} while a callback is in progress. This is used to avoid too many active callbacks.
+     * The number of progress changes that were not reported to the callback yet. The thread that raises this value
+     * from zero calls the callback until all changes are reported, so only one callback is active at a time and
+     * changes reported by other threads during the callback cause the callback to be repeated.
      */
-    private boolean activeCallback;
-
-    /**
-     * This is set {@code true} in case another callback was requested while there was a active one. If causes the
-     * callback to be repeated.
-     */
-    private boolean repeatCallback;
+    @Nonnull
+    private final AtomicInteger pendingCallbacks = new AtomicInteger();
 
     /**
      * Create a new progress monitor with a custom weight value.
@@ -99,13 +100,11 @@ public final class ProgressMonitor implements ProgressMonitorCallback {
      */
     public void setCallback(@Nullable final ProgressMonitorCallback callback) {
         this.callback = callback;
-        if (children != null) {
-            for (final ProgressMonitor child : children) {
-                if (callback == null) {
-                    child.setCallback(null);
-                } else {
-                    child.setCallback(this);
-                }
+        for (final ProgressMonitor child : children) {
+            if (callback == null) {
+                child.setCallback(null);
+            } else {
+                child.setCallback(this);
             }
         }
     }
@@ -116,9 +115,6 @@ public final class ProgressMonitor implements ProgressMonitorCallback {
      * @param childMonitor the children that is supposed to be monitored now
      */
     public void addChild(@Nonnull final ProgressMonitor childMonitor) {
-        if (children == null) {
-            children = new ArrayList<>();
-        }
         children.add(childMonitor);
         final ProgressMonitorCallback targetCallback = callback;
         if (targetCallback != null) {
@@ -134,44 +130,44 @@ public final class ProgressMonitor implements ProgressMonitorCallback {
      * @throws IllegalStateException in case this monitor has children applied to it
      */
     public void setProgress(final float progress) {
-        if (children != null) {
+        if (!children.isEmpty()) {
             throw new IllegalStateException("Setting the progress of a monitor with children is not allowed.");
         }
-        final float oldValue = this.progress;
+        final float newValue;
         if (progress > 1.f) {
-            this.progress = 1.f;
+            newValue = 1.f;
         } else if (progress < 0.f) {
-            this.progress = 0.f;
+            newValue = 0.f;
         } else {
-            this.progress = progress;
+            newValue = progress;
+        }
+        final boolean changed;
+        synchronized (this) {
+            changed = this.progress != newValue;
+            this.progress = newValue;
         }
-        if (oldValue != this.progress) {
+        if (changed) {
             reportProgressChange();
         }
     }
 
     private void reportProgressChange() {
-        if (activeCallback) {
-            repeatCallback = true;
+        if (pendingCallbacks.getAndIncrement() > 0) {
             return;
         }
 
-        final ProgressMonitorCallback targetCallback = callback;
-        if (targetCallback != null) {
-            boolean firstRun = true;
-            while (firstRun || repeatCallback) {
-                firstRun = false;
-                repeatCallback = false;
-                activeCallback = true;
+        int reported;
+        do {
+            reported = pendingCallbacks.get();
+            final ProgressMonitorCallback targetCallback = callback;
+            if (targetCallback != null) {
                 try {
                     targetCallback.updatedProgress(this);
                 } catch (@Nonnull final Exception e) {
                     // nothing
-                } finally {
-                    activeCallback = false;
                 }
             }
-        }
+        } while (pendingCallbacks.addAndGet(-reported) > 0);
     }
 
     /**
@@ -190,14 +186,15 @@ public final class ProgressMonitor implements ProgressMonitorCallback {
      * @return the progress as a value between {@code 0.f} and {@code 1.f}
      */
     public float getProgress() {
-        if (children == null) {
+        if (children.isEmpty()) {
             return progress;
         }
         float totalProgress = 0.f;
         float totalWeight = 0.f;
         for (@Nonnull final ProgressMonitor childMonitor : children) {
-            totalProgress += childMonitor.getProgress() * childMonitor.weight;
-            totalWeight += childMonitor.weight;
+            final float childWeight = childMonitor.weight;
+            totalProgress += childMonitor.getProgress() * childWeight;
+            totalWeight += childWeight;
         }
 
         return totalProgress / totalWeight;
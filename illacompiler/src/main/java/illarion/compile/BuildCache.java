@@ -0,0 +1,336 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package illarion.compile;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The build cache of a target directory. It stores the hash of every source file that was compiled successfully into
+ * the directory along with the hash of the output the compiler wrote, so sources that did not change since the last
+ * run are skipped as long as their output is still in place and untouched. The hash of the source covers the version
+ * of the compiler and the type of the compiler as well, so a new version of the compiler builds all files again.
+ * <p/>
+ * The cache is stored as text file in the target directory. Every line holds the hash of the source, the hash of the
+ * output, the path of the output and the path of the source, separated by tabs. Both paths are relative to the
+ * target directory.
+ *
+ * @author Martin Karing &lt;nitram@illarion.org&gt;
+ */
+final class BuildCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BuildCache.class);
+
+    /**
+     * The name of the file that stores the cache inside the target directory.
+     */
+    @Nonnull
+    static final String FILE_NAME = ".illacompiler-cache";
+
+    @Nonnull
+    private static final Charset CHARSET = Charset.forName("UTF-8");
+
+    @Nonnull
+    private static final Pattern SEPARATOR = Pattern.compile("\t");
+
+    /**
+     * The target directory this cache belongs to.
+     */
+    @Nonnull
+    private final Path directory;
+
+    /**
+     * The version of the compiler that is part of every hash.
+     */
+    @Nonnull
+    private final String compilerVersion;
+
+    /**
+     * The entries of the sources. The key is the path of the source relative to the target directory.
+     */
+    @Nonnull
+    private final ConcurrentMap<String, Entry> entries;
+
+    /**
+     * This flag is set once the cache changed and needs to be stored again.
+     */
+    private volatile boolean changed;
+
+    private BuildCache(@Nonnull Path directory, @Nonnull String compilerVersion) {
+        this.directory = directory.toAbsolutePath().normalize();
+        this.compilerVersion = compilerVersion;
+        entries = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * A single source that was compiled successfully.
+     */
+    private static final class Entry {
+        @Nonnull
+        private final String sourceHash;
+        @Nonnull
+        private final String output;
+        @Nonnull
+        private final String outputHash;
+
+        Entry(@Nonnull String sourceHash, @Nonnull String output, @Nonnull String outputHash) {
+            this.sourceHash = sourceHash;
+            this.output = output;
+            this.outputHash = outputHash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Entry)) {
+                return false;
+            }
+            Entry other = (Entry) obj;
+            return sourceHash.equals(other.sourceHash) && output.equals(other.output) &&
+                    outputHash.equals(other.outputHash);
+        }
+
+        @Override
+        public int hashCode() {
+            return (((sourceHash.hashCode() * 31) + output.hashCode()) * 31) + outputHash.hashCode();
+        }
+    }
+
+    /**
+     * Load the build cache of a target directory. An empty cache is returned in case the directory has no cache yet
+     * or the cache can't be read.
+     *
+     * @param directory the target directory
+     * @param compilerVersion the version of the compiler
+     * @return the build cache
+     */
+    @Nonnull
+    static BuildCache load(@Nonnull Path directory, @Nonnull String compilerVersion) {
+        BuildCache cache = new BuildCache(directory, compilerVersion);
+        Path cacheFile = cache.directory.resolve(FILE_NAME);
+        if (Files.isReadable(cacheFile)) {
+            try (BufferedReader reader = Files.newBufferedReader(cacheFile, CHARSET)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] parts = SEPARATOR.split(line);
+                    if (parts.length == 4) {
+                        cache.entries.put(parts[3], new Entry(parts[0], parts[2], parts[1]));
+                    }
+                }
+            } catch (IOException e) {
+                LOGGER.warn("Failed to read the build cache {}: {}", cacheFile, e.getLocalizedMessage());
+                cache.entries.clear();
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Calculate the hash of a source file.
+     *
+     * @param type the compiler that is used to compile the source
+     * @param source the source file
+     * @return the hash of the source
+     * @throws IOException in case reading the source fails
+     */
+    @Nonnull
+    String hash(@Nonnull CompilerType type, @Nonnull Path source) throws IOException {
+        MessageDigest digest = createDigest();
+        digest.update(compilerVersion.getBytes(CHARSET));
+        digest.update((byte) 0);
+        digest.update(type.name().getBytes(CHARSET));
+        digest.update((byte) 0);
+        digest.update(Files.readAllBytes(source));
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Calculate the hash of the output of a compiler. The output is either a single file or a directory, in which
+     * case the names and the contents of all files inside the directory are part of the hash.
+     *
+     * @param output the output file or directory
+     * @return the hash of the output
+     * @throws IOException in case reading the output fails
+     */
+    @Nonnull
+    private static String hashOutput(@Nonnull Path output) throws IOException {
+        MessageDigest digest = createDigest();
+        updateOutputDigest(digest, output, output);
+        return toHex(digest.digest());
+    }
+
+    private static void updateOutputDigest(@Nonnull MessageDigest digest, @Nonnull Path root, @Nonnull Path path)
+            throws IOException {
+        if (Files.isDirectory(path)) {
+            List<Path> children = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(path)) {
+                for (Path child : stream) {
+                    children.add(child);
+                }
+            }
+            Collections.sort(children);
+            for (Path child : children) {
+                updateOutputDigest(digest, root, child);
+            }
+        } else {
+            digest.update(root.relativize(path).toString().replace('\\', '/').getBytes(CHARSET));
+            digest.update((byte) 0);
+            digest.update(Files.readAllBytes(path));
+            digest.update((byte) 0);
+        }
+    }
+
+    @Nonnull
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Nonnull
+    private static String toHex(@Nonnull byte[] hash) {
+        StringBuilder builder = new StringBuilder();
+        for (byte value : hash) {
+            builder.append(Character.forDigit((value >> 4) & 0xF, 16));
+            builder.append(Character.forDigit(value & 0xF, 16));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Check if a source was compiled successfully into the target directory with the same hash before and the output
+     * of that compilation is still unchanged.
+     *
+     * @param source the source file
+     * @param hash the current hash of the source
+     * @return {@code true} in case the source does not need to be compiled again
+     */
+    boolean isUpToDate(@Nonnull Path source, @Nonnull String hash) {
+        Entry entry = entries.get(getKey(source));
+        if ((entry == null) || !hash.equals(entry.sourceHash)) {
+            return false;
+        }
+        Path output = directory.resolve(entry.output);
+        if (!Files.exists(output)) {
+            return false;
+        }
+        try {
+            return entry.outputHash.equals(hashOutput(output));
+        } catch (IOException e) {
+            LOGGER.debug("Failed to read the output {}: {}", output, e.getLocalizedMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Store the hash of a source that was compiled successfully along with the hash of the output written by the
+     * compiler.
+     *
+     * @param source the source file
+     * @param hash the hash of the source
+     * @param output the file or directory written by the compiler
+     * @throws IOException in case reading the output fails
+     */
+    void update(@Nonnull Path source, @Nonnull String hash, @Nonnull Path output) throws IOException {
+        Entry entry = new Entry(hash, getKey(output), hashOutput(output));
+        Entry oldEntry = entries.put(getKey(source), entry);
+        if (!entry.equals(oldEntry)) {
+            changed = true;
+        }
+    }
+
+    /**
+     * Remove a source from the cache. This has to be done in case compiling the source failed, because the output of
+     * the last successful compilation may be gone.
+     *
+     * @param source the source file
+     */
+    void remove(@Nonnull Path source) {
+        if (entries.remove(getKey(source)) != null) {
+            changed = true;
+        }
+    }
+
+    /**
+     * Write the cache to the target directory in case it changed. Changes that happen while the cache is written are
+     * kept for the next call.
+     *
+     * @throws IOException in case writing the cache fails
+     */
+    void save() throws IOException {
+        if (!changed || !Files.isDirectory(directory)) {
+            return;
+        }
+        changed = false;
+        SortedMap<String, Entry> sortedEntries = new TreeMap<>(entries);
+        try (Writer writer = Files.newBufferedWriter(directory.resolve(FILE_NAME), CHARSET)) {
+            for (Map.Entry<String, Entry> entry : sortedEntries.entrySet()) {
+                Entry value = entry.getValue();
+                writer.write(value.sourceHash);
+                writer.write('\t');
+                writer.write(value.outputHash);
+                writer.write('\t');
+                writer.write(value.output);
+                writer.write('\t');
+                writer.write(entry.getKey());
+                writer.write('\n');
+            }
+        } catch (IOException e) {
+            changed = true;
+            throw e;
+        }
+    }
+
+    @Nonnull
+    private String getKey(@Nonnull Path path) {
+        return directory.relativize(path.toAbsolutePath().normalize()).toString().replace('\\', '/');
+    }
+
+    /**
+     * Get the version of the compiler. The cache can only be used in case the version is known.
+     *
+     * @return the version of the compiler or {@code null} in case it is not known
+     */
+    @Nullable
+    static String getCompilerVersion() {
+        Package compilerPackage = BuildCache.class.getPackage();
+        return (compilerPackage == null) ? null : compilerPackage.getImplementationVersion();
+    }
+}
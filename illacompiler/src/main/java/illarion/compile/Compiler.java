@@ -16,19 +16,26 @@
 package illarion.compile;
 
 import illarion.compile.impl.Compile;
+import illarion.easynpc.Parser;
+import illarion.easyquest.quest.HandlerTemplates;
+import illarion.easyquest.quest.TriggerTemplates;
 import org.apache.commons.cli.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.bridge.SLF4JBridgeHandler;
 
 import javax.annotation.Nonnull;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.PrintStream;
+import javax.annotation.Nullable;
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.Charset;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
-import java.util.EnumMap;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * This the the main class for the compiler. It determines the kind of compiler required for the set file and performs
@@ -38,8 +45,43 @@ import java.util.Map;
  */
 public class Compiler {
     private static final Logger LOGGER = LoggerFactory.getLogger(Compiler.class);
+
+    /**
+     * The character set used to communicate with the clients of the daemon.
+     */
+    @Nonnull
+    private static final Charset DAEMON_CHARSET = Charset.forName("UTF-8");
     private static Map<CompilerType, Path> storagePaths;
 
+    /**
+     * The build caches of the target directories. This map stays empty in case the build cache is not used.
+     */
+    @Nonnull
+    private static final Map<Path, BuildCache> BUILD_CACHES = new HashMap<>();
+
+    /**
+     * The version of the compiler used by the build caches or {@code null} in case the build cache is not used.
+     */
+    @Nullable
+    private static String cacheVersion;
+
+    /**
+     * The request a client of the daemon sends to stop the daemon.
+     */
+    @Nonnull
+    private static final String DAEMON_SHUTDOWN = "SHUTDOWN";
+
+    /**
+     * The time in seconds the daemon waits after the last compiled file before the build caches are saved.
+     */
+    private static final int DAEMON_CACHE_SAVE_DELAY = 5;
+
+    /**
+     * The pending task of the daemon that saves the build caches.
+     */
+    @Nullable
+    private static ScheduledFuture<?> pendingCacheSave;
+
     public static void main(final String[] args) {
         ByteArrayOutputStream stdOutBuffer = new ByteArrayOutputStream();
         PrintStream orgStdOut = System.out;
@@ -72,12 +114,30 @@ public class Compiler {
         type.setRequired(false);
         options.addOption(type);
 
+        final Option force = new Option("f", "force", false,
+                                        "Compile all files, even the files that did not change since the last run.");
+        force.setRequired(false);
+        options.addOption(force);
+
+        final Option daemon = new Option("d", "daemon", true,
+                                         "Keep the compiler running and compile the files requested by clients " +
+                                                 "connecting to this local port.");
+        daemon.setArgs(1);
+        daemon.setArgName("port");
+        daemon.setRequired(false);
+        options.addOption(daemon);
+
         CommandLineParser parser = new GnuParser();
         try {
             CommandLine cmd = parser.parse(options, args);
 
             String[] files = cmd.getArgs();
-            if (files.length > 0) {
+            if (cmd.hasOption('d')) {
+                System.setOut(orgStdOut);
+                stdOutBuffer.writeTo(orgStdOut);
+
+                processDaemonMode(cmd);
+            } else if (files.length > 0) {
                 System.setOut(orgStdOut);
                 stdOutBuffer.writeTo(orgStdOut);
 
@@ -97,16 +157,11 @@ public class Compiler {
     }
 
     private static void processFileMode(@Nonnull final CommandLine cmd) throws IOException {
-        storagePaths = new EnumMap<>(CompilerType.class);
-        String npcPath = cmd.getOptionValue('n');
-        if (npcPath != null) {
-            storagePaths.put(CompilerType.easyNPC, Paths.get(npcPath));
-        }
-        String questPath = cmd.getOptionValue('q');
-        if (questPath != null) {
-            storagePaths.put(CompilerType.easyQuest, Paths.get(questPath));
-        }
+        setupStoragePaths(cmd);
+        setupBuildCache(cmd);
 
+        final ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        final List<Future<Integer>> results = new ArrayList<>();
         for (String file : cmd.getArgs()) {
             Path path = Paths.get(file);
             if (Files.isDirectory(path)) {
@@ -115,15 +170,233 @@ public class Compiler {
                     public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
                         FileVisitResult result = super.visitFile(file, attrs);
                         if (result == FileVisitResult.CONTINUE) {
-                            processPath(file);
+                            results.add(submitPath(executor, file));
                             return FileVisitResult.CONTINUE;
                         }
                         return result;
                     }
                 });
             } else {
-                processPath(path);
+                results.add(submitPath(executor, path));
+            }
+        }
+        executor.shutdown();
+
+        int failedResult = 0;
+        for (Future<Integer> result : results) {
+            int compileResult;
+            try {
+                compileResult = result.get();
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+                throw new IOException("Compiling the files was interrupted.", e);
+            } catch (ExecutionException e) {
+                LOGGER.error("Compiling a file failed.", e.getCause());
+                compileResult = -1;
+            }
+            if ((compileResult != 0) && (compileResult != 1) && (failedResult == 0)) {
+                failedResult = compileResult;
+            }
+        }
+
+        saveBuildCaches();
+
+        if (failedResult != 0) {
+            System.exit(failedResult);
+        }
+    }
+
+    @Nonnull
+    private static Future<Integer> submitPath(@Nonnull ExecutorService executor, @Nonnull final Path path) {
+        return executor.submit(new Callable<Integer>() {
+            @Nonnull
+            @Override
+            public Integer call() throws Exception {
+                return processPath(path, null);
+            }
+        });
+    }
+
+    private static void setupStoragePaths(@Nonnull CommandLine cmd) {
+        storagePaths = new EnumMap<>(CompilerType.class);
+        String npcPath = cmd.getOptionValue('n');
+        if (npcPath != null) {
+            storagePaths.put(CompilerType.easyNPC, Paths.get(npcPath));
+        }
+        String questPath = cmd.getOptionValue('q');
+        if (questPath != null) {
+            storagePaths.put(CompilerType.easyQuest, Paths.get(questPath));
+        }
+    }
+
+    private static void setupBuildCache(@Nonnull CommandLine cmd) {
+        if (!cmd.hasOption('f')) {
+            cacheVersion = BuildCache.getCompilerVersion();
+            if (cacheVersion == null) {
+                LOGGER.info("The version of the compiler is unknown. Compiling all files.");
+            }
+        }
+    }
+
+    private static void saveBuildCaches() throws IOException {
+        synchronized (BUILD_CACHES) {
+            for (BuildCache cache : BUILD_CACHES.values()) {
+                cache.save();
+            }
+        }
+    }
+
+    /**
+     * Run the compiler as daemon. The daemon loads the parsers and the tables once and compiles files on request
+     * until the process is stopped. Clients connect to the port on the loopback address and send the path of one file
+     * per line, a empty line closes the connection. For every file the daemon answers with one line
+     * {@code ERROR <message>} for every error, followed by a line with the result: {@code OK}, {@code SKIPPED} in case
+     * no compiler is able to handle the file or {@code FAILED <code>}. Relative paths are resolved against the working
+     * directory of the daemon. The request {@code SHUTDOWN} is answered with {@code OK} and stops the daemon.
+     * <p/>
+     * The build caches are saved once no file was compiled for a few seconds and once the daemon stops, either by
+     * request or because the process is terminated.
+     *
+     * @param cmd the command line
+     * @throws IOException in case the daemon can't listen to the port
+     * @throws ParseException in case the port is not valid
+     */
+    private static void processDaemonMode(@Nonnull final CommandLine cmd) throws IOException, ParseException {
+        int port;
+        try {
+            port = Integer.parseInt(cmd.getOptionValue('d'));
+        } catch (NumberFormatException e) {
+            throw new ParseException("Invalid port: " + cmd.getOptionValue('d'));
+        }
+        setupStoragePaths(cmd);
+        setupBuildCache(cmd);
+
+        /* Load the item tables, the skills and the quest templates before the first request arrives. */
+        Parser.getInstance();
+        TriggerTemplates.getInstance();
+        HandlerTemplates.getInstance();
+
+        Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+            @Override
+            public void run() {
+                saveBuildCachesLogged();
+            }
+        }, "Compiler daemon shutdown"));
+
+        ExecutorService executor = Executors.newCachedThreadPool();
+        final ScheduledThreadPoolExecutor cacheSaver = new ScheduledThreadPoolExecutor(1);
+        cacheSaver.setRemoveOnCancelPolicy(true);
+        try (final ServerSocket server = new ServerSocket(port, 0, InetAddress.getLoopbackAddress())) {
+            LOGGER.info("Compiler daemon is waiting for requests on port {}", server.getLocalPort());
+            while (!Thread.currentThread().isInterrupted()) {
+                final Socket client;
+                try {
+                    client = server.accept();
+                } catch (SocketException e) {
+                    if (server.isClosed()) {
+                        LOGGER.info("Compiler daemon stopped.");
+                        break;
+                    }
+                    throw e;
+                }
+                executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        serveClient(client, server, cacheSaver);
+                    }
+                });
             }
+        } finally {
+            executor.shutdownNow();
+            cacheSaver.shutdownNow();
+            saveBuildCachesLogged();
+        }
+    }
+
+    /**
+     * Schedule saving the build caches. A save that is already scheduled is delayed, so the caches are written once
+     * the daemon did not compile any file for {@link #DAEMON_CACHE_SAVE_DELAY} seconds.
+     *
+     * @param cacheSaver the executor that saves the caches
+     */
+    private static synchronized void scheduleCacheSave(@Nonnull ScheduledExecutorService cacheSaver) {
+        if (pendingCacheSave != null) {
+            pendingCacheSave.cancel(false);
+        }
+        try {
+            pendingCacheSave = cacheSaver.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    saveBuildCachesLogged();
+                }
+            }, DAEMON_CACHE_SAVE_DELAY, TimeUnit.SECONDS);
+        } catch (RejectedExecutionException e) {
+            /* The daemon is stopping and saves the caches itself. */
+            pendingCacheSave = null;
+        }
+    }
+
+    private static void saveBuildCachesLogged() {
+        try {
+            saveBuildCaches();
+        } catch (IOException e) {
+            LOGGER.error("Failed to save the build cache: {}", e.getLocalizedMessage());
+        }
+    }
+
+    /**
+     * Compile the files requested by one client of the daemon.
+     *
+     * @param client the connection to the client
+     * @param server the socket of the daemon that is closed once the client requests the daemon to stop
+     * @param cacheSaver the executor that saves the build caches
+     */
+    private static void serveClient(
+            @Nonnull Socket client, @Nonnull ServerSocket server, @Nonnull ScheduledExecutorService cacheSaver) {
+        try (Socket socket = client;
+             BufferedReader reader = new BufferedReader(
+                     new InputStreamReader(socket.getInputStream(), DAEMON_CHARSET));
+             Writer writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), DAEMON_CHARSET))) {
+            String request;
+            while (((request = reader.readLine()) != null) && !request.isEmpty()) {
+                if (DAEMON_SHUTDOWN.equals(request)) {
+                    writer.write("OK\n");
+                    writer.flush();
+                    server.close();
+                    return;
+                }
+                List<String> errors = new ArrayList<>();
+                int compileResult;
+                try {
+                    compileResult = processPath(Paths.get(request), errors);
+                    scheduleCacheSave(cacheSaver);
+                } catch (InvalidPathException e) {
+                    errors.add(e.getLocalizedMessage());
+                    compileResult = -1;
+                }
+
+                for (String error : errors) {
+                    for (String errorLine : error.split("\\r?\\n")) {
+                        writer.write("ERROR ");
+                        writer.write(errorLine);
+                        writer.write('\n');
+                    }
+                }
+                switch (compileResult) {
+                    case 0:
+                        writer.write("OK\n");
+                        break;
+                    case 1:
+                        writer.write("SKIPPED\n");
+                        break;
+                    default:
+                        writer.write("FAILED " + compileResult + '\n');
+                }
+                writer.flush();
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Connection to a client of the daemon failed: {}", e.getLocalizedMessage());
         }
     }
 
@@ -150,53 +423,118 @@ public class Compiler {
         System.exit(compile.compileStream(System.in, System.out));
     }
 
-    private static void processPath(@Nonnull final Path path) throws IOException {
+    /**
+     * Compile a single file. This function is called by multiple threads at the same time.
+     *
+     * @param path the file to compile
+     * @param errors the list that receives the error messages or {@code null} in case the errors are only logged
+     * @return {@code 0} in case the file was compiled or did not change, {@code 1} in case the file was skipped and
+     * any other value in case compiling the file failed
+     */
+    private static int processPath(@Nonnull final Path path, @Nullable List<String> errors) {
         if (Files.isDirectory(path)) {
-            return;
+            return 1;
         }
 
         int compileResult = 1;
         for (CompilerType type : CompilerType.values()) {
             if (type.isValidFile(path)) {
                 Compile compile = type.getImplementation();
-                if (path.isAbsolute()) {
-                    if (storagePaths.containsKey(type)) {
-                        compile.setTargetDir(storagePaths.get(type));
-                    } else {
-                        compile.setTargetDir(path.getParent());
+                Path targetDir = getTargetDir(type, path);
+                compile.setTargetDir(targetDir);
+                compile.setErrorOutput(errors);
+
+                BuildCache cache = getBuildCache(targetDir);
+                String hash = null;
+                if (cache != null) {
+                    try {
+                        hash = cache.hash(type, path);
+                    } catch (IOException e) {
+                        LOGGER.error(e.getLocalizedMessage());
+                        if (errors != null) {
+                            errors.add(e.getLocalizedMessage());
+                        }
+                        return -1;
                     }
-                } else {
-                    if (storagePaths.containsKey(type)) {
-                        Path parent = path.getParent();
-                        if (parent == null) {
-                            compile.setTargetDir(storagePaths.get(type));
-                        } else {
-                            compile.setTargetDir(storagePaths.get(type).resolve(parent));
+                    if (cache.isUpToDate(path, hash)) {
+                        LOGGER.debug("Unchanged file: {}", path.getFileName());
+                        return 0;
+                    }
+                }
+
+                compileResult = compile.compileFile(path.toAbsolutePath());
+                if (cache != null) {
+                    Path output = compile.getOutput();
+                    if ((compileResult == 0) && (output != null)) {
+                        try {
+                            cache.update(path, hash, output);
+                        } catch (IOException e) {
+                            LOGGER.warn("Failed to read the output of {}: {}", path.getFileName(),
+                                        e.getLocalizedMessage());
+                            cache.remove(path);
                         }
                     } else {
-                        Path parent = path.getParent();
-                        if (parent == null) {
-                            compile.setTargetDir(path.toAbsolutePath().getParent());
-                        } else {
-                            compile.setTargetDir(parent);
-                        }
+                        cache.remove(path);
                     }
                 }
-                compileResult = compile.compileFile(path.toAbsolutePath());
                 if (compileResult == 0) {
                     break;
                 }
             }
         }
 
-        switch (compileResult) {
-            case 1:
-                LOGGER.info("Skipped file: {}", path.getFileName());
-                break;
-            case 0:
-                return;
-            default:
-                System.exit(compileResult);
+        if (compileResult == 1) {
+            LOGGER.info("Skipped file: {}", path.getFileName());
+        }
+        return compileResult;
+    }
+
+    @Nonnull
+    private static Path getTargetDir(@Nonnull CompilerType type, @Nonnull Path path) {
+        if (path.isAbsolute()) {
+            if (storagePaths.containsKey(type)) {
+                return storagePaths.get(type);
+            } else {
+                return path.getParent();
+            }
+        } else {
+            if (storagePaths.containsKey(type)) {
+                Path parent = path.getParent();
+                if (parent == null) {
+                    return storagePaths.get(type);
+                } else {
+                    return storagePaths.get(type).resolve(parent);
+                }
+            } else {
+                Path parent = path.getParent();
+                if (parent == null) {
+                    return path.toAbsolutePath().getParent();
+                } else {
+                    return parent;
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the build cache of a target directory.
+     *
+     * @param targetDir the target directory
+     * @return the build cache or {@code null} in case the build cache is not used
+     */
+    @Nullable
+    private static BuildCache getBuildCache(@Nonnull Path targetDir) {
+        if (cacheVersion == null) {
+            return null;
+        }
+        Path key = targetDir.toAbsolutePath().normalize();
+        synchronized (BUILD_CACHES) {
+            BuildCache cache = BUILD_CACHES.get(key);
+            if (cache == null) {
+                cache = BuildCache.load(key, cacheVersion);
+                BUILD_CACHES.put(key, cache);
+            }
+            return cache;
         }
     }
 }
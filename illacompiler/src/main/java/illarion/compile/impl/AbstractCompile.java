@@ -15,22 +15,65 @@
  */
 package illarion.compile.impl;
 
+import org.slf4j.Logger;
+import org.slf4j.helpers.MessageFormatter;
+
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 
 /**
  * @author Martin Karing &lt;nitram@illarion.org&gt;
  */
 public abstract class AbstractCompile implements Compile {
     private Path targetDir;
+    @Nullable
+    private List<String> errorOutput;
+    @Nullable
+    private Path output;
 
     @Override
     public void setTargetDir(@Nonnull Path directory) {
         targetDir = directory;
     }
 
+    @Override
+    public void setErrorOutput(@Nullable List<String> errors) {
+        errorOutput = errors;
+    }
+
+    /**
+     * Log a error and add it to the error output in case there is one.
+     *
+     * @param logger the logger of the compiler
+     * @param format the format of the message as used by the logger
+     * @param arguments the arguments of the message
+     */
+    protected void logError(@Nonnull Logger logger, @Nonnull String format, @Nonnull Object... arguments) {
+        logger.error(format, arguments);
+        if (errorOutput != null) {
+            errorOutput.add(MessageFormatter.arrayFormat(format, arguments).getMessage());
+        }
+    }
+
+    @Nullable
+    @Override
+    public Path getOutput() {
+        return output;
+    }
+
+    /**
+     * Set the file or directory that was written by the compiler.
+     *
+     * @param output the output of the compiler
+     */
+    protected void setOutput(@Nonnull Path output) {
+        this.output = output;
+    }
+
     protected Path getTargetDir() {
         return targetDir;
     }
@@ -16,9 +16,11 @@
 package illarion.compile.impl;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Path;
+import java.util.List;
 
 /**
  * @author Martin Karing &lt;nitram@illarion.org&gt;
@@ -26,7 +28,22 @@ import java.nio.file.Path;
 public interface Compile {
     void setTargetDir(@Nonnull Path directory);
 
+    /**
+     * Set the list that receives the error messages of the compiler in addition to the log.
+     *
+     * @param errors the list of error messages or {@code null} in case the errors are only logged
+     */
+    void setErrorOutput(@Nullable List<String> errors);
+
     int compileFile(@Nonnull Path file);
 
+    /**
+     * Get the file or directory the last successful call of {@link #compileFile(Path)} wrote.
+     *
+     * @return the output of the compiler or {@code null} in case no file was compiled successfully
+     */
+    @Nullable
+    Path getOutput();
+
     int compileStream(@Nonnull InputStream in, @Nonnull OutputStream out);
 }
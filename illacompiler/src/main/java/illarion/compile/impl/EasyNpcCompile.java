@@ -43,11 +43,11 @@ public class EasyNpcCompile extends AbstractCompile {
             ensureTargetDir();
             ParsedNpc npc = Parser.getInstance().parse(file);
             if (npc.hasErrors()) {
-                LOGGER.error("Parsing the NPC {} failed with {} errors", file.getFileName().toString(),
+                logError(LOGGER, "Parsing the NPC {} failed with {} errors", file.getFileName().toString(),
                              npc.getErrorCount());
                 for (int i = 0; i < npc.getErrorCount(); i++) {
                     ParsedNpc.Error error = npc.getError(i);
-                    LOGGER.error("\t Line {}: {}", error.getLine(), error.getMessage());
+                    logError(LOGGER, "\t Line {}: {}", error.getLine(), error.getMessage());
                 }
                 return -1;
             }
@@ -58,13 +58,15 @@ public class EasyNpcCompile extends AbstractCompile {
             final ScriptWriter writer = new ScriptWriter();
             writer.setSource(npc);
             writer.setGenerated(true);
-            try (Writer write = Files.newBufferedWriter(targetDir.resolve(npc.getLuaFilename()), DEFAULT_CHARSET)) {
+            Path output = targetDir.resolve(npc.getLuaFilename());
+            try (Writer write = Files.newBufferedWriter(output, DEFAULT_CHARSET)) {
                 writer.setWritingTarget(write);
                 writer.write();
                 write.flush();
             }
+            setOutput(output);
         } catch (IOException e) {
-            LOGGER.error(e.getLocalizedMessage());
+            logError(LOGGER, "{}", e.getLocalizedMessage());
             return -1;
         }
         return 0;
@@ -78,10 +80,10 @@ public class EasyNpcCompile extends AbstractCompile {
             ensureTargetDir();
             ParsedNpc npc = Parser.getInstance().parse(new InputStreamReader(in, DEFAULT_CHARSET));
             if (npc.hasErrors()) {
-                LOGGER.error("Parsing the NPC failed with {] errors", npc.getErrorCount());
+                logError(LOGGER, "Parsing the NPC failed with {} errors", npc.getErrorCount());
                 for (int i = 0; i < npc.getErrorCount(); i++) {
                     ParsedNpc.Error error = npc.getError(i);
-                    LOGGER.error("\t Line {}: {}", error.getLine(), error.getMessage());
+                    logError(LOGGER, "\t Line {}: {}", error.getLine(), error.getMessage());
                 }
                 return -1;
             }
@@ -93,7 +95,7 @@ public class EasyNpcCompile extends AbstractCompile {
             writer.write();
             write.flush();
         } catch (IOException e) {
-            LOGGER.error(e.getLocalizedMessage());
+            logError(LOGGER, "{}", e.getLocalizedMessage());
             return -1;
         }
         return 0;
@@ -40,9 +40,11 @@ public class EasyQuestCompile extends AbstractCompile {
             mxIGraphModel model = QuestIO.loadGraphModel(file);
             String fileName = file.getFileName().toString();
             String questName = fileName.replace(".quest", "");
-            QuestIO.exportQuest(model, getTargetDir().resolve(questName));
+            Path output = getTargetDir().resolve(questName);
+            QuestIO.exportQuest(model, output);
+            setOutput(output);
         } catch (IOException e) {
-            LOGGER.error(e.getLocalizedMessage());
+            logError(LOGGER, "{}", e.getLocalizedMessage());
             return -1;
         }
         return 0;
@@ -53,7 +55,7 @@ public class EasyQuestCompile extends AbstractCompile {
         try {
             QuestIO.loadGraphModel(new InputStreamReader(in, QuestIO.CHARSET));
         } catch (IOException e) {
-            LOGGER.error(e.getLocalizedMessage());
+            logError(LOGGER, "{}", e.getLocalizedMessage());
             return -1;
         }
         return 0;
@@ -24,6 +24,7 @@ import illarion.download.gui.model.GuiModel;
 import illarion.download.gui.view.ChannelSelectView;
 import illarion.download.gui.view.MainView;
 import illarion.download.gui.view.SceneUpdater;
+import illarion.download.maven.MavenDownloader;
 import javafx.application.Application;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
@@ -96,6 +97,7 @@ public class GuiApplication extends Application implements Storyboard {
             cfg.setDefault("channelEasyNpc", 1);
             cfg.setDefault("channelEasyQuest", 1);
             cfg.setDefault("channelMapEditor", 1);
+            cfg.setDefault("parallelDownloads", MavenDownloader.DEFAULT_PARALLEL_DOWNLOADS);
 
             model.setConfig(cfg);
         }
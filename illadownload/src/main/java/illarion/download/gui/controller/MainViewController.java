@@ -395,6 +395,7 @@ public class MainViewController extends AbstractController implements MavenDownl
 
         this.launchClass = launchClass;
         this.useSnapshots = cfg.getInteger(configKey) == 1;
+        final int parallelDownloads = cfg.getInteger("parallelDownloads");
         new Thread(new Runnable() {
             @Override
             public void run() {
@@ -402,7 +403,7 @@ public class MainViewController extends AbstractController implements MavenDownl
                 while (attempt < 10) {
                     attempt++;
                     try {
-                        MavenDownloader downloader = new MavenDownloader(useSnapshots, attempt);
+                        MavenDownloader downloader = new MavenDownloader(useSnapshots, attempt, parallelDownloads);
                         downloader.downloadArtifact(groupId, artifactId, MainViewController.this);
                     } catch (@Nonnull Exception e) {
                         if (getInnerExceptionOfTime(SocketTimeoutException.class, e) != null) {
@@ -534,7 +535,17 @@ public class MainViewController extends AbstractController implements MavenDownl
 
     @Override
     public void updatedProgress(@Nonnull ProgressMonitor monitor) {
-        progress.setProgress(monitor.getProgress());
+        final double value = monitor.getProgress();
+        if (Platform.isFxApplicationThread()) {
+            progress.setProgress(value);
+        } else {
+            Platform.runLater(new Runnable() {
+                @Override
+                public void run() {
+                    progress.setProgress(value);
+                }
+            });
+        }
     }
 
     private void cancelLaunch() {
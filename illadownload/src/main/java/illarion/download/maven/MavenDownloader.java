@@ -44,6 +44,7 @@ import org.eclipse.aether.resolution.VersionRangeResolutionException;
 import org.eclipse.aether.resolution.VersionRangeResult;
 import org.eclipse.aether.spi.connector.RepositoryConnectorFactory;
 import org.eclipse.aether.spi.connector.transport.TransporterFactory;
+import org.eclipse.aether.transport.file.FileTransporterFactory;
 import org.eclipse.aether.transport.http.HttpTransporterFactory;
 import org.eclipse.aether.util.filter.DependencyFilterUtils;
 import org.eclipse.aether.util.graph.selector.AndDependencySelector;
@@ -119,6 +120,32 @@ public class MavenDownloader {
 
     private final MavenRepositoryListener repositoryListener;
 
+    /**
+     * The amount of artifacts that are downloaded at the same time.
+     */
+    private final int parallelDownloads;
+
+    /**
+     * The amount of artifacts that are downloaded at the same time in case nothing else is requested.
+     */
+    public static final int DEFAULT_PARALLEL_DOWNLOADS = 4;
+
+    /**
+     * The configuration key of the connector that enables resuming partially downloaded files.
+     */
+    private static final String CONFIG_PROP_RESUME = "aether.connector.resumeDownloads";
+
+    /**
+     * The configuration key of the connector that sets the minimal size of a partially downloaded file that is
+     * resumed.
+     */
+    private static final String CONFIG_PROP_RESUME_THRESHOLD = "aether.connector.resumeThreshold";
+
+    /**
+     * The minimal size of a partially downloaded file in bytes that is resumed instead of downloaded again.
+     */
+    private static final int RESUME_THRESHOLD = 16 * 1024;
+
     /**
      * Create a new instance of the downloader along with the information if its supposed to download snapshot
      * versions of the main application.
@@ -127,9 +154,76 @@ public class MavenDownloader {
      * @param attemps the indicator how many times downloading was already tried and failed.
      */
     public MavenDownloader(boolean snapshot, int attemps) {
+        this(snapshot, attemps, DEFAULT_PARALLEL_DOWNLOADS);
+    }
+
+    /**
+     * Create a new instance of the downloader along with the information if its supposed to download snapshot
+     * versions of the main application and how many artifacts are downloaded at the same time.
+     *
+     * @param snapshot {@code true} in case the downloader is supposed to use snapshot versions of the main application
+     * @param attemps the indicator how many times downloading was already tried and failed.
+     * @param parallelDownloads the amount of artifacts that are downloaded at the same time
+     */
+    public MavenDownloader(boolean snapshot, int attemps, int parallelDownloads) {
+        this(snapshot, getRequestTimeOut(attemps), parallelDownloads, null,
+             DirectoryManager.getInstance().getDirectory(DirectoryManager.Directory.Data));
+    }
+
+    /**
+     * Create a new instance of the downloader that works with a specified set of repositories.
+     *
+     * @param snapshot {@code true} in case the downloader is supposed to use snapshot versions of the main application
+     * @param requestTimeOut the timeout of the requests in milliseconds or {@code -1} to work in offline mode
+     * @param parallelDownloads the amount of artifacts that are downloaded at the same time
+     * @param remoteRepositories the remote repositories or {@code null} to use the default repositories
+     * @param localRepository the directory of the local repository
+     */
+    MavenDownloader(
+            boolean snapshot,
+            int requestTimeOut,
+            int parallelDownloads,
+            @Nullable Collection<RemoteRepository> remoteRepositories,
+            @Nonnull Path localRepository) {
         this.snapshot = snapshot;
+        this.parallelDownloads = Math.max(1, parallelDownloads);
+        offline = requestTimeOut < 0;
+
+        serviceLocator = new DefaultServiceLocator();
+        setupServiceLocator();
+
+        system = serviceLocator.getService(RepositorySystem.class);
+        session = new DefaultRepositorySystemSession();
 
-        boolean offlineFlag = false;
+        repositoryListener = new MavenRepositoryListener();
+
+        session.setTransferListener(new MavenTransferListener());
+        session.setRepositoryListener(repositoryListener);
+        session.setChecksumPolicy(CHECKSUM_POLICY_FAIL);
+        session.setConfigProperty(ConfigurationProperties.USER_AGENT, APPLICATION.getApplicationIdentifier());
+        session.setConfigProperty(CONFIG_PROP_RESUME, true);
+        session.setConfigProperty(CONFIG_PROP_RESUME_THRESHOLD, RESUME_THRESHOLD);
+
+        if (!offline) {
+            session.setConfigProperty(ConfigurationProperties.REQUEST_TIMEOUT, requestTimeOut);
+            if (requestTimeOut > 30000) {
+                LOGGER.warn("Used request timeout level is very high: {}ms", requestTimeOut);
+            } else {
+                LOGGER.info("Used request timeout: {}ms", requestTimeOut);
+            }
+        }
+
+        repositories = new ArrayList<>();
+        setupRepositories(remoteRepositories, localRepository);
+    }
+
+    /**
+     * Get the timeout of the requests based on the time the repository server needs to respond.
+     *
+     * @param attemps the indicator how many times downloading was already tried and failed.
+     * @return the timeout in milliseconds or {@code -1} in case there is no connection to the server
+     */
+    private static int getRequestTimeOut(int attemps) {
         int requestTimeOut = 180000; // 3 Minutes
         try {
             InetAddress inet = InetAddress.getByName("illarion.org");
@@ -145,31 +239,9 @@ public class MavenDownloader {
             }
         } catch (IOException e) {
             LOGGER.warn("No internet connection. Activating offline mode.");
-            offlineFlag = true;
+            return -1;
         }
-        offline = offlineFlag;
-
-        serviceLocator = new DefaultServiceLocator();
-        setupServiceLocator();
-
-        system = serviceLocator.getService(RepositorySystem.class);
-        session = new DefaultRepositorySystemSession();
-
-        repositoryListener = new MavenRepositoryListener();
-
-        session.setTransferListener(new MavenTransferListener());
-        session.setRepositoryListener(repositoryListener);
-        session.setConfigProperty(ConfigurationProperties.USER_AGENT, APPLICATION.getApplicationIdentifier());
-        session.setConfigProperty(ConfigurationProperties.REQUEST_TIMEOUT, requestTimeOut);
-
-        if (requestTimeOut > 30000) {
-            LOGGER.warn("Used request timeout level is very high: {}ms", requestTimeOut);
-        } else {
-            LOGGER.info("Used request timeout: {}ms", requestTimeOut);
-        }
-
-        repositories = new ArrayList<>();
-        setupRepositories();
+        return requestTimeOut;
     }
 
     /**
@@ -301,7 +373,8 @@ public class MavenDownloader {
                 callback.reportNewState(ResolvingArtifacts, progressMonitor, offline, null);
             }
 
-            ExecutorService executorService = Executors.newSingleThreadExecutor();
+            ExecutorService executorService = Executors
+                    .newFixedThreadPool(Math.max(1, Math.min(parallelDownloads, requests.size())));
             List<Future<ArtifactResult>> results = executorService.invokeAll(requests);
             executorService.shutdown();
             while (!executorService.awaitTermination(1, TimeUnit.MINUTES)) {
@@ -341,8 +414,11 @@ public class MavenDownloader {
         return String.format("%.1f %sB", bytes / StrictMath.pow(unit, exp), pre);
     }
 
-    private void setupRepositories() {
-        if (!offline) {
+    private void setupRepositories(
+            @Nullable Collection<RemoteRepository> remoteRepositories, @Nonnull Path localDir) {
+        if (remoteRepositories != null) {
+            repositories.addAll(remoteRepositories);
+        } else if (!offline) {
             repositories.add(setupRepository("central", "http://repo1.maven.org/maven2/", false,
                                              setupRepository("ibiblio.org", "http://mirrors.ibiblio.org/maven2/",
                                                              false), setupRepository("antelink",
@@ -357,7 +433,6 @@ public class MavenDownloader {
                                              false));
         }
 
-        Path localDir = DirectoryManager.getInstance().getDirectory(DirectoryManager.Directory.Data);
         LocalRepository localRepo = new LocalRepository(localDir.toFile());
         session.setLocalRepositoryManager(system.newLocalRepositoryManager(session, localRepo));
     }
@@ -391,6 +466,7 @@ public class MavenDownloader {
 
         serviceLocator.addService(RepositoryConnectorFactory.class, BasicRepositoryConnectorFactory.class);
         serviceLocator.addService(TransporterFactory.class, HttpTransporterFactory.class);
+        serviceLocator.addService(TransporterFactory.class, FileTransporterFactory.class);
 
         serviceLocator.setServices(ModelBuilder.class, new DefaultModelBuilderFactory().newInstance());
     }
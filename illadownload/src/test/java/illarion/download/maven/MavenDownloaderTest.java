@@ -0,0 +1,232 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package illarion.download.maven;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.repository.RepositoryPolicy;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+
+import static org.testng.Assert.*;
+
+/**
+ * Tests for the maven downloader that use a repository in the local file system in place of the remote repositories.
+ *
+ * @author Martin Karing &lt;nitram@illarion.org&gt;
+ */
+public class MavenDownloaderTest {
+    private static final String GROUP_ID = "org.illarion.test";
+    private static final String APPLICATION = "application";
+    private static final String[] LIBRARIES = {"library-a", "library-b", "library-c"};
+    private static final int JAR_SIZE = 100000;
+    private static final int PART_SIZE = 50000;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private Path remoteRepository;
+    private Path localRepository;
+    private Map<String, byte[]> jars;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        remoteRepository = Files.createTempDirectory("remote");
+        localRepository = Files.createTempDirectory("local");
+        jars = new HashMap<>();
+
+        Random random = new Random(42);
+        StringBuilder dependencies = new StringBuilder();
+        for (String library : LIBRARIES) {
+            deployArtifact(library, "", random);
+            dependencies.append("<dependency><groupId>").append(GROUP_ID).append("</groupId><artifactId>")
+                    .append(library).append("</artifactId><version>1.0</version></dependency>");
+        }
+        deployArtifact(APPLICATION, "<dependencies>" + dependencies + "</dependencies>", random);
+
+        String metadata = "<metadata><groupId>" + GROUP_ID + "</groupId><artifactId>" + APPLICATION +
+                "</artifactId><versioning><latest>1.0</latest><release>1.0</release><versions>" +
+                "<version>1.0</version></versions></versioning></metadata>";
+        deployFile(getArtifactDirectory(remoteRepository, APPLICATION).getParent().resolve("maven-metadata.xml"),
+                   metadata.getBytes(UTF_8));
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        delete(remoteRepository);
+        delete(localRepository);
+    }
+
+    @Test
+    public void testDownloadArtifact() throws Exception {
+        Collection<File> files = createDownloader().downloadArtifact(GROUP_ID, APPLICATION, null);
+
+        assertNotNull(files);
+        assertEquals(files.size(), LIBRARIES.length + 1);
+        assertDownloaded(files);
+    }
+
+    @Test
+    public void testChecksumMismatch() throws Exception {
+        Path checksum = getArtifactDirectory(remoteRepository, LIBRARIES[1]).resolve(LIBRARIES[1] + "-1.0.jar.sha1");
+        Files.write(checksum, "0000000000000000000000000000000000000000".getBytes(UTF_8));
+
+        try {
+            createDownloader().downloadArtifact(GROUP_ID, APPLICATION, null);
+            fail("Artifact with a wrong checksum was accepted.");
+        } catch (ExecutionException e) {
+            assertFalse(Files.exists(getArtifactDirectory(localRepository, LIBRARIES[1])
+                                             .resolve(LIBRARIES[1] + "-1.0.jar")));
+        }
+    }
+
+    @Test
+    public void testResumePartialDownload() throws Exception {
+        String library = LIBRARIES[0];
+        Path directory = getArtifactDirectory(localRepository, library);
+        Files.createDirectories(directory);
+        Files.write(directory.resolve(library + "-1.0.jar.part"), Arrays.copyOf(jars.get(library), PART_SIZE));
+
+        final List<String> ranges = Collections.synchronizedList(new ArrayList<String>());
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(@Nonnull HttpExchange exchange) throws IOException {
+                Path file = remoteRepository.resolve(exchange.getRequestURI().getPath().substring(1));
+                if (!Files.isRegularFile(file)) {
+                    exchange.sendResponseHeaders(404, -1);
+                    exchange.close();
+                    return;
+                }
+                byte[] content = Files.readAllBytes(file);
+                int offset = 0;
+                String range = exchange.getRequestHeaders().getFirst("Range");
+                if ((range != null) && range.startsWith("bytes=") && range.endsWith("-")) {
+                    ranges.add(file.getFileName() + " " + range);
+                    offset = Integer.parseInt(range.substring(6, range.length() - 1));
+                    exchange.getResponseHeaders().add("Content-Range", "bytes " + offset + '-' +
+                            (content.length - 1) + '/' + content.length);
+                    exchange.sendResponseHeaders(206, content.length - offset);
+                } else {
+                    exchange.sendResponseHeaders(200, content.length);
+                }
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(content, offset, content.length - offset);
+                }
+            }
+        });
+        server.start();
+        try {
+            String url = "http://127.0.0.1:" + server.getAddress().getPort() + '/';
+            Collection<File> files = createDownloader(url).downloadArtifact(GROUP_ID, APPLICATION, null);
+
+            assertNotNull(files);
+            assertDownloaded(files);
+            assertEquals(ranges, Collections.singletonList(library + "-1.0.jar bytes=" + PART_SIZE + '-'));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Nonnull
+    private MavenDownloader createDownloader() {
+        return createDownloader(remoteRepository.toUri().toString());
+    }
+
+    @Nonnull
+    private MavenDownloader createDownloader(@Nonnull String url) {
+        RemoteRepository repository = new RemoteRepository.Builder("test", "default", url)
+                .setPolicy(new RepositoryPolicy(true, RepositoryPolicy.UPDATE_POLICY_ALWAYS,
+                                                RepositoryPolicy.CHECKSUM_POLICY_FAIL)).build();
+        return new MavenDownloader(false, 10000, LIBRARIES.length, Collections.singletonList(repository),
+                                   localRepository);
+    }
+
+    private void assertDownloaded(@Nonnull Collection<File> files) throws IOException {
+        Set<String> names = new HashSet<>();
+        for (File file : files) {
+            names.add(file.getName());
+            String artifactId = file.getName().replace("-1.0.jar", "");
+            assertEquals(Files.readAllBytes(file.toPath()), jars.get(artifactId), file.getName());
+        }
+        for (String artifactId : jars.keySet()) {
+            assertTrue(names.contains(artifactId + "-1.0.jar"), artifactId);
+        }
+    }
+
+    private void deployArtifact(@Nonnull String artifactId, @Nonnull String content, @Nonnull Random random)
+            throws IOException, NoSuchAlgorithmException {
+        Path directory = getArtifactDirectory(remoteRepository, artifactId);
+        String pom = "<project><modelVersion>4.0.0</modelVersion><groupId>" + GROUP_ID + "</groupId><artifactId>" +
+                artifactId + "</artifactId><version>1.0</version>" + content + "</project>";
+        byte[] jar = new byte[JAR_SIZE];
+        random.nextBytes(jar);
+        jars.put(artifactId, jar);
+
+        deployFile(directory.resolve(artifactId + "-1.0.pom"), pom.getBytes(UTF_8));
+        deployFile(directory.resolve(artifactId + "-1.0.jar"), jar);
+    }
+
+    private static void deployFile(@Nonnull Path file, @Nonnull byte[] content)
+            throws IOException, NoSuchAlgorithmException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, content);
+
+        byte[] digest = MessageDigest.getInstance("SHA-1").digest(content);
+        String checksum = String.format("%040x", new BigInteger(1, digest));
+        Files.write(file.resolveSibling(file.getFileName() + ".sha1"), checksum.getBytes(UTF_8));
+    }
+
+    @Nonnull
+    private static Path getArtifactDirectory(@Nonnull Path repository, @Nonnull String artifactId) {
+        return repository.resolve(GROUP_ID.replace('.', '/')).resolve(artifactId).resolve("1.0");
+    }
+
+    private static void delete(@Nonnull Path directory) throws IOException {
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
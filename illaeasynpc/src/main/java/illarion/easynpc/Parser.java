@@ -23,9 +23,12 @@ import illarion.easynpc.grammar.EasyNpcLexer;
 import illarion.easynpc.grammar.EasyNpcParser;
 import illarion.easynpc.gui.Config;
 import illarion.easynpc.parser.ParsedNpcVisitor;
-import org.antlr.v4.runtime.ANTLRInputStream;
-import org.antlr.v4.runtime.CharStream;
-import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.*;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.antlr.v4.runtime.tree.ErrorNode;
+import org.antlr.v4.runtime.tree.ParseTreeListener;
+import org.antlr.v4.runtime.tree.TerminalNode;
 import org.fife.ui.rsyntaxtextarea.Token;
 import org.fife.ui.rsyntaxtextarea.TokenMap;
 
@@ -36,11 +39,10 @@ import java.io.Reader;
 import java.io.Writer;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
 import java.util.EnumSet;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.List;
+import java.util.concurrent.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -112,54 +114,241 @@ public final class Parser implements DocuEntry {
             }
             Path sourceFile = Paths.get(arg);
             if (!Files.isDirectory(sourceFile) && Files.isReadable(sourceFile)) {
-                parseScript(sourceFile);
+                if (!report(parseScript(sourceFile))) {
+                    System.exit(-1);
+                }
             } else if (Files.isDirectory(sourceFile)) {
-                final ExecutorService executor = Executors.newCachedThreadPool();
-                Files.walkFileTree(sourceFile, EnumSet.noneOf(FileVisitOption.class), 1, new SimpleFileVisitor<Path>() {
-                    @Nonnull
-                    @Override
-                    public FileVisitResult visitFile(@Nonnull final Path file, BasicFileAttributes attrs)
-                            throws IOException {
-                        if (file.toUri().toString().endsWith(".npc")) {
-                            parseScript(file);
-                            executor.submit(new Callable<Void>() {
-                                @Nullable
-                                @Override
-                                public Void call() throws Exception {
-
-                                    return null;
-                                }
-                            });
-                        }
-                        return FileVisitResult.CONTINUE;
-                    }
-                });
-                executor.shutdown();
-                try {
-                    executor.awaitTermination(20, TimeUnit.MINUTES);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
+                if (!parseDirectory(sourceFile)) {
+                    System.exit(-1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Parse all scripts in a directory. The scripts are parsed and written concurrently, one thread per core. A
+     * script that fails does not stop the other scripts, the failures are reported once all scripts are done.
+     *
+     * @param directory the directory that contains the scripts
+     * @return {@code true} in case all scripts were parsed without errors
+     * @throws IOException in case the directory can't be read
+     */
+    private static boolean parseDirectory(@Nonnull Path directory) throws IOException {
+        final List<Path> scripts = new ArrayList<>();
+        Files.walkFileTree(directory, EnumSet.noneOf(FileVisitOption.class), 1, new SimpleFileVisitor<Path>() {
+            @Nonnull
+            @Override
+            public FileVisitResult visitFile(@Nonnull Path file, BasicFileAttributes attrs) {
+                if (file.toUri().toString().endsWith(".npc")) {
+                    scripts.add(file);
                 }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        long startTime = System.currentTimeMillis();
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        List<Future<ParseResult>> results = new ArrayList<>(scripts.size());
+        for (final Path script : scripts) {
+            results.add(executor.submit(new Callable<ParseResult>() {
+                @Nonnull
+                @Override
+                public ParseResult call() {
+                    return parseScript(script);
+                }
+            }));
+        }
+        executor.shutdown();
+
+        List<Path> failedScripts = new ArrayList<>();
+        for (int i = 0; i < scripts.size(); i++) {
+            ParseResult result;
+            try {
+                result = results.get(i).get();
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+                throw new IOException("Parsing the scripts was interrupted.", e);
+            } catch (ExecutionException e) {
+                result = new ParseResult(false, "File \"" + scripts.get(i).getFileName() + "\" failed: " +
+                        e.getCause());
+            }
+            if (!report(result)) {
+                failedScripts.add(scripts.get(i));
+            }
+        }
+
+        if (!quiet || !failedScripts.isEmpty()) {
+            StringBuilder summary = new StringBuilder();
+            summary.append("Parsed ").append(scripts.size()).append(" scripts in ")
+                    .append(System.currentTimeMillis() - startTime).append(" ms - Failed: ")
+                    .append(failedScripts.size());
+            for (Path failedScript : failedScripts) {
+                summary.append("\n\t").append(failedScript.getFileName());
+            }
+            if (failedScripts.isEmpty()) {
+                System.out.println(summary);
+            } else {
+                System.err.println(summary);
+            }
+        }
+        return failedScripts.isEmpty();
+    }
+
+    /**
+     * Print the result of parsing a script.
+     *
+     * @param result the result
+     * @return {@code true} in case the script was parsed without errors
+     */
+    private static boolean report(@Nonnull ParseResult result) {
+        String message = result.getMessage();
+        if (message != null) {
+            if (result.isSuccess()) {
+                System.out.println(message);
+            } else {
+                System.err.println(message);
+            }
+        }
+        return result.isSuccess();
+    }
+
+    /**
+     * The result of parsing a single script.
+     */
+    private static final class ParseResult {
+        private final boolean success;
+        @Nullable
+        private final String message;
+
+        ParseResult(boolean success, @Nullable String message) {
+            this.success = success;
+            this.message = message;
+        }
+
+        boolean isSuccess() {
+            return success;
+        }
+
+        /**
+         * The message that needs to be printed for this script or {@code null} in case nothing is printed.
+         */
+        @Nullable
+        String getMessage() {
+            return message;
+        }
+    }
+
+    /**
+     * The lexer and the parser used to read the scripts. Creating them is not free and they can't be shared between
+     * threads, so every thread reuses its own instances. The prediction cache of the grammar is shared by all parser
+     * instances, so every script parsed warms it up for the following scripts.
+     */
+    private static final ThreadLocal<ScriptParser> SCRIPT_PARSERS = new ThreadLocal<ScriptParser>() {
+        @Nonnull
+        @Override
+        protected ScriptParser initialValue() {
+            return new ScriptParser();
+        }
+    };
+
+    /**
+     * This listener stops parsing a script once the thread that parses it is interrupted, so a check of a script that
+     * is outdated does not keep running in the background.
+     */
+    private static final class InterruptionListener implements ParseTreeListener {
+        @Override
+        public void visitTerminal(@Nonnull TerminalNode node) {
+        }
+
+        @Override
+        public void visitErrorNode(@Nonnull ErrorNode node) {
+        }
+
+        @Override
+        public void enterEveryRule(@Nonnull ParserRuleContext ctx) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("Parsing the script was interrupted.");
+            }
+        }
+
+        @Override
+        public void exitEveryRule(@Nonnull ParserRuleContext ctx) {
+        }
+    }
+
+    /**
+     * The lexer and the parser of a single thread.
+     */
+    private static final class ScriptParser {
+        @Nonnull
+        private final EasyNpcLexer lexer;
+        @Nonnull
+        private final EasyNpcParser parser;
+
+        ScriptParser() {
+            lexer = new EasyNpcLexer(null);
+            parser = new EasyNpcParser(null);
+            parser.addParseListener(new InterruptionListener());
+        }
+
+        /**
+         * Parse a script. The script is first parsed with the fast SLL prediction that stops at the first syntax
+         * error. Only if this fails the script is parsed again with the full LL prediction and the default error
+         * recovery, so scripts with errors are reported the same way as before.
+         *
+         * @param stream the script
+         * @param visitor the visitor that receives the errors of the lexer
+         * @return the parsed script
+         * @throws CancellationException in case the thread is interrupted while the script is parsed
+         */
+        @Nonnull
+        EasyNpcParser.ScriptContext parse(@Nonnull CharStream stream, @Nonnull ANTLRErrorListener visitor) {
+            lexer.setInputStream(stream);
+            lexer.removeErrorListeners();
+            lexer.addErrorListener(visitor);
+            // The token stream keeps the end of the last script even if its source is replaced, so every script
+            // needs a new one.
+            CommonTokenStream tokens = new CommonTokenStream(lexer);
+            parser.setTokenStream(tokens);
+
+            parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+            parser.setErrorHandler(new BailErrorStrategy());
+            parser.removeErrorListeners();
+            try {
+                return parser.script();
+            } catch (ParseCancellationException ignored) {
+                tokens.reset();
+                parser.reset();
+                parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+                parser.setErrorHandler(new DefaultErrorStrategy());
+                parser.addErrorListener(ConsoleErrorListener.INSTANCE);
+                return parser.script();
+            } finally {
+                lexer.removeErrorListeners();
             }
         }
     }
 
     @Nonnull
     private static ParsedNpc parseScript(@Nonnull CharStream stream) {
-        EasyNpcLexer lexer = new EasyNpcLexer(stream);
-        EasyNpcParser parser = new EasyNpcParser(new CommonTokenStream(lexer));
-
         ParsedNpcVisitor visitor = new ParsedNpcVisitor();
-        lexer.removeErrorListeners();
-        lexer.addErrorListener(visitor);
-        EasyNpcParser.ScriptContext context = parser.script();
+        EasyNpcParser.ScriptContext context = SCRIPT_PARSERS.get().parse(stream, visitor);
 
         context.accept(visitor);
 
         return visitor.getParsedNpc();
     }
 
-    private static void parseScript(@Nonnull Path file) throws IOException {
+    /**
+     * Parse a script and write the LUA script created from it. This function is safe to be called by multiple
+     * threads at the same time.
+     *
+     * @param file the script file
+     * @return the result of parsing the script
+     */
+    @Nonnull
+    private static ParseResult parseScript(@Nonnull Path file) {
         try (Reader stream = Files.newBufferedReader(file, EasyNpcScript.DEFAULT_CHARSET)) {
             ParsedNpc parsedNPC = parseScript(new ANTLRInputStream(stream));
 
@@ -174,15 +363,8 @@ public final class Parser implements DocuEntry {
                     output.append("\tLine ").append(Integer.toString(error.getLine())).append(": ")
                             .append(error.getMessage()).append('\n');
                 }
-                if (!quiet) {
-                    output.setLength(output.length() - 1);
-                    System.err.println(output);
-                }
-                System.exit(-1);
-            }
-            if (verbose) {
-                output.append("done");
-                System.out.println(output);
+                output.setLength(output.length() - 1);
+                return new ParseResult(false, quiet ? null : output.toString());
             }
 
             ScriptWriter writer = new ScriptWriter();
@@ -193,6 +375,13 @@ public final class Parser implements DocuEntry {
                 writer.write();
                 outputWriter.flush();
             }
+            if (verbose) {
+                output.append("done");
+                return new ParseResult(true, output.toString());
+            }
+            return new ParseResult(true, null);
+        } catch (IOException e) {
+            return new ParseResult(false, "File \"" + file.getFileName() + "\" failed: " + e.getMessage());
         }
     }
 
@@ -234,6 +423,7 @@ public final class Parser implements DocuEntry {
      *
      * @param source the string containing the text of the script
      * @return the parsed version of the NPC
+     * @throws CancellationException in case the thread is interrupted while the script is parsed
      */
     @Nonnull
     public static ParsedNpc parse(@Nonnull String source) {
@@ -80,6 +80,21 @@ public final class Editor extends RTextScrollPane {
     @Nullable
     private ParsedNpc parsedVersion;
 
+    /**
+     * The script text that was parsed last time and the result of parsing it. The result is reused as long as the
+     * text of the editor does not change, no matter if the script contained errors or not.
+     */
+    @Nullable
+    private String lastParsedText;
+    @Nullable
+    private ParsedNpc lastParsedNpc;
+
+    /**
+     * The check of the script that is currently parsing the script in the background.
+     */
+    @Nullable
+    private SwingWorker<ParsedNpc, Void> runningCheck;
+
     private boolean savedSinceLastChange;
 
     @Nonnull
@@ -172,8 +187,11 @@ public final class Editor extends RTextScrollPane {
      */
     public void cleanup() {
         frame.getErrorArea().removeErrorEditor(this);
+        cancelRunningCheck();
         parsedVersion = null;
         errorNpc = null;
+        lastParsedText = null;
+        lastParsedNpc = null;
         editor.discardAllEdits();
     }
 
@@ -248,19 +266,54 @@ public final class Editor extends RTextScrollPane {
             return currentData;
         }
 
-        ParsedNpc newData = Parser.parse(getScriptText());
+        String scriptText = getScriptText();
+        ParsedNpc newData;
+        if (scriptText.equals(lastParsedText) && (lastParsedNpc != null)) {
+            newData = lastParsedNpc;
+        } else {
+            newData = Parser.parse(scriptText);
+        }
+        cancelRunningCheck();
+        return applyParsedData(scriptText, newData);
+    }
 
-        if (newData.hasErrors()) {
-            errorNpc = newData;
+    /**
+     * Publish the result of parsing the script. The parsed data, the error NPC and the error area are updated at
+     * once, so they always belong to the same version of the script. This function has to be called from the event
+     * dispatch thread.
+     *
+     * @param scriptText the text of the script that was parsed
+     * @param parsedNpc the result of parsing the text
+     * @return the parsed NPC or {@code null} in case the script contains errors
+     */
+    @Nullable
+    private ParsedNpc applyParsedData(@Nonnull String scriptText, @Nonnull ParsedNpc parsedNpc) {
+        lastParsedText = scriptText;
+        lastParsedNpc = parsedNpc;
+
+        if (parsedNpc.hasErrors()) {
+            errorNpc = parsedNpc;
             parsedVersion = null;
             frame.getErrorArea().addErrorEditor(this);
             return null;
         }
 
-        parsedVersion = newData;
+        parsedVersion = parsedNpc;
         errorNpc = null;
         frame.getErrorArea().removeErrorEditor(this);
-        return newData;
+        return parsedNpc;
+    }
+
+    /**
+     * Stop the check of the script that is running in the background. The thread of the check is interrupted, which
+     * stops the parser, and the result is discarded.
+     */
+    private void cancelRunningCheck() {
+        SwingWorker<ParsedNpc, Void> check = runningCheck;
+        if (check != null) {
+            runningCheck = null;
+            check.cancel(true);
+        }
     }
 
     /**
@@ -366,6 +419,7 @@ public final class Editor extends RTextScrollPane {
      */
     void clearParsedData() {
         parsedVersion = null;
+        cancelRunningCheck();
     }
 
     /**
@@ -459,33 +513,36 @@ public final class Editor extends RTextScrollPane {
             return;
         }
 
-        if (parsedVersion == null) {
-            final String scriptText = getScriptText();
-            Runnable worker = new SwingWorker<ParsedNpc, Void>() {
-                @Nonnull
-                @Override
-                protected ParsedNpc doInBackground() throws Exception {
-                    return Parser.parse(scriptText);
-                }
+        if (parsedVersion != null) {
+            return;
+        }
 
-                @Override
-                protected void done() {
-                    try {
-                        ParsedNpc currentData = get();
-                        if (currentData.hasErrors()) {
-                            errorNpc = currentData;
-                            parsedVersion = null;
-                            frame.getErrorArea().addErrorEditor(Editor.this);
-                        } else {
-                            parsedVersion = currentData;
-                            errorNpc = null;
-                            frame.getErrorArea().removeErrorEditor(Editor.this);
-                        }
-                    } catch (@Nonnull InterruptedException | ExecutionException ignored) {
-                    }
-                }
-            };
-            worker.run();
+        final String scriptText = getScriptText();
+        if (scriptText.equals(lastParsedText) && (lastParsedNpc != null)) {
+            applyParsedData(scriptText, lastParsedNpc);
+            return;
         }
+
+        cancelRunningCheck();
+        runningCheck = new SwingWorker<ParsedNpc, Void>() {
+            @Nonnull
+            @Override
+            protected ParsedNpc doInBackground() throws Exception {
+                return Parser.parse(scriptText);
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled() || (runningCheck != this)) {
+                    return;
+                }
+                runningCheck = null;
+                try {
+                    applyParsedData(scriptText, get());
+                } catch (@Nonnull InterruptedException | ExecutionException ignored) {
+                }
+            }
+        };
+        runningCheck.execute();
     }
 }
@@ -15,68 +15,206 @@
  */
 package illarion.easynpc.gui.syntax;
 
-import org.antlr.v4.runtime.ANTLRInputStream;
+import gnu.trove.map.hash.TIntObjectHashMap;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CommonToken;
 import org.antlr.v4.runtime.Lexer;
-import org.antlr.v4.runtime.TokenStream;
-import org.antlr.v4.runtime.UnbufferedTokenStream;
+import org.antlr.v4.runtime.TokenFactory;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.misc.Pair;
 import org.fife.ui.rsyntaxtextarea.AbstractTokenMaker;
 import org.fife.ui.rsyntaxtextarea.Token;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.swing.text.Segment;
 import java.beans.ConstructorProperties;
-import java.io.CharArrayReader;
-import java.io.IOException;
-import java.io.Reader;
+import java.util.Arrays;
 
 /**
  * This token maker is dedicated to handle the lexer tokens generated by ANTLRv4.
+ * <p/>
+ * The lexer reads the characters directly from the segment of the line and all tokens are written into the same
+ * token object, so lexing a line does not create any objects. The tokens of the lines are cached, so repainting a
+ * line that did not change does not run the lexer at all.
  *
  * @author Martin Karing &lt;nitram@illarion.org&gt;
  */
 public abstract class AbstractAntlrTokenMaker<T extends Lexer> extends AbstractTokenMaker {
+    /**
+     * The maximal amount of lines stored in the cache. Once the cache grows larger, it is cleared.
+     */
+    private static final int MAX_CACHED_LINES = 4096;
+
     /**
      * The lexer that provides the data.
      */
     @Nonnull
     private final T lexer;
 
+    /**
+     * The stream that supplies the characters of the current line to the lexer.
+     */
+    @Nonnull
+    private final SegmentCharStream input;
+
+    /**
+     * The cached tokens of the lines. The key is the hash of the text of the line.
+     */
+    @Nonnull
+    private final TIntObjectHashMap<CachedLine> cachedLines;
+
+    /**
+     * The tokens of the line that is currently lexed. Every token uses three values: start index in the line, end
+     * index in the line and the type of the token.
+     */
+    @Nonnull
+    private int[] lineTokens;
+
     @ConstructorProperties("lexer")
     protected AbstractAntlrTokenMaker(@Nonnull T lexer) {
         this.lexer = lexer;
+        input = new SegmentCharStream();
+        cachedLines = new TIntObjectHashMap<>();
+        lineTokens = new int[48];
+        lexer.setTokenFactory(new ReusedTokenFactory());
+        lexer.setInputStream(input);
     }
 
     @Override
     public Token getTokenList(@Nonnull Segment text, int initialTokenType, int startOffset) {
-        try (Reader textReader = new CharArrayReader(text.array, text.offset, text.count)) {
-            lexer.setInputStream(new ANTLRInputStream(textReader));
-            TokenStream tokenStream = new UnbufferedTokenStream(lexer);
+        resetTokenList();
 
-            resetTokenList();
+        int hash = hashLine(text);
+        CachedLine cachedLine = cachedLines.get(hash);
+        if ((cachedLine == null) || !cachedLine.matches(text)) {
+            cachedLine = lexLine(text);
+            if (cachedLines.size() >= MAX_CACHED_LINES) {
+                cachedLines.clear();
+            }
+            cachedLines.put(hash, cachedLine);
+        }
 
-            while (true) {
-                org.antlr.v4.runtime.Token currentToken = tokenStream.LT(1);
+        int[] tokens = cachedLine.tokens;
+        for (int i = 0; i < tokens.length; i += 3) {
+            int tokenStart = tokens[i];
+            addToken(text.array, text.offset + tokenStart, text.offset + tokens[i + 1], tokens[i + 2],
+                     startOffset + tokenStart);
+        }
 
-                if (currentToken.getType() == org.antlr.v4.runtime.Token.EOF) {
-                    break;
-                }
-                tokenStream.consume();
+        // add a null token to indicate end of line; note that the test grammar has no multiline token types
+        addNullToken();
+        return firstToken;
+    }
 
-                // convert the ANTLR token to a RSyntaxTextArea token and add it to the linked list
-                int tokenStart = currentToken.getCharPositionInLine() + text.offset;
-                int tokenEnd = (tokenStart + currentToken.getText().length()) - 1;
-                int tokenOffset = startOffset + currentToken.getCharPositionInLine();
+    /**
+     * Run the lexer on a line.
+     *
+     * @param text the line
+     * @return the tokens of the line
+     */
+    @Nonnull
+    private CachedLine lexLine(@Nonnull Segment text) {
+        input.reset(text.array, text.offset, text.count);
+        lexer.reset();
 
-                addToken(text.array, tokenStart, tokenEnd, convertTokenType(currentToken.getType()), tokenOffset);
-            } // end while
+        int tokenValues = 0;
+        while (true) {
+            org.antlr.v4.runtime.Token currentToken = lexer.nextToken();
+            if (currentToken.getType() == org.antlr.v4.runtime.Token.EOF) {
+                break;
+            }
+            if (currentToken.getStopIndex() < currentToken.getStartIndex()) {
+                continue;
+            }
 
-            // add a null token to indicate end of line; note that the test grammar has no multiline token types
-            addNullToken();
-        } catch (IOException e) {
-            e.printStackTrace();
+            // convert the ANTLR token to a RSyntaxTextArea token type
+            if ((tokenValues + 3) > lineTokens.length) {
+                lineTokens = Arrays.copyOf(lineTokens, lineTokens.length * 2);
+            }
+            lineTokens[tokenValues] = currentToken.getStartIndex();
+            lineTokens[tokenValues + 1] = currentToken.getStopIndex();
+            lineTokens[tokenValues + 2] = convertTokenType(currentToken.getType());
+            tokenValues += 3;
         }
-        return firstToken;
+
+        return new CachedLine(Arrays.copyOfRange(text.array, text.offset, text.offset + text.count),
+                              Arrays.copyOf(lineTokens, tokenValues));
+    }
+
+    private static int hashLine(@Nonnull Segment text) {
+        int hash = 1;
+        int end = text.offset + text.count;
+        for (int i = text.offset; i < end; i++) {
+            hash = (31 * hash) + text.array[i];
+        }
+        return hash;
     }
 
     protected abstract int convertTokenType(int antlrType);
+
+    /**
+     * The text of a line along with the tokens found in it.
+     */
+    private static final class CachedLine {
+        @Nonnull
+        private final char[] text;
+        @Nonnull
+        private final int[] tokens;
+
+        CachedLine(@Nonnull char[] text, @Nonnull int[] tokens) {
+            this.text = text;
+            this.tokens = tokens;
+        }
+
+        boolean matches(@Nonnull Segment line) {
+            if (line.count != text.length) {
+                return false;
+            }
+            for (int i = 0; i < text.length; i++) {
+                if (line.array[line.offset + i] != text[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * This token factory writes all tokens into the same token object. The token is only valid until the lexer
+     * creates the next token.
+     */
+    private static final class ReusedTokenFactory implements TokenFactory<CommonToken> {
+        @Nonnull
+        private final CommonToken token = new CommonToken(org.antlr.v4.runtime.Token.INVALID_TYPE);
+
+        @Nonnull
+        @Override
+        public CommonToken create(
+                @Nonnull Pair<TokenSource, CharStream> source,
+                int type,
+                @Nullable String text,
+                int channel,
+                int start,
+                int stop,
+                int line,
+                int charPositionInLine) {
+            token.setType(type);
+            token.setText(text);
+            token.setChannel(channel);
+            token.setStartIndex(start);
+            token.setStopIndex(stop);
+            token.setLine(line);
+            token.setCharPositionInLine(charPositionInLine);
+            return token;
+        }
+
+        @Nonnull
+        @Override
+        public CommonToken create(int type, @Nullable String text) {
+            token.setType(type);
+            token.setText(text);
+            return token;
+        }
+    }
 }
@@ -0,0 +1,128 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package illarion.easynpc.gui.syntax;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.misc.Interval;
+
+import javax.annotation.Nonnull;
+
+/**
+ * This character stream reads the characters directly from a part of a character array, like the array of a
+ * {@link javax.swing.text.Segment}. The stream can be pointed to a new part of a array, so a single instance serves
+ * all lines that are lexed.
+ *
+ * @author Martin Karing &lt;nitram@illarion.org&gt;
+ */
+final class SegmentCharStream implements CharStream {
+    @Nonnull
+    private char[] data;
+
+    /**
+     * The index of the first character of the stream inside the array.
+     */
+    private int offset;
+
+    /**
+     * The amount of characters in the stream.
+     */
+    private int count;
+
+    /**
+     * The index of the next character to read, relative to the offset.
+     */
+    private int position;
+
+    SegmentCharStream() {
+        data = new char[0];
+    }
+
+    /**
+     * Point this stream to a new part of a array and move to the first character.
+     *
+     * @param data the array that contains the characters
+     * @param offset the index of the first character
+     * @param count the amount of characters
+     */
+    void reset(@Nonnull char[] data, int offset, int count) {
+        this.data = data;
+        this.offset = offset;
+        this.count = count;
+        position = 0;
+    }
+
+    @Override
+    public void consume() {
+        if (position >= count) {
+            throw new IllegalStateException("cannot consume EOF");
+        }
+        position++;
+    }
+
+    @Override
+    public int LA(int i) {
+        if (i == 0) {
+            return 0;
+        }
+        int index = (i < 0) ? (position + i) : ((position + i) - 1);
+        if ((index < 0) || (index >= count)) {
+            return IntStream.EOF;
+        }
+        return data[offset + index];
+    }
+
+    @Override
+    public int mark() {
+        return -1;
+    }
+
+    @Override
+    public void release(int marker) {
+    }
+
+    @Override
+    public int index() {
+        return position;
+    }
+
+    @Override
+    public void seek(int index) {
+        position = Math.max(0, Math.min(index, count));
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Nonnull
+    @Override
+    public String getSourceName() {
+        return IntStream.UNKNOWN_SOURCE_NAME;
+    }
+
+    @Nonnull
+    @Override
+    public String getText(@Nonnull Interval interval) {
+        int start = Math.max(0, interval.a);
+        int stop = Math.min(interval.b, count - 1);
+        if (stop < start) {
+            return "";
+        }
+        return new String(data, offset + start, (stop - start) + 1);
+    }
+}
@@ -21,6 +21,7 @@ import illarion.easynpc.Parser;
 import illarion.easynpc.data.CharacterLanguage;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.Writer;
 import java.util.Collection;
@@ -70,53 +71,53 @@ public final class LuaWriter {
      */
     public static final String NL = "\n"; //$NON-NLS-1$
 
-    /**
-     * The code used to add a new language the NPC is able to speak.
-     */
-    private static final String addLanguageCode = "mainNPC:addLanguage(%1$s);";
-
-    /**
-     * The code used to set the auto introduction mode.
-     */
-    private static final String addSetAutoIntro = "mainNPC:setAutoIntroduceMode(%1$s);";
-
     /**
      * The comment separator line used in the comments.
      */
     private static final String commentSepLine = "--------------------------------------------------------------------------------";
 
     /**
-     * The LUA code used for a require module entry.
+     * The lines needed before the initialization part of the NPC.
      */
-    private static final String requireCode = "require(\"%1$s\")";
+    private static final String INTRO_INIT_CODE = "function initNpc()" + NL + "mainNPC = npc.base.basic.baseNPC();" + NL;
 
     /**
-     * The LUA code needed to set the message displayed in case a character is
-     * talking in the wrong language.
+     * The end of the initialization part.
      */
-    private static final String setConfusedMessageCode = "mainNPC:setConfusedMessage(\"%1$s\", \"%2$s\");";
+    private static final String OUTRO_INIT_CODE = NL + "mainNPC:initDone();" + NL + "end;" + NL + NL;
 
     /**
-     * The LUA code needed to set the default language of an NPC.
+     * The actual NPC Script that does the work. It is the same for every NPC.
      */
-    private static final String setDefaultLanguageCode = "mainNPC:setDefaultLanguage(%1$s);";
+    private static final String MAIN_SCRIPT_CODE =
+            "function receiveText(npcChar, texttype, message, speaker) " +
+                    "mainNPC:receiveText(npcChar, texttype, speaker, message); end;" + NL +
+                    "function nextCycle(npcChar) mainNPC:nextCycle(npcChar); end;" + NL +
+                    "function lookAtNpc(npcChar, char, mode) mainNPC:lookAt(npcChar, char, mode); end;" + NL +
+                    "function useNPC(npcChar, char, counter, param) mainNPC:use(npcChar, char); end;" + NL;
 
     /**
-     * The LUA code needed to set the message displayed when the player performs
-     * a look at on the NPC.
+     * The very last lines of the script.
      */
-    private static final String setLookatMessageCode = "mainNPC:setLookat(\"%1$s\", \"%2$s\");";
+    private static final String LAST_LINES_CODE = "initNpc();" + NL + "initNpc = nil;" + NL + "-- END";
 
     /**
-     * The LUA code needed to set the affiliation of a NPC.
+     * The initial size of the buffer that receives the script.
      */
-    private static final String setAffiliationCode = "mainNPC:setAffiliation(%1$s);";
+    private static final int BUFFER_SIZE = 32 * 1024;
 
     /**
-     * The LUA code needed to set the message displayed in case the player uses
-     * the NPC.
+     * The buffers that receive the scripts before they are written to the target. Every thread reuses its own
+     * buffer, so writing a script allocates a new buffer only in case the script is larger than every script written
+     * by the thread before.
      */
-    private static final String setUseMessageCode = "mainNPC:setUseMessage(\"%1$s\", \"%2$s\");";
+    private static final ThreadLocal<BufferWriter> BUFFERS = new ThreadLocal<BufferWriter>() {
+        @Nonnull
+        @Override
+        protected BufferWriter initialValue() {
+            return new BufferWriter(BUFFER_SIZE);
+        }
+    };
 
     /**
      * The copyright header of the LUA writer.
@@ -134,7 +135,7 @@ public final class LuaWriter {
 
     /**
      * Main writing method. This method causes that the NPC is written to a LUA
-     * script.
+     * script. The script is assembled in a buffer and handed to the target writer at once.
      *
      * @param source the parsed NPC that acts as data source for the writer
      * @param target the writer that takes the written data
@@ -142,6 +143,21 @@ public final class LuaWriter {
      */
     public static void write(
             @Nonnull ParsedNpc source, @Nonnull Writer target, boolean generated) throws IOException {
+        BufferWriter buffer = BUFFERS.get();
+        buffer.reset();
+        writeScript(source, buffer, generated);
+        buffer.writeTo(target);
+    }
+
+    /**
+     * Write the NPC to the buffer.
+     *
+     * @param source the parsed NPC that acts as data source for the writer
+     * @param target the buffer that takes the written data
+     * @throws IOException thrown in case a writing operation failed
+     */
+    private static void writeScript(
+            @Nonnull ParsedNpc source, @Nonnull BufferWriter target, boolean generated) throws IOException {
 
         // first write the header with some basic information in the comment
         if (!generated) {
@@ -153,7 +169,7 @@ public final class LuaWriter {
         writeModuleHeader(source, target);
 
         // now the big bad initialization
-        introInitPart(target);
+        target.write(INTRO_INIT_CODE);
         writeNpcAffiliation(source, target);
 
         boolean talkingExists = checkStageExists(source, WritingStage.Talking);
@@ -190,14 +206,14 @@ public final class LuaWriter {
 
         autoIntroPart(source, target);
 
-        outroInitPart(target);
+        target.write(OUTRO_INIT_CODE);
         // init part is done
 
         // write the actual NPC script
-        writeMainScript(target);
+        target.write(MAIN_SCRIPT_CODE);
 
         // finish the script. Nothing is to be written after this line
-        writeLastLines(target);
+        target.write(LAST_LINES_CODE);
     }
 
     /**
@@ -205,11 +221,10 @@ public final class LuaWriter {
      *
      * @param source the NPC that is the data source for this function
      * @param target the writer that is the target of the function
-     * @throws IOException thrown in case the writing operation fails
      */
-    private static void autoIntroPart(@Nonnull ParsedNpc source, @Nonnull Writer target) throws IOException {
-        target.write(String.format(addSetAutoIntro, source.getAutoIntroduce() ? "true" : "false"));
-        writeNewLine(target);
+    private static void autoIntroPart(@Nonnull ParsedNpc source, @Nonnull BufferWriter target) {
+        target.append("mainNPC:setAutoIntroduceMode(").append(source.getAutoIntroduce() ? "true" : "false")
+                .append(");").append(NL);
     }
 
     /**
@@ -266,35 +281,6 @@ public final class LuaWriter {
         target.write(NL);
     }
 
-    /**
-     * Write the lines needed before the initialization part of the NPC.
-     *
-     * @param target the writer that receives the text written in this function
-     * @throws IOException the exception thrown in case the writing functions
-     * fail
-     */
-    private static void introInitPart(@Nonnull Writer target) throws IOException {
-        target.write("function initNpc()"); //$NON-NLS-1$
-        writeNewLine(target);
-        target.write("mainNPC = npc.base.basic.baseNPC();"); //$NON-NLS-1$
-        writeNewLine(target);
-    }
-
-    /**
-     * Write the end of the initialization part.
-     *
-     * @param target the writer that receives the text written in this function
-     * @throws IOException thrown in case the writing functions fail
-     */
-    private static void outroInitPart(@Nonnull Writer target) throws IOException {
-        writeNewLine(target);
-        target.write("mainNPC:initDone();");
-        writeNewLine(target);
-        target.write("end;");
-        writeNewLine(target);
-        writeNewLine(target);
-    }
-
     /**
      * Write the introduction texts for the easyNPC script.
      *
@@ -376,60 +362,15 @@ public final class LuaWriter {
         }
     }
 
-    /**
-     * Write the very last lines of the script. Nothing should follow after this
-     * lines. It triggers the initialization and clean the script up.
-     *
-     * @param target the writer that receives the text written by this function
-     * @throws IOException thrown in case the writing operations fail
-     */
-    private static void writeLastLines(@Nonnull Writer target) throws IOException {
-        target.write("initNpc();"); //$NON-NLS-1$
-        writeNewLine(target);
-        target.write("initNpc = nil;"); //$NON-NLS-1$
-        writeNewLine(target);
-        target.write("-- END"); //$NON-NLS-1$
-    }
-
-    /**
-     * Write the actual NPC Script that does the work.
-     *
-     * @param target the writer that receives the text output
-     * @throws IOException thrown in case the writing operation fails
-     */
-    private static void writeMainScript(@Nonnull Writer target) throws IOException {
-        target.write("function receiveText(npcChar, texttype, message, speaker) ");
-        target.write("mainNPC:receiveText(npcChar, texttype, speaker, message); ");
-        target.write("end;");
-        writeNewLine(target);
-        target.write("function nextCycle(npcChar) ");
-        target.write("mainNPC:nextCycle(npcChar); ");
-        target.write("end;");
-        writeNewLine(target);
-        target.write("function lookAtNpc(npcChar, char, mode) ");
-        target.write("mainNPC:lookAt(npcChar, char, mode); ");
-        target.write("end;");
-        writeNewLine(target);
-        target.write("function useNPC(npcChar, char, counter, param) ");
-        target.write("mainNPC:use(npcChar, char); ");
-        target.write("end;");
-        writeNewLine(target);
-    }
-
     /**
      * Generate and write the module definition of this script.
      *
      * @param source the parsed NPC that supplies the needed data
      * @param target the writer that receives the written text
-     * @throws IOException thrown in case there is a problem with writing the
-     * text
      */
-    private static void writeModuleHeader(@Nonnull ParsedNpc source, @Nonnull Writer target) throws IOException {
-        target.write("module(\"npc."); //$NON-NLS-1$
-        target.write(source.getModuleName());
-        target.write("\", package.seeall)"); //$NON-NLS-1$
-        writeNewLine(target);
-        writeNewLine(target);
+    private static void writeModuleHeader(@Nonnull ParsedNpc source, @Nonnull BufferWriter target) {
+        target.append("module(\"npc.").append(source.getModuleName()).append("\", package.seeall)").append(NL)
+                .append(NL);
     }
 
     /**
@@ -439,9 +380,8 @@ public final class LuaWriter {
      *
      * @param source the parsed NPC that supplies the data
      * @param target the target writer that receives the written text
-     * @throws IOException thrown in case the writing operations fail
      */
-    private static void writeModules(@Nonnull ParsedNpc source, @Nonnull Writer target) throws IOException {
+    private static void writeModules(@Nonnull ParsedNpc source, @Nonnull BufferWriter target) {
         Collection<String> modules = new TreeSet<>();
 
         int count = source.getDataCount();
@@ -457,8 +397,7 @@ public final class LuaWriter {
         modules.add("npc.base.basic");
 
         for (String module : modules) {
-            target.write(String.format(requireCode, module));
-            writeNewLine(target);
+            target.append("require(\"").append(module).append("\")").append(NL);
         }
     }
 
@@ -468,17 +407,15 @@ public final class LuaWriter {
      *
      * @param source the parsed NPC that supplies the required data
      * @param target the writer that receives the text from this function
-     * @throws IOException thrown in case the writing operations fail
      */
-    private static void writeNpcLanguages(@Nonnull ParsedNpc source, @Nonnull Writer target) throws IOException {
+    private static void writeNpcLanguages(@Nonnull ParsedNpc source, @Nonnull BufferWriter target) {
         CharacterLanguage[] languages = source.getLanguages();
         for (CharacterLanguage lang : languages) {
-            target.write(String.format(addLanguageCode, Integer.toString(lang.getLangId())));
-            writeNewLine(target);
+            target.append("mainNPC:addLanguage(").append(lang.getLangId()).append(");").append(NL);
         }
 
-        target.write(String.format(setDefaultLanguageCode, Integer.toString(source.getDefaultLanguage().getLangId())));
-        writeNewLine(target);
+        target.append("mainNPC:setDefaultLanguage(").append(source.getDefaultLanguage().getLangId()).append(");")
+                .append(NL);
     }
 
     /**
@@ -487,18 +424,16 @@ public final class LuaWriter {
      *
      * @param source the parsed NPC that is the data source
      * @param target the writer that receives the written text
-     * @throws IOException thrown in case the writing operations fail
      */
-    private static void writeNpcSpecialMessages(
-            @Nonnull ParsedNpc source, @Nonnull Writer target) throws IOException {
-        target.write(String.format(setLookatMessageCode, source.getGermanLookat(), source.getEnglishLookat()));
-        writeNewLine(target);
+    private static void writeNpcSpecialMessages(@Nonnull ParsedNpc source, @Nonnull BufferWriter target) {
+        target.append("mainNPC:setLookat(\"").append(source.getGermanLookat()).append("\", \"")
+                .append(source.getEnglishLookat()).append("\");").append(NL);
 
-        target.write(String.format(setUseMessageCode, source.getGermanUse(), source.getEnglishUse()));
-        writeNewLine(target);
+        target.append("mainNPC:setUseMessage(\"").append(source.getGermanUse()).append("\", \"")
+                .append(source.getEnglishUse()).append("\");").append(NL);
 
-        target.write(String.format(setConfusedMessageCode, source.getGermanWrongLang(), source.getEnglishWrongLang()));
-        writeNewLine(target);
+        target.append("mainNPC:setConfusedMessage(\"").append(source.getGermanWrongLang()).append("\", \"")
+                .append(source.getEnglishWrongLang()).append("\");").append(NL);
     }
 
     /**
@@ -507,12 +442,10 @@ public final class LuaWriter {
      *
      * @param source the parsed NPC that is the data source
      * @param target the writer that receives the written text
-     * @throws IOException thrown in case the writing operations fail
      */
-    private static void writeNpcAffiliation(
-            @Nonnull ParsedNpc source, @Nonnull Writer target) throws IOException {
-        target.write(String.format(setAffiliationCode, source.getAffiliation().getFactionId()));
-        writeNewLine(target);
+    private static void writeNpcAffiliation(@Nonnull ParsedNpc source, @Nonnull BufferWriter target) {
+        target.append("mainNPC:setAffiliation(").append(source.getAffiliation().getFactionId()).append(");")
+                .append(NL);
     }
 
     /**
@@ -534,4 +467,91 @@ public final class LuaWriter {
             }
         }
     }
+
+    /**
+     * This writer collects the text in a string builder. The builder keeps its capacity when the writer is reset, so
+     * the writer can be reused for the next script.
+     */
+    private static final class BufferWriter extends Writer {
+        /**
+         * Buffers that grew larger than this size are not kept after a script was written.
+         */
+        private static final int MAX_KEPT_SIZE = 1024 * 1024;
+
+        @Nonnull
+        private StringBuilder buffer;
+
+        @Nonnull
+        private char[] transfer;
+
+        BufferWriter(int size) {
+            buffer = new StringBuilder(size);
+            transfer = new char[size];
+        }
+
+        void reset() {
+            if (buffer.capacity() > MAX_KEPT_SIZE) {
+                buffer = new StringBuilder(BUFFER_SIZE);
+                transfer = new char[BUFFER_SIZE];
+            } else {
+                buffer.setLength(0);
+            }
+        }
+
+        /**
+         * Hand the contents of the buffer to a writer with a single write operation.
+         *
+         * @param target the writer that receives the contents
+         * @throws IOException in case writing fails
+         */
+        void writeTo(@Nonnull Writer target) throws IOException {
+            int length = buffer.length();
+            if (transfer.length < length) {
+                transfer = new char[buffer.capacity()];
+            }
+            buffer.getChars(0, length, transfer, 0);
+            target.write(transfer, 0, length);
+        }
+
+        @Nonnull
+        @Override
+        public BufferWriter append(@Nullable CharSequence csq) {
+            buffer.append(csq);
+            return this;
+        }
+
+        @Nonnull
+        public BufferWriter append(int value) {
+            buffer.append(value);
+            return this;
+        }
+
+        @Override
+        public void write(int c) {
+            buffer.append((char) c);
+        }
+
+        @Override
+        public void write(@Nonnull char[] cbuf, int off, int len) {
+            buffer.append(cbuf, off, len);
+        }
+
+        @Override
+        public void write(@Nonnull String str) {
+            buffer.append(str);
+        }
+
+        @Override
+        public void write(@Nonnull String str, int off, int len) {
+            buffer.append(str, off, off + len);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
 }
@@ -39,8 +39,8 @@ import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
-import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.Reader;
 import java.io.Writer;
 import java.nio.charset.Charset;
@@ -49,13 +49,10 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashSet;
+import java.util.*;
+import java.util.concurrent.*;
 
 import static java.nio.file.FileVisitResult.CONTINUE;
-import static java.nio.file.StandardOpenOption.APPEND;
-import static java.nio.file.StandardOpenOption.CREATE;
 
 /**
  * This is the input/output class for the quests. It handles loading and saving quest graphs. Also it handles
@@ -75,6 +72,11 @@ public class QuestIO {
      */
     public static final Charset CHARSET;
 
+    /**
+     * The line separator used in the exported files.
+     */
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
     static {
         CHARSET = Charset.forName("ISO-8859-1");
         CHARSETS = new ArrayList<>();
@@ -164,7 +166,9 @@ public class QuestIO {
     }
 
     /**
-     * Export a quest to its lua files.
+     * Export a quest to its lua files. All files of the quest are generated first, after that the files are written
+     * to the target directory in parallel. Files that already contain the generated content are not touched and
+     * files in the directory that are not part of the quest anymore are removed.
      *
      * @param model the quest model
      * @param rootDirectory the directory to store the root directory in
@@ -172,27 +176,6 @@ public class QuestIO {
      */
     public static void exportQuest(@Nonnull final mxIGraphModel model, @Nonnull final Path rootDirectory)
             throws IOException {
-        if (Files.isDirectory(rootDirectory)) {
-            Files.walkFileTree(rootDirectory, new SimpleFileVisitor<Path>() {
-                @Override
-                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-                    Files.delete(file);
-                    return CONTINUE;
-                }
-
-                @Override
-                public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
-                    if (exc == null) {
-                        Files.delete(dir);
-                        return CONTINUE;
-                    } else {
-                        throw exc;
-                    }
-                }
-            });
-        }
-        Files.createDirectories(rootDirectory);
-
         String questName = rootDirectory.getName(rootDirectory.getNameCount() - 1).toString();
 
         final mxICell root = (mxCell) model.getRoot();
@@ -208,11 +191,8 @@ public class QuestIO {
             throw new IOException("Required quest ID is not set.");
         }
 
-        Path questMainFile = rootDirectory.resolve("quest.txt");
-
-        if (Files.exists(questMainFile)) {
-            Files.delete(questMainFile);
-        }
+        final Map<String, String> files = new LinkedHashMap<>();
+        final StringBuilder questMain = new StringBuilder();
 
         mxGraph graph = new mxGraph(model);
         final Object[] edges = graph.getChildEdges(graph.getDefaultParent());
@@ -223,168 +203,270 @@ public class QuestIO {
             final TriggerTemplate template = TriggerTemplates.getInstance().getTemplate(trigger.getType());
 
             final String scriptName = "trigger" + Integer.toString(i + 1);
-            final mxICell source = edge.getSource();
-            final mxICell target = edge.getTarget();
-            final Status sourceState = (Status) source.getValue();
-            final Status targetState = (Status) target.getValue();
-            final String sourceId = sourceState.isStart() ? "0" : source.getId();
-            final String targetId = targetState.isStart() ? "0" : target.getId();
-            final Object[] parameters = trigger.getParameters();
-            final Handler[] handlers = targetState.getHandlers();
-            final Collection<String> handlerTypes = new HashSet<>();
-            final Condition[] conditions = trigger.getConditions();
-
-            final StringBuilder handlerCode = new StringBuilder();
-            if (handlers != null) {
-                for (final Handler handler : handlers) {
-                    final String type = handler.getType();
-                    final Object[] handlerParameters = handler.getParameters();
-                    final HandlerTemplate handlerTemplate = HandlerTemplates.getInstance().getTemplate(type);
-                    final int playerIndex = handlerTemplate.getPlayerIndex();
-
-                    handlerTypes.add(type);
-
-                    handlerCode.append("    handler.").append(type.toLowerCase()).append('.').append(type).append('(');
-                    if (handlerParameters.length > 0) {
-                        if (playerIndex == 0) {
-                            handlerCode.append("PLAYER, ");
-                        }
-                        handlerCode.append(exportParameter(handlerParameters[0],
-                                                           handlerTemplate.getParameter(0).getType()));
-
-                        for (int j = 1; j < handlerParameters.length; ++j) {
-                            if (playerIndex == j) {
-                                handlerCode.append(", PLAYER");
-                            }
-                            handlerCode.append(", ").append(exportParameter(handlerParameters[j],
-                                                                            handlerTemplate.getParameter(j).getType()));
-                        }
-                    }
-                    handlerCode.append("):execute()\n");
+            files.put(scriptName + ".lua", exportTrigger(edge, template, questName, questID, scriptName));
+
+            String cat = template.getCategory();
+            TemplateParameter id = template.getId();
+            String type = id == null ? null : id.getType();
+            String entryPoint = template.getEntryPoint();
+
+            if (cat == null || type == null || entryPoint == null) {
+                throw new IOException("Template appears to be incomplete.");
+            }
+
+            questMain.append(cat).append(',');
+            questMain.append(exportId(trigger.getObjectId(), type)).append(',');
+            questMain.append(entryPoint).append(',');
+            questMain.append(scriptName).append(LINE_SEPARATOR);
+        }
+        if (questMain.length() > 0) {
+            files.put("quest.txt", questMain.toString());
+        }
+
+        removeStaleFiles(rootDirectory, files.keySet());
+        Files.createDirectories(rootDirectory);
+
+        final Collection<Future<Boolean>> writes = new ArrayList<>(files.size());
+        for (final Map.Entry<String, String> file : files.entrySet()) {
+            final Path target = rootDirectory.resolve(file.getKey());
+            final byte[] content = file.getValue().getBytes(CHARSET);
+            writes.add(ExportExecutor.INSTANCE.submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws IOException {
+                    return writeIfChanged(target, content);
+                }
+            }));
+        }
+
+        IOException firstException = null;
+        for (final Future<Boolean> write : writes) {
+            try {
+                write.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Exporting the quest got interrupted.");
+            } catch (ExecutionException e) {
+                if (firstException == null) {
+                    final Throwable cause = e.getCause();
+                    firstException = (cause instanceof IOException) ? (IOException) cause : new IOException(cause);
                 }
             }
+        }
+        if (firstException != null) {
+            throw firstException;
+        }
+    }
 
-            final StringBuilder conditionCode = new StringBuilder();
-            if (conditions != null) {
-                for (final Condition condition : conditions) {
-                    final String type = condition.getType();
-                    final Object[] conditionParameters = condition.getParameters();
-                    final ConditionTemplate conditionTemplate = ConditionTemplates.getInstance().getTemplate(type);
-                    String conditionString = conditionTemplate.getCondition();
-                    if (conditionString != null) {
-                        for (int j = 0; j < conditionParameters.length; ++j) {
-                            final Object param = conditionParameters[j];
-                            final String paramName = conditionTemplate.getParameter(j).getName();
-                            final String paramType = conditionTemplate.getParameter(j).getType();
-                            String operator = null;
-                            String value = null;
-                            if ("INTEGERRELATION".equals(paramType)) {
-                                final IntegerRelation ir = (IntegerRelation) param;
-                                value = String.valueOf(ir.getInteger());
-                                operator = ir.getRelation().toLua();
-                            }
-                            if (operator != null) {
-                                conditionString = conditionString.replaceAll("OPERATOR_" + j, operator)
-                                        .replaceAll(paramName, value);
-                            }
-                        }
-                    }
-                    if (conditionCode.length() > 0) {
-                        conditionCode.append("   and ");
+    /**
+     * This class holds the executor that writes the files of the exported quests. The threads are daemon threads so
+     * a pending export does not keep the application alive.
+     */
+    private static final class ExportExecutor {
+        @Nonnull
+        static final ExecutorService INSTANCE = Executors
+                .newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+                    @Nonnull
+                    @Override
+                    public Thread newThread(@Nonnull final Runnable r) {
+                        final Thread thread = new Thread(r, "Quest Export");
+                        thread.setDaemon(true);
+                        return thread;
                     }
-                    conditionCode.append(conditionString).append('\n');
+                });
+
+        private ExportExecutor() {
+        }
+    }
+
+    /**
+     * Remove everything from the export directory that is not one of the files of the quest.
+     *
+     * @param rootDirectory the export directory of the quest
+     * @param fileNames the names of the files of the quest
+     * @throws IOException in case removing a file fails
+     */
+    private static void removeStaleFiles(@Nonnull final Path rootDirectory, @Nonnull final Set<String> fileNames)
+            throws IOException {
+        if (!Files.isDirectory(rootDirectory)) {
+            return;
+        }
+        Files.walkFileTree(rootDirectory, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (!rootDirectory.equals(file.getParent()) || !fileNames.contains(file.getFileName().toString())) {
+                    Files.delete(file);
                 }
-            }
-            if (conditionCode.length() == 0) {
-                conditionCode.append("true\n");
+                return CONTINUE;
             }
 
-            try (BufferedWriter writer = Files.newBufferedWriter(rootDirectory.resolve(scriptName + ".lua"), CHARSET)) {
-                for (final String type : handlerTypes) {
-                    writer.write("require(\"handler.");
-                    writer.write(type.toLowerCase());
-                    writer.write("\"}");
-                    writer.newLine();
-                }
-                String header = template.getHeader();
-                if (header != null) {
-                    writer.write(header);
-                    writer.newLine();
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                if (exc == null) {
+                    if (!rootDirectory.equals(dir)) {
+                        Files.delete(dir);
+                    }
+                    return CONTINUE;
+                } else {
+                    throw exc;
                 }
+            }
+        });
+    }
 
-                writer.write("module(\"questsystem.");
-                writer.write(questName);
-                writer.write('.');
-                writer.write(scriptName);
-                writer.write("\", package.seeall)");
-                writer.newLine();
-
-                writer.write("local QUEST_NUMBER = ");
-                writer.write(Integer.toString(questID));
-                writer.newLine();
-
-                writer.write("local PRECONDITION_QUESTSTATE = ");
-                writer.write(sourceId);
-                writer.newLine();
+    /**
+     * Write a file unless it already contains the expected content. Leaving unchanged files alone keeps their
+     * modification time, so the server does not reload scripts that did not change.
+     *
+     * @param file the file to write
+     * @param content the content of the file
+     * @return {@code true} in case the file was written, {@code false} in case it was already up to date
+     * @throws IOException in case reading or writing the file fails
+     */
+    private static boolean writeIfChanged(@Nonnull final Path file, @Nonnull final byte[] content)
+            throws IOException {
+        if (Files.isRegularFile(file) && (Files.size(file) == content.length) &&
+                Arrays.equals(Files.readAllBytes(file), content)) {
+            return false;
+        }
+        Files.write(file, content);
+        return true;
+    }
 
-                writer.write("local POSTCONDITION_QUESTSTATE = ");
-                writer.write(targetId);
-                writer.newLine();
+    /**
+     * Generate the lua script of one trigger.
+     *
+     * @param edge the edge of the graph that contains the trigger
+     * @param template the template of the trigger
+     * @param questName the name of the quest
+     * @param questID the ID of the quest
+     * @param scriptName the name of the script
+     * @return the content of the script
+     * @throws IOException in case the parameters of the trigger do not match the template
+     */
+    @Nonnull
+    private static String exportTrigger(
+            @Nonnull final mxCell edge,
+            @Nonnull final TriggerTemplate template,
+            @Nonnull final String questName,
+            final int questID,
+            @Nonnull final String scriptName) throws IOException {
+        final Trigger trigger = (Trigger) edge.getValue();
+        final mxICell source = edge.getSource();
+        final mxICell target = edge.getTarget();
+        final Status sourceState = (Status) source.getValue();
+        final Status targetState = (Status) target.getValue();
+        final String sourceId = sourceState.isStart() ? "0" : source.getId();
+        final String targetId = targetState.isStart() ? "0" : target.getId();
+        final Object[] parameters = trigger.getParameters();
+        final Handler[] handlers = targetState.getHandlers();
+        final Collection<String> handlerTypes = new HashSet<>();
+        final Condition[] conditions = trigger.getConditions();
+
+        final StringBuilder handlerCode = new StringBuilder();
+        if (handlers != null) {
+            for (final Handler handler : handlers) {
+                final String type = handler.getType();
+                final Object[] handlerParameters = handler.getParameters();
+                final HandlerTemplate handlerTemplate = HandlerTemplates.getInstance().getTemplate(type);
+                final int playerIndex = handlerTemplate.getPlayerIndex();
+
+                handlerTypes.add(type);
+
+                handlerCode.append("    handler.").append(type.toLowerCase()).append('.').append(type).append('(');
+                if (handlerParameters.length > 0) {
+                    if (playerIndex == 0) {
+                        handlerCode.append("PLAYER, ");
+                    }
+                    handlerCode.append(exportParameter(handlerParameters[0],
+                                                       handlerTemplate.getParameter(0).getType()));
 
-                int paramCount = template.size();
-                if (parameters == null || paramCount != parameters.length) {
-                    throw new IOException("Required parameters are not present.");
-                }
-                for (int j = 0; j < template.size(); ++j) {
-                    writer.write("local ");
-                    writer.write(template.getParameter(j).getName());
-                    writer.write(" = ");
-                    writer.write(exportParameter(parameters[j], template.getParameter(j).getType()));
-                    writer.newLine();
+                    for (int j = 1; j < handlerParameters.length; ++j) {
+                        if (playerIndex == j) {
+                            handlerCode.append(", PLAYER");
+                        }
+                        handlerCode.append(", ").append(exportParameter(handlerParameters[j],
+                                                                        handlerTemplate.getParameter(j).getType()));
+                    }
                 }
+                handlerCode.append("):execute()\n");
+            }
+        }
 
-                String body = template.getBody();
-                if (body != null) {
-                    writer.write(body);
-                    writer.newLine();
+        final StringBuilder conditionCode = new StringBuilder();
+        if (conditions != null) {
+            for (final Condition condition : conditions) {
+                final String type = condition.getType();
+                final Object[] conditionParameters = condition.getParameters();
+                final ConditionTemplate conditionTemplate = ConditionTemplates.getInstance().getTemplate(type);
+                String conditionString = conditionTemplate.getCondition();
+                if (conditionString != null) {
+                    for (int j = 0; j < conditionParameters.length; ++j) {
+                        final Object param = conditionParameters[j];
+                        final String paramName = conditionTemplate.getParameter(j).getName();
+                        final String paramType = conditionTemplate.getParameter(j).getType();
+                        String operator = null;
+                        String value = null;
+                        if ("INTEGERRELATION".equals(paramType)) {
+                            final IntegerRelation ir = (IntegerRelation) param;
+                            value = String.valueOf(ir.getInteger());
+                            operator = ir.getRelation().toLua();
+                        }
+                        if (operator != null) {
+                            conditionString = conditionString.replaceAll("OPERATOR_" + j, operator)
+                                    .replaceAll(paramName, value);
+                        }
+                    }
+                }
+                if (conditionCode.length() > 0) {
+                    conditionCode.append("   and ");
                 }
-                writer.write("function HANDLER(PLAYER)");
-                writer.newLine();
-                writer.write(handlerCode.toString());
-                writer.write("end");
-                writer.newLine();
-
-                writer.write("function ADDITIONALCONDITIONS(PLAYER)");
-                writer.newLine();
-                writer.write("return ");
-                writer.write(conditionCode.toString());
-                writer.write("end");
-
-                writer.flush();
+                conditionCode.append(conditionString).append('\n');
             }
+        }
+        if (conditionCode.length() == 0) {
+            conditionCode.append("true\n");
+        }
 
-            try (BufferedWriter writer = Files
-                    .newBufferedWriter(rootDirectory.resolve("quest.txt"), CHARSET, APPEND, CREATE)) {
-                String cat = template.getCategory();
-                TemplateParameter id = template.getId();
-                String type = id == null ? null : id.getType();
-                String entryPoint = template.getEntryPoint();
+        int paramCount = template.size();
+        if (parameters == null || paramCount != parameters.length) {
+            throw new IOException("Required parameters are not present.");
+        }
 
-                if (cat == null || type == null || entryPoint == null) {
-                    throw new IOException("Template appears to be incomplete.");
-                }
+        final StringBuilder script = new StringBuilder();
+        for (final String type : handlerTypes) {
+            script.append("require(\"handler.").append(type.toLowerCase()).append("\"}").append(LINE_SEPARATOR);
+        }
+        String header = template.getHeader();
+        if (header != null) {
+            script.append(header).append(LINE_SEPARATOR);
+        }
 
-                writer.write(template.getCategory());
-                writer.write(',');
-                writer.write(exportId(trigger.getObjectId(), template.getId().getType()));
-                writer.write(',');
-                writer.write(template.getEntryPoint());
-                writer.write(',');
-                writer.write(scriptName);
-                writer.newLine();
-                writer.flush();
-            }
+        script.append("module(\"questsystem.").append(questName).append('.').append(scriptName)
+                .append("\", package.seeall)").append(LINE_SEPARATOR);
+        script.append("local QUEST_NUMBER = ").append(questID).append(LINE_SEPARATOR);
+        script.append("local PRECONDITION_QUESTSTATE = ").append(sourceId).append(LINE_SEPARATOR);
+        script.append("local POSTCONDITION_QUESTSTATE = ").append(targetId).append(LINE_SEPARATOR);
+
+        for (int j = 0; j < paramCount; ++j) {
+            script.append("local ").append(template.getParameter(j).getName()).append(" = ");
+            script.append(exportParameter(parameters[j], template.getParameter(j).getType()));
+            script.append(LINE_SEPARATOR);
+        }
+
+        String body = template.getBody();
+        if (body != null) {
+            script.append(body).append(LINE_SEPARATOR);
         }
+        script.append("function HANDLER(PLAYER)").append(LINE_SEPARATOR);
+        script.append(handlerCode);
+        script.append("end").append(LINE_SEPARATOR);
+
+        script.append("function ADDITIONALCONDITIONS(PLAYER)").append(LINE_SEPARATOR);
+        script.append("return ");
+        script.append(conditionCode);
+        script.append("end");
+
+        return script.toString();
     }
 
     private static String exportId(final Object parameter, final String type) {
@@ -64,8 +64,11 @@ public class TriggerDialog extends JDialog {
         okay = new JButton(Lang.getMsg(getClass(), "ok"));
         cancel = new JButton(Lang.getMsg(getClass(), "cancel"));
 
-        for (int i = 0; i < TriggerTemplates.getInstance().size(); ++i) {
-            trigger.addItem(TriggerTemplates.getInstance().getTemplate(i));
+        TriggerTemplates templates = TriggerTemplates.getInstance();
+        for (String category : templates.getCategories()) {
+            for (TriggerTemplate template : templates.getTemplates(category)) {
+                trigger.addItem(template);
+            }
         }
 
         trigger.addItemListener(new ItemListener() {
@@ -21,10 +21,7 @@ import javolution.util.FastTable;
 import javolution.util.function.Equalities;
 
 import javax.annotation.Nonnull;
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -56,94 +53,58 @@ public class ConditionTemplates {
         load();
     }
 
-    private static InputStream getResource(final String name) {
-        final ClassLoader loader = ConditionTemplates.class.getClassLoader();
-        return loader.getResourceAsStream(name);
-    }
-
-    @Nonnull
-    private static List<String> loadFileList() {
-        List<String> result = new FastTable<>();
-        BufferedReader bRead = null;
+    private void load() {
+        Map<String, List<String>> templateFiles;
         try {
-            bRead = new BufferedReader(new InputStreamReader((getResource("template/condition/filelist"))));
-
-            String line = null;
-            while ((line = bRead.readLine()) != null) {
-                result.add(line);
-            }
+            templateFiles = TemplateCatalog.load("condition");
         } catch (IOException e) {
-            // reading failure
-        } finally {
-            if (bRead != null) {
-                try {
-                    bRead.close();
-                } catch (IOException e) {
-                    // does not matter
-                }
-            }
+            System.out.println("Condition directory does not exist!");
+            templates = new ConditionTemplate[0];
+            publicTemplates = templates;
+            return;
         }
-
-        return result;
-    }
-
-    private void load() {
-        Collection<String> templateFiles = loadFileList();
         Collection<ConditionTemplate> templateList = new FastTable<>();
 
-        if (templateFiles.isEmpty()) {
-            System.out.println("Condition directory does not exist!");
-        } else {
-            boolean isGerman = Lang.getInstance().isGerman();
-            for (String rawFileName : templateFiles) {
-                String fileName = rawFileName.replace('\\', '/');
-                String line = null;
-                String uniqueName = fileName.substring(fileName.lastIndexOf('/') + 1, fileName.lastIndexOf('.'));
-                ConditionTemplate conditionTemplate = new ConditionTemplate(uniqueName);
-                try {
-                    BufferedReader reader = new BufferedReader(
-                            new InputStreamReader(getResource(fileName), "ISO-8859-1"));
-
-                    while ((line = reader.readLine()) != null) {
-
-                        if (line.isEmpty()) {
-                            continue;
-                        } else if (line.matches("--.*\\w+.*--.*\\w+.*")) {
-                            String[] names = line.split("\\s*--\\s*");
-                            if (isGerman) {
-                                conditionTemplate.setTitle(names[2]);
-                            } else {
-                                conditionTemplate.setTitle(names[1]);
-                            }
-                        } else if (line.matches("local\\s+[_A-Z0-9]+\\s*=\\s*[_A-Z0-9]+\\s*--.*\\w+.*--.*\\w+.*")) {
-                            String[] param = line.split("^local\\s+|\\s*=\\s*|\\s*--\\s*");
-                            if (isGerman) {
-                                conditionTemplate
-                                        .addParameter(new TemplateParameter(param[1], param[2] + "RELATION", param[4]));
-                            } else {
-                                conditionTemplate
-                                        .addParameter(new TemplateParameter(param[1], param[2] + "RELATION", param[3]));
-                            }
-                        } else {
-                            String oldCondition = conditionTemplate.getCondition();
-                            if (oldCondition == null) {
-                                conditionTemplate.setCondition(line);
-                            } else {
-                                conditionTemplate.setCondition(oldCondition + "\n" + line);
-                            }
-                        }
+        boolean isGerman = Lang.getInstance().isGerman();
+        for (Map.Entry<String, List<String>> templateFile : templateFiles.entrySet()) {
+            String uniqueName = templateFile.getKey();
+            ConditionTemplate conditionTemplate = new ConditionTemplate(uniqueName);
+            StringBuilder condition = null;
+            for (String line : templateFile.getValue()) {
+                if (line.isEmpty()) {
+                    continue;
+                } else if (TemplateCatalog.TITLE.matcher(line).matches()) {
+                    String[] names = TemplateCatalog.TITLE_SEPARATOR.split(line);
+                    if (isGerman) {
+                        conditionTemplate.setTitle(names[2]);
+                    } else {
+                        conditionTemplate.setTitle(names[1]);
                     }
-
-                    if (conditionTemplate.isComplete()) {
-                        templateList.add(conditionTemplate);
-                        typeMap.put(uniqueName, conditionTemplate);
+                } else if (TemplateCatalog.PARAMETER.matcher(line).matches()) {
+                    String[] param = TemplateCatalog.PARAMETER_SEPARATOR.split(line);
+                    if (isGerman) {
+                        conditionTemplate
+                                .addParameter(new TemplateParameter(param[1], param[2] + "RELATION", param[4]));
                     } else {
-                        System.out.println("Syntax error in template " + fileName);
+                        conditionTemplate
+                                .addParameter(new TemplateParameter(param[1], param[2] + "RELATION", param[3]));
                     }
-                } catch (@Nonnull final IOException e1) {
-                    System.out.println("Error loading template " + fileName);
+                } else if (condition == null) {
+                    condition = new StringBuilder(line);
+                } else {
+                    condition.append('\n').append(line);
                 }
             }
+            if (condition != null) {
+                conditionTemplate.setCondition(condition.toString());
+            }
+
+            if (conditionTemplate.isComplete()) {
+                templateList.add(conditionTemplate);
+                typeMap.put(uniqueName, conditionTemplate);
+            } else {
+                System.out.println("Syntax error in template " + uniqueName);
+            }
         }
 
         templates = templateList.toArray(new ConditionTemplate[templateList.size()]);
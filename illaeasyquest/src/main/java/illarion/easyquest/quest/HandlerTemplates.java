@@ -21,13 +21,11 @@ import javolution.util.FastTable;
 import javolution.util.function.Equalities;
 
 import javax.annotation.Nonnull;
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 public class HandlerTemplates {
     /**
@@ -43,6 +41,9 @@ public class HandlerTemplates {
     @Nonnull
     private final Map<String, HandlerTemplate> typeMap;
 
+    @Nonnull
+    private static final Pattern PLAYER = Pattern.compile("--\\s*PLAYER");
+
     private static final HandlerTemplates INSTANCE = new HandlerTemplates();
 
     @Nonnull
@@ -56,89 +57,52 @@ public class HandlerTemplates {
         load();
     }
 
-    private static InputStream getResource(final String name) {
-        final ClassLoader loader = HandlerTemplates.class.getClassLoader();
-        return loader.getResourceAsStream(name);
-    }
-
-    @Nonnull
-    private static List<String> loadFileList() {
-        List<String> result = new FastTable<>();
-        BufferedReader bRead = null;
+    private void load() {
+        Map<String, List<String>> templateFiles;
         try {
-            bRead = new BufferedReader(new InputStreamReader((getResource("template/handler/filelist"))));
-
-            String line = null;
-            while ((line = bRead.readLine()) != null) {
-                result.add(line);
-            }
+            templateFiles = TemplateCatalog.load("handler");
         } catch (IOException e) {
-            // reading failure
-        } finally {
-            if (bRead != null) {
-                try {
-                    bRead.close();
-                } catch (IOException e) {
-                    // does not matter
-                }
-            }
+            System.out.println("Handler directory does not exist!");
+            templates = new HandlerTemplate[0];
+            publicTemplates = templates;
+            return;
         }
-
-        return result;
-    }
-
-    private void load() {
-        List<String> templateFiles = loadFileList();
         Collection<HandlerTemplate> templateList = new FastTable<>();
 
-        if (templateFiles.isEmpty()) {
-            System.out.println("Handler directory does not exist!");
-        } else {
-            boolean isGerman = Lang.getInstance().isGerman();
-            for (String rawFileName : templateFiles) {
-                String fileName = rawFileName.replace('\\', '/');
-                String line = null;
-                String uniqueName = fileName.substring(fileName.lastIndexOf('/') + 1, fileName.lastIndexOf('.'));
-                int parameterCount = 0;
-                HandlerTemplate handlerTemplate = new HandlerTemplate(uniqueName);
-                try {
-                    BufferedReader reader = new BufferedReader(
-                            new InputStreamReader(getResource(fileName), "ISO-8859-1"));
-
-                    while ((line = reader.readLine()) != null) {
-
-                        if (line.isEmpty()) {
-                            continue;
-                        } else if (line.matches("--.*\\w+.*--.*\\w+.*")) {
-                            String[] names = line.split("\\s*--\\s*");
-                            if (isGerman) {
-                                handlerTemplate.setTitle(names[2]);
-                            } else {
-                                handlerTemplate.setTitle(names[1]);
-                            }
-                        } else if (line.matches("local\\s+[_A-Z0-9]+\\s*=\\s*[_A-Z0-9]+\\s*--.*\\w+.*--.*\\w+.*")) {
-                            String[] param = line.split("^local\\s+|\\s*=\\s*|\\s*--\\s*");
-                            if (isGerman) {
-                                handlerTemplate.addParameter(new TemplateParameter(param[1], param[2], param[4]));
-                            } else {
-                                handlerTemplate.addParameter(new TemplateParameter(param[1], param[2], param[3]));
-                            }
-                            parameterCount = parameterCount + 1;
-                        } else if (line.matches("--\\s*PLAYER")) {
-                            handlerTemplate.addPlayerParameterAt(parameterCount);
-                        }
+        boolean isGerman = Lang.getInstance().isGerman();
+        for (Map.Entry<String, List<String>> templateFile : templateFiles.entrySet()) {
+            String uniqueName = templateFile.getKey();
+            int parameterCount = 0;
+            HandlerTemplate handlerTemplate = new HandlerTemplate(uniqueName);
+            for (String line : templateFile.getValue()) {
+                if (line.isEmpty()) {
+                    continue;
+                } else if (TemplateCatalog.TITLE.matcher(line).matches()) {
+                    String[] names = TemplateCatalog.TITLE_SEPARATOR.split(line);
+                    if (isGerman) {
+                        handlerTemplate.setTitle(names[2]);
+                    } else {
+                        handlerTemplate.setTitle(names[1]);
                     }
-
-                    if (handlerTemplate.isComplete()) {
-                        templateList.add(handlerTemplate);
-                        typeMap.put(uniqueName, handlerTemplate);
+                } else if (TemplateCatalog.PARAMETER.matcher(line).matches()) {
+                    String[] param = TemplateCatalog.PARAMETER_SEPARATOR.split(line);
+                    if (isGerman) {
+                        handlerTemplate.addParameter(new TemplateParameter(param[1], param[2], param[4]));
                     } else {
-                        System.out.println("Syntax error in template " + fileName);
+                        handlerTemplate.addParameter(new TemplateParameter(param[1], param[2], param[3]));
                     }
-                } catch (@Nonnull final IOException e1) {
-                    System.out.println("Error loading template " + fileName);
+                    parameterCount = parameterCount + 1;
+                } else if (PLAYER.matcher(line).matches()) {
+                    handlerTemplate.addPlayerParameterAt(parameterCount);
                 }
             }
+
+            if (handlerTemplate.isComplete()) {
+                templateList.add(handlerTemplate);
+                typeMap.put(uniqueName, handlerTemplate);
+            } else {
+                System.out.println("Syntax error in template " + uniqueName);
+            }
         }
 
         templates = templateList.toArray(new HandlerTemplate[templateList.size()]);
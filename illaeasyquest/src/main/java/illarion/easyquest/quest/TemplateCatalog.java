@@ -0,0 +1,118 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package illarion.easyquest.quest;
+
+import javax.annotation.Nonnull;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * This class reads the catalog of the templates of one kind. The build bundles all templates of a directory into a
+ * single catalog resource, so loading the templates reads one resource instead of one resource per template. Every
+ * template in the catalog starts with a line {@code @template <name> <line count>} that is followed by the lines of
+ * the template.
+ * <p/>
+ * The class also holds the patterns shared by the parsers of the templates, so they are compiled only once.
+ *
+ * @author Martin Karing &lt;nitram@illarion.org&gt;
+ */
+final class TemplateCatalog {
+    /**
+     * The line that contains the english and the german title of a template.
+     */
+    @Nonnull
+    static final Pattern TITLE = Pattern.compile("--.*\\w+.*--.*\\w+.*");
+
+    /**
+     * The separator between the titles in the title line.
+     */
+    @Nonnull
+    static final Pattern TITLE_SEPARATOR = Pattern.compile("\\s*--\\s*");
+
+    /**
+     * The line that defines a parameter of a template.
+     */
+    @Nonnull
+    static final Pattern PARAMETER = Pattern.compile("local\\s+[_A-Z0-9]+\\s*=\\s*[_A-Z0-9]+\\s*--.*\\w+.*--.*\\w+.*");
+
+    /**
+     * The separator between the name, the type and the descriptions in a parameter line.
+     */
+    @Nonnull
+    static final Pattern PARAMETER_SEPARATOR = Pattern.compile("^local\\s+|\\s*=\\s*|\\s*--\\s*");
+
+    @Nonnull
+    private static final String TEMPLATE_MARKER = "@template ";
+
+    @Nonnull
+    private static final Charset CHARSET = Charset.forName("ISO-8859-1");
+
+    private TemplateCatalog() {
+    }
+
+    /**
+     * Load the templates of one directory.
+     *
+     * @param directory the name of the template directory
+     * @return the lines of the templates, stored by the name of the template in the order of the catalog
+     * @throws IOException in case the catalog does not exist or can't be read
+     */
+    @Nonnull
+    static Map<String, List<String>> load(@Nonnull String directory) throws IOException {
+        InputStream in = TemplateCatalog.class.getClassLoader()
+                .getResourceAsStream("template/" + directory + "/catalog");
+        if (in == null) {
+            throw new IOException("Template catalog " + directory + " does not exist.");
+        }
+
+        Map<String, List<String>> templates = new LinkedHashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, CHARSET))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.startsWith(TEMPLATE_MARKER)) {
+                    throw new IOException("Template catalog " + directory + " is corrupted.");
+                }
+                int separator = line.lastIndexOf(' ');
+                String name = line.substring(TEMPLATE_MARKER.length(), separator);
+                int lineCount;
+                try {
+                    lineCount = Integer.parseInt(line.substring(separator + 1));
+                } catch (NumberFormatException e) {
+                    throw new IOException("Template catalog " + directory + " is corrupted.", e);
+                }
+
+                List<String> lines = new ArrayList<>(lineCount);
+                for (int i = 0; i < lineCount; i++) {
+                    String templateLine = reader.readLine();
+                    if (templateLine == null) {
+                        throw new IOException("Template catalog " + directory + " is truncated.");
+                    }
+                    lines.add(templateLine);
+                }
+                templates.put(name, lines);
+            }
+        }
+        return templates;
+    }
+}
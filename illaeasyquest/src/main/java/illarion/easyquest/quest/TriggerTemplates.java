@@ -21,19 +21,41 @@ import javolution.util.FastTable;
 import javolution.util.function.Equalities;
 
 import javax.annotation.Nonnull;
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 public class TriggerTemplates {
     private TriggerTemplate[] templates;
     @Nonnull
     private final Map<String, TriggerTemplate> typeMap;
 
+    /**
+     * The templates stored by their category in the order the categories appear in the catalog.
+     */
+    @Nonnull
+    private final Map<String, List<TriggerTemplate>> categoryMap;
+
+    @Nonnull
+    private static final Pattern FUNCTION = Pattern.compile("function .*");
+    @Nonnull
+    private static final Pattern FUNCTION_SEPARATOR = Pattern.compile("function |\\(");
+    @Nonnull
+    private static final Pattern MODULE = Pattern.compile("module.*");
+    @Nonnull
+    private static final Pattern CATEGORY = Pattern.compile("--\\s*category:.*");
+    @Nonnull
+    private static final Pattern CATEGORY_SEPARATOR = Pattern.compile("--\\s*category:");
+    @Nonnull
+    private static final Pattern QUEST_NUMBER = Pattern.compile("local\\s+QUEST_NUMBER\\s*=\\s*0\\s*");
+    @Nonnull
+    private static final Pattern PRECONDITION = Pattern.compile("local\\s+PRECONDITION_QUESTSTATE\\s*=\\s*0\\s*");
+    @Nonnull
+    private static final Pattern POSTCONDITION = Pattern.compile("local\\s+POSTCONDITION_QUESTSTATE\\s*=\\s*0\\s*");
+
     private static final TriggerTemplates instance = new TriggerTemplates();
 
     @Nonnull
@@ -43,132 +65,104 @@ public class TriggerTemplates {
 
     public TriggerTemplates() {
         typeMap = new FastMap<>(Equalities.LEXICAL_FAST, Equalities.STANDARD);
+        categoryMap = new FastMap<>(Equalities.LEXICAL_FAST, Equalities.STANDARD);
 
         load();
     }
 
-    private static InputStream getResource(final String name) {
-        final ClassLoader loader = Thread.currentThread().getContextClassLoader();
-        return loader.getResourceAsStream(name);
-    }
-
-    @Nonnull
-    private static List<String> loadFileList() {
-        List<String> result = new FastTable<>();
-        BufferedReader bRead = null;
+    private void load() {
+        Map<String, List<String>> templateFiles;
         try {
-            bRead = new BufferedReader(new InputStreamReader(getResource("template/trigger/filelist")));
-
-            String line = null;
-            while ((line = bRead.readLine()) != null) {
-                result.add(line);
-            }
+            templateFiles = TemplateCatalog.load("trigger");
         } catch (IOException e) {
-            // reading failure
-        } catch (NullPointerException e) {
-            // file list does not exist
-        } finally {
-            if (bRead != null) {
-                try {
-                    bRead.close();
-                } catch (IOException e) {
-                    // does not matter
-                }
-            }
+            System.out.println("Trigger directory does not exist!");
+            templates = new TriggerTemplate[0];
+            return;
         }
-
-        return result;
-    }
-
-    private void load() {
-        List<String> templateFiles = loadFileList();
         Collection<TriggerTemplate> templateList = new FastTable<>();
 
-        if (templateFiles.isEmpty()) {
-            System.out.println("Trigger directory does not exist!");
-        } else {
-            boolean isGerman = Lang.getInstance().isGerman();
-            for (String rawFileName : templateFiles) {
-                String fileName = rawFileName.replace('\\', '/');
-                String line = null;
-                boolean isHeader = true;
-                StringBuffer header = new StringBuffer();
-                StringBuffer body = new StringBuffer();
-                String uniqueName = fileName.substring(fileName.lastIndexOf('/') + 1, fileName.lastIndexOf('.'));
-                TriggerTemplate triggerTemplate = new TriggerTemplate(uniqueName);
-                try {
-                    BufferedReader reader = new BufferedReader(
-                            new InputStreamReader(getResource(fileName), "ISO-8859-1"));
-
-                    while ((line = reader.readLine()) != null) {
-                        if (isHeader && line.matches("function .*")) {
-                            isHeader = false;
-                            String[] temp = line.split("function |\\(");
-                            String entryPoint = temp[1].trim();
-                            triggerTemplate.setEntryPoint(entryPoint);
-                        }
-                        if (isHeader) {
-                            if (line.isEmpty()) {
-                                continue;
-                            } else if (line.matches("module.*")) {
-                                continue;
-                            } else if (line.matches("--\\s*category:.*")) {
-                                String[] temp = line.split("--\\s*category:");
-                                String category = temp[1].trim();
-                                triggerTemplate.setCategory(category);
-                                continue;
-                            } else if (line.matches("--.*\\w+.*--.*\\w+.*")) {
-                                String[] names = line.split("\\s*--\\s*");
-                                if (isGerman) {
-                                    triggerTemplate.setTitle(names[2]);
-                                } else {
-                                    triggerTemplate.setTitle(names[1]);
-                                }
-                                continue;
-                            } else if (line.matches("local\\s+QUEST_NUMBER\\s*=\\s*0\\s*")) {
-                                triggerTemplate.foundQuestNumber();
-                                continue;
-                            } else if (line.matches("local\\s+PRECONDITION_QUESTSTATE\\s*=\\s*0\\s*")) {
-                                triggerTemplate.foundPrior();
-                                continue;
-                            } else if (line.matches("local\\s+POSTCONDITION_QUESTSTATE\\s*=\\s*0\\s*")) {
-                                triggerTemplate.foundPosterior();
-                                continue;
-                            } else if (line.matches("local\\s+[_A-Z0-9]+\\s*=\\s*[_A-Z0-9]+\\s*--.*\\w+.*--.*\\w+.*")) {
-                                String[] param = line.split("^local\\s+|\\s*=\\s*|\\s*--\\s*");
-
-                                String description;
-                                if (isGerman) {
-                                    description = param[4];
-                                } else {
-                                    description = param[3];
-                                }
-
-                                TemplateParameter parameter = new TemplateParameter(param[1], param[2], description);
-
-                                triggerTemplate.addParameter(parameter);
-
-                                continue;
+        boolean isGerman = Lang.getInstance().isGerman();
+        for (Map.Entry<String, List<String>> templateFile : templateFiles.entrySet()) {
+            String uniqueName = templateFile.getKey();
+            boolean isHeader = true;
+            StringBuilder header = new StringBuilder();
+            StringBuilder body = new StringBuilder();
+            TriggerTemplate triggerTemplate = new TriggerTemplate(uniqueName);
+            try {
+                for (String line : templateFile.getValue()) {
+                    if (isHeader && FUNCTION.matcher(line).matches()) {
+                        isHeader = false;
+                        String[] temp = FUNCTION_SEPARATOR.split(line);
+                        String entryPoint = temp[1].trim();
+                        triggerTemplate.setEntryPoint(entryPoint);
+                    }
+                    if (isHeader) {
+                        if (line.isEmpty()) {
+                            continue;
+                        } else if (MODULE.matcher(line).matches()) {
+                            continue;
+                        } else if (CATEGORY.matcher(line).matches()) {
+                            String[] temp = CATEGORY_SEPARATOR.split(line);
+                            String category = temp[1].trim();
+                            triggerTemplate.setCategory(category);
+                            continue;
+                        } else if (TemplateCatalog.TITLE.matcher(line).matches()) {
+                            String[] names = TemplateCatalog.TITLE_SEPARATOR.split(line);
+                            if (isGerman) {
+                                triggerTemplate.setTitle(names[2]);
+                            } else {
+                                triggerTemplate.setTitle(names[1]);
+                            }
+                            continue;
+                        } else if (QUEST_NUMBER.matcher(line).matches()) {
+                            triggerTemplate.foundQuestNumber();
+                            continue;
+                        } else if (PRECONDITION.matcher(line).matches()) {
+                            triggerTemplate.foundPrior();
+                            continue;
+                        } else if (POSTCONDITION.matcher(line).matches()) {
+                            triggerTemplate.foundPosterior();
+                            continue;
+                        } else if (TemplateCatalog.PARAMETER.matcher(line).matches()) {
+                            String[] param = TemplateCatalog.PARAMETER_SEPARATOR.split(line);
+
+                            String description;
+                            if (isGerman) {
+                                description = param[4];
+                            } else {
+                                description = param[3];
                             }
 
-                            header.append(line + "\n");
-                        } else {
-                            body.append(line + "\n");
+                            TemplateParameter parameter = new TemplateParameter(param[1], param[2], description);
+
+                            triggerTemplate.addParameter(parameter);
+
+                            continue;
                         }
+
+                        header.append(line).append('\n');
+                    } else {
+                        body.append(line).append('\n');
                     }
+                }
 
-                    triggerTemplate.setHeader(header.toString());
-                    triggerTemplate.setBody(body.toString());
+                triggerTemplate.setHeader(header.toString());
+                triggerTemplate.setBody(body.toString());
 
-                    if (triggerTemplate.isComplete()) {
-                        templateList.add(triggerTemplate);
-                        typeMap.put(uniqueName, triggerTemplate);
-                    } else {
-                        System.out.println("Syntax error in template " + fileName);
+                if (triggerTemplate.isComplete()) {
+                    templateList.add(triggerTemplate);
+                    typeMap.put(uniqueName, triggerTemplate);
+                    List<TriggerTemplate> categoryTemplates = categoryMap.get(triggerTemplate.getCategory());
+                    if (categoryTemplates == null) {
+                        categoryTemplates = new FastTable<>();
+                        categoryMap.put(triggerTemplate.getCategory(), categoryTemplates);
                     }
-                } catch (@Nonnull final Exception e1) {
-                    System.out.println("Error loading template " + fileName);
+                    categoryTemplates.add(triggerTemplate);
+                } else {
+                    System.out.println("Syntax error in template " + uniqueName);
                 }
+            } catch (@Nonnull final Exception e1) {
+                System.out.println("Error loading template " + uniqueName);
             }
         }
 
@@ -189,4 +183,29 @@ public class TriggerTemplates {
         }
         throw new IllegalArgumentException("Illegal template type requested: " + type);
     }
+
+    /**
+     * Get the categories of the loaded templates.
+     *
+     * @return the categories in the order they appear in the catalog
+     */
+    @Nonnull
+    public Collection<String> getCategories() {
+        return Collections.unmodifiableCollection(categoryMap.keySet());
+    }
+
+    /**
+     * Get the templates of one category.
+     *
+     * @param category the category
+     * @return the templates of the category or a empty list in case there are none
+     */
+    @Nonnull
+    public List<TriggerTemplate> getTemplates(@Nonnull String category) {
+        List<TriggerTemplate> categoryTemplates = categoryMap.get(category);
+        if (categoryTemplates == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(categoryTemplates);
+    }
 }
@@ -0,0 +1,123 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package org.illarion.engine.backend.headless;
+
+import org.illarion.engine.assets.*;
+import org.illarion.engine.graphic.Scene;
+import org.illarion.engine.graphic.WorldMap;
+import org.illarion.engine.graphic.WorldMapDataProvider;
+
+import javax.annotation.Nonnull;
+
+/**
+ * The asset manager of the headless backend.
+ *
+ * @author Martin Karing &lt;nitram@illarion.org&gt;
+ */
+class HeadlessAssets implements Assets {
+    /**
+     * The texture manager that is used.
+     */
+    @Nonnull
+    private final HeadlessTextureManager textureManager;
+
+    /**
+     * The font manager that is used.
+     */
+    @Nonnull
+    private final HeadlessFontManager fontManager;
+
+    /**
+     * The cursor manager that is used.
+     */
+    @Nonnull
+    private final HeadlessCursorManager cursorManager;
+
+    /**
+     * The sounds manager that is used.
+     */
+    @Nonnull
+    private final HeadlessSoundsManager soundsManager;
+
+    /**
+     * The sprite factory of the headless backend.
+     */
+    @Nonnull
+    private final HeadlessSpriteFactory spriteFactory;
+
+    /**
+     * The effect manager that creates the graphic effects.
+     */
+    @Nonnull
+    private final HeadlessEffectManager effectManager;
+
+    HeadlessAssets() {
+        textureManager = new HeadlessTextureManager();
+        fontManager = new HeadlessFontManager();
+        cursorManager = new HeadlessCursorManager();
+        soundsManager = new HeadlessSoundsManager();
+        spriteFactory = new HeadlessSpriteFactory();
+        effectManager = new HeadlessEffectManager();
+    }
+
+    @Nonnull
+    @Override
+    public HeadlessTextureManager getTextureManager() {
+        return textureManager;
+    }
+
+    @Nonnull
+    @Override
+    public FontManager getFontManager() {
+        return fontManager;
+    }
+
+    @Nonnull
+    @Override
+    public CursorManager getCursorManager() {
+        return cursorManager;
+    }
+
+    @Nonnull
+    @Override
+    public SoundsManager getSoundsManager() {
+        return soundsManager;
+    }
+
+    @Nonnull
+    @Override
+    public SpriteFactory getSpriteFactory() {
+        return spriteFactory;
+    }
+
+    @Nonnull
+    @Override
+    public Scene createNewScene() {
+        return new HeadlessScene();
+    }
+
+    @Nonnull
+    @Override
+    public WorldMap createWorldMap(@Nonnull WorldMapDataProvider provider) {
+        return new HeadlessWorldMap();
+    }
+
+    @Nonnull
+    @Override
+    public EffectManager getEffectManager() {
+        return effectManager;
+    }
+}
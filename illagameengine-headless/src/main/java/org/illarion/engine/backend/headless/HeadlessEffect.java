@@ -0,0 +1,101 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package org.illarion.engine.backend.headless;
+
+import illarion.common.types.Location;
+import org.illarion.engine.graphic.Color;
+import org.illarion.engine.graphic.effects.*;
+
+import javax.annotation.Nonnull;
+
+/**
+ * This is the single implementation for all effects of the headless backend. The effects do not change anything,
+ * but they are distinct objects, so a change of the active effect is visible to the graphics.
+ *
+ * @author Martin Karing &lt;nitram@illarion.org&gt;
+ */
+class HeadlessEffect
+        implements MiniMapEffect, HighlightEffect, FogEffect, GrayScaleEffect, TileLightEffect, HeadlessSceneEffect {
+    @Override
+    public void update(int delta) {
+        // nothing to do
+    }
+
+    @Override
+    public void setCenter(@Nonnull Location location) {
+        // nothing to do
+    }
+
+    @Override
+    public void setRadius(int x) {
+        // nothing to do
+    }
+
+    @Override
+    public void setHighlightColor(@Nonnull Color color) {
+        // nothing to do
+    }
+
+    @Override
+    public void setDensity(float density) {
+        // nothing to do
+    }
+
+    @Override
+    public void setTopLeftColor(@Nonnull Color color) {
+        // nothing to do
+    }
+
+    @Override
+    public void setTopRightColor(@Nonnull Color color) {
+        // nothing to do
+    }
+
+    @Override
+    public void setBottomLeftColor(@Nonnull Color color) {
+        // nothing to do
+    }
+
+    @Override
+    public void setBottomRightColor(@Nonnull Color color) {
+        // nothing to do
+    }
+
+    @Override
+    public void setTopColor(@Nonnull Color color) {
+        // nothing to do
+    }
+
+    @Override
+    public void setBottomColor(@Nonnull Color color) {
+        // nothing to do
+    }
+
+    @Override
+    public void setLeftColor(@Nonnull Color color) {
+        // nothing to do
+    }
+
+    @Override
+    public void setRightColor(@Nonnull Color color) {
+        // nothing to do
+    }
+
+    @Override
+    public void setCenterColor(@Nonnull Color color) {
+        // nothing to do
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package org.illarion.engine.backend.headless;
+
+import org.illarion.engine.assets.EffectManager;
+import org.illarion.engine.graphic.WorldMap;
+import org.illarion.engine.graphic.effects.*;
+
+import javax.annotation.Nonnull;
+
+/**
+ * The effect manager of the headless backend.
+ *
+ * @author Martin Karing &lt;nitram@illarion.org&gt;
+ */
+class HeadlessEffectManager implements EffectManager {
+    /**
+     * The shared instance of the effect.
+     */
+    @Nonnull
+    private final HeadlessEffect sharedEffect = new HeadlessEffect();
+
+    @Nonnull
+    private HeadlessEffect getEffect(boolean sharedInstance) {
+        return sharedInstance ? sharedEffect : new HeadlessEffect();
+    }
+
+    @Nonnull
+    @Override
+    public MiniMapEffect getMiniMapEffect(@Nonnull WorldMap worldMap, boolean sharedInstance) {
+        return getEffect(sharedInstance);
+    }
+
+    @Nonnull
+    @Override
+    public HighlightEffect getHighlightEffect(boolean sharedInstance) {
+        return getEffect(sharedInstance);
+    }
+
+    @Nonnull
+    @Override
+    public FogEffect getFogEffect(boolean sharedInstance) {
+        return getEffect(sharedInstance);
+    }
+
+    @Nonnull
+    @Override
+    public GrayScaleEffect getGrayScaleEffect(boolean sharedInstance) {
+        return getEffect(sharedInstance);
+    }
+
+    @Nonnull
+    @Override
+    public TileLightEffect getTileLightEffect(boolean sharedInstance) {
+        return getEffect(sharedInstance);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package org.illarion.engine.backend.headless;
+
+import org.illarion.engine.Engine;
+import org.illarion.engine.assets.Assets;
+import org.illarion.engine.input.Input;
+import org.illarion.engine.sound.Sounds;
+
+import javax.annotation.Nonnull;
+
+/**
+ * The engine implementation of the headless backend.
+ *
+ * @author Martin Karing &lt;nitram@illarion.org&gt;
+ */
+class HeadlessEngine implements Engine {
+    /**
+     * The graphics that record the render operations.
+     */
+    @Nonnull
+    private final HeadlessGraphics graphics;
+
+    /**
+     * The sound engine.
+     */
+    @Nonnull
+    private final HeadlessSounds sounds;
+
+    /**
+     * The assets of this engine.
+     */
+    @Nonnull
+    private final HeadlessAssets assets;
+
+    /**
+     * The input of this engine.
+     */
+    @Nonnull
+    private final HeadlessInput input;
+
+    HeadlessEngine(@Nonnull RenderStatistics statistics) {
+        graphics = new HeadlessGraphics(statistics);
+        sounds = new HeadlessSounds();
+        assets = new HeadlessAssets();
+        input = new HeadlessInput();
+    }
+
+    @Nonnull
+    @Override
+    public HeadlessGraphics getGraphics() {
+        return graphics;
+    }
+
+    @Nonnull
+    @Override
+    public Sounds getSounds() {
+        return sounds;
+    }
+
+    @Nonnull
+    @Override
+    public Assets getAssets() {
+        return assets;
+    }
+
+    @Nonnull
+    @Override
+    public Input getInput() {
+        return input;
+    }
+}
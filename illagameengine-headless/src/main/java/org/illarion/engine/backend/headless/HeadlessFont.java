@@ -0,0 +1,74 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package org.illarion.engine.backend.headless;
+
+import org.illarion.engine.graphic.Font;
+
+import javax.annotation.Nonnull;
+
+/**
+ * The font of the headless backend. It uses a fixed width for all characters.
+ *
+ * @author Martin Karing &lt;nitram@illarion.org&gt;
+ */
+class HeadlessFont implements Font {
+    /**
+     * The atlas the glyphs of this font are located on.
+     */
+    @Nonnull
+    private final Object atlas;
+
+    /**
+     * The height of a line.
+     */
+    private final int lineHeight;
+
+    /**
+     * The width of a single character.
+     */
+    private final int charWidth;
+
+    HeadlessFont(@Nonnull Object atlas, float size) {
+        this.atlas = atlas;
+        lineHeight = Math.max(1, Math.round(size * 1.2f));
+        charWidth = Math.max(1, Math.round(size * 0.6f));
+    }
+
+    @Override
+    public int getLineHeight() {
+        return lineHeight;
+    }
+
+    @Override
+    public int getWidth(@Nonnull CharSequence text) {
+        return text.length() * charWidth;
+    }
+
+    @Override
+    public int getAdvance(char current, char next) {
+        return charWidth;
+    }
+
+    @Override
+    public void dispose() {
+        // nothing to do
+    }
+
+    @Nonnull
+    Object getAtlas() {
+        return atlas;
+    }
+}
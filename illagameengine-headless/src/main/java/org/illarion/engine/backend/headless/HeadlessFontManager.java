@@ -0,0 +1,35 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package org.illarion.engine.backend.headless;
+
+import org.illarion.engine.backend.shared.AbstractFontManager;
+import org.illarion.engine.graphic.Font;
+
+import javax.annotation.Nonnull;
+
+/**
+ * The font manager of the headless backend.
+ *
+ * @author Martin Karing &lt;nitram@illarion.org&gt;
+ */
+class HeadlessFontManager extends AbstractFontManager {
+    @Nonnull
+    @Override
+    protected Font buildFont(
+            @Nonnull String ttfRef, float size, int style, @Nonnull String fntRef, @Nonnull String imageRoot) {
+        return new HeadlessFont(fntRef, size);
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package org.illarion.engine.backend.headless;
+
+import org.illarion.engine.Engine;
+import org.illarion.engine.GameContainer;
+import org.illarion.engine.GameListener;
+import org.illarion.engine.MouseCursor;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * This game container runs a game without a display. The frames are not driven by a render loop, instead every call
+ * of {@link #runFrame(int)} updates and renders exactly one frame. All render operations are recorded in the
+ * {@link RenderStatistics} of this container.
+ *
+ * @author Martin Karing &lt;nitram@illarion.org&gt;
+ */
+@NotThreadSafe
+public final class HeadlessGameContainer implements GameContainer {
+    /**
+     * The listener that receives the game events.
+     */
+    @Nonnull
+    private final GameListener gameListener;
+
+    /**
+     * The width of the virtual display.
+     */
+    private final int width;
+
+    /**
+     * The height of the virtual display.
+     */
+    private final int height;
+
+    /**
+     * The statistics of the render operations.
+     */
+    @Nonnull
+    private final RenderStatistics statistics;
+
+    /**
+     * The engine of this container.
+     */
+    @Nonnull
+    private final HeadlessEngine engine;
+
+    /**
+     * This flag is {@code true} once the game is started.
+     */
+    private boolean running;
+
+    /**
+     * The frames rendered during the last full second of game time.
+     */
+    private int fps;
+
+    /**
+     * The frames rendered in the current second of game time.
+     */
+    private int framesInSecond;
+
+    /**
+     * The game time that passed in the current second.
+     */
+    private int timeInSecond;
+
+    /**
+     * Create a new headless container.
+     *
+     * @param gameListener the game listener that receives the game events
+     * @param width the width of the virtual display
+     * @param height the height of the virtual display
+     */
+    public HeadlessGameContainer(@Nonnull GameListener gameListener, int width, int height) {
+        this.gameListener = gameListener;
+        this.width = width;
+        this.height = height;
+        statistics = new RenderStatistics();
+        engine = new HeadlessEngine(statistics);
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Nonnull
+    @Override
+    public Engine getEngine() {
+        return engine;
+    }
+
+    @Override
+    public void setMouseCursor(@Nullable MouseCursor cursor) {
+        // there is no cursor to display
+    }
+
+    @Override
+    public void startGame() {
+        if (running) {
+            return;
+        }
+        running = true;
+        gameListener.create(this);
+        gameListener.resize(this, width, height);
+    }
+
+    /**
+     * Update and render a single frame.
+     *
+     * @param delta the game time since the last frame in milliseconds
+     * @throws IllegalStateException in case the game is not running
+     */
+    public void runFrame(int delta) {
+        if (!running) {
+            throw new IllegalStateException("The game is not running.");
+        }
+        engine.getInput().poll();
+        gameListener.update(this, delta);
+
+        HeadlessGraphics graphics = engine.getGraphics();
+        graphics.beginFrame();
+        gameListener.render(this);
+        graphics.endFrame();
+
+        framesInSecond++;
+        timeInSecond += delta;
+        if (timeInSecond >= 1000) {
+            fps = framesInSecond;
+            framesInSecond = 0;
+            timeInSecond -= 1000;
+        }
+        if (gameListener.isClosingGame()) {
+            exitGame();
+        }
+    }
+
+    /**
+     * Check if the game is running.
+     *
+     * @return {@code true} in case the game was started and did not exit yet
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Get the statistics of the render operations of this container.
+     *
+     * @return the render statistics
+     */
+    @Nonnull
+    public RenderStatistics getStatistics() {
+        return statistics;
+    }
+
+    @Override
+    public void exitGame() {
+        if (running) {
+            running = false;
+            gameListener.dispose();
+        }
+    }
+
+    @Nonnull
+    @Override
+    public String getTitle() {
+        return "Headless";
+    }
+
+    @Override
+    public int getFPS() {
+        return fps;
+    }
+
+    @Nonnull
+    @Override
+    public CharSequence[] getDiagnosticLines() {
+        return new CharSequence[]{"Draw calls: " + statistics.getDrawOperations(),
+                "Flushes: " + statistics.getFlushes()};
+    }
+}
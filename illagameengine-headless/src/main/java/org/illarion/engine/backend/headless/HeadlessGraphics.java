@@ -0,0 +1,335 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package org.illarion.engine.backend.headless;
+
+import illarion.common.types.Rectangle;
+import org.illarion.engine.graphic.*;
+import org.illarion.engine.graphic.effects.TextureEffect;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * This is the graphics implementation of the headless backend. It does not draw anything. Instead it records the
+ * draw operations and the state changes that would force a sprite batch to flush its buffered geometry.
+ * <p/>
+ * The batching model follows the libGDX backend: sprites, textures and texts are buffered as long as the texture
+ * atlas, the texture effect and the blending mode stay the same. Rectangles are drawn with a separate renderer, so
+ * switching between rectangles and textured geometry flushes the batch as well.
+ *
+ * @author Martin Karing &lt;nitram@illarion.org&gt;
+ */
+@NotThreadSafe
+class HeadlessGraphics implements Graphics {
+    /**
+     * The key used as atlas for all rectangles.
+     */
+    @Nonnull
+    private static final Object SHAPE_RENDERER = new Object();
+
+    /**
+     * The statistics that receive the recorded operations.
+     */
+    @Nonnull
+    private final RenderStatistics statistics;
+
+    /**
+     * The atlas of the geometry that is currently buffered.
+     */
+    @Nullable
+    private Object currentAtlas;
+
+    /**
+     * The texture effect that is currently active.
+     */
+    @Nullable
+    private TextureEffect currentEffect;
+
+    /**
+     * The blending mode that is currently active.
+     */
+    @Nonnull
+    private BlendingMode currentBlendingMode;
+
+    /**
+     * The amount of geometry buffered since the last flush.
+     */
+    private int bufferedDraws;
+
+    /**
+     * The area used to calculate the display area of sprites.
+     */
+    @Nonnull
+    private final Rectangle tempRectangle;
+
+    /**
+     * The offset applied to the x coordinates.
+     */
+    private int offsetX;
+
+    /**
+     * The offset applied to the y coordinates.
+     */
+    private int offsetY;
+
+    HeadlessGraphics(@Nonnull RenderStatistics statistics) {
+        this.statistics = statistics;
+        currentBlendingMode = BlendingMode.AlphaBlend;
+        tempRectangle = new Rectangle();
+    }
+
+    /**
+     * Start rendering a new frame.
+     */
+    void beginFrame() {
+        currentAtlas = null;
+        currentEffect = null;
+        currentBlendingMode = BlendingMode.AlphaBlend;
+        bufferedDraws = 0;
+        statistics.recordFrame();
+    }
+
+    /**
+     * Finish the current frame. All buffered geometry is flushed.
+     */
+    void endFrame() {
+        flush();
+    }
+
+    /**
+     * Apply a offset to all following draw operations.
+     *
+     * @param x the x offset
+     * @param y the y offset
+     */
+    void applyOffset(int x, int y) {
+        offsetX = x;
+        offsetY = y;
+    }
+
+    /**
+     * Remove the offset applied to the draw operations.
+     */
+    void resetOffset() {
+        offsetX = 0;
+        offsetY = 0;
+    }
+
+    /**
+     * Flush the buffered geometry. This is used for the post processing of the scene as well.
+     */
+    void flush() {
+        if (bufferedDraws > 0) {
+            statistics.recordFlush();
+            bufferedDraws = 0;
+        }
+    }
+
+    /**
+     * Record a full screen pass that applies a scene effect to the previously rendered scene.
+     *
+     * @param effect the effect that is applied
+     */
+    void drawEffectPass(@Nonnull HeadlessSceneEffect effect) {
+        statistics.recordEffectChange();
+        statistics.recordTextureDraw();
+        bufferedDraws++;
+        flush();
+        currentAtlas = null;
+        currentEffect = null;
+    }
+
+    /**
+     * Prepare the batch to receive geometry that is located on a specific atlas.
+     *
+     * @param atlas the atlas of the geometry
+     * @param effects the texture effects that are applied to the geometry
+     */
+    private void prepareDraw(@Nonnull Object atlas, @Nonnull TextureEffect... effects) {
+        TextureEffect effect = (effects.length > 0) ? effects[0] : null;
+        if (currentAtlas != atlas) {
+            if (currentAtlas != null) {
+                statistics.recordTextureChange();
+            }
+            flush();
+            currentAtlas = atlas;
+        }
+        if (currentEffect != effect) {
+            statistics.recordEffectChange();
+            flush();
+            currentEffect = effect;
+        }
+        bufferedDraws++;
+    }
+
+    @Override
+    public void clear() {
+        flush();
+    }
+
+    @Override
+    public void drawSprite(
+            @Nonnull Sprite sprite,
+            int posX,
+            int posY,
+            @Nonnull Color color,
+            int frame,
+            double scale,
+            double rotation,
+            @Nonnull TextureEffect... effects) {
+        if (sprite instanceof HeadlessSprite) {
+            HeadlessSprite headlessSprite = (HeadlessSprite) sprite;
+            headlessSprite.getDisplayArea(posX + offsetX, posY + offsetY, scale, rotation, tempRectangle);
+            prepareDraw(headlessSprite.getFrame(frame).getAtlas(), effects);
+            statistics.recordSpriteDraw();
+        }
+    }
+
+    @Override
+    public void drawSprite(
+            @Nonnull Sprite sprite,
+            int posX,
+            int posY,
+            @Nonnull Color topLeftColor,
+            @Nonnull Color topRightColor,
+            @Nonnull Color bottomLeftColor,
+            @Nonnull Color bottomRightColor,
+            int frame,
+            double scale) {
+        if (sprite instanceof HeadlessSprite) {
+            HeadlessSprite headlessSprite = (HeadlessSprite) sprite;
+            headlessSprite.getDisplayArea(posX + offsetX, posY + offsetY, scale, 0.0, tempRectangle);
+            prepareDraw(headlessSprite.getFrame(frame).getAtlas());
+            statistics.recordSpriteDraw();
+        }
+    }
+
+    @Override
+    public void setBlendingMode(@Nonnull BlendingMode mode) {
+        if (currentBlendingMode != mode) {
+            flush();
+            currentBlendingMode = mode;
+            statistics.recordBlendingModeChange();
+        }
+    }
+
+    @Override
+    public void drawText(@Nonnull Font font, @Nonnull CharSequence text, @Nonnull Color color, int x, int y) {
+        drawText(font, text, color, x, y, 1.0, 1.0);
+    }
+
+    @Override
+    public void drawText(
+            @Nonnull Font font,
+            @Nonnull CharSequence text,
+            @Nonnull Color color,
+            int x,
+            int y,
+            double scaleX,
+            double scaleY) {
+        if (font instanceof HeadlessFont) {
+            prepareDraw(((HeadlessFont) font).getAtlas());
+            statistics.recordTextDraw();
+        }
+    }
+
+    @Override
+    public void drawRectangle(int x, int y, int width, int height, @Nonnull Color color) {
+        prepareDraw(SHAPE_RENDERER);
+        statistics.recordRectangleDraw();
+    }
+
+    @Override
+    public void drawRectangle(@Nonnull Rectangle rectangle, @Nonnull Color color) {
+        drawRectangle(rectangle.getX(), rectangle.getY(), rectangle.getWidth(), rectangle.getHeight(), color);
+    }
+
+    @Override
+    public void drawRectangle(
+            int x,
+            int y,
+            int width,
+            int height,
+            @Nonnull Color topLeftColor,
+            @Nonnull Color topRightColor,
+            @Nonnull Color bottomLeftColor,
+            @Nonnull Color bottomRightColor) {
+        drawRectangle(x, y, width, height, topLeftColor);
+    }
+
+    @Override
+    public void drawTexture(
+            @Nonnull Texture texture,
+            int x,
+            int y,
+            int width,
+            int height,
+            @Nonnull Color color,
+            @Nonnull TextureEffect... effects) {
+        drawTexture(texture, x, y, width, height, 0, 0, texture.getWidth(), texture.getHeight(), color, effects);
+    }
+
+    @Override
+    public void drawTexture(
+            @Nonnull Texture texture,
+            int x,
+            int y,
+            int width,
+            int height,
+            int texX,
+            int texY,
+            int texWidth,
+            int texHeight,
+            @Nonnull Color color,
+            @Nonnull TextureEffect... effects) {
+        drawTexture(texture, x, y, width, height, texX, texY, texWidth, texHeight, 0, 0, 0.0, color, effects);
+    }
+
+    @Override
+    public void drawTexture(
+            @Nonnull Texture texture,
+            int x,
+            int y,
+            int width,
+            int height,
+            int texX,
+            int texY,
+            int texWidth,
+            int texHeight,
+            int centerX,
+            int centerY,
+            double rotate,
+            @Nonnull Color color,
+            @Nonnull TextureEffect... effects) {
+        if (texture instanceof HeadlessTexture) {
+            prepareDraw(((HeadlessTexture) texture).getAtlas(), effects);
+            statistics.recordTextureDraw();
+        }
+    }
+
+    @Override
+    public void setClippingArea(int x, int y, int width, int height) {
+        flush();
+        statistics.recordClippingChange();
+    }
+
+    @Override
+    public void unsetClippingArea() {
+        flush();
+        statistics.recordClippingChange();
+    }
+}
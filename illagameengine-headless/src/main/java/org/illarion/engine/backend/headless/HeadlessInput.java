@@ -0,0 +1,109 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package org.illarion.engine.backend.headless;
+
+import org.illarion.engine.backend.shared.AbstractForwardingInput;
+import org.illarion.engine.input.Button;
+import org.illarion.engine.input.InputListener;
+import org.illarion.engine.input.Key;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The input implementation of the headless backend. No keys or buttons are ever pressed. The mouse location can be
+ * set to simulate the movement of the mouse.
+ *
+ * @author Martin Karing &lt;nitram@illarion.org&gt;
+ */
+class HeadlessInput extends AbstractForwardingInput {
+    /**
+     * The listener that receives the input events.
+     */
+    @Nullable
+    private InputListener listener;
+
+    /**
+     * The x coordinate of the mouse.
+     */
+    private int mouseX;
+
+    /**
+     * The y coordinate of the mouse.
+     */
+    private int mouseY;
+
+    @Override
+    public void poll() {
+        // nothing to do
+    }
+
+    @Override
+    public void setListener(@Nonnull InputListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public boolean isButtonDown(@Nonnull Button button) {
+        return false;
+    }
+
+    @Override
+    public boolean isKeyDown(@Nonnull Key key) {
+        return false;
+    }
+
+    @Override
+    public boolean isAnyButtonDown() {
+        return false;
+    }
+
+    @Override
+    public boolean isAnyButtonDown(@Nonnull Button... buttons) {
+        return false;
+    }
+
+    @Override
+    public boolean isAnyKeyDown() {
+        return false;
+    }
+
+    @Override
+    public boolean isAnyKeyDown(@Nonnull Key... keys) {
+        return false;
+    }
+
+    @Override
+    public int getMouseX() {
+        return mouseX;
+    }
+
+    @Override
+    public int getMouseY() {
+        return mouseY;
+    }
+
+    @Override
+    public void setMouseLocation(int x, int y) {
+        int oldX = mouseX;
+        int oldY = mouseY;
+        mouseX = x;
+        mouseY = y;
+        if ((listener != null) && ((oldX != x) || (oldY != y))) {
+            listener.mouseMoved(x, y);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package org.illarion.engine.backend.headless;
+
+import org.illarion.engine.GameContainer;
+import org.illarion.engine.backend.shared.AbstractScene;
+import org.illarion.engine.graphic.Graphics;
+
+import javax.annotation.Nonnull;
+
+/**
+ * This is the scene implementation of the headless backend. Each scene effect is recorded as one additional
+ * full screen pass.
+ *
+ * @author Martin Karing &lt;nitram@illarion.org&gt;
+ */
+class HeadlessScene extends AbstractScene<HeadlessSceneEffect> {
+    @Override
+    public void update(@Nonnull GameContainer container, int delta) {
+        updateScene(container, delta);
+
+        int effectCount = getEffectCount();
+        for (int i = 0; i < effectCount; i++) {
+            getEffect(i).update(delta);
+        }
+    }
+
+    @Override
+    public void render(@Nonnull Graphics graphics, int offsetX, int offsetY) {
+        if (!(graphics instanceof HeadlessGraphics)) {
+            throw new IllegalArgumentException("Illegal graphics implementation.");
+        }
+
+        HeadlessGraphics headlessGraphics = (HeadlessGraphics) graphics;
+        int effectCount = getEffectCount();
+        if (effectCount > 0) {
+            headlessGraphics.flush();
+        }
+        headlessGraphics.applyOffset(offsetX, offsetY);
+        renderScene(graphics);
+        headlessGraphics.resetOffset();
+        if (effectCount > 0) {
+            headlessGraphics.flush();
+            for (int i = 0; i < effectCount; i++) {
+                headlessGraphics.drawEffectPass(getEffect(i));
+            }
+        }
+    }
+}
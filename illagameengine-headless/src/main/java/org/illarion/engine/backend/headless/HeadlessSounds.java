@@ -0,0 +1,114 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package org.illarion.engine.backend.headless;
+
+import org.illarion.engine.sound.Music;
+import org.illarion.engine.sound.Sound;
+import org.illarion.engine.sound.Sounds;
+
+import javax.annotation.Nonnull;
+
+/**
+ * The sound engine of the headless backend. Nothing is played, only the volume settings are stored.
+ *
+ * @author Martin Karing &lt;nitram@illarion.org&gt;
+ */
+class HeadlessSounds implements Sounds {
+    /**
+     * The volume of the music.
+     */
+    private float musicVolume = 1.f;
+
+    /**
+     * The volume of the sound effects.
+     */
+    private float soundVolume = 1.f;
+
+    @Override
+    public float getMusicVolume() {
+        return musicVolume;
+    }
+
+    @Override
+    public void setMusicVolume(float volume) {
+        musicVolume = volume;
+    }
+
+    @Override
+    public float getSoundVolume() {
+        return soundVolume;
+    }
+
+    @Override
+    public void setSoundVolume(float volume) {
+        soundVolume = volume;
+    }
+
+    @Override
+    public float getSoundVolume(@Nonnull Sound sound, int handle) {
+        return soundVolume;
+    }
+
+    @Override
+    public boolean isMusicPlaying(@Nonnull Music music) {
+        return false;
+    }
+
+    @Override
+    public boolean isSoundPlaying(@Nonnull Sound sound, int handle) {
+        return false;
+    }
+
+    @Override
+    public void playMusic(@Nonnull Music music, int fadeOutTime, int fadeInTime) {
+        // nothing to do
+    }
+
+    @Override
+    public int playSound(@Nonnull Sound sound, float volume) {
+        return -1;
+    }
+
+    @Override
+    public int playSound(@Nonnull Sound sound, float volume, int offsetX, int offsetY, int offsetZ) {
+        return -1;
+    }
+
+    @Override
+    public void poll(int delta) {
+        // nothing to do
+    }
+
+    @Override
+    public void setSoundVolume(@Nonnull Sound sound, int handle, float volume) {
+        // nothing to do
+    }
+
+    @Override
+    public void stopMusic(int fadeOutTime) {
+        // nothing to do
+    }
+
+    @Override
+    public void stopSound(@Nonnull Sound sound, int handle) {
+        // nothing to do
+    }
+
+    @Override
+    public void stopSound(@Nonnull Sound sound) {
+        // nothing to do
+    }
+}
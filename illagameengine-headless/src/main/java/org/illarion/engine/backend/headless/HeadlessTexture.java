@@ -0,0 +1,76 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package org.illarion.engine.backend.headless;
+
+import org.illarion.engine.graphic.Texture;
+
+import javax.annotation.Nonnull;
+
+/**
+ * This is a texture of the headless backend. It does not contain any image data. It only knows its size and the
+ * texture atlas it is located on.
+ *
+ * @author Martin Karing &lt;nitram@illarion.org&gt;
+ */
+class HeadlessTexture implements Texture {
+    /**
+     * The atlas this texture is located on. Textures on the same atlas can be rendered without flushing the batch.
+     */
+    @Nonnull
+    private final Object atlas;
+
+    /**
+     * The width of the texture.
+     */
+    private final int width;
+
+    /**
+     * The height of the texture.
+     */
+    private final int height;
+
+    HeadlessTexture(@Nonnull Object atlas, int width, int height) {
+        this.atlas = atlas;
+        this.width = width;
+        this.height = height;
+    }
+
+    @Override
+    public void dispose() {
+        // nothing to do
+    }
+
+    @Nonnull
+    @Override
+    public Texture getSubTexture(int x, int y, int width, int height) {
+        return new HeadlessTexture(atlas, width, height);
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Nonnull
+    Object getAtlas() {
+        return atlas;
+    }
+}
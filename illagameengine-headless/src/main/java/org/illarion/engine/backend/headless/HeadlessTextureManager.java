@@ -0,0 +1,132 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package org.illarion.engine.backend.headless;
+
+import illarion.common.util.ProgressMonitor;
+import org.illarion.engine.assets.TextureManager;
+import org.illarion.engine.graphic.Texture;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The texture manager of the headless backend. It creates a dummy texture for every requested name. All textures in
+ * the same root directory are treated as being located on the same texture atlas.
+ *
+ * @author Martin Karing &lt;nitram@illarion.org&gt;
+ */
+class HeadlessTextureManager implements TextureManager {
+    /**
+     * The size of the dummy textures.
+     */
+    private static final int TEXTURE_SIZE = 64;
+
+    /**
+     * The known root directories.
+     */
+    @Nonnull
+    private final List<String> rootDirectories;
+
+    /**
+     * The textures that were already requested.
+     */
+    @Nonnull
+    private final Map<String, Texture> textures;
+
+    /**
+     * The progress monitor of the loading process. As nothing needs to be loaded, its done right away.
+     */
+    @Nonnull
+    private final ProgressMonitor progressMonitor;
+
+    /**
+     * This flag is set {@code true} once the loading was triggered.
+     */
+    private boolean loadingStarted;
+
+    HeadlessTextureManager() {
+        rootDirectories = new ArrayList<>();
+        textures = new HashMap<>();
+        progressMonitor = new ProgressMonitor();
+    }
+
+    @Override
+    public void addTextureDirectory(@Nonnull String directory) {
+        rootDirectories.add(directory);
+    }
+
+    @Nullable
+    @Override
+    public Texture getTexture(@Nonnull String directory, @Nonnull String name) {
+        if (directory.endsWith("/")) {
+            return getTexture(directory + name);
+        }
+        return getTexture(directory + '/' + name);
+    }
+
+    @Nonnull
+    @Override
+    public Texture getTexture(@Nonnull String name) {
+        String cleanName = name.endsWith(".png") ? name.substring(0, name.length() - 4) : name;
+        Texture texture = textures.get(cleanName);
+        if (texture == null) {
+            texture = new HeadlessTexture(getAtlas(cleanName), TEXTURE_SIZE, TEXTURE_SIZE);
+            textures.put(cleanName, texture);
+        }
+        return texture;
+    }
+
+    /**
+     * Get the atlas a texture is located on.
+     *
+     * @param name the name of the texture
+     * @return the atlas of the texture, this is the root directory the texture belongs to
+     */
+    @Nonnull
+    private Object getAtlas(@Nonnull String name) {
+        for (String directory : rootDirectories) {
+            if (name.startsWith(directory)) {
+                return directory;
+            }
+        }
+        int lastSlash = name.lastIndexOf('/');
+        if (lastSlash == -1) {
+            return "";
+        }
+        return name.substring(0, lastSlash);
+    }
+
+    @Override
+    public void startLoading() {
+        loadingStarted = true;
+        progressMonitor.setProgress(1.f);
+    }
+
+    @Nonnull
+    @Override
+    public ProgressMonitor getProgress() {
+        return progressMonitor;
+    }
+
+    @Override
+    public boolean isLoadingDone() {
+        return loadingStarted;
+    }
+}
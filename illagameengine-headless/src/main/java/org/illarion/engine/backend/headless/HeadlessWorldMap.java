@@ -0,0 +1,107 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package org.illarion.engine.backend.headless;
+
+import illarion.common.types.Location;
+import org.illarion.engine.GameContainer;
+import org.illarion.engine.graphic.Texture;
+import org.illarion.engine.graphic.WorldMap;
+
+import javax.annotation.Nonnull;
+
+/**
+ * The world map of the headless backend. It only stores the locations, the map texture stays empty.
+ *
+ * @author Martin Karing &lt;nitram@illarion.org&gt;
+ */
+class HeadlessWorldMap implements WorldMap {
+    /**
+     * The size of the world map texture.
+     */
+    private static final int WORLD_MAP_SIZE = 1024;
+
+    /**
+     * The texture of the world map.
+     */
+    @Nonnull
+    private final HeadlessTexture worldMapTexture;
+
+    /**
+     * The origin of the map.
+     */
+    @Nonnull
+    private final Location mapOrigin;
+
+    /**
+     * The location of the player.
+     */
+    @Nonnull
+    private final Location playerLocation;
+
+    HeadlessWorldMap() {
+        worldMapTexture = new HeadlessTexture(this, WORLD_MAP_SIZE, WORLD_MAP_SIZE);
+        mapOrigin = new Location();
+        playerLocation = new Location();
+    }
+
+    @Nonnull
+    @Override
+    public Location getMapOrigin() {
+        return mapOrigin;
+    }
+
+    @Nonnull
+    @Override
+    public Location getPlayerLocation() {
+        return playerLocation;
+    }
+
+    @Nonnull
+    @Override
+    public Texture getWorldMap() {
+        return worldMapTexture;
+    }
+
+    @Override
+    public void setTileChanged(@Nonnull Location location) {
+        // nothing to do
+    }
+
+    @Override
+    public void setMapChanged() {
+        // nothing to do
+    }
+
+    @Override
+    public void setPlayerLocation(@Nonnull Location location) {
+        playerLocation.set(location);
+    }
+
+    @Override
+    public void setMapOrigin(@Nonnull Location location) {
+        mapOrigin.set(location);
+    }
+
+    @Override
+    public void clear() {
+        // nothing to do
+    }
+
+    @Override
+    public void render(@Nonnull GameContainer container) {
+        // nothing to do
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package org.illarion.engine.backend.headless;
+
+import illarion.common.types.Rectangle;
+import org.illarion.engine.GameContainer;
+import org.illarion.engine.graphic.*;
+
+import javax.annotation.Nonnull;
+
+/**
+ * A scene element that displays one element of a scene recording.
+ *
+ * @author Martin Karing &lt;nitram@illarion.org&gt;
+ */
+class RecordedSceneElement implements PickableSceneElement {
+    /**
+     * The sprite that is displayed.
+     */
+    @Nonnull
+    private final Sprite sprite;
+
+    /**
+     * The x coordinate on the screen.
+     */
+    private final int x;
+
+    /**
+     * The y coordinate on the screen.
+     */
+    private final int y;
+
+    /**
+     * The render order.
+     */
+    private final int order;
+
+    /**
+     * The area covered by this element.
+     */
+    @Nonnull
+    private final Rectangle displayArea;
+
+    /**
+     * The amount of events this element received.
+     */
+    private int receivedEvents;
+
+    RecordedSceneElement(@Nonnull Sprite sprite, int x, int y, int order) {
+        this.sprite = sprite;
+        this.x = x;
+        this.y = y;
+        this.order = order;
+        displayArea = sprite.getDisplayArea(x, y, 1.0, 0.0, null);
+    }
+
+    @Override
+    public int getOrder() {
+        return order;
+    }
+
+    @Override
+    public void render(@Nonnull Graphics graphics) {
+        graphics.drawSprite(sprite, x, y, Color.WHITE, 0, 1.0, 0.0);
+    }
+
+    @Override
+    public void update(@Nonnull GameContainer container, int delta) {
+        // the recorded elements do not change
+    }
+
+    @Override
+    public boolean isEventProcessed(@Nonnull GameContainer container, int delta, @Nonnull SceneEvent event) {
+        if (event instanceof LocatedSceneEvent) {
+            LocatedSceneEvent locatedEvent = (LocatedSceneEvent) event;
+            if (displayArea.isInside(locatedEvent.getSceneX(), locatedEvent.getSceneY())) {
+                receivedEvents++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Nonnull
+    @Override
+    public Rectangle getPickArea() {
+        return displayArea;
+    }
+
+    int getReceivedEvents() {
+        return receivedEvents;
+    }
+}
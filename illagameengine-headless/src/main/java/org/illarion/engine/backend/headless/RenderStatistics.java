@@ -0,0 +1,222 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package org.illarion.engine.backend.headless;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * This class stores the statistics about the render operations that were recorded by the headless backend. The
+ * batch flushes are estimated the same way a sprite batch has to flush: every time the texture atlas, the effect,
+ * the blending mode or the clipping changes.
+ *
+ * @author Martin Karing &lt;nitram@illarion.org&gt;
+ */
+@NotThreadSafe
+public final class RenderStatistics {
+    /**
+     * The amount of frames that were rendered.
+     */
+    private long frames;
+
+    /**
+     * The amount of sprites that were drawn.
+     */
+    private long spriteDraws;
+
+    /**
+     * The amount of texts that were drawn.
+     */
+    private long textDraws;
+
+    /**
+     * The amount of textures that were drawn.
+     */
+    private long textureDraws;
+
+    /**
+     * The amount of rectangles that were drawn.
+     */
+    private long rectangleDraws;
+
+    /**
+     * The amount of times the texture atlas changed between two draw operations.
+     */
+    private long textureChanges;
+
+    /**
+     * The amount of times the effect changed between two draw operations.
+     */
+    private long effectChanges;
+
+    /**
+     * The amount of times the blending mode changed.
+     */
+    private long blendingModeChanges;
+
+    /**
+     * The amount of times the clipping area changed.
+     */
+    private long clippingChanges;
+
+    /**
+     * The amount of times the batch of render operations had to be flushed. This is the amount of draw calls a
+     * batching renderer would send to the graphics card.
+     */
+    private long flushes;
+
+    /**
+     * Reset all the values to zero.
+     */
+    public void reset() {
+        frames = 0;
+        spriteDraws = 0;
+        textDraws = 0;
+        textureDraws = 0;
+        rectangleDraws = 0;
+        textureChanges = 0;
+        effectChanges = 0;
+        blendingModeChanges = 0;
+        clippingChanges = 0;
+        flushes = 0;
+    }
+
+    /**
+     * Add the values of another statistics instance to this one.
+     *
+     * @param other the other statistics
+     */
+    public void add(@Nonnull RenderStatistics other) {
+        frames += other.frames;
+        spriteDraws += other.spriteDraws;
+        textDraws += other.textDraws;
+        textureDraws += other.textureDraws;
+        rectangleDraws += other.rectangleDraws;
+        textureChanges += other.textureChanges;
+        effectChanges += other.effectChanges;
+        blendingModeChanges += other.blendingModeChanges;
+        clippingChanges += other.clippingChanges;
+        flushes += other.flushes;
+    }
+
+    public long getFrames() {
+        return frames;
+    }
+
+    public long getSpriteDraws() {
+        return spriteDraws;
+    }
+
+    public long getTextDraws() {
+        return textDraws;
+    }
+
+    public long getTextureDraws() {
+        return textureDraws;
+    }
+
+    public long getRectangleDraws() {
+        return rectangleDraws;
+    }
+
+    /**
+     * Get the total amount of draw operations.
+     *
+     * @return the sum of all draw operations
+     */
+    public long getDrawOperations() {
+        return spriteDraws + textDraws + textureDraws + rectangleDraws;
+    }
+
+    public long getTextureChanges() {
+        return textureChanges;
+    }
+
+    public long getEffectChanges() {
+        return effectChanges;
+    }
+
+    public long getBlendingModeChanges() {
+        return blendingModeChanges;
+    }
+
+    public long getClippingChanges() {
+        return clippingChanges;
+    }
+
+    /**
+     * Get the total amount of render state changes.
+     *
+     * @return the sum of all state changes
+     */
+    public long getStateChanges() {
+        return textureChanges + effectChanges + blendingModeChanges + clippingChanges;
+    }
+
+    public long getFlushes() {
+        return flushes;
+    }
+
+    void recordFrame() {
+        frames++;
+    }
+
+    void recordSpriteDraw() {
+        spriteDraws++;
+    }
+
+    void recordTextDraw() {
+        textDraws++;
+    }
+
+    void recordTextureDraw() {
+        textureDraws++;
+    }
+
+    void recordRectangleDraw() {
+        rectangleDraws++;
+    }
+
+    void recordTextureChange() {
+        textureChanges++;
+    }
+
+    void recordEffectChange() {
+        effectChanges++;
+    }
+
+    void recordBlendingModeChange() {
+        blendingModeChanges++;
+    }
+
+    void recordClippingChange() {
+        clippingChanges++;
+    }
+
+    void recordFlush() {
+        flushes++;
+    }
+
+    @Nonnull
+    @Override
+    public String toString() {
+        return "frames: " + frames + ", draw operations: " + getDrawOperations() + " (sprites: " + spriteDraws +
+                ", texts: " + textDraws + ", textures: " + textureDraws + ", rectangles: " + rectangleDraws +
+                "), state changes: " + getStateChanges() + " (textures: " + textureChanges + ", effects: " +
+                effectChanges + ", blending: " + blendingModeChanges + ", clipping: " + clippingChanges +
+                "), flushes: " + flushes;
+    }
+}
@@ -0,0 +1,458 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package org.illarion.engine.backend.headless;
+
+import org.illarion.engine.GameContainer;
+import org.illarion.engine.GameListener;
+import org.illarion.engine.assets.Assets;
+import org.illarion.engine.graphic.LocatedSceneEvent;
+import org.illarion.engine.graphic.Scene;
+import org.illarion.engine.graphic.Sprite;
+import org.illarion.engine.graphic.Texture;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This benchmark replays a recorded scene through the scene implementation of the engine and reports the frame
+ * times, the allocated memory and the draw call statistics. It requires no display, so it can be executed on any
+ * machine.
+ * <p/>
+ * Usage: {@code SceneBenchmark [-recording file] [-size tiles] [-frames count] [-warmup count] [-write file]
+ * [-maxFrameTime ms] [-maxDrawCalls count] [-maxStateChanges count] [-maxFlushes count]}
+ * <p/>
+ * In case no recording is given, a synthetic map with the selected size is generated. Recordings of the client are
+ * written with the F12 key. The budgets limit the 95th percentile of the frame time and the draw calls, state changes
+ * and flushes per frame. In case one of them is exceeded, the benchmark exits with the status 1.
+ *
+ * @author Martin Karing &lt;nitram@illarion.org&gt;
+ */
+public final class SceneBenchmark implements GameListener {
+    /**
+     * The width of the virtual display.
+     */
+    private static final int DISPLAY_WIDTH = 1024;
+
+    /**
+     * The height of the virtual display.
+     */
+    private static final int DISPLAY_HEIGHT = 768;
+
+    /**
+     * The simulated time between two frames in milliseconds.
+     */
+    private static final int FRAME_DELTA = 16;
+
+    /**
+     * The result of a benchmark run.
+     */
+    public static final class Result {
+        /**
+         * The 95th percentile of the frame time in nanoseconds.
+         */
+        private final long frameTimeP95;
+
+        /**
+         * The draw calls per frame.
+         */
+        private final long drawCalls;
+
+        /**
+         * The state changes per frame.
+         */
+        private final long stateChanges;
+
+        /**
+         * The flushes per frame.
+         */
+        private final long flushes;
+
+        Result(long frameTimeP95, long drawCalls, long stateChanges, long flushes) {
+            this.frameTimeP95 = frameTimeP95;
+            this.drawCalls = drawCalls;
+            this.stateChanges = stateChanges;
+            this.flushes = flushes;
+        }
+
+        public long getFrameTimeP95() {
+            return frameTimeP95;
+        }
+
+        public long getDrawCalls() {
+            return drawCalls;
+        }
+
+        public long getStateChanges() {
+            return stateChanges;
+        }
+
+        public long getFlushes() {
+            return flushes;
+        }
+    }
+
+    /**
+     * A mouse event located on the scene.
+     */
+    private static final class BenchmarkEvent implements LocatedSceneEvent {
+        /**
+         * The x coordinate of the event.
+         */
+        private final int sceneX;
+
+        /**
+         * The y coordinate of the event.
+         */
+        private final int sceneY;
+
+        BenchmarkEvent(int sceneX, int sceneY) {
+            this.sceneX = sceneX;
+            this.sceneY = sceneY;
+        }
+
+        @Override
+        public int getSceneX() {
+            return sceneX;
+        }
+
+        @Override
+        public int getSceneY() {
+            return sceneY;
+        }
+
+        @Override
+        public void notHandled() {
+            // nothing to do
+        }
+    }
+
+    /**
+     * The recording that is replayed.
+     */
+    @Nonnull
+    private final SceneRecording recording;
+
+    /**
+     * The elements created from the recording.
+     */
+    @Nonnull
+    private final List<RecordedSceneElement> elements;
+
+    /**
+     * The scene that displays the recording.
+     */
+    @Nullable
+    private Scene scene;
+
+    /**
+     * The amount of frames rendered so far. This is used to move the camera and the mouse.
+     */
+    private int frameCounter;
+
+    /**
+     * Create a benchmark that replays a recording.
+     *
+     * @param recording the recording
+     */
+    public SceneBenchmark(@Nonnull SceneRecording recording) {
+        this.recording = recording;
+        elements = new ArrayList<>();
+    }
+
+    @Override
+    public void create(@Nonnull GameContainer container) {
+        Assets assets = container.getEngine().getAssets();
+        scene = assets.createNewScene();
+        Map<String, Sprite> sprites = new HashMap<>();
+        for (SceneRecording.Element element : recording.getElements()) {
+            Sprite sprite = sprites.get(element.getTexture());
+            if (sprite == null) {
+                Texture texture = assets.getTextureManager().getTexture(element.getTexture());
+                if (texture == null) {
+                    continue;
+                }
+                sprite = assets.getSpriteFactory().createSprite(new Texture[]{texture}, 0, 0, 0.5f, 1.f, false);
+                sprites.put(element.getTexture(), sprite);
+            }
+            RecordedSceneElement sceneElement = new RecordedSceneElement(sprite, element.getX(), element.getY(),
+                                                                         element.getOrder());
+            elements.add(sceneElement);
+            scene.addElement(sceneElement);
+        }
+    }
+
+    @Override
+    public void dispose() {
+        elements.clear();
+        scene = null;
+    }
+
+    @Override
+    public void resize(@Nonnull GameContainer container, int width, int height) {
+        // the size of the virtual display is fixed
+    }
+
+    @Override
+    public void update(@Nonnull GameContainer container, int delta) {
+        if (scene == null) {
+            return;
+        }
+        frameCounter++;
+        int mouseX = (frameCounter * 7) % container.getWidth();
+        int mouseY = (frameCounter * 5) % container.getHeight();
+        scene.publishEvent(new BenchmarkEvent(mouseX - getOffsetX(container), mouseY - getOffsetY(container)));
+        scene.update(container, delta);
+    }
+
+    @Override
+    public void render(@Nonnull GameContainer container) {
+        if (scene == null) {
+            return;
+        }
+        container.getEngine().getGraphics().clear();
+        scene.render(container.getEngine().getGraphics(), getOffsetX(container), getOffsetY(container));
+    }
+
+    @Override
+    public boolean isClosingGame() {
+        return false;
+    }
+
+    /**
+     * Get the x offset of the camera. The camera moves slowly across the scene.
+     *
+     * @param container the container displaying the scene
+     * @return the x offset
+     */
+    private int getOffsetX(@Nonnull GameContainer container) {
+        return (container.getWidth() / 2) - ((frameCounter * 3) % container.getWidth());
+    }
+
+    /**
+     * Get the y offset of the camera. The camera moves slowly across the scene.
+     *
+     * @param container the container displaying the scene
+     * @return the y offset
+     */
+    private int getOffsetY(@Nonnull GameContainer container) {
+        return -((frameCounter * 2) % container.getHeight());
+    }
+
+    /**
+     * Get the total amount of events the elements of the scene received.
+     *
+     * @return the amount of received events
+     */
+    private int getReceivedEvents() {
+        int count = 0;
+        for (RecordedSceneElement element : elements) {
+            count += element.getReceivedEvents();
+        }
+        return count;
+    }
+
+    /**
+     * Get the memory allocated by the current thread.
+     *
+     * @return the allocated bytes or {@code -1} in case the virtual machine does not report this value
+     */
+    private static long getAllocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+            if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled()) {
+                return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1L;
+    }
+
+    /**
+     * Run the benchmark.
+     *
+     * @param recording the recording to replay
+     * @param warmupFrames the frames rendered before the measurement starts
+     * @param frames the frames that are measured
+     * @param out the stream that receives the report
+     * @return the result of the benchmark
+     */
+    @Nonnull
+    public static Result run(
+            @Nonnull SceneRecording recording, int warmupFrames, int frames, @Nonnull PrintStream out) {
+        SceneBenchmark benchmark = new SceneBenchmark(recording);
+        HeadlessGameContainer container = new HeadlessGameContainer(benchmark, DISPLAY_WIDTH, DISPLAY_HEIGHT);
+        container.startGame();
+
+        for (int i = 0; i < warmupFrames; i++) {
+            container.runFrame(FRAME_DELTA);
+        }
+        container.getStatistics().reset();
+
+        long[] frameTimes = new long[frames];
+        long allocatedStart = getAllocatedBytes();
+        for (int i = 0; i < frames; i++) {
+            long start = System.nanoTime();
+            container.runFrame(FRAME_DELTA);
+            frameTimes[i] = System.nanoTime() - start;
+        }
+        long allocatedEnd = getAllocatedBytes();
+
+        RenderStatistics statistics = container.getStatistics();
+        int receivedEvents = benchmark.getReceivedEvents();
+        container.exitGame();
+
+        Arrays.sort(frameTimes);
+        long total = 0L;
+        for (long time : frameTimes) {
+            total += time;
+        }
+        int measured = Math.max(1, frames);
+        out.println("Scene elements:     " + recording.getElements().size());
+        out.println("Measured frames:    " + frames);
+        out.printf("Frame time avg:     %.3f ms%n", (total / (double) measured) / 1.0e6);
+        out.printf("Frame time p50:     %.3f ms%n", getPercentile(frameTimes, 0.5) / 1.0e6);
+        out.printf("Frame time p95:     %.3f ms%n", getPercentile(frameTimes, 0.95) / 1.0e6);
+        out.printf("Frame time p99:     %.3f ms%n", getPercentile(frameTimes, 0.99) / 1.0e6);
+        out.printf("Frame time max:     %.3f ms%n", getPercentile(frameTimes, 1.0) / 1.0e6);
+        if ((allocatedStart >= 0L) && (allocatedEnd >= 0L)) {
+            out.println("Allocated / frame:  " + ((allocatedEnd - allocatedStart) / measured) + " bytes");
+        } else {
+            out.println("Allocated / frame:  not supported");
+        }
+        out.println("Draw calls / frame: " + (statistics.getDrawOperations() / measured));
+        out.println("State changes / f.: " + (statistics.getStateChanges() / measured));
+        out.println("Flushes / frame:    " + (statistics.getFlushes() / measured));
+        out.println("Handled events:     " + receivedEvents);
+        out.println(statistics);
+        return new Result(getPercentile(frameTimes, 0.95), statistics.getDrawOperations() / measured,
+                          statistics.getStateChanges() / measured, statistics.getFlushes() / measured);
+    }
+
+    /**
+     * Check if a value is within its budget.
+     *
+     * @param name the name of the value
+     * @param value the measured value
+     * @param budget the budget or {@code -1} in case the value is not limited
+     * @param out the stream that receives the report
+     * @return {@code true} in case the value is within the budget
+     */
+    private static boolean isWithinBudget(@Nonnull String name, long value, long budget, @Nonnull PrintStream out) {
+        if ((budget >= 0L) && (value > budget)) {
+            out.println("Budget exceeded: " + name + " is " + value + ", the budget is " + budget);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Get a percentile of sorted values.
+     *
+     * @param sortedValues the sorted values
+     * @param percentile the percentile from {@code 0.0} to {@code 1.0}
+     * @return the value at the percentile
+     */
+    private static long getPercentile(@Nonnull long[] sortedValues, double percentile) {
+        if (sortedValues.length == 0) {
+            return 0L;
+        }
+        int index = (int) Math.ceil(percentile * sortedValues.length) - 1;
+        return sortedValues[Math.max(0, Math.min(sortedValues.length - 1, index))];
+    }
+
+    public static void main(@Nonnull String[] args) throws IOException {
+        String recordingFile = null;
+        String writeFile = null;
+        int size = 100;
+        int frames = 1000;
+        int warmup = 200;
+        long maxFrameTime = -1L;
+        long maxDrawCalls = -1L;
+        long maxStateChanges = -1L;
+        long maxFlushes = -1L;
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if ((i + 1) >= args.length) {
+                throw new IllegalArgumentException("Missing value for argument: " + arg);
+            }
+            String value = args[++i];
+            switch (arg) {
+                case "-recording":
+                    recordingFile = value;
+                    break;
+                case "-write":
+                    writeFile = value;
+                    break;
+                case "-size":
+                    size = Integer.parseInt(value);
+                    break;
+                case "-frames":
+                    frames = Integer.parseInt(value);
+                    break;
+                case "-warmup":
+                    warmup = Integer.parseInt(value);
+                    break;
+                case "-maxFrameTime":
+                    maxFrameTime = Long.parseLong(value);
+                    break;
+                case "-maxDrawCalls":
+                    maxDrawCalls = Long.parseLong(value);
+                    break;
+                case "-maxStateChanges":
+                    maxStateChanges = Long.parseLong(value);
+                    break;
+                case "-maxFlushes":
+                    maxFlushes = Long.parseLong(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+
+        SceneRecording recording;
+        if (recordingFile == null) {
+            recording = SceneRecording.generate(size, 0L);
+        } else {
+            try (InputStream in = new FileInputStream(recordingFile)) {
+                recording = SceneRecording.read(in);
+            }
+        }
+        if (writeFile != null) {
+            try (OutputStream out = new FileOutputStream(writeFile)) {
+                recording.write(out);
+            }
+        }
+
+        Result result = run(recording, warmup, frames, System.out);
+        boolean withinBudget = isWithinBudget("frame time p95 (ms)", result.getFrameTimeP95() / 1000000L,
+                                              maxFrameTime, System.out);
+        withinBudget &= isWithinBudget("draw calls / frame", result.getDrawCalls(), maxDrawCalls, System.out);
+        withinBudget &= isWithinBudget("state changes / frame", result.getStateChanges(), maxStateChanges,
+                                       System.out);
+        withinBudget &= isWithinBudget("flushes / frame", result.getFlushes(), maxFlushes, System.out);
+        if (!withinBudget) {
+            System.exit(1);
+        }
+    }
+}
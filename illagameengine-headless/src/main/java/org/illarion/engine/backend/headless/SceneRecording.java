@@ -0,0 +1,222 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package org.illarion.engine.backend.headless;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.io.*;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * This is a recorded state of a scene. It stores the sprites that are displayed with their location on the screen
+ * and their render order. The recording is stored in a simple text format. Each line contains one element:
+ * <pre>
+ * &lt;texture&gt; &lt;x&gt; &lt;y&gt; &lt;order&gt;
+ * </pre>
+ * Empty lines and lines starting with {@code #} are ignored.
+ *
+ * @author Martin Karing &lt;nitram@illarion.org&gt;
+ */
+@NotThreadSafe
+public final class SceneRecording {
+    /**
+     * The character set used to store the recordings.
+     */
+    @Nonnull
+    private static final Charset CHARSET = Charset.forName("UTF-8");
+
+    /**
+     * The width of a tile on the screen.
+     */
+    private static final int TILE_WIDTH = 76;
+
+    /**
+     * The height of a tile on the screen.
+     */
+    private static final int TILE_HEIGHT = 38;
+
+    /**
+     * A single recorded element of the scene.
+     */
+    public static final class Element {
+        /**
+         * The name of the texture that is displayed.
+         */
+        @Nonnull
+        private final String texture;
+
+        /**
+         * The x coordinate on the screen.
+         */
+        private final int x;
+
+        /**
+         * The y coordinate on the screen.
+         */
+        private final int y;
+
+        /**
+         * The render order of the element.
+         */
+        private final int order;
+
+        public Element(@Nonnull String texture, int x, int y, int order) {
+            this.texture = texture;
+            this.x = x;
+            this.y = y;
+            this.order = order;
+        }
+
+        @Nonnull
+        public String getTexture() {
+            return texture;
+        }
+
+        public int getX() {
+            return x;
+        }
+
+        public int getY() {
+            return y;
+        }
+
+        public int getOrder() {
+            return order;
+        }
+    }
+
+    /**
+     * The elements of this recording.
+     */
+    @Nonnull
+    private final List<Element> elements;
+
+    /**
+     * Create a new and empty recording.
+     */
+    public SceneRecording() {
+        elements = new ArrayList<>();
+    }
+
+    /**
+     * Add a element to the recording.
+     *
+     * @param element the element
+     */
+    public void addElement(@Nonnull Element element) {
+        elements.add(element);
+    }
+
+    /**
+     * Get the elements of this recording.
+     *
+     * @return the unmodifiable list of elements
+     */
+    @Nonnull
+    public List<Element> getElements() {
+        return Collections.unmodifiableList(elements);
+    }
+
+    /**
+     * Read a recording.
+     *
+     * @param in the stream the recording is read from
+     * @return the recording
+     * @throws IOException in case reading the data fails or the data is malformed
+     */
+    @Nonnull
+    public static SceneRecording read(@Nonnull InputStream in) throws IOException {
+        SceneRecording recording = new SceneRecording();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, CHARSET));
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || (trimmed.charAt(0) == '#')) {
+                continue;
+            }
+            String[] parts = trimmed.split("\\s+");
+            if (parts.length != 4) {
+                throw new IOException("Malformed element in line " + lineNumber + ": " + line);
+            }
+            try {
+                recording.addElement(new Element(parts[0], Integer.parseInt(parts[1]), Integer.parseInt(parts[2]),
+                                                 Integer.parseInt(parts[3])));
+            } catch (@Nonnull NumberFormatException e) {
+                throw new IOException("Malformed element in line " + lineNumber + ": " + line, e);
+            }
+        }
+        return recording;
+    }
+
+    /**
+     * Write this recording.
+     *
+     * @param out the stream the recording is written to
+     * @throws IOException in case writing the data fails
+     */
+    public void write(@Nonnull OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, CHARSET));
+        writer.write("# texture x y order");
+        writer.write('\n');
+        for (Element element : elements) {
+            writer.write(element.getTexture());
+            writer.write(' ');
+            writer.write(Integer.toString(element.getX()));
+            writer.write(' ');
+            writer.write(Integer.toString(element.getY()));
+            writer.write(' ');
+            writer.write(Integer.toString(element.getOrder()));
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    /**
+     * Generate a synthetic isometric map. The layout follows the one of the client: a layer of tiles, items on some
+     * of the tiles and characters on some of the items. The texture names follow the ones the client records. The same
+     * seed always creates the same recording.
+     *
+     * @param size the amount of tiles along each edge of the map
+     * @param seed the seed of the random number generator
+     * @return the generated recording
+     */
+    @Nonnull
+    public static SceneRecording generate(int size, long seed) {
+        Random random = new Random(seed);
+        SceneRecording recording = new SceneRecording();
+        for (int col = 0; col < size; col++) {
+            for (int row = 0; row < size; row++) {
+                int x = (col - row) * (TILE_WIDTH / 2);
+                int y = (col + row) * (TILE_HEIGHT / 2);
+                int order = (col + row) * 10;
+                recording.addElement(new Element("tile/" + random.nextInt(16), x, y, order));
+                if (random.nextInt(4) == 0) {
+                    recording.addElement(new Element("item/" + random.nextInt(64), x, y, order + 1));
+                }
+                if (random.nextInt(32) == 0) {
+                    recording.addElement(new Element("avatar/" + random.nextInt(8), x, y, order + 2));
+                }
+            }
+        }
+        return recording;
+    }
+}
@@ -17,6 +17,7 @@ package org.illarion.engine.backend.gdx;
 
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
@@ -36,6 +37,11 @@ import javax.annotation.Nullable;
  * @author Martin Karing &lt;nitram@illarion.org&gt;
  */
 class GdxGraphics implements Graphics {
+    /**
+     * The amount of values required to store the vertices of a single sprite in the sprite batch.
+     */
+    private static final int SPRITE_VERTEX_COUNT = 20;
+
     /**
      * The libGDX graphics instance that is used to display the graphics.
      */
@@ -90,6 +96,12 @@ class GdxGraphics implements Graphics {
     @Nonnull
     private final Rectangle tempEngineRectangle;
 
+    /**
+     * The vertex data that is used to draw sprites with different colors in the corners.
+     */
+    @Nonnull
+    private final float[] spriteVertices;
+
     /**
      * The camera that views the scene.
      */
@@ -140,6 +152,7 @@ class GdxGraphics implements Graphics {
         tempColor4 = new com.badlogic.gdx.graphics.Color();
         tempRegion = new TextureRegion();
         tempEngineRectangle = new Rectangle();
+        spriteVertices = new float[SPRITE_VERTEX_COUNT];
 
         camera = new OrthographicCamera();
         camera.zoom = 1.f;
@@ -291,6 +304,72 @@ class GdxGraphics implements Graphics {
         }
     }
 
+    @Override
+    public void drawSprite(
+            @Nonnull Sprite sprite,
+            int posX,
+            int posY,
+            @Nonnull Color topLeftColor,
+            @Nonnull Color topRightColor,
+            @Nonnull Color bottomLeftColor,
+            @Nonnull Color bottomRightColor,
+            int frame,
+            double scale) {
+        if (sprite instanceof GdxSprite) {
+            GdxSprite gdxSprite = (GdxSprite) sprite;
+
+            gdxSprite.getDisplayArea(posX, posY, scale, 0.0, tempEngineRectangle);
+            activateSpriteBatch();
+
+            tempRegion.setRegion(gdxSprite.getFrame(frame).getTextureRegion());
+            tempRegion.flip(gdxSprite.isMirrored(), true);
+
+            float x1 = tempEngineRectangle.getX();
+            float y1 = tempEngineRectangle.getY();
+            float x2 = x1 + tempEngineRectangle.getWidth();
+            float y2 = y1 + tempEngineRectangle.getHeight();
+
+            /* The vertices are arranged the same way the sprite batch does it for a texture region. The colors are
+             * applied by the default shader of the sprite batch, so the batch is not flushed by this. */
+            spriteVertices[Batch.X1] = x1;
+            spriteVertices[Batch.Y1] = y1;
+            spriteVertices[Batch.C1] = toFloatBits(topLeftColor);
+            spriteVertices[Batch.U1] = tempRegion.getU();
+            spriteVertices[Batch.V1] = tempRegion.getV2();
+
+            spriteVertices[Batch.X2] = x1;
+            spriteVertices[Batch.Y2] = y2;
+            spriteVertices[Batch.C2] = toFloatBits(bottomLeftColor);
+            spriteVertices[Batch.U2] = tempRegion.getU();
+            spriteVertices[Batch.V2] = tempRegion.getV();
+
+            spriteVertices[Batch.X3] = x2;
+            spriteVertices[Batch.Y3] = y2;
+            spriteVertices[Batch.C3] = toFloatBits(bottomRightColor);
+            spriteVertices[Batch.U3] = tempRegion.getU2();
+            spriteVertices[Batch.V3] = tempRegion.getV();
+
+            spriteVertices[Batch.X4] = x2;
+            spriteVertices[Batch.Y4] = y1;
+            spriteVertices[Batch.C4] = toFloatBits(topRightColor);
+            spriteVertices[Batch.U4] = tempRegion.getU2();
+            spriteVertices[Batch.V4] = tempRegion.getV2();
+
+            spriteBatch.draw(tempRegion.getTexture(), spriteVertices, 0, SPRITE_VERTEX_COUNT);
+        }
+    }
+
+    /**
+     * Convert a engine color to the packed color format used by the vertices of the sprite batch.
+     *
+     * @param color the engine color
+     * @return the packed color value
+     */
+    private float toFloatBits(@Nonnull Color color) {
+        transferColor(color, tempColor1);
+        return tempColor1.toFloatBits();
+    }
+
     @Override
     public void setBlendingMode(@Nonnull BlendingMode mode) {
         if (lastBlendingMode == mode) {
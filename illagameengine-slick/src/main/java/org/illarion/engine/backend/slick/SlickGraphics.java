@@ -261,6 +261,64 @@ class SlickGraphics implements Graphics {
         }
     }
 
+    @Override
+    public void drawSprite(
+            @Nonnull final Sprite sprite,
+            final int posX,
+            final int posY,
+            @Nonnull final Color topLeftColor,
+            @Nonnull final Color topRightColor,
+            @Nonnull final Color bottomLeftColor,
+            @Nonnull final Color bottomRightColor,
+            final int frame,
+            final double scale) {
+        if (slickGraphicsImpl == null) {
+            throw new IllegalStateException("Using graphics outside of the render loop is not allowed.");
+        }
+        if (sprite instanceof SlickSprite) {
+            final SlickSprite slickSprite = (SlickSprite) sprite;
+            slickSprite.getDisplayArea(posX, posY, 1.f, 0.f, tempRect);
+
+            slickGraphicsImpl.pushTransform();
+            slickGraphicsImpl.translate(tempRect.getX(), tempRect.getY());
+
+            final Image slickImage = slickSprite.getFrame(frame).getBackingImage();
+            slickImage.setRotation(0.f);
+            if (slickSprite.isMirrored()) {
+                slickGraphicsImpl.scale((float) -scale, (float) scale);
+                setCornerColor(slickImage, Image.TOP_LEFT, topRightColor);
+                setCornerColor(slickImage, Image.TOP_RIGHT, topLeftColor);
+                setCornerColor(slickImage, Image.BOTTOM_LEFT, bottomRightColor);
+                setCornerColor(slickImage, Image.BOTTOM_RIGHT, bottomLeftColor);
+                slickGraphicsImpl.drawImage(slickImage, -tempRect.getWidth(), 0);
+            } else {
+                slickGraphicsImpl.scale((float) scale, (float) scale);
+                setCornerColor(slickImage, Image.TOP_LEFT, topLeftColor);
+                setCornerColor(slickImage, Image.TOP_RIGHT, topRightColor);
+                setCornerColor(slickImage, Image.BOTTOM_LEFT, bottomLeftColor);
+                setCornerColor(slickImage, Image.BOTTOM_RIGHT, bottomRightColor);
+                slickGraphicsImpl.drawImage(slickImage, 0, 0);
+            }
+
+            slickImage.setColor(Image.TOP_LEFT, 1.f, 1.f, 1.f, 1.f);
+            slickImage.setColor(Image.TOP_RIGHT, 1.f, 1.f, 1.f, 1.f);
+            slickImage.setColor(Image.BOTTOM_LEFT, 1.f, 1.f, 1.f, 1.f);
+            slickImage.setColor(Image.BOTTOM_RIGHT, 1.f, 1.f, 1.f, 1.f);
+            slickGraphicsImpl.popTransform();
+        }
+    }
+
+    /**
+     * Apply a engine color to one corner of a slick image.
+     *
+     * @param image the image
+     * @param corner the index of the corner
+     * @param color the color
+     */
+    private static void setCornerColor(@Nonnull final Image image, final int corner, @Nonnull final Color color) {
+        image.setColor(corner, color.getRedf(), color.getGreenf(), color.getBluef(), color.getAlphaf());
+    }
+
     @Override
     public void drawText(
             @Nonnull final Font font,
@@ -17,6 +17,7 @@ package org.illarion.engine.backend.shared;
 
 import org.illarion.engine.GameContainer;
 import org.illarion.engine.graphic.Graphics;
+import org.illarion.engine.graphic.LocatedSceneEvent;
 import org.illarion.engine.graphic.Scene;
 import org.illarion.engine.graphic.SceneElement;
 import org.illarion.engine.graphic.SceneEvent;
@@ -72,6 +73,19 @@ public abstract class AbstractScene<T extends SceneEffect> implements Scene, Com
      */
     private int workingArraySize;
 
+    /**
+     * The index of the pick areas of the elements. This index is only accessed during the update of the scene.
+     */
+    @Nonnull
+    private final ScenePickingIndex pickingIndex;
+
+    /**
+     * The elements that got removed from the scene since the last update. They are removed from the picking index
+     * at the next update. Access to this list is guarded by the lock of {@link #sceneElements}.
+     */
+    @Nonnull
+    private final List<SceneElement> removedElements;
+
     /**
      * Create a new scene and setup the internal structures.
      */
@@ -79,6 +93,8 @@ public abstract class AbstractScene<T extends SceneEffect> implements Scene, Com
         sceneElements = new ArrayList<>();
         eventQueue = new ConcurrentLinkedQueue<>();
         sceneEffects = new ArrayList<>();
+        pickingIndex = new ScenePickingIndex();
+        removedElements = new ArrayList<>();
     }
 
     @Override
@@ -101,7 +117,7 @@ public abstract class AbstractScene<T extends SceneEffect> implements Scene, Com
     @Override
     public final void updateElementLocation(@Nonnull SceneElement element) {
         synchronized (sceneElements) {
-            removeElement(element);
+            sceneElements.remove(element);
             addElement(element);
         }
     }
@@ -109,7 +125,9 @@ public abstract class AbstractScene<T extends SceneEffect> implements Scene, Com
     @Override
     public final void removeElement(@Nonnull SceneElement element) {
         synchronized (sceneElements) {
-            sceneElements.remove(element);
+            if (sceneElements.remove(element)) {
+                removedElements.add(element);
+            }
         }
     }
 
@@ -124,16 +142,25 @@ public abstract class AbstractScene<T extends SceneEffect> implements Scene, Com
         synchronized (sceneElements) {
             workingArray = sceneElements.toArray(workingArray);
             workingArraySize = sceneElements.size();
+            for (int i = 0; i < removedElements.size(); i++) {
+                pickingIndex.remove(removedElements.get(i));
+            }
+            removedElements.clear();
         }
 
         @Nullable SceneEvent event = eventQueue.poll();
         while (event != null) {
-            boolean notProcessed = true;
-            for (int i = workingArraySize - 1; i >= 0; i--) {
-                SceneElement element = workingArray[i];
-                if (element.isEventProcessed(container, delta, event)) {
-                    notProcessed = false;
-                    break;
+            boolean notProcessed;
+            if (event instanceof LocatedSceneEvent) {
+                notProcessed = !isLocatedEventProcessed(container, delta, (LocatedSceneEvent) event);
+            } else {
+                notProcessed = true;
+                for (int i = workingArraySize - 1; i >= 0; i--) {
+                    SceneElement element = workingArray[i];
+                    if (element.isEventProcessed(container, delta, event)) {
+                        notProcessed = false;
+                        break;
+                    }
                 }
             }
             if (notProcessed) {
@@ -141,12 +168,32 @@ public abstract class AbstractScene<T extends SceneEffect> implements Scene, Com
             }
             event = eventQueue.poll();
         }
-        long end = System.currentTimeMillis();
 
         for (int i = 0; i < workingArraySize; i++) {
             SceneElement element = workingArray[i];
             element.update(container, delta);
+            pickingIndex.update(element);
+        }
+    }
+
+    /**
+     * Send a located event to the elements that are located at the location of the event. The elements are looked
+     * up in the picking index, so only the elements that cover the location of the event are tested.
+     *
+     * @param container the game container that is forwarded to the scene elements
+     * @param delta the time since the last update that is reported to the elements
+     * @param event the event
+     * @return {@code true} in case one of the elements processed the event
+     */
+    private boolean isLocatedEventProcessed(
+            @Nonnull GameContainer container, int delta, @Nonnull LocatedSceneEvent event) {
+        List<SceneElement> candidates = pickingIndex.getCandidates(event.getSceneX(), event.getSceneY());
+        for (int i = 0; i < candidates.size(); i++) {
+            if (candidates.get(i).isEventProcessed(container, delta, event)) {
+                return true;
+            }
         }
+        return false;
     }
 
     /**
@@ -0,0 +1,305 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package org.illarion.engine.backend.shared;
+
+import illarion.common.types.Rectangle;
+import org.illarion.engine.graphic.PickableSceneElement;
+import org.illarion.engine.graphic.SceneElement;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.util.*;
+
+/**
+ * This index stores the pick areas of the scene elements in buckets of a fixed screen grid. It is used to locate the
+ * elements that are possibly able to handle a located event without testing every element of the scene.
+ *
+ * @author Martin Karing &lt;nitram@illarion.org&gt;
+ */
+@NotThreadSafe
+final class ScenePickingIndex {
+    /**
+     * The size of a single grid cell expressed as bit shift. The cells are 128 pixels wide and high.
+     */
+    private static final int CELL_SIZE_SHIFT = 7;
+
+    /**
+     * The maximal amount of cells a single element is allowed to cover. Elements that are larger are treated like
+     * elements without pick area so they do not clutter the grid.
+     */
+    private static final int MAX_CELLS_PER_ELEMENT = 64;
+
+    /**
+     * The index entry of a single element.
+     */
+    private static final class Entry {
+        /**
+         * The element this entry belongs to.
+         */
+        @Nonnull
+        private final SceneElement element;
+
+        /**
+         * The sequence number of this entry. Its used to keep the order of elements with the same order value stable.
+         */
+        private final long sequence;
+
+        /**
+         * The copy of the pick area that was stored in the grid.
+         */
+        @Nonnull
+        private final Rectangle area = new Rectangle();
+
+        /**
+         * {@code true} in case the element reported a pick area and is stored in the grid.
+         */
+        private boolean bounded;
+
+        /**
+         * The range of grid cells this entry is stored in.
+         */
+        private int minCellX;
+        private int minCellY;
+        private int maxCellX;
+        private int maxCellY;
+
+        Entry(@Nonnull SceneElement element, long sequence) {
+            this.element = element;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * The comparator that sorts the candidates in the order they have to receive the event. That is the reverse
+     * order of the rendering.
+     */
+    @Nonnull
+    private static final Comparator<Entry> DISPATCH_ORDER = new Comparator<Entry>() {
+        @Override
+        public int compare(@Nonnull Entry o1, @Nonnull Entry o2) {
+            int result = Integer.compare(o1.element.getOrder(), o2.element.getOrder());
+            if (result == 0) {
+                return Long.compare(o1.sequence, o2.sequence);
+            }
+            return result;
+        }
+    };
+
+    /**
+     * All entries of the index.
+     */
+    @Nonnull
+    private final Map<SceneElement, Entry> entries;
+
+    /**
+     * The grid cells that contain at least one entry.
+     */
+    @Nonnull
+    private final Map<Long, List<Entry>> cells;
+
+    /**
+     * The entries that do not report a pick area. These entries are candidates for every location.
+     */
+    @Nonnull
+    private final List<Entry> unboundedEntries;
+
+    /**
+     * The list that is used to collect and sort the candidates during a query.
+     */
+    @Nonnull
+    private final List<Entry> candidateEntries;
+
+    /**
+     * The list that is returned as result of a query.
+     */
+    @Nonnull
+    private final List<SceneElement> candidates;
+
+    /**
+     * The sequence number assigned to the next new entry.
+     */
+    private long nextSequence;
+
+    ScenePickingIndex() {
+        entries = new IdentityHashMap<>();
+        cells = new HashMap<>();
+        unboundedEntries = new ArrayList<>();
+        candidateEntries = new ArrayList<>();
+        candidates = new ArrayList<>();
+    }
+
+    /**
+     * Fetch the current pick area of a element and store it in the index. Elements that are not yet known to the
+     * index are added.
+     *
+     * @param element the element to update
+     */
+    void update(@Nonnull SceneElement element) {
+        Rectangle area = null;
+        if (element instanceof PickableSceneElement) {
+            area = ((PickableSceneElement) element).getPickArea();
+        }
+
+        Entry entry = entries.get(element);
+        if (entry == null) {
+            entry = new Entry(element, nextSequence++);
+            entries.put(element, entry);
+        } else if (area == null) {
+            if (!entry.bounded) {
+                return;
+            }
+            detach(entry);
+        } else {
+            if (entry.bounded && entry.area.equals(area)) {
+                return;
+            }
+            detach(entry);
+        }
+        attach(entry, area);
+    }
+
+    /**
+     * Remove a element from the index.
+     *
+     * @param element the element to remove
+     */
+    void remove(@Nonnull SceneElement element) {
+        Entry entry = entries.remove(element);
+        if (entry != null) {
+            detach(entry);
+        }
+    }
+
+    /**
+     * Get the elements that are possibly able to handle a event at the specified location. The elements are sorted
+     * in the order they have to receive the event.
+     *
+     * @param x the x coordinate of the location in the scene
+     * @param y the y coordinate of the location in the scene
+     * @return the candidates, this list is reused by the next call of this function
+     */
+    @Nonnull
+    List<SceneElement> getCandidates(int x, int y) {
+        candidateEntries.clear();
+        candidates.clear();
+
+        List<Entry> cell = cells.get(getCellKey(x >> CELL_SIZE_SHIFT, y >> CELL_SIZE_SHIFT));
+        if (cell != null) {
+            for (int i = 0; i < cell.size(); i++) {
+                Entry entry = cell.get(i);
+                if (entry.area.isInside(x, y)) {
+                    candidateEntries.add(entry);
+                }
+            }
+        }
+        candidateEntries.addAll(unboundedEntries);
+
+        if (candidateEntries.size() > 1) {
+            Collections.sort(candidateEntries, DISPATCH_ORDER);
+        }
+        for (int i = 0; i < candidateEntries.size(); i++) {
+            candidates.add(candidateEntries.get(i).element);
+        }
+        candidateEntries.clear();
+        return candidates;
+    }
+
+    /**
+     * Store a entry with the specified area in the index.
+     *
+     * @param entry the entry
+     * @param area the pick area or {@code null} in case the entry has to be a candidate for every location
+     */
+    private void attach(@Nonnull Entry entry, @Nullable Rectangle area) {
+        if (area == null) {
+            entry.bounded = false;
+            unboundedEntries.add(entry);
+            return;
+        }
+
+        entry.area.set(area);
+        entry.bounded = true;
+        if (area.isEmpty()) {
+            entry.minCellX = 0;
+            entry.maxCellX = -1;
+            entry.minCellY = 0;
+            entry.maxCellY = -1;
+            return;
+        }
+
+        entry.minCellX = area.getX() >> CELL_SIZE_SHIFT;
+        entry.minCellY = area.getY() >> CELL_SIZE_SHIFT;
+        entry.maxCellX = (area.getX() + area.getWidth() - 1) >> CELL_SIZE_SHIFT;
+        entry.maxCellY = (area.getY() + area.getHeight() - 1) >> CELL_SIZE_SHIFT;
+
+        long cellCount = ((long) entry.maxCellX - entry.minCellX + 1) * ((long) entry.maxCellY - entry.minCellY + 1);
+        if (cellCount > MAX_CELLS_PER_ELEMENT) {
+            entry.bounded = false;
+            unboundedEntries.add(entry);
+            return;
+        }
+
+        for (int cellX = entry.minCellX; cellX <= entry.maxCellX; cellX++) {
+            for (int cellY = entry.minCellY; cellY <= entry.maxCellY; cellY++) {
+                Long key = getCellKey(cellX, cellY);
+                List<Entry> cell = cells.get(key);
+                if (cell == null) {
+                    cell = new ArrayList<>();
+                    cells.put(key, cell);
+                }
+                cell.add(entry);
+            }
+        }
+    }
+
+    /**
+     * Remove a entry from the grid or the list of unbounded entries.
+     *
+     * @param entry the entry to remove
+     */
+    private void detach(@Nonnull Entry entry) {
+        if (!entry.bounded) {
+            unboundedEntries.remove(entry);
+            return;
+        }
+
+        for (int cellX = entry.minCellX; cellX <= entry.maxCellX; cellX++) {
+            for (int cellY = entry.minCellY; cellY <= entry.maxCellY; cellY++) {
+                Long key = getCellKey(cellX, cellY);
+                List<Entry> cell = cells.get(key);
+                if (cell != null) {
+                    cell.remove(entry);
+                    if (cell.isEmpty()) {
+                        cells.remove(key);
+                    }
+                }
+            }
+        }
+        entry.bounded = false;
+    }
+
+    /**
+     * Get the key of a grid cell.
+     *
+     * @param cellX the x coordinate of the cell
+     * @param cellY the y coordinate of the cell
+     * @return the key of the cell
+     */
+    private static long getCellKey(int cellX, int cellY) {
+        return ((long) cellX << Integer.SIZE) | (cellY & 0xFFFFFFFFL);
+    }
+}
@@ -55,6 +55,32 @@ public interface Graphics {
             double rotation,
             @Nonnull TextureEffect... effects);
 
+    /**
+     * Draw a sprite to the screen with a different color in each corner. The colors are interpolated across the
+     * sprite. This is meant for lighting gradients, as the colors are applied per vertex it does not require
+     * changing the shader for each sprite.
+     *
+     * @param sprite the sprite
+     * @param posX the x coordinate on the screen the sprite is supposed to appear at
+     * @param posY the y coordinate on the screen the sprite is supposed to appear at
+     * @param topLeftColor the color of the top left corner of the sprite
+     * @param topRightColor the color of the top right corner of the sprite
+     * @param bottomLeftColor the color of the bottom left corner of the sprite
+     * @param bottomRightColor the color of the bottom right corner of the sprite
+     * @param frame the frame of the sprite that should be rendered
+     * @param scale the scaling that should be applied to the sprite
+     */
+    void drawSprite(
+            @Nonnull Sprite sprite,
+            int posX,
+            int posY,
+            @Nonnull Color topLeftColor,
+            @Nonnull Color topRightColor,
+            @Nonnull Color bottomLeftColor,
+            @Nonnull Color bottomRightColor,
+            int frame,
+            double scale);
+
     /**
      * Set the method used to blend the colors of overlapping areas.
      *
@@ -0,0 +1,38 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package org.illarion.engine.graphic;
+
+/**
+ * This is a scene event that is bound to a specific location in the scene. The scene uses this location to find
+ * the elements that are located at this point, so only these elements receive the event.
+ *
+ * @author Martin Karing &lt;nitram@illarion.org&gt;
+ */
+public interface LocatedSceneEvent extends SceneEvent {
+    /**
+     * Get the x coordinate of the location of this event in the coordinate system of the scene elements.
+     *
+     * @return the x coordinate of the event location
+     */
+    int getSceneX();
+
+    /**
+     * Get the y coordinate of the location of this event in the coordinate system of the scene elements.
+     *
+     * @return the y coordinate of the event location
+     */
+    int getSceneY();
+}
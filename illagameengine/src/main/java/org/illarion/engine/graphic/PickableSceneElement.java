@@ -0,0 +1,39 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package org.illarion.engine.graphic;
+
+import illarion.common.types.Rectangle;
+
+import javax.annotation.Nullable;
+
+/**
+ * This is a scene element that is able to report the area it covers in the scene. Elements implementing this
+ * interface only receive {@link LocatedSceneEvent}s that are located inside this area.
+ *
+ * @author Martin Karing &lt;nitram@illarion.org&gt;
+ */
+public interface PickableSceneElement extends SceneElement {
+    /**
+     * Get the area of the scene where this element is able to process located events. The scene reads this area
+     * after each update of the element, so the value only needs to be valid after
+     * {@link #update(org.illarion.engine.GameContainer, int)} was called. The returned instance is not stored by the
+     * scene.
+     *
+     * @return the area of the element or {@code null} in case the element needs to receive all located events
+     */
+    @Nullable
+    Rectangle getPickArea();
+}
@@ -32,10 +32,12 @@ public class AnnotationChecker {
 
     public boolean isAnnotatedFill(@Nonnull final Map map) {
         final List<String[]> annotatedTiles = new ArrayList<>();
-        for (final MapPosition pos : map.getSelectedTiles()) {
-            final MapTile tile = map.getTileAt(pos.getX(), pos.getY());
+        final SelectionManager selection = map.getSelection();
+        final int width = selection.getWidth();
+        for (int i = selection.nextSelected(0); i >= 0; i = selection.nextSelected(i + 1)) {
+            final MapTile tile = map.getTileAt(i % width, i / width);
             if (tile != null) {
-                annotatedTiles.addAll(getAnnotatedObject(pos.getX(), pos.getY(), tile));
+                annotatedTiles.addAll(getAnnotatedObject(i % width, i / width, tile));
             }
         }
         if (annotatedTiles.isEmpty()) {
@@ -0,0 +1,327 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package illarion.mapedit.data;
+
+import illarion.mapedit.crash.exceptions.FormatCorruptedException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * This class reads and writes the compact binary version of a map. The binary file stores the same data as the text
+ * files of the map. The ID columns of the tiles are stored as plain blocks of integers, so loading the map is a
+ * single read of the file and a bulk copy into the columns of the map.
+ * <p/>
+ * Layout of the file, all values are big endian integers unless stated otherwise:
+ * <pre>
+ * magic, version, z, x, y, width, height
+ * per text file (tiles, items, warps, annotations): size, modification time (longs)
+ * tile IDs, overlay IDs, shape IDs, music IDs  (width * height values each)
+ * content count
+ * per content: index, annotation, warp flag (byte) [, target x, target y, target z], item count
+ * per item: item ID, quality, annotation, data count, data values
+ * </pre>
+ * Texts are stored as the length followed by the ISO-8859-1 encoded characters. A missing text has the length -1.
+ * <p/>
+ * The size and the modification time of the text files are recorded when the binary file is written. The binary file
+ * is only used as long as the text files still match them, so text files that were edited, copied or checked out
+ * after the binary file was written are never overridden by it. A missing text file is recorded with -1.
+ *
+ * @author Martin Karing &lt;nitram@illarion.org&gt;
+ */
+final class BinaryMapFormat {
+    /**
+     * The first value of every binary map file.
+     */
+    private static final int MAGIC = 0x494D4150;
+
+    /**
+     * The version of the layout.
+     */
+    private static final int VERSION = 2;
+
+    /**
+     * The number of text files of a map.
+     */
+    private static final int TEXT_FILE_COUNT = 4;
+
+    /**
+     * The size of the header in bytes.
+     */
+    private static final int HEADER_SIZE = (7 * 4) + (TEXT_FILE_COUNT * 2 * 8);
+
+    private static final Charset CHARSET = Charset.forName("ISO-8859-1");
+
+    private BinaryMapFormat() {
+    }
+
+    /**
+     * Write a map to a binary file.
+     *
+     * @param map the snapshot of the map to write, it has to contain the tiles
+     * @param file the file that receives the map
+     * @param textFiles the tile, item, warp and annotation files of the map that hold the same data
+     * @throws IOException in case writing the file fails
+     */
+    static void write(@Nonnull final MapSnapshot map, @Nonnull final Path file, @Nonnull final Path... textFiles)
+            throws IOException {
+        if (textFiles.length != TEXT_FILE_COUNT) {
+            throw new IllegalArgumentException("Expected " + TEXT_FILE_COUNT + " text files");
+        }
+        final int[] tileColumns = map.getTileColumns();
+        final ByteBuffer tiles = ByteBuffer.allocate(HEADER_SIZE + (tileColumns.length * 4));
+        tiles.putInt(MAGIC);
+        tiles.putInt(VERSION);
+        tiles.putInt(map.getZ());
+        tiles.putInt(map.getX());
+        tiles.putInt(map.getY());
+        tiles.putInt(map.getWidth());
+        tiles.putInt(map.getHeight());
+        for (final Path textFile : textFiles) {
+            if (Files.exists(textFile)) {
+                tiles.putLong(Files.size(textFile));
+                tiles.putLong(Files.getLastModifiedTime(textFile).toMillis());
+            } else {
+                tiles.putLong(-1L);
+                tiles.putLong(-1L);
+            }
+        }
+        tiles.asIntBuffer().put(tileColumns);
+        tiles.position(tiles.position() + (tileColumns.length * 4));
+        tiles.flip();
+
+        try (FileChannel channel = FileChannel
+                .open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                      StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (tiles.hasRemaining()) {
+                channel.write(tiles);
+            }
+            final DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel)));
+            final int contentCount = map.getContentCount();
+            out.writeInt(contentCount);
+            for (int c = 0; c < contentCount; c++) {
+                final TileContent content = map.getContent(c);
+                out.writeInt(map.getContentIndex(c));
+                writeText(out, content.getAnnotation());
+                final MapWarpPoint warp = content.getMapWarpPoint();
+                out.writeBoolean(warp != null);
+                if (warp != null) {
+                    out.writeInt(warp.getXTarget());
+                    out.writeInt(warp.getYTarget());
+                    out.writeInt(warp.getZTarget());
+                }
+                final List<MapItem> items = content.getMapItems();
+                final int itemCount = (items == null) ? 0 : items.size();
+                out.writeInt(itemCount);
+                for (int i = 0; i < itemCount; i++) {
+                    final MapItem item = items.get(i);
+                    out.writeInt(item.getId());
+                    out.writeInt(item.getQualityDurability());
+                    writeText(out, item.getAnnotation());
+                    final List<String> data = item.getItemData();
+                    final int dataCount = (data == null) ? 0 : data.size();
+                    out.writeInt(dataCount);
+                    for (int j = 0; j < dataCount; j++) {
+                        writeText(out, data.get(j));
+                    }
+                }
+            }
+            out.flush();
+        }
+    }
+
+    /**
+     * Read a map from a binary file.
+     *
+     * @param file the binary file
+     * @param name the name of the map
+     * @param path the path of the map
+     * @return the map
+     * @throws IOException in case reading the file fails or the file is corrupted
+     */
+    @Nonnull
+    static Map read(@Nonnull final Path file, @Nonnull final String name, @Nonnull final Path path)
+            throws IOException {
+        // The file is read to the heap instead of mapping it, so the file is not locked until the mapping is
+        // garbage collected and can be replaced once the map is saved again.
+        final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        try {
+            if ((buffer.getInt() != MAGIC) || (buffer.getInt() != VERSION)) {
+                throw new FormatCorruptedException(file.toString(), null, 0, "Binary map version " + VERSION);
+            }
+            final int z = buffer.getInt();
+            final int x = buffer.getInt();
+            final int y = buffer.getInt();
+            final int width = buffer.getInt();
+            final int height = buffer.getInt();
+            buffer.position(HEADER_SIZE);
+            final Map map = new Map(name, path, width, height, x, y, z);
+
+            final IntBuffer columns = buffer.asIntBuffer();
+            map.writeTileColumns(columns);
+            buffer.position(buffer.position() + (columns.position() * 4));
+
+            final int contentCount = buffer.getInt();
+            final char[] textBuffer = new char[256];
+            for (int c = 0; c < contentCount; c++) {
+                final int index = buffer.getInt();
+                if ((index < 0) || (index >= (width * height))) {
+                    throw new IllegalArgumentException("Content index out of range: " + index);
+                }
+                final TileContent content = map.getOrCreateContentAtIndex(index);
+                content.setAnnotation(readText(buffer, textBuffer));
+                if (buffer.get() != 0) {
+                    content.setMapWarpPoint(
+                            new MapWarpPoint(buffer.getInt(), buffer.getInt(), buffer.getInt()));
+                }
+                final int itemCount = buffer.getInt();
+                if (itemCount > 0) {
+                    final List<MapItem> items = content.getOrCreateMapItems();
+                    for (int i = 0; i < itemCount; i++) {
+                        final int itemId = buffer.getInt();
+                        final int qualityDurability = buffer.getInt();
+                        final String annotation = readText(buffer, textBuffer);
+                        final MapItem item = new MapItem(itemId, null, qualityDurability);
+                        final int dataCount = buffer.getInt();
+                        for (int j = 0; j < dataCount; j++) {
+                            item.addItemData(readText(buffer, textBuffer));
+                        }
+                        item.setAnnotation(annotation);
+                        items.add(item);
+                    }
+                }
+            }
+            return map;
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new FormatCorruptedException(file.toString(), null, 0, "Binary map version " + VERSION);
+        }
+    }
+
+    /**
+     * Read the location and the size of a map from a binary file without reading the tiles.
+     *
+     * @param file the binary file
+     * @param name the name of the map
+     * @param path the path of the map
+     * @return the header of the map
+     * @throws IOException in case reading the file fails or the file is corrupted
+     */
+    @Nonnull
+    static MapHeader readHeader(@Nonnull final Path file, @Nonnull final String name, @Nonnull final Path path)
+            throws IOException {
+        final ByteBuffer buffer = readHeaderBuffer(file);
+        final int z = buffer.getInt();
+        final int x = buffer.getInt();
+        final int y = buffer.getInt();
+        final int width = buffer.getInt();
+        final int height = buffer.getInt();
+        return new MapHeader(name, path, x, y, z, width, height);
+    }
+
+    /**
+     * Check if a binary file holds the current version of a map. This is the case if the text files of the map still
+     * have the size and the modification time they had when the binary file was written.
+     *
+     * @param file the binary file
+     * @param textFiles the tile, item, warp and annotation files of the map
+     * @return {@code true} in case the binary file can be used to load the map
+     */
+    static boolean isCurrent(@Nonnull final Path file, @Nonnull final Path... textFiles) {
+        if ((textFiles.length != TEXT_FILE_COUNT) || !Files.isRegularFile(file)) {
+            return false;
+        }
+        try {
+            final ByteBuffer buffer = readHeaderBuffer(file);
+            buffer.position(7 * 4);
+            for (final Path textFile : textFiles) {
+                final long size = buffer.getLong();
+                final long modified = buffer.getLong();
+                if (Files.exists(textFile)) {
+                    if ((Files.size(textFile) != size) ||
+                            (Files.getLastModifiedTime(textFile).toMillis() != modified)) {
+                        return false;
+                    }
+                } else if (size != -1L) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Read the header of a binary file and check the magic value and the version.
+     *
+     * @param file the binary file
+     * @return the buffer holding the header, it is placed behind the version
+     * @throws IOException in case reading the file fails or the file is corrupted
+     */
+    @Nonnull
+    private static ByteBuffer readHeaderBuffer(@Nonnull final Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+            int read = 0;
+            while (buffer.hasRemaining() && (read >= 0)) {
+                read = channel.read(buffer);
+            }
+            buffer.flip();
+            if ((buffer.remaining() < HEADER_SIZE) || (buffer.getInt() != MAGIC) || (buffer.getInt() != VERSION)) {
+                throw new FormatCorruptedException(file.toString(), null, 0, "Binary map version " + VERSION);
+            }
+            return buffer;
+        }
+    }
+
+    private static void writeText(@Nonnull final DataOutputStream out, @Nullable final String text)
+            throws IOException {
+        if (text == null) {
+            out.writeInt(-1);
+        } else {
+            final byte[] bytes = text.getBytes(CHARSET);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    @Nullable
+    private static String readText(@Nonnull final ByteBuffer buffer, @Nonnull final char[] textBuffer) {
+        final int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        final char[] chars = (length <= textBuffer.length) ? textBuffer : new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) (buffer.get() & 0xFF);
+        }
+        return new String(chars, 0, length);
+    }
+}
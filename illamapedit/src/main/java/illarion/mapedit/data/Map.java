@@ -15,21 +15,26 @@
  */
 package illarion.mapedit.data;
 
+import gnu.trove.map.hash.TIntObjectHashMap;
 import illarion.common.types.Location;
 import illarion.mapedit.events.HistoryPasteCutEvent;
-import illarion.mapedit.history.CopyPasteAction;
-import illarion.mapedit.history.GroupAction;
 import illarion.mapedit.history.ItemPlacedAction;
+import illarion.mapedit.history.RegionChangedAction;
 import org.bushe.swing.event.EventBus;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.nio.IntBuffer;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
 
 /**
  * This class represents a whole map, including name, path, dimensions, and data.
+ * <p/>
+ * The tile data is stored in columns. The ID values of all tiles are stored in plain integer arrays. The items, warp
+ * points and annotations are only present on a few tiles, so they are stored in a sparse map. The {@link MapTile}
+ * objects returned by this class are views on this data.
  *
  * @author Tim
  */
@@ -64,10 +69,43 @@ public class Map implements Iterable<MapTile> {
     private final int z;
 
     /**
-     * The tiles.
+     * The tile IDs of all tiles.
      */
     @Nonnull
-    private final MapTile[] mapTileData;
+    private final int[] tileIds;
+    /**
+     * The overlay IDs of all tiles.
+     */
+    @Nonnull
+    private final int[] overlayIds;
+    /**
+     * The shape IDs of all tiles.
+     */
+    @Nonnull
+    private final int[] shapeIds;
+    /**
+     * The music IDs of all tiles.
+     */
+    @Nonnull
+    private final int[] musicIds;
+    /**
+     * The items, warp points and annotations of the tiles that have any of them.
+     */
+    @Nonnull
+    private final TIntObjectHashMap<TileContent> tileContents;
+    /**
+     * This flag is set in case the ID values of any tile changed since the tile file was saved the last time.
+     */
+    private volatile boolean tileDataChanged;
+    /**
+     * The number of changes of the content of the map. The items, warps and annotations are changed in place, so the
+     * changes are counted once they are announced.
+     */
+    private volatile int changeCount;
+    /**
+     * The value of {@link #changeCount} the last time the map was saved.
+     */
+    private volatile int savedChangeCount;
     private int activeX = Integer.MIN_VALUE;
     private int activeY = Integer.MIN_VALUE;
     private boolean isFillDragging;
@@ -100,9 +138,14 @@ public class Map implements Iterable<MapTile> {
         this.x = x;
         this.y = y;
         this.z = z;
-        mapTileData = new MapTile[w * h];
+        tileIds = new int[w * h];
+        overlayIds = new int[w * h];
+        shapeIds = new int[w * h];
+        musicIds = new int[w * h];
+        tileContents = new TIntObjectHashMap<>();
+        tileDataChanged = true;
         visible = true;
-        selectionManager = new SelectionManager();
+        selectionManager = new SelectionManager(w, h);
     }
 
     @Nullable
@@ -120,15 +163,36 @@ public class Map implements Iterable<MapTile> {
         return items;
     }
 
+    /**
+     * Get the selected tiles of this map.
+     *
+     * @return the selection
+     */
     @Nonnull
-    public Set<MapPosition> getSelectedTiles() {
-        return selectionManager.getSelection();
+    public SelectionManager getSelection() {
+        return selectionManager;
     }
 
     public boolean isActiveTile(final int x, final int y) {
         return (activeX == x) && (activeY == y);
     }
 
+    public int getActiveX() {
+        return activeX;
+    }
+
+    public int getActiveY() {
+        return activeY;
+    }
+
+    public int getPositionX() {
+        return positionX;
+    }
+
+    public int getPositionY() {
+        return positionY;
+    }
+
     public boolean isFillDragging() {
         return isFillDragging;
     }
@@ -188,6 +252,45 @@ public class Map implements Iterable<MapTile> {
         setTileAtIndex(mapToIndex(x, y), mapTile);
     }
 
+    /**
+     * Sets the IDs of a tile at a specified position without creating a tile object. The items, the warp point and
+     * the annotation of the tile are not changed.
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param tileId the tile ID
+     * @param overlayId the overlay ID
+     * @param shapeId the shape ID
+     * @param musicId the music ID
+     */
+    public void setTileAt(
+            final int x, final int y, final int tileId, final int overlayId, final int shapeId, final int musicId) {
+        loadTileAt(x, y, tileId, overlayId, shapeId, musicId);
+        tileDataChanged = true;
+    }
+
+    /**
+     * Sets the IDs of a tile at a specified position like {@link #setTileAt(int, int, int, int, int, int)}, but
+     * without marking the tile data as changed. Decoders that write the tiles from several threads use this and mark
+     * the tile data once all tiles are written.
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param tileId the tile ID
+     * @param overlayId the overlay ID
+     * @param shapeId the shape ID
+     * @param musicId the music ID
+     * @see #setTileDataChanged(boolean)
+     */
+    public void loadTileAt(
+            final int x, final int y, final int tileId, final int overlayId, final int shapeId, final int musicId) {
+        final int index = mapToIndex(x, y);
+        tileIds[index] = tileId;
+        overlayIds[index] = overlayId;
+        shapeIds[index] = shapeId;
+        musicIds[index] = musicId;
+    }
+
     /**
      * Sets a tile at a specified position.
      *
@@ -195,14 +298,273 @@ public class Map implements Iterable<MapTile> {
      * @param mapTile the tile to add.
      */
     private void setTileAtIndex(final int index, @Nonnull final MapTile mapTile) {
-        mapTileData[index] = mapTile;
+        tileIds[index] = mapTile.getId();
+        overlayIds[index] = mapTile.getOverlayID();
+        shapeIds[index] = mapTile.getShapeID();
+        musicIds[index] = mapTile.getMusicID();
+        tileDataChanged = true;
+        final TileContent content = mapTile.getContent();
+        if (content == null) {
+            tileContents.remove(index);
+        } else {
+            tileContents.put(index, content);
+        }
+        mapTile.attach(this, index);
     }
 
     /**
      * Get a tile located at a specific internal index value.
      */
+    @Nonnull
     MapTile getTileAtIndex(final int index) {
-        return mapTileData[index];
+        return new MapTile(this, index, tileIds[index], overlayIds[index], shapeIds[index], musicIds[index],
+                           tileContents.get(index));
+    }
+
+    /**
+     * The amount of values stored per tile by {@link #readTileColumns(int, int[], int)}.
+     */
+    static final int TILE_COLUMNS = 4;
+
+    /**
+     * Copy the ID values of a tile to a array.
+     *
+     * @param index the index of the tile
+     * @param target the array that receives the values
+     * @param offset the offset in the array where the {@link #TILE_COLUMNS} values are written
+     */
+    void readTileColumns(final int index, @Nonnull final int[] target, final int offset) {
+        target[offset] = tileIds[index];
+        target[offset + 1] = overlayIds[index];
+        target[offset + 2] = shapeIds[index];
+        target[offset + 3] = musicIds[index];
+    }
+
+    /**
+     * Set the ID values of a tile from a array.
+     *
+     * @param index the index of the tile
+     * @param source the array that contains the values
+     * @param offset the offset in the array where the {@link #TILE_COLUMNS} values are read
+     */
+    void writeTileColumns(final int index, @Nonnull final int[] source, final int offset) {
+        tileIds[index] = source[offset];
+        overlayIds[index] = source[offset + 1];
+        shapeIds[index] = source[offset + 2];
+        musicIds[index] = source[offset + 3];
+        tileDataChanged = true;
+    }
+
+    /**
+     * Copy the ID values of all tiles to a buffer. The buffer receives all tile IDs, followed by all overlay IDs,
+     * all shape IDs and all music IDs.
+     *
+     * @param target the buffer that receives the values
+     */
+    void readTileColumns(@Nonnull final IntBuffer target) {
+        target.put(tileIds);
+        target.put(overlayIds);
+        target.put(shapeIds);
+        target.put(musicIds);
+    }
+
+    /**
+     * Set the ID values of all tiles from a buffer. The order of the values is the same as the one written by
+     * {@link #readTileColumns(IntBuffer)}.
+     *
+     * @param source the buffer that contains the values
+     */
+    void writeTileColumns(@Nonnull final IntBuffer source) {
+        source.get(tileIds);
+        source.get(overlayIds);
+        source.get(shapeIds);
+        source.get(musicIds);
+        tileDataChanged = true;
+    }
+
+    /**
+     * Check if the ID values of any tile changed since the tile file was saved the last time.
+     *
+     * @return {@code true} in case the tile file needs to be written
+     */
+    boolean isTileDataChanged() {
+        return tileDataChanged;
+    }
+
+    /**
+     * Set the flag that marks changes of the ID values of the tiles.
+     *
+     * @param changed {@code true} in case the tile file needs to be written
+     */
+    public void setTileDataChanged(final boolean changed) {
+        tileDataChanged = changed;
+    }
+
+    /**
+     * Count a change of the content of the map. This has to be called from the event dispatch thread.
+     */
+    public void markChanged() {
+        changeCount++;
+    }
+
+    /**
+     * Get the number of changes of the content of the map.
+     *
+     * @return the number of changes
+     * @see #markSaved(int)
+     */
+    public int getChangeCount() {
+        return changeCount;
+    }
+
+    /**
+     * Mark the changes of the content of the map as saved.
+     *
+     * @param savedCount the value of {@link #getChangeCount()} at the time the saved copy of the map was created
+     */
+    public void markSaved(final int savedCount) {
+        savedChangeCount = savedCount;
+    }
+
+    /**
+     * Check if the map changed since it was loaded or saved the last time.
+     *
+     * @return {@code true} in case closing the map would lose changes
+     */
+    public boolean isChanged() {
+        return tileDataChanged || (changeCount != savedChangeCount);
+    }
+
+    /**
+     * Get the indices of all tiles that have content.
+     *
+     * @return the indices in ascending order
+     */
+    @Nonnull
+    int[] getContentIndices() {
+        final int[] indices = tileContents.keys();
+        Arrays.sort(indices);
+        return indices;
+    }
+
+    @Nullable
+    TileContent getContentAtIndex(final int index) {
+        return tileContents.get(index);
+    }
+
+    void setContentAtIndex(final int index, @Nullable final TileContent content) {
+        if (content == null) {
+            tileContents.remove(index);
+        } else {
+            tileContents.put(index, content);
+        }
+    }
+
+    /**
+     * Get the content of a tile and create it in case the tile has no content yet.
+     */
+    @Nonnull
+    TileContent getOrCreateContentAtIndex(final int index) {
+        TileContent content = tileContents.get(index);
+        if (content == null) {
+            content = new TileContent();
+            tileContents.put(index, content);
+        }
+        return content;
+    }
+
+    /**
+     * Get the ID of a tile without creating a tile object.
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @return the tile ID
+     */
+    public int getTileIdAt(final int x, final int y) {
+        return tileIds[mapToIndex(x, y)];
+    }
+
+    /**
+     * Get the overlay ID of a tile without creating a tile object.
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @return the overlay ID
+     */
+    public int getOverlayIdAt(final int x, final int y) {
+        return overlayIds[mapToIndex(x, y)];
+    }
+
+    /**
+     * Get the shape ID of a tile without creating a tile object.
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @return the shape ID
+     */
+    public int getShapeIdAt(final int x, final int y) {
+        return shapeIds[mapToIndex(x, y)];
+    }
+
+    /**
+     * Get the music ID of a tile without creating a tile object.
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @return the music ID
+     */
+    public int getMusicIdAt(final int x, final int y) {
+        return musicIds[mapToIndex(x, y)];
+    }
+
+    /**
+     * Get the items on a tile without creating a tile object. The returned list is the list stored in the map.
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @return the items or {@code null} in case there are none
+     */
+    @Nullable
+    public List<MapItem> getItemsAt(final int x, final int y) {
+        final TileContent content = tileContents.get(mapToIndex(x, y));
+        return (content == null) ? null : content.getMapItems();
+    }
+
+    /**
+     * Get the warp point on a tile without creating a tile object.
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @return the warp point or {@code null} in case there is none
+     */
+    @Nullable
+    public MapWarpPoint getWarpPointAt(final int x, final int y) {
+        final TileContent content = tileContents.get(mapToIndex(x, y));
+        return (content == null) ? null : content.getMapWarpPoint();
+    }
+
+    /**
+     * Check if a tile or one of its items is annotated.
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @return {@code true} in case the tile or a item on it has a annotation
+     */
+    public boolean isAnnotatedAt(final int x, final int y) {
+        final TileContent content = tileContents.get(mapToIndex(x, y));
+        return (content != null) && (content.hasAnnotation() || content.hasItemAnnotation());
+    }
+
+    /**
+     * Check if a item on a tile has item data.
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @return {@code true} in case any item on the tile has data
+     */
+    public boolean hasItemDataAt(final int x, final int y) {
+        final TileContent content = tileContents.get(mapToIndex(x, y));
+        return (content != null) && !content.isMapItemsDataEmpty();
     }
 
     /**
@@ -224,15 +586,15 @@ public class Map implements Iterable<MapTile> {
     }
 
     int indexToMapX(final int index) {
-        if (index < 0 || index >= mapTileData.length) {
-            throw new IllegalArgumentException("Index is out of range. 0 <= " + index + " < " + mapTileData.length);
+        if (index < 0 || index >= tileIds.length) {
+            throw new IllegalArgumentException("Index is out of range. 0 <= " + index + " < " + tileIds.length);
         }
         return index % width;
     }
 
     int indexToMapY(final int index) {
-        if (index < 0 || index >= mapTileData.length) {
-            throw new IllegalArgumentException("Index is out of range. 0 <= " + index + " < " + mapTileData.length);
+        if (index < 0 || index >= tileIds.length) {
+            throw new IllegalArgumentException("Index is out of range. 0 <= " + index + " < " + tileIds.length);
         }
         return index / width;
     }
@@ -249,7 +611,7 @@ public class Map implements Iterable<MapTile> {
      * @param mapItem the item  <- u don't sayy ;)
      */
     public void addItemAt(final int x, final int y, final MapItem mapItem) {
-        mapTileData[mapToIndex(x, y)].addMapItem(mapItem);
+        getOrCreateContentAtIndex(mapToIndex(x, y)).getOrCreateMapItems().add(mapItem);
     }
 
     public void setVisible(final boolean visible) {
@@ -268,7 +630,7 @@ public class Map implements Iterable<MapTile> {
      * @param warpPoint the warp point <- u don't sayy ;)
      */
     public void setWarpAt(final int x, final int y, final MapWarpPoint warpPoint) {
-        mapTileData[mapToIndex(x, y)].setMapWarpPoint(warpPoint);
+        getOrCreateContentAtIndex(mapToIndex(x, y)).setMapWarpPoint(warpPoint);
     }
 
     /**
@@ -283,14 +645,7 @@ public class Map implements Iterable<MapTile> {
         if (!contains(x, y)) {
             return null;
         }
-        final int i = mapToIndex(x, y);
-        if (mapTileData[i] != null) {
-            return mapTileData[i];
-        }
-
-        final MapTile tile = MapTile.MapTileFactory.createNew(0, 0, 0, 0);
-        setTileAtIndex(i, tile);
-        return tile;
+        return getTileAtIndex(mapToIndex(x, y));
     }
 
     @Nullable
@@ -453,26 +808,26 @@ public class Map implements Iterable<MapTile> {
      * @param mapSelection tiles to paste
      */
     public void pasteTiles(final int startX, final int startY, @Nonnull final MapSelection mapSelection) {
-        final GroupAction action = new GroupAction();
-        for (final MapPosition position : mapSelection.getSelectedPositions()) {
-            final int newX = startX + (position.getX() - mapSelection.getOffsetX());
-            final int newY = startY + (position.getY() - mapSelection.getOffsetY());
-
-            if (contains(newX, newY)) {
-                final MapTile oldTile = getTileAt(newX, newY);
-                final MapTile newTile = MapTile.MapTileFactory.copy(mapSelection.getMapTileAt(position));
-                action.addAction(new CopyPasteAction(newX, newY, oldTile, newTile, this));
-                setTileAt(newX, newY, newTile);
-            }
+        final int fromX = mapSelection.getOffsetX();
+        final int fromY = mapSelection.getOffsetY();
+        if (fromX == Integer.MAX_VALUE) {
+            return;
         }
-        if (!action.isEmpty()) {
-            EventBus.publish(new HistoryPasteCutEvent(action));
+
+        final int shiftX = startX - fromX;
+        final int shiftY = startY - fromY;
+        final MapDelta.Recorder recorder = MapDelta.record(this, startX, startY, mapSelection.getLastX() + shiftX,
+                                                           mapSelection.getLastY() + shiftY);
+        mapSelection.pasteInto(this, shiftX, shiftY);
+        final MapDelta delta = recorder.finish();
+        if (delta != null) {
+            EventBus.publish(new HistoryPasteCutEvent(new RegionChangedAction(delta)));
         }
     }
 
     @Override
     public MapIterator iterator() {
-        return new MapIterator(this, mapTileData.length);
+        return new MapIterator(this, tileIds.length);
     }
 }
 
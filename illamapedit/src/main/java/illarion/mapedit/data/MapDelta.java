@@ -0,0 +1,264 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package illarion.mapedit.data;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * This class stores the changes of a rectangular region of a map in a compact form. Only the tiles that actually
+ * changed are stored. The ID values of those tiles are packed into integer arrays, the items, warp points and
+ * annotations are only stored for tiles where they changed.
+ * <p/>
+ * A delta is created by a {@link Recorder} that captures the state of the region before and after a change.
+ *
+ * @author Tim
+ */
+public final class MapDelta {
+    /**
+     * This class captures the state of a region before a change and creates the delta once the change is done.
+     */
+    public static final class Recorder {
+        @Nonnull
+        private final Map map;
+        private final int fromX;
+        private final int fromY;
+        private final int toX;
+        private final int toY;
+
+        /**
+         * The ID values of all tiles in the region before the change.
+         */
+        @Nonnull
+        private final int[] before;
+
+        /**
+         * Copies of the contents of all tiles in the region before the change.
+         */
+        @Nonnull
+        private final TileContent[] beforeContents;
+
+        private Recorder(
+                @Nonnull final Map map, final int fromX, final int fromY, final int toX, final int toY) {
+            this.map = map;
+            this.fromX = Math.max(0, fromX);
+            this.fromY = Math.max(0, fromY);
+            this.toX = Math.min(map.getWidth() - 1, toX);
+            this.toY = Math.min(map.getHeight() - 1, toY);
+
+            final int width = Math.max(0, (this.toX - this.fromX) + 1);
+            final int height = Math.max(0, (this.toY - this.fromY) + 1);
+            before = new int[width * height * Map.TILE_COLUMNS];
+            beforeContents = new TileContent[width * height];
+
+            int slot = 0;
+            for (int y = this.fromY; y <= this.toY; y++) {
+                for (int x = this.fromX; x <= this.toX; x++) {
+                    final int index = (y * map.getWidth()) + x;
+                    map.readTileColumns(index, before, slot * Map.TILE_COLUMNS);
+                    final TileContent content = map.getContentAtIndex(index);
+                    if ((content != null) && !content.isEmpty()) {
+                        beforeContents[slot] = content.copy();
+                    }
+                    slot++;
+                }
+            }
+        }
+
+        /**
+         * Compare the current state of the region with the captured state.
+         *
+         * @return the delta of the region or {@code null} in case nothing changed
+         */
+        @Nullable
+        public MapDelta finish() {
+            final int[] current = new int[Map.TILE_COLUMNS];
+            int[] indices = new int[16];
+            int[] oldColumns = new int[16 * Map.TILE_COLUMNS];
+            int[] newColumns = new int[16 * Map.TILE_COLUMNS];
+            int changedTiles = 0;
+            int[] contentIndices = new int[4];
+            TileContent[] oldContents = new TileContent[4];
+            TileContent[] newContents = new TileContent[4];
+            int changedContents = 0;
+
+            int slot = 0;
+            for (int y = fromY; y <= toY; y++) {
+                for (int x = fromX; x <= toX; x++) {
+                    final int index = (y * map.getWidth()) + x;
+                    final int offset = slot * Map.TILE_COLUMNS;
+                    map.readTileColumns(index, current, 0);
+                    if ((current[0] != before[offset]) || (current[1] != before[offset + 1]) ||
+                            (current[2] != before[offset + 2]) || (current[3] != before[offset + 3])) {
+                        if (changedTiles == indices.length) {
+                            indices = Arrays.copyOf(indices, changedTiles * 2);
+                            oldColumns = Arrays.copyOf(oldColumns, changedTiles * 2 * Map.TILE_COLUMNS);
+                            newColumns = Arrays.copyOf(newColumns, changedTiles * 2 * Map.TILE_COLUMNS);
+                        }
+                        indices[changedTiles] = index;
+                        System.arraycopy(before, offset, oldColumns, changedTiles * Map.TILE_COLUMNS,
+                                         Map.TILE_COLUMNS);
+                        System.arraycopy(current, 0, newColumns, changedTiles * Map.TILE_COLUMNS,
+                                         Map.TILE_COLUMNS);
+                        changedTiles++;
+                    }
+
+                    final TileContent content = map.getContentAtIndex(index);
+                    if (!TileContent.isSame(beforeContents[slot], content)) {
+                        if (changedContents == contentIndices.length) {
+                            contentIndices = Arrays.copyOf(contentIndices, changedContents * 2);
+                            oldContents = Arrays.copyOf(oldContents, changedContents * 2);
+                            newContents = Arrays.copyOf(newContents, changedContents * 2);
+                        }
+                        contentIndices[changedContents] = index;
+                        oldContents[changedContents] = beforeContents[slot];
+                        newContents[changedContents] = ((content == null) || content.isEmpty()) ? null : content.copy();
+                        changedContents++;
+                    }
+                    slot++;
+                }
+            }
+
+            if ((changedTiles == 0) && (changedContents == 0)) {
+                return null;
+            }
+            return new MapDelta(map, Arrays.copyOf(indices, changedTiles),
+                                Arrays.copyOf(oldColumns, changedTiles * Map.TILE_COLUMNS),
+                                Arrays.copyOf(newColumns, changedTiles * Map.TILE_COLUMNS),
+                                Arrays.copyOf(contentIndices, changedContents),
+                                Arrays.copyOf(oldContents, changedContents),
+                                Arrays.copyOf(newContents, changedContents));
+        }
+    }
+
+    @Nonnull
+    private final Map map;
+
+    /**
+     * The indices of the tiles with changed ID values.
+     */
+    @Nonnull
+    private final int[] indices;
+
+    /**
+     * The ID values of the changed tiles before the change.
+     */
+    @Nonnull
+    private final int[] oldColumns;
+
+    /**
+     * The ID values of the changed tiles after the change.
+     */
+    @Nonnull
+    private final int[] newColumns;
+
+    /**
+     * The indices of the tiles with changed items, warp points or annotations.
+     */
+    @Nonnull
+    private final int[] contentIndices;
+
+    @Nonnull
+    private final TileContent[] oldContents;
+
+    @Nonnull
+    private final TileContent[] newContents;
+
+    private MapDelta(
+            @Nonnull final Map map,
+            @Nonnull final int[] indices,
+            @Nonnull final int[] oldColumns,
+            @Nonnull final int[] newColumns,
+            @Nonnull final int[] contentIndices,
+            @Nonnull final TileContent[] oldContents,
+            @Nonnull final TileContent[] newContents) {
+        this.map = map;
+        this.indices = indices;
+        this.oldColumns = oldColumns;
+        this.newColumns = newColumns;
+        this.contentIndices = contentIndices;
+        this.oldContents = oldContents;
+        this.newContents = newContents;
+    }
+
+    /**
+     * Start recording the changes of a region of a map. The region is clipped to the size of the map.
+     *
+     * @param map the map
+     * @param fromX the lowest x coordinate of the region
+     * @param fromY the lowest y coordinate of the region
+     * @param toX the highest x coordinate of the region
+     * @param toY the highest y coordinate of the region
+     * @return the recorder that creates the delta once the change is done
+     */
+    @Nonnull
+    public static Recorder record(
+            @Nonnull final Map map, final int fromX, final int fromY, final int toX, final int toY) {
+        return new Recorder(map, fromX, fromY, toX, toY);
+    }
+
+    /**
+     * @return the map this delta belongs to
+     */
+    @Nonnull
+    public Map getMap() {
+        return map;
+    }
+
+    /**
+     * Restore the state of the region before the change.
+     */
+    public void applyOld() {
+        apply(oldColumns, oldContents);
+    }
+
+    /**
+     * Restore the state of the region after the change.
+     */
+    public void applyNew() {
+        apply(newColumns, newContents);
+    }
+
+    private void apply(@Nonnull final int[] columns, @Nonnull final TileContent[] contents) {
+        for (int i = 0; i < indices.length; i++) {
+            map.writeTileColumns(indices[i], columns, i * Map.TILE_COLUMNS);
+        }
+        for (int i = 0; i < contentIndices.length; i++) {
+            final TileContent content = contents[i];
+            map.setContentAtIndex(contentIndices[i], (content == null) ? null : content.copy());
+        }
+    }
+
+    /**
+     * Estimate the amount of memory used by this delta.
+     *
+     * @return the estimated size in bytes
+     */
+    public long getMemoryUsage() {
+        long usage = 128L + (4L * indices.length) + (4L * oldColumns.length) + (4L * newColumns.length) +
+                (12L * contentIndices.length);
+        for (int i = 0; i < contentIndices.length; i++) {
+            if (oldContents[i] != null) {
+                usage += oldContents[i].getMemoryUsage();
+            }
+            if (newContents[i] != null) {
+                usage += newContents[i].getMemoryUsage();
+            }
+        }
+        return usage;
+    }
+}
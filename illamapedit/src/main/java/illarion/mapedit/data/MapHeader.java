@@ -0,0 +1,153 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package illarion.mapedit.data;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.nio.file.Path;
+
+/**
+ * This class stores the location and the size of a map without the tiles of the map. It is read from the header of
+ * the map files, so the area covered by a map is known without loading the map.
+ *
+ * @author Tim
+ */
+public final class MapHeader {
+    @Nonnull
+    private final String name;
+    @Nonnull
+    private final Path path;
+    private final int x;
+    private final int y;
+    private final int z;
+    private final int width;
+    private final int height;
+
+    /**
+     * Create a new map header.
+     *
+     * @param name the map name
+     * @param path the map path
+     * @param x the x coordinate of the origin of the map
+     * @param y the y coordinate of the origin of the map
+     * @param z the map level
+     * @param width the width of the map
+     * @param height the height of the map
+     */
+    public MapHeader(
+            @Nonnull final String name,
+            @Nonnull final Path path,
+            final int x,
+            final int y,
+            final int z,
+            final int width,
+            final int height) {
+        this.name = name;
+        this.path = path;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.width = width;
+        this.height = height;
+    }
+
+    @Nonnull
+    public String getName() {
+        return name;
+    }
+
+    @Nonnull
+    public Path getPath() {
+        return path;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public int getZ() {
+        return z;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Check if the map covers a location.
+     *
+     * @param worldX the x coordinate of the location
+     * @param worldY the y coordinate of the location
+     * @param worldZ the level of the location
+     * @return {@code true} in case the location is part of the map
+     */
+    public boolean contains(final int worldX, final int worldY, final int worldZ) {
+        return (worldZ == z) && (worldX >= x) && (worldX < (x + width)) && (worldY >= y) && (worldY < (y + height));
+    }
+
+    /**
+     * Check if the map overlaps a area on the level of the map.
+     *
+     * @param fromX the smallest x coordinate of the area
+     * @param fromY the smallest y coordinate of the area
+     * @param toX the largest x coordinate of the area
+     * @param toY the largest y coordinate of the area
+     * @return {@code true} in case at least one tile of the map is part of the area
+     */
+    public boolean intersects(final int fromX, final int fromY, final int toX, final int toY) {
+        return (fromX < (x + width)) && (toX >= x) && (fromY < (y + height)) && (toY >= y);
+    }
+
+    /**
+     * Check if this header describes a map.
+     *
+     * @param map the map
+     * @return {@code true} in case name and path of the map match this header
+     */
+    public boolean isHeaderOf(@Nonnull final Map map) {
+        return name.equals(map.getName()) && path.equals(map.getPath());
+    }
+
+    @Override
+    public boolean equals(@Nullable final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj instanceof MapHeader) {
+            final MapHeader other = (MapHeader) obj;
+            return name.equals(other.name) && path.equals(other.path);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return name.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -21,27 +21,37 @@ import illarion.mapedit.crash.exceptions.FormatCorruptedException;
 import illarion.mapedit.data.formats.DataType;
 import illarion.mapedit.data.formats.Decoder;
 import illarion.mapedit.data.formats.DecoderFactory;
+import illarion.mapedit.data.formats.LineCursor;
 import illarion.mapedit.events.menu.MapLoadErrorEvent;
 import illarion.mapedit.events.menu.MapLoadedEvent;
+import illarion.mapedit.events.menu.MapSaveErrorEvent;
+import illarion.mapedit.events.menu.MapSavedEvent;
+import illarion.mapedit.events.menu.WorkspaceLoadedEvent;
+import illarion.mapedit.resource.Overlay;
 import org.bushe.swing.event.EventBus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.StringWriter;
 import java.io.Writer;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.zip.CRC32;
 
 /**
  * This class takes care of loading and saving maps
@@ -60,12 +70,44 @@ public class MapIO {
     public static final String EXT_ITEM = ".items.txt";
     public static final String EXT_TILE = ".tiles.txt";
     public static final String EXT_ANNO = ".annot.txt";
+    public static final String EXT_BINARY = ".map.bin";
+    private static final String COMMENT = "# ";
+    private static final String VERSION_PREFIX = "V: ";
     private static final char NEWLINE = '\n';
-    private static final Pattern VERSION_PATTERN = Pattern.compile("V: (\\d+)");
     private static final CopyrightHeader COPYRIGHT_HEADER = new CopyrightHeader(80, null, null, "# ", null);
     private static final ExecutorService EXECUTOR_SERVICE = Executors.newCachedThreadPool();
+    private static final ForkJoinPool DECODING_POOL = new ForkJoinPool();
     private static final Charset CHARSET = Charset.forName("ISO-8859-1");
     private static final DecoderFactory DECODER_FACTORY = new DecoderFactory();
+    /**
+     * The executor that writes the maps. A single thread ensures that the saves of a map are written in order. The
+     * thread ends once it is idle for a while.
+     */
+    private static final ExecutorService SAVE_EXECUTOR = new ThreadPoolExecutor(0, 1, 30L, TimeUnit.SECONDS,
+                                                                                new LinkedBlockingQueue<Runnable>());
+    /**
+     * The executor that loads the maps and workspaces. The threads end once they are idle for a while.
+     */
+    private static final ThreadPoolExecutor LOAD_EXECUTOR = new ThreadPoolExecutor(2, 2, 30L, TimeUnit.SECONDS,
+                                                                                  new LinkedBlockingQueue<Runnable>());
+    /**
+     * The checksums of the item, warp and annotation files as they were loaded or saved the last time.
+     */
+    private static final ConcurrentMap<Path, Long> SAVED_CHECKSUMS = new ConcurrentHashMap<>();
+    /**
+     * The item, warp and annotation files of maps that were loaded from the binary file. Their checksums are
+     * calculated from the files once they are needed.
+     */
+    private static final Set<Path> UNCHECKED_FILES =
+            Collections.newSetFromMap(new ConcurrentHashMap<Path, Boolean>());
+    /**
+     * The maps that failed to save the last time they were saved.
+     */
+    private static final Set<Map> FAILED_SAVES = Collections.newSetFromMap(new ConcurrentHashMap<Map, Boolean>());
+
+    static {
+        LOAD_EXECUTOR.allowCoreThreadTimeOut(true);
+    }
 
     private MapIO() {
 
@@ -78,7 +120,7 @@ public class MapIO {
      * @param name the map name
      */
     public static void loadMap(final Path path, final String name) {
-        new Thread(new Runnable() {
+        LOAD_EXECUTOR.execute(new Runnable() {
 
             @Override
             public void run() {
@@ -86,16 +128,16 @@ public class MapIO {
                     EventBus.publish(new MapLoadedEvent(loadMapThread(path, name)));
                 } catch (FormatCorruptedException ex) {
                     LOGGER.warn("Format wrong.", ex);
-                    EventBus.publish(new MapLoadErrorEvent(ex.getMessage()));
+                    EventBus.publish(new MapLoadErrorEvent(ex.getMessage(), path, name));
                 } catch (IOException ex) {
                     LOGGER.warn("Can't load map", ex);
-                    EventBus.publish(new MapLoadErrorEvent(Lang.getMsg("gui.error.LoadMap")));
+                    EventBus.publish(new MapLoadErrorEvent(Lang.getMsg("gui.error.LoadMap"), path, name));
                 }
             }
-        }).start();
+        });
     }
 
-    private static final class LoadFileCallable implements Callable<List<String>> {
+    private static final class LoadFileCallable implements Callable<ByteBuffer> {
         @Nonnull
         private final Path file;
 
@@ -104,37 +146,12 @@ public class MapIO {
         }
 
         @Override
-        public List<String> call() throws Exception {
+        public ByteBuffer call() throws Exception {
             try {
-                return Files.readAllLines(file, CHARSET);
+                return ByteBuffer.wrap(Files.readAllBytes(file));
             } catch (IOException e) {
-                return Collections.emptyList();
-            }
-        }
-    }
-
-    private static final class LoadMapDataCallable implements Callable<Void> {
-        @Nonnull
-        private final DataType type;
-        @Nonnull
-        private final Decoder decoder;
-        @Nonnull
-        private final List<String> lines;
-
-        private LoadMapDataCallable(
-                @Nonnull DataType type, @Nonnull Decoder decoder, @Nonnull List<String> lines) {
-            this.type = type;
-            this.decoder = decoder;
-            this.lines = lines;
-        }
-
-        @Override
-        public Void call() throws Exception {
-            int size = lines.size();
-            for (int i = 0; i < size; i++) {
-                decoder.decodeLine(type, lines.get(i), i);
+                return ByteBuffer.allocate(0);
             }
-            return null;
         }
     }
 
@@ -146,49 +163,64 @@ public class MapIO {
         Path itemFile = path.resolve(name + EXT_ITEM);
         Path warpFile = path.resolve(name + EXT_WARP);
         Path annoFile = path.resolve(name + EXT_ANNO);
+        Path binaryFile = path.resolve(name + EXT_BINARY);
+
+        if (BinaryMapFormat.isCurrent(binaryFile, tileFile, itemFile, warpFile, annoFile)) {
+            Map m = BinaryMapFormat.read(binaryFile, name, path);
+            m.setTileDataChanged(false);
+            // The text files are not read, so their checksums are calculated once the map is checked or saved.
+            markUnchecked(itemFile);
+            markUnchecked(warpFile);
+            markUnchecked(annoFile);
+            LOGGER.debug("W={}; H={}; X={}; Y={}; L={}; (binary)", m.getWidth(), m.getHeight(), m.getX(), m.getY(),
+                         m.getZ());
+            return m;
+        }
 
-        Future<List<String>> tileLoadFuture = EXECUTOR_SERVICE.submit(new LoadFileCallable(tileFile));
-        Future<List<String>> itemLoadFuture = EXECUTOR_SERVICE.submit(new LoadFileCallable(itemFile));
-        Future<List<String>> warpLoadFuture = EXECUTOR_SERVICE.submit(new LoadFileCallable(warpFile));
-        Future<List<String>> annoLoadFuture = EXECUTOR_SERVICE.submit(new LoadFileCallable(annoFile));
+        Future<ByteBuffer> tileLoadFuture = EXECUTOR_SERVICE.submit(new LoadFileCallable(tileFile));
+        Future<ByteBuffer> itemLoadFuture = EXECUTOR_SERVICE.submit(new LoadFileCallable(itemFile));
+        Future<ByteBuffer> warpLoadFuture = EXECUTOR_SERVICE.submit(new LoadFileCallable(warpFile));
+        Future<ByteBuffer> annoLoadFuture = EXECUTOR_SERVICE.submit(new LoadFileCallable(annoFile));
 
         try {
-            List<String> tileLines = tileLoadFuture.get();
-            Iterator<String> tileLinesItr = tileLines.iterator();
+            LineCursor tileLines = new LineCursor(tileLoadFuture.get());
             Decoder decoder = null;
-            int i = 0;
-            while (tileLinesItr.hasNext()) {
-                i++;
-                String line = tileLinesItr.next();
-                if (line.startsWith("# ")) {
+            while (tileLines.nextLine()) {
+                if (tileLines.startsWith(COMMENT)) {
                     continue;
                 }
-                Matcher versionLineMatcher = VERSION_PATTERN.matcher(line);
-                if (versionLineMatcher.find()) {
-                    String version = versionLineMatcher.group(1);
-                    decoder = DECODER_FACTORY.getDecoder(Integer.parseInt(version), name, path);
+                if (tileLines.startsWith(VERSION_PREFIX)) {
+                    tileLines.skip(VERSION_PREFIX.length());
+                    try {
+                        decoder = DECODER_FACTORY.getDecoder(tileLines.nextInt(), name, path);
+                    } catch (NumberFormatException e) {
+                        throw new FormatCorruptedException(tileFile.toString(), tileLines.getLine(),
+                                                           tileLines.getLineNumber(), "V: <version>");
+                    }
                     break;
                 }
             }
             if (decoder == null) {
                 throw new IOException("Failed to find required version number line.");
             }
-            while (tileLinesItr.hasNext()) {
-                i++;
-                String line = tileLinesItr.next();
-                decoder.decodeLine(DataType.Tiles, line, i);
-            }
+            decoder.decode(DataType.Tiles, tileLines, DECODING_POOL);
 
-            List<Callable<Void>> loadingTasks = new ArrayList<>();
-            loadingTasks.add(new LoadMapDataCallable(DataType.Items, decoder, itemLoadFuture.get()));
-            loadingTasks.add(new LoadMapDataCallable(DataType.WarpPoints, decoder, warpLoadFuture.get()));
-            loadingTasks.add(new LoadMapDataCallable(DataType.Annotations, decoder, annoLoadFuture.get()));
-            EXECUTOR_SERVICE.invokeAll(loadingTasks);
+            ByteBuffer itemData = itemLoadFuture.get();
+            ByteBuffer warpData = warpLoadFuture.get();
+            ByteBuffer annoData = annoLoadFuture.get();
+            // The annotations refer to the items, so the items have to be decoded first.
+            decoder.decode(DataType.Items, new LineCursor(itemData), DECODING_POOL);
+            decoder.decode(DataType.WarpPoints, new LineCursor(warpData));
+            decoder.decode(DataType.Annotations, new LineCursor(annoData));
             Map m = decoder.getDecodedMap();
 
             if (m == null) {
                 throw new IOException("No map was created by the decoder.");
             }
+            m.setTileDataChanged(false);
+            storeChecksum(itemFile, itemData);
+            storeChecksum(warpFile, warpData);
+            storeChecksum(annoFile, annoData);
 
             LOGGER.debug("W={}; H={}; X={}; Y={}; L={};", m.getWidth(), m.getHeight(), m.getX(), m.getY(), m.getZ());
 
@@ -199,7 +231,95 @@ public class MapIO {
     }
 
     /**
-     * Loads the map, with the map name and path, stored in the map object
+     * Get the text files of a map.
+     *
+     * @param path the path of the map
+     * @param name the name of the map
+     * @return the tile, item, warp and annotation file of the map
+     */
+    @Nonnull
+    static Path[] getTextFiles(@Nonnull Path path, @Nonnull String name) {
+        return new Path[]{path.resolve(name + EXT_TILE), path.resolve(name + EXT_ITEM), path.resolve(name + EXT_WARP),
+                          path.resolve(name + EXT_ANNO)};
+    }
+
+    /**
+     * Read the location and the size of a map. Only the header of the map is read, so this is fast even for large
+     * maps.
+     *
+     * @param path the path
+     * @param name the map name
+     * @return the header of the map
+     * @throws IOException in case reading the header fails or the header is incomplete
+     */
+    @Nonnull
+    public static MapHeader readMapHeader(@Nonnull Path path, @Nonnull String name) throws IOException {
+        Path tileFile = path.resolve(name + EXT_TILE);
+        Path binaryFile = path.resolve(name + EXT_BINARY);
+        if (BinaryMapFormat.isCurrent(binaryFile, getTextFiles(path, name))) {
+            return BinaryMapFormat.readHeader(binaryFile, name, path);
+        }
+
+        String[] headers = {HEADER_L, HEADER_X, HEADER_Y, HEADER_W, HEADER_H};
+        int[] values = new int[headers.length];
+        int complete = (1 << headers.length) - 1;
+        int found = 0;
+        try (BufferedReader reader = Files.newBufferedReader(tileFile, CHARSET)) {
+            int lineNumber = 0;
+            String line;
+            while ((found != complete) && ((line = reader.readLine()) != null)) {
+                lineNumber++;
+                if (line.startsWith("#") || line.startsWith(HEADER_V)) {
+                    continue;
+                }
+                if (line.indexOf(';') >= 0) {
+                    // The first tile ends the header.
+                    break;
+                }
+                for (int i = 0; i < headers.length; i++) {
+                    if (line.startsWith(headers[i])) {
+                        try {
+                            values[i] = Integer.parseInt(line.substring(headers[i].length()).trim());
+                        } catch (NumberFormatException e) {
+                            throw new FormatCorruptedException(tileFile.toString(), line, lineNumber,
+                                                               headers[i] + " <value>");
+                        }
+                        found |= 1 << i;
+                        break;
+                    }
+                }
+            }
+        }
+        if (found != complete) {
+            throw new FormatCorruptedException(tileFile.toString(), null, 0, "L:, X:, Y:, W:, H:");
+        }
+        return new MapHeader(name, path, values[1], values[2], values[0], values[3], values[4]);
+    }
+
+    /**
+     * Read the headers of all maps in a directory and its sub directories in the background. Once done a
+     * {@link WorkspaceLoadedEvent} is published.
+     *
+     * @param directory the directory
+     */
+    public static void loadWorkspace(@Nonnull final Path directory) {
+        LOAD_EXECUTOR.execute(new Runnable() {
+
+            @Override
+            public void run() {
+                try {
+                    EventBus.publish(new WorkspaceLoadedEvent(MapWorkspace.scan(directory)));
+                } catch (IOException ex) {
+                    LOGGER.warn("Can't read workspace", ex);
+                    EventBus.publish(new MapLoadErrorEvent(Lang.getMsg("gui.error.LoadMap")));
+                }
+            }
+        });
+    }
+
+    /**
+     * Saves the map, with the map name and path stored in the map object. This method returns once the map is
+     * written.
      *
      * @param map the map to save
      * @throws IOException
@@ -209,7 +329,7 @@ public class MapIO {
     }
 
     /**
-     * Loads the map, with specified the map name and path.
+     * Saves the map, with specified the map name and path. This method returns once the map is written.
      *
      * @param map the Map
      * @param name map name
@@ -218,81 +338,415 @@ public class MapIO {
      */
     public static void saveMap(
             @Nonnull Map map, @Nonnull String name, @Nonnull Path path) throws IOException {
-        Path tileFile = path.resolve(name + EXT_TILE);
-        Path itemFile = path.resolve(name + EXT_ITEM);
-        Path warpFile = path.resolve(name + EXT_WARP);
-        Path annoFile = path.resolve(name + EXT_ANNO);
+        Future<Void> saveFuture = SAVE_EXECUTOR.submit(new SaveMapCallable(map, name, path, false));
+        try {
+            saveFuture.get();
+        } catch (InterruptedException e) {
+            throw new IOException("Interrupted while saving the map.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Error while saving map.", e.getCause());
+        }
+    }
 
-        try (BufferedWriter tileOutput = Files.newBufferedWriter(tileFile, CHARSET)) {
-            try (BufferedWriter itemOutput = Files.newBufferedWriter(itemFile, CHARSET)) {
-                try (BufferedWriter warpOutput = Files.newBufferedWriter(warpFile, CHARSET)) {
-                    try (BufferedWriter annoOutput = Files.newBufferedWriter(annoFile, CHARSET)) {
-                        COPYRIGHT_HEADER.writeTo(tileOutput);
-                        COPYRIGHT_HEADER.writeTo(itemOutput);
-                        COPYRIGHT_HEADER.writeTo(warpOutput);
-                        COPYRIGHT_HEADER.writeTo(annoOutput);
-
-                        writeHeader(tileOutput, HEADER_V, 2);
-                        writeHeader(tileOutput, HEADER_L, map.getZ());
-                        writeHeader(tileOutput, HEADER_X, map.getX());
-                        writeHeader(tileOutput, HEADER_Y, map.getY());
-                        writeHeader(tileOutput, HEADER_W, map.getWidth());
-                        writeHeader(tileOutput, HEADER_H, map.getHeight());
-
-                        MapIterator itr = map.iterator();
-                        while (itr.hasNext()) {
-                            MapTile tile = itr.next();
-                            int x = itr.getCurrentX();
-                            int y = itr.getCurrentY();
-
-                            //        <dx>;<dy>;<tileID>;<musicID>
-                            writeLine(tileOutput, String.format("%d;%d;%s", x, y, tile));
-                            if (tile.hasAnnotation()) {
-                                writeLine(annoOutput, String.format("%d;%d;0;%s", x, y, tile.getAnnotation()));
-                            }
-
-                            List<MapItem> items = tile.getMapItems();
-                            if (items != null) {
-                                for (int i = 0; i < items.size(); i++) {
-                                    //        <dx>;<dy>;<item ID>;<quality>[;<data value>[;...]]
-                                    writeLine(itemOutput, String.format("%d;%d;%s", x, y, items.get(i)));
-                                    if (items.get(i).hasAnnotation()) {
-                                        writeLine(annoOutput, String.format("%d;%d;%d;%s", x, y, i + 1,
-                                                                            items.get(i).getAnnotation()));
-                                    }
-                                }
-                            }
-                            MapWarpPoint warp = tile.getMapWarpPoint();
-                            if (warp != null) {
-                                writeLine(warpOutput, String.format("%d;%d;%s", x, y, warp));
-                            }
-                        }
+    /**
+     * Saves the map, with the map name and path stored in the map object, in the background. A copy of the map is
+     * created by this method, so the map can be changed while it is saved. Once the map is written a
+     * {@link MapSavedEvent} is published, errors are reported with a {@link MapSaveErrorEvent}.
+     *
+     * @param map the map to save
+     */
+    public static void saveMapInBackground(@Nonnull Map map) {
+        saveInBackground(new SaveMapCallable(map, map.getName(), map.getPath(), false));
+    }
+
+    /**
+     * Saves the map, with the map name and path stored in the map object, along with the binary version of the map
+     * in the background. As long as the text files of the map did not change since the binary file was written, it is
+     * used to load the map. Once a map has a binary version, it is updated every time the map is saved. Once the map is
+     * written a {@link MapSavedEvent} is published, errors are reported with a {@link MapSaveErrorEvent}.
+     *
+     * @param map the map to export
+     */
+    public static void exportBinaryMapInBackground(@Nonnull Map map) {
+        saveInBackground(new SaveMapCallable(map, map.getName(), map.getPath(), true));
+    }
+
+    private static void saveInBackground(@Nonnull final SaveMapCallable task) {
+        SAVE_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    task.call();
+                    EventBus.publish(new MapSavedEvent(task.map));
+                } catch (IOException | RuntimeException ex) {
+                    LOGGER.warn("Can't save map", ex);
+                    EventBus.publish(new MapSaveErrorEvent(Lang.getMsg("gui.error.SaveMap")));
+                }
+            }
+        });
+    }
+
+    /**
+     * Wait until all maps that were queued to be saved are written.
+     *
+     * @return {@code true} in case the last save of every map succeeded
+     */
+    public static boolean waitForSaves() {
+        Future<?> barrier = SAVE_EXECUTOR.submit(new Runnable() {
+            @Override
+            public void run() {
+            }
+        });
+        try {
+            barrier.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            return false;
+        }
+        return FAILED_SAVES.isEmpty();
+    }
+
+    /**
+     * Stop accepting new saves and wait until the queued saves are written. This has to be called before the
+     * application exits, so no map is cut off while it is written.
+     */
+    public static void shutdownSaving() {
+        SAVE_EXECUTOR.shutdown();
+        try {
+            if (!SAVE_EXECUTOR.awaitTermination(1, TimeUnit.MINUTES)) {
+                LOGGER.warn("Saving the maps did not finish in time.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * This task writes the snapshot of a map to the files. The snapshot is created along with the task, so the task
+     * has to be created by the thread that edits the map.
+     */
+    private static final class SaveMapCallable implements Callable<Void> {
+        @Nonnull
+        private final Map map;
+        @Nonnull
+        private final MapSnapshot snapshot;
+        @Nonnull
+        private final Path path;
+        @Nonnull
+        private final String name;
+
+        /**
+         * This flag is set in case the task writes the tile file of the map itself.
+         */
+        private final boolean savesTileData;
+
+        /**
+         * This flag is set in case the task writes the binary file, even if the map has none yet.
+         */
+        private final boolean writesBinary;
+
+        /**
+         * This flag is set in case the task writes the files of the map itself.
+         */
+        private final boolean savesOwnFiles;
+
+        /**
+         * The number of changes of the map at the time the snapshot was created.
+         */
+        private final int changeCount;
+
+        private SaveMapCallable(@Nonnull Map map, @Nonnull String name, @Nonnull Path path, boolean writesBinary) {
+            this.map = map;
+            this.name = name;
+            this.path = path;
+            this.writesBinary = writesBinary;
+            savesOwnFiles = name.equals(map.getName()) && path.equals(map.getPath());
+            boolean includeTiles = writesBinary || !savesOwnFiles || map.isTileDataChanged() ||
+                    !Files.exists(path.resolve(name + EXT_TILE)) || Files.exists(path.resolve(name + EXT_BINARY));
+            savesTileData = savesOwnFiles && includeTiles;
+            if (savesTileData) {
+                map.setTileDataChanged(false);
+            }
+            changeCount = map.getChangeCount();
+            snapshot = new MapSnapshot(map, includeTiles);
+        }
+
+        @Override
+        public Void call() throws IOException {
+            try {
+                writeSnapshot(snapshot, name, path, writesBinary);
+            } catch (IOException | RuntimeException e) {
+                if (savesTileData) {
+                    map.setTileDataChanged(true);
+                }
+                FAILED_SAVES.add(map);
+                throw e;
+            }
+            FAILED_SAVES.remove(map);
+            if (savesOwnFiles) {
+                map.markSaved(changeCount);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Write a snapshot of a map to the files. The tile file is only written in case the snapshot contains the tiles,
+     * the other files are only written in case their content changed since they were loaded or saved the last time.
+     * Each file is written to a temporary file first that replaces the old file once it is complete.
+     */
+    private static void writeSnapshot(
+            @Nonnull MapSnapshot map, @Nonnull String name, @Nonnull Path path, boolean writeBinary)
+            throws IOException {
+        StringWriter[] contentFiles = writeContentFiles(map);
+        if (map.hasTiles()) {
+            writeTileFile(map, path.resolve(name + EXT_TILE));
+        }
+        writeIfChanged(contentFiles[0], path.resolve(name + EXT_ITEM));
+        writeIfChanged(contentFiles[1], path.resolve(name + EXT_WARP));
+        writeIfChanged(contentFiles[2], path.resolve(name + EXT_ANNO));
+
+        // A existing binary version of the map is written again, so it stays in sync with the text files.
+        Path binaryFile = path.resolve(name + EXT_BINARY);
+        if (map.hasTiles() && (writeBinary || Files.exists(binaryFile))) {
+            Path tempFile = createTempFile(binaryFile);
+            try {
+                BinaryMapFormat.write(map, tempFile, getTextFiles(path, name));
+                replaceFile(tempFile, binaryFile);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        }
+    }
+
+    /**
+     * Write the item, warp and annotation files of a map to memory.
+     *
+     * @param map the snapshot of the map
+     * @return the content of the item file, the warp file and the annotation file
+     * @throws IOException in case writing the content fails
+     */
+    @Nonnull
+    private static StringWriter[] writeContentFiles(@Nonnull MapSnapshot map) throws IOException {
+        StringWriter itemOutput = new StringWriter();
+        StringWriter warpOutput = new StringWriter();
+        StringWriter annoOutput = new StringWriter();
+        COPYRIGHT_HEADER.writeTo(itemOutput);
+        COPYRIGHT_HEADER.writeTo(warpOutput);
+        COPYRIGHT_HEADER.writeTo(annoOutput);
+
+        int width = map.getWidth();
+        int contentCount = map.getContentCount();
+        for (int c = 0; c < contentCount; c++) {
+            int index = map.getContentIndex(c);
+            int x = index % width;
+            int y = index / width;
+            TileContent content = map.getContent(c);
+
+            if (content.hasAnnotation()) {
+                writeLine(annoOutput, String.format("%d;%d;0;%s", x, y, content.getAnnotation()));
+            }
+
+            List<MapItem> items = content.getMapItems();
+            if (items != null) {
+                for (int i = 0; i < items.size(); i++) {
+                    //        <dx>;<dy>;<item ID>;<quality>[;<data value>[;...]]
+                    writeLine(itemOutput, String.format("%d;%d;%s", x, y, items.get(i)));
+                    if (items.get(i).hasAnnotation()) {
+                        writeLine(annoOutput, String.format("%d;%d;%d;%s", x, y, i + 1,
+                                                            items.get(i).getAnnotation()));
                     }
                 }
             }
+            MapWarpPoint warp = content.getMapWarpPoint();
+            if (warp != null) {
+                writeLine(warpOutput, String.format("%d;%d;%s", x, y, warp));
+            }
         }
+
+        return new StringWriter[]{itemOutput, warpOutput, annoOutput};
     }
 
-    private static void writeHeader(@Nonnull Writer writer, @Nonnull String header, int value) throws IOException {
-        writer.write(header);
-        writer.write(' ');
-        writer.write(Integer.toString(value));
-        writer.write(NEWLINE);
+    /**
+     * Get the checksum of a file as it was loaded or saved the last time. The checksum of a file that was not read
+     * when the map was loaded is calculated from the file.
+     *
+     * @param file the file
+     * @return the checksum or {@code null} in case it is not known
+     */
+    @Nullable
+    private static Long getSavedChecksum(@Nonnull Path file) {
+        Path key = file.toAbsolutePath().normalize();
+        if (UNCHECKED_FILES.remove(key)) {
+            try {
+                storeChecksum(key, ByteBuffer.wrap(Files.readAllBytes(key)));
+            } catch (IOException e) {
+                LOGGER.warn("Failed to read {} to calculate its checksum", key, e);
+            }
+        }
+        return SAVED_CHECKSUMS.get(key);
+    }
+
+    /**
+     * Remember that the checksum of a file is not known yet, because the file was not read.
+     *
+     * @param file the file
+     */
+    private static void markUnchecked(@Nonnull Path file) {
+        Path key = file.toAbsolutePath().normalize();
+        SAVED_CHECKSUMS.remove(key);
+        if (Files.exists(key)) {
+            UNCHECKED_FILES.add(key);
+        }
+    }
+
+    private static long getChecksum(@Nonnull StringWriter content) {
+        return getChecksum(ByteBuffer.wrap(content.toString().getBytes(CHARSET)));
+    }
+
+    private static void writeTileFile(@Nonnull MapSnapshot map, @Nonnull Path tileFile) throws IOException {
+        Path tempFile = createTempFile(tileFile);
+        try {
+            try (BufferedWriter tileOutput = Files.newBufferedWriter(tempFile, CHARSET)) {
+                COPYRIGHT_HEADER.writeTo(tileOutput);
+
+                writeHeader(tileOutput, HEADER_V, 2);
+                writeHeader(tileOutput, HEADER_L, map.getZ());
+                writeHeader(tileOutput, HEADER_X, map.getX());
+                writeHeader(tileOutput, HEADER_Y, map.getY());
+                writeHeader(tileOutput, HEADER_W, map.getWidth());
+                writeHeader(tileOutput, HEADER_H, map.getHeight());
+
+                int[] columns = map.getTileColumns();
+                int width = map.getWidth();
+                int tileCount = width * map.getHeight();
+                for (int index = 0; index < tileCount; index++) {
+                    int tileId = columns[index];
+                    int overlayId = columns[tileCount + index];
+                    int shapeId = columns[(2 * tileCount) + index];
+                    int musicId = columns[(3 * tileCount) + index];
+
+                    //        <dx>;<dy>;<tileID>;<musicID>
+                    tileOutput.write(Integer.toString(index % width));
+                    tileOutput.write(';');
+                    tileOutput.write(Integer.toString(index / width));
+                    tileOutput.write(';');
+                    if (shapeId == 0) {
+                        tileOutput.write(Integer.toString(tileId));
+                    } else {
+                        tileOutput.write(Integer.toString(Overlay.generateTileId(tileId, overlayId, shapeId)));
+                    }
+                    tileOutput.write(';');
+                    tileOutput.write(Integer.toString(musicId));
+                    tileOutput.write(NEWLINE);
+                }
+            }
+            replaceFile(tempFile, tileFile);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Write a file in case its content differs from the content it had when it was loaded or saved the last time.
+     *
+     * @param content the new content of the file
+     * @param file the file
+     * @throws IOException in case writing the file fails
+     */
+    private static void writeIfChanged(@Nonnull StringWriter content, @Nonnull Path file) throws IOException {
+        byte[] data = content.toString().getBytes(CHARSET);
+        long checksum = getChecksum(ByteBuffer.wrap(data));
+        Path key = file.toAbsolutePath().normalize();
+        Long savedChecksum = getSavedChecksum(key);
+        if ((savedChecksum != null) && (savedChecksum == checksum) && Files.exists(file)) {
+            LOGGER.debug("Skipped saving unchanged file {}", file);
+            return;
+        }
+        Path tempFile = createTempFile(file);
+        try {
+            Files.write(tempFile, data);
+            replaceFile(tempFile, file);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+        SAVED_CHECKSUMS.put(key, checksum);
+    }
+
+    /**
+     * Remember the checksum of a file as it was loaded.
+     *
+     * @param file the file
+     * @param content the content of the file
+     */
+    private static void storeChecksum(@Nonnull Path file, @Nonnull ByteBuffer content) {
+        Path key = file.toAbsolutePath().normalize();
+        UNCHECKED_FILES.remove(key);
+        SAVED_CHECKSUMS.put(key, getChecksum(content));
     }
 
-    private static void writeLine(@Nonnull BufferedWriter writer, @Nonnull Object... args) throws IOException {
-        for (int i = 0; i < args.length; ++i) {
-            writer.write(args[i].toString());
-            if (i < (args.length - 1)) {
+    private static long getChecksum(@Nonnull ByteBuffer content) {
+        CRC32 crc = new CRC32();
+        crc.update(content.array(), content.arrayOffset() + content.position(), content.remaining());
+        return crc.getValue();
+    }
 
-                writer.write(';');
-            } else {
-                writer.write(NEWLINE);
+    /**
+     * Create a empty file next to a file that is written. Unlike {@link Files#createTempFile} the file is created
+     * with the default permissions, so a new file written this way is accessible like any other file.
+     *
+     * @param target the file that is written
+     * @return the created file
+     * @throws IOException in case creating the file fails
+     */
+    @Nonnull
+    private static Path createTempFile(@Nonnull Path target) throws IOException {
+        Path directory = target.toAbsolutePath().getParent();
+        String prefix = target.getFileName().toString() + '.';
+        while (true) {
+            String suffix = Long.toHexString(ThreadLocalRandom.current().nextLong());
+            Path tempFile = directory.resolve(prefix + suffix + ".tmp");
+            try {
+                return Files.createFile(tempFile);
+            } catch (FileAlreadyExistsException ignored) {
+                // try again with another name
             }
         }
     }
 
-    private static void writeLine(@Nonnull BufferedWriter writer, @Nonnull String str) throws IOException {
+    /**
+     * Replace a file with a new version. The file is replaced atomically in case the file system supports it. The new
+     * version gets the permissions of the file it replaces.
+     *
+     * @param source the new version of the file
+     * @param target the file that is replaced
+     * @throws IOException in case moving the file fails
+     */
+    private static void replaceFile(@Nonnull Path source, @Nonnull Path target) throws IOException {
+        PosixFileAttributeView targetAttributes = Files.getFileAttributeView(target, PosixFileAttributeView.class);
+        if ((targetAttributes != null) && Files.exists(target)) {
+            Files.setPosixFilePermissions(source, targetAttributes.readAttributes().permissions());
+        }
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void writeHeader(@Nonnull Writer writer, @Nonnull String header, int value) throws IOException {
+        writer.write(header);
+        writer.write(' ');
+        writer.write(Integer.toString(value));
+        writer.write(NEWLINE);
+    }
+
+    private static void writeLine(@Nonnull Writer writer, @Nonnull String str) throws IOException {
         writer.write(str);
         writer.write(NEWLINE);
     }
@@ -15,65 +15,244 @@
  */
 package illarion.mapedit.data;
 
+import gnu.trove.map.hash.TIntObjectHashMap;
+
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.List;
 
 /**
  * This class represents the selected tile in a map
+ * <p/>
+ * The tiles are stored in a grid that covers the smallest rectangle around the selected tiles. A bit set marks the
+ * cells of the grid that are part of the selection, the ID values of the tiles are stored in one array and only the
+ * tiles with items or a warp point store a content object.
  *
  * @author Fredrik K
  */
 public class MapSelection {
+    /**
+     * The coordinates of the first cell of the grid.
+     */
+    private int originX;
+    private int originY;
+
+    /**
+     * The size of the grid. The grid is empty as long as no tile is selected.
+     */
+    private int width;
+    private int height;
+
+    /**
+     * The cells of the grid that hold a selected tile. The bit of a cell is located at {@code y * width + x}.
+     */
+    @Nonnull
+    private BitSet cells;
 
+    /**
+     * The ID values of the tiles, {@link Map#TILE_COLUMNS} values per cell.
+     */
     @Nonnull
-    private final HashMap<MapPosition, MapTile> selectedTiles;
-    private int minX = Integer.MAX_VALUE;
-    private int minY = Integer.MAX_VALUE;
+    private int[] columns;
+
+    /**
+     * The contents of the tiles that have any. The key is the index of the cell.
+     */
+    @Nonnull
+    private TIntObjectHashMap<TileContent> contents;
 
     public MapSelection() {
-        selectedTiles = new HashMap<>();
+        cells = new BitSet();
+        columns = new int[0];
+        contents = new TIntObjectHashMap<>();
+    }
+
+    /**
+     * Create a selection with a grid that is large enough to store the tiles of a rectangle without growing.
+     *
+     * @param originX the x coordinate of the first column
+     * @param originY the y coordinate of the first row
+     * @param width the amount of columns
+     * @param height the amount of rows
+     */
+    MapSelection(final int originX, final int originY, final int width, final int height) {
+        this.originX = originX;
+        this.originY = originY;
+        this.width = width;
+        this.height = height;
+        cells = new BitSet(width * height);
+        columns = new int[width * height * Map.TILE_COLUMNS];
+        contents = new TIntObjectHashMap<>();
+    }
+
+    public void addSelectedTile(@Nonnull final MapPosition mapPosition, @Nonnull final MapTile tile) {
+        ensureContains(mapPosition.getX(), mapPosition.getY());
+        final int cell = toCell(mapPosition.getX(), mapPosition.getY());
+        if (!cells.get(cell)) {
+            cells.set(cell);
+            final int offset = cell * Map.TILE_COLUMNS;
+            columns[offset] = tile.getId();
+            columns[offset + 1] = tile.getOverlayID();
+            columns[offset + 2] = tile.getShapeID();
+            columns[offset + 3] = tile.getMusicID();
+            setContent(cell, tile.getContent());
+        }
+    }
+
+    /**
+     * Copy a tile of a map into this selection. The location has to be inside the grid of this selection.
+     *
+     * @param map the map
+     * @param x the x coordinate of the tile
+     * @param y the y coordinate of the tile
+     */
+    void addSelectedTile(@Nonnull final Map map, final int x, final int y) {
+        final int cell = toCell(x, y);
+        final int index = (y * map.getWidth()) + x;
+        cells.set(cell);
+        map.readTileColumns(index, columns, cell * Map.TILE_COLUMNS);
+        setContent(cell, map.getContentAtIndex(index));
     }
 
-    public void addSelectedTile(@Nonnull final MapPosition mapPosition, final MapTile tile) {
-        if (!selectedTiles.containsKey(mapPosition)) {
-            adjustOffsets(mapPosition);
-            selectedTiles.put(mapPosition, tile);
+    /**
+     * Store a copy of the content of a tile. Like the copy of a tile, the copy does not contain the annotation.
+     */
+    private void setContent(final int cell, @Nullable final TileContent content) {
+        if (content == null) {
+            return;
+        }
+        final TileContent copy = content.copy();
+        copy.setAnnotation(null);
+        if (!copy.isEmpty()) {
+            contents.put(cell, copy);
         }
     }
 
-    private void adjustOffsets(MapPosition mapPosition) {
-        adjustHorizontalOffset(mapPosition.getX());
-        adjustVerticalOffset(mapPosition.getY());
+    /**
+     * Paste the tiles of this selection into a map. Tiles that end up outside of the map are skipped.
+     *
+     * @param map the map
+     * @param shiftX the value added to the x coordinates of the tiles
+     * @param shiftY the value added to the y coordinates of the tiles
+     */
+    void pasteInto(@Nonnull final Map map, final int shiftX, final int shiftY) {
+        final int mapWidth = map.getWidth();
+        for (int cell = cells.nextSetBit(0); cell >= 0; cell = cells.nextSetBit(cell + 1)) {
+            final int newX = originX + (cell % width) + shiftX;
+            final int newY = originY + (cell / width) + shiftY;
+            if (map.contains(newX, newY)) {
+                final int index = (newY * mapWidth) + newX;
+                map.writeTileColumns(index, columns, cell * Map.TILE_COLUMNS);
+                final TileContent content = contents.get(cell);
+                map.setContentAtIndex(index, (content == null) ? null : content.copy());
+            }
+        }
     }
 
-    private void adjustHorizontalOffset(int horizontalCoordinate) {
-        minX = min(minX, horizontalCoordinate);
+    /**
+     * Grow the grid so it contains a location.
+     */
+    private void ensureContains(final int x, final int y) {
+        if (isEmpty()) {
+            originX = x;
+            originY = y;
+            width = 1;
+            height = 1;
+            cells = new BitSet(1);
+            columns = new int[Map.TILE_COLUMNS];
+            return;
+        }
+        if ((x >= originX) && (x < (originX + width)) && (y >= originY) && (y < (originY + height))) {
+            return;
+        }
+        final int newOriginX = Math.min(originX, x);
+        final int newOriginY = Math.min(originY, y);
+        final int newWidth = (Math.max(originX + width, x + 1)) - newOriginX;
+        final int newHeight = (Math.max(originY + height, y + 1)) - newOriginY;
+        final BitSet newCells = new BitSet(newWidth * newHeight);
+        final int[] newColumns = new int[newWidth * newHeight * Map.TILE_COLUMNS];
+        final TIntObjectHashMap<TileContent> newContents = new TIntObjectHashMap<>();
+        for (int cell = cells.nextSetBit(0); cell >= 0; cell = cells.nextSetBit(cell + 1)) {
+            final int newCell = (((originY + (cell / width)) - newOriginY) * newWidth) +
+                    ((originX + (cell % width)) - newOriginX);
+            newCells.set(newCell);
+            System.arraycopy(columns, cell * Map.TILE_COLUMNS, newColumns, newCell * Map.TILE_COLUMNS,
+                             Map.TILE_COLUMNS);
+            final TileContent content = contents.get(cell);
+            if (content != null) {
+                newContents.put(newCell, content);
+            }
+        }
+        originX = newOriginX;
+        originY = newOriginY;
+        width = newWidth;
+        height = newHeight;
+        cells = newCells;
+        columns = newColumns;
+        contents = newContents;
     }
 
-    private void adjustVerticalOffset(int verticalCoordinate) {
-        minY = min(minY, verticalCoordinate);
+    private int toCell(final int x, final int y) {
+        return ((y - originY) * width) + (x - originX);
     }
 
-    private int min(int currentMinimum, int candidateMinimum) {
-        return Math.min(currentMinimum, candidateMinimum);
+    private boolean isEmpty() {
+        return cells.isEmpty();
     }
 
     public int getOffsetX() {
-        return minX;
+        return isEmpty() ? Integer.MAX_VALUE : originX;
     }
 
     public int getOffsetY() {
-        return minY;
+        return isEmpty() ? Integer.MAX_VALUE : originY;
+    }
+
+    /**
+     * Get the x coordinate of the last column that contains a selected tile.
+     */
+    int getLastX() {
+        return (originX + width) - 1;
+    }
+
+    /**
+     * Get the y coordinate of the last row that contains a selected tile.
+     */
+    int getLastY() {
+        return (originY + height) - 1;
     }
 
     @Nonnull
     public Collection<MapPosition> getSelectedPositions() {
-        return Collections.unmodifiableCollection(selectedTiles.keySet());
+        final List<MapPosition> positions = new ArrayList<>(cells.cardinality());
+        for (int cell = cells.nextSetBit(0); cell >= 0; cell = cells.nextSetBit(cell + 1)) {
+            positions.add(new MapPosition(originX + (cell % width), originY + (cell / width)));
+        }
+        return Collections.unmodifiableCollection(positions);
     }
 
-    public MapTile getMapTileAt(MapPosition position) {
-        return selectedTiles.get(position);
+    @Nullable
+    public MapTile getMapTileAt(@Nonnull final MapPosition position) {
+        final int x = position.getX();
+        final int y = position.getY();
+        if ((x < originX) || (x >= (originX + width)) || (y < originY) || (y >= (originY + height))) {
+            return null;
+        }
+        final int cell = toCell(x, y);
+        if (!cells.get(cell)) {
+            return null;
+        }
+        final int offset = cell * Map.TILE_COLUMNS;
+        final TileContent content = contents.get(cell);
+        if (content == null) {
+            return new MapTile(columns[offset], columns[offset + 1], columns[offset + 2], columns[offset + 3],
+                               null, null);
+        }
+        return new MapTile(columns[offset], columns[offset + 1], columns[offset + 2], columns[offset + 3],
+                           content.getMapItems(), content.getMapWarpPoint());
     }
 }
@@ -0,0 +1,133 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package illarion.mapedit.data;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.nio.IntBuffer;
+
+/**
+ * This is a copy of the data of a map at one point in time. The copy is created on the thread that edits the map and
+ * is written to the files by a background thread, so editing the map can continue while the map is saved.
+ * <p/>
+ * The ID values of the tiles are only copied in case they are needed, as they are by far the largest part of a map.
+ *
+ * @author Tim
+ */
+final class MapSnapshot {
+    private final int width;
+    private final int height;
+    private final int x;
+    private final int y;
+    private final int z;
+
+    /**
+     * The ID values of all tiles in the order written by {@link Map#readTileColumns(IntBuffer)} or {@code null}
+     * in case the tiles were not copied.
+     */
+    @Nullable
+    private final int[] tileColumns;
+
+    /**
+     * The indices of the tiles that have content, in ascending order.
+     */
+    @Nonnull
+    private final int[] contentIndices;
+
+    /**
+     * The copies of the contents of the tiles.
+     */
+    @Nonnull
+    private final TileContent[] contents;
+
+    /**
+     * Create a snapshot of a map.
+     *
+     * @param map the map
+     * @param includeTiles {@code true} to copy the ID values of the tiles as well
+     */
+    MapSnapshot(@Nonnull final Map map, final boolean includeTiles) {
+        width = map.getWidth();
+        height = map.getHeight();
+        x = map.getX();
+        y = map.getY();
+        z = map.getZ();
+        if (includeTiles) {
+            tileColumns = new int[width * height * Map.TILE_COLUMNS];
+            map.readTileColumns(IntBuffer.wrap(tileColumns));
+        } else {
+            tileColumns = null;
+        }
+        contentIndices = map.getContentIndices();
+        contents = new TileContent[contentIndices.length];
+        for (int i = 0; i < contentIndices.length; i++) {
+            final TileContent content = map.getContentAtIndex(contentIndices[i]);
+            assert content != null;
+            contents[i] = content.copy();
+        }
+    }
+
+    int getWidth() {
+        return width;
+    }
+
+    int getHeight() {
+        return height;
+    }
+
+    int getX() {
+        return x;
+    }
+
+    int getY() {
+        return y;
+    }
+
+    int getZ() {
+        return z;
+    }
+
+    boolean hasTiles() {
+        return tileColumns != null;
+    }
+
+    /**
+     * Get the ID values of the tiles.
+     *
+     * @return the tile IDs, overlay IDs, shape IDs and music IDs of all tiles, one block after another
+     * @throws IllegalStateException in case the tiles were not copied
+     */
+    @Nonnull
+    int[] getTileColumns() {
+        if (tileColumns == null) {
+            throw new IllegalStateException("The tiles are not part of this snapshot.");
+        }
+        return tileColumns;
+    }
+
+    int getContentCount() {
+        return contents.length;
+    }
+
+    int getContentIndex(final int i) {
+        return contentIndices[i];
+    }
+
+    @Nonnull
+    TileContent getContent(final int i) {
+        return contents[i];
+    }
+}
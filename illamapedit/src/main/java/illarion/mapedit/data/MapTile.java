@@ -27,6 +27,9 @@ import java.util.List;
 
 /**
  * This object represents a tile with a coordinate, an tileId and a music tileId.
+ * <p/>
+ * The tiles returned by a {@link Map} are views on the data stored in the map. The ID values of such a tile are a
+ * copy, changes of the items, the warp point and the annotation are written to the map.
  *
  * @author Tim
  */
@@ -40,7 +43,7 @@ public class MapTile {
 
         @Nonnull
         public static MapTile setMusicId(final int musicID, @Nonnull final MapTile old) {
-            return new MapTile(old.tileId, old.overlayID, old.shapeID, musicID, old.mapItems, old.mapWarpPoint);
+            return new MapTile(old.tileId, old.overlayID, old.shapeID, musicID, old.getMapItems(), old.getMapWarpPoint());
         }
 
         @Nonnull
@@ -48,20 +51,20 @@ public class MapTile {
             final int baseId = (TileInfo.hasOverlay(id)) ? id : TileInfo.getBaseID(id);
             final int overlayId = (TileInfo.hasOverlay(id)) ? 0 : TileInfo.getOverlayID(id);
             final int shapeId = TileInfo.getShapeId(id);
-            final MapTile tile = new MapTile(baseId, overlayId, shapeId, old.musicID, old.mapItems, old.mapWarpPoint);
+            final MapTile tile = new MapTile(baseId, overlayId, shapeId, old.musicID, old.getMapItems(), old.getMapWarpPoint());
             tile.setAnnotation(old.getAnnotation());
             return tile;
         }
 
         @Nonnull
         public static MapTile setOverlay(final int overlayID, final int shapeID, @Nonnull final MapTile old) {
-            return new MapTile(old.tileId, overlayID, shapeID, old.musicID, old.mapItems, old.mapWarpPoint);
+            return new MapTile(old.tileId, overlayID, shapeID, old.musicID, old.getMapItems(), old.getMapWarpPoint());
         }
 
         @Nonnull
         public static MapTile setOverlay(
                 final int baseID, final int overlayID, final int shapeID, @Nonnull final MapTile old) {
-            return new MapTile(baseID, overlayID, shapeID, old.musicID, old.mapItems, old.mapWarpPoint);
+            return new MapTile(baseID, overlayID, shapeID, old.musicID, old.getMapItems(), old.getMapWarpPoint());
         }
 
         @Nonnull
@@ -77,8 +80,9 @@ public class MapTile {
         @Nonnull
         public static MapTile copyAll(@Nonnull final MapTile old) {
             final List<MapItem> items = new FastTable<>();
-            if (old.mapItems != null) {
-                for (final MapItem item : old.mapItems) {
+            final List<MapItem> oldItems = old.getMapItems();
+            if (oldItems != null) {
+                for (final MapItem item : oldItems) {
                     List<String> itemData = null;
                     if (item.getItemData() != null) {
                         itemData = item.getItemData();
@@ -88,7 +92,7 @@ public class MapTile {
                     items.add(newItem);
                 }
             }
-            return new MapTile(old.tileId, old.overlayID, old.shapeID, old.musicID, items, old.mapWarpPoint);
+            return new MapTile(old.tileId, old.overlayID, old.shapeID, old.musicID, items, old.getMapWarpPoint());
         }
     }
 
@@ -109,17 +113,19 @@ public class MapTile {
      */
     private final int musicID;
     /**
-     * The items on top of this tile
+     * The items, the warp point and the annotation of this tile. This is {@code null} as long as none of them is set.
      */
     @Nullable
-    private List<MapItem> mapItems;
-    @Nullable
-    private String annotation;
+    private TileContent content;
     /**
-     * The warp point on this tile, may be {@code null}.
+     * The map that stores this tile or {@code null} in case the tile is not part of a map.
      */
     @Nullable
-    private MapWarpPoint mapWarpPoint;
+    private Map owner;
+    /**
+     * The index of this tile in the map that stores it.
+     */
+    private int ownerIndex;
 
     public MapTile(
             final int baseId,
@@ -132,10 +138,11 @@ public class MapTile {
         this.overlayID = overlayID;
         this.shapeID = shapeID;
         this.musicID = musicID;
-        this.mapWarpPoint = mapWarpPoint;
+        if (mapWarpPoint != null) {
+            getOrCreateContent().setMapWarpPoint(mapWarpPoint);
+        }
         if (mapItems != null) {
-            this.mapItems = new FastTable<>();
-            this.mapItems.addAll(mapItems);
+            getOrCreateContent().getOrCreateMapItems().addAll(mapItems);
         }
     }
 
@@ -144,18 +151,64 @@ public class MapTile {
         overlayID = org.overlayID;
         shapeID = org.shapeID;
         musicID = org.musicID;
-        mapWarpPoint = org.mapWarpPoint;
-        if (org.mapItems != null) {
-            mapItems = new FastTable<>();
-            for (MapItem orgItem : org.mapItems) {
-                mapItems.add(new MapItem(orgItem));
+        final MapWarpPoint orgWarpPoint = org.getMapWarpPoint();
+        if (orgWarpPoint != null) {
+            getOrCreateContent().setMapWarpPoint(orgWarpPoint);
+        }
+        final List<MapItem> orgItems = org.getMapItems();
+        if (orgItems != null) {
+            final List<MapItem> items = getOrCreateContent().getOrCreateMapItems();
+            for (MapItem orgItem : orgItems) {
+                items.add(new MapItem(orgItem));
             }
         }
     }
 
+    /**
+     * Create a tile that is a view on a tile stored in a map. The ID values are copied, the content is shared with
+     * the map.
+     */
+    MapTile(
+            @Nonnull final Map owner,
+            final int ownerIndex,
+            final int baseId,
+            final int overlayID,
+            final int shapeID,
+            final int musicID,
+            @Nullable final TileContent content) {
+        tileId = baseId;
+        this.overlayID = overlayID;
+        this.shapeID = shapeID;
+        this.musicID = musicID;
+        this.content = content;
+        this.owner = owner;
+        this.ownerIndex = ownerIndex;
+    }
+
+    /**
+     * Bind this tile to a location in a map. Changes of the content of the tile are stored in the map from now on.
+     */
+    void attach(@Nonnull final Map map, final int index) {
+        owner = map;
+        ownerIndex = index;
+    }
+
+    @Nullable
+    TileContent getContent() {
+        return content;
+    }
+
+    @Nonnull
+    private TileContent getOrCreateContent() {
+        if (content == null) {
+            content = (owner == null) ? new TileContent() : owner.getOrCreateContentAtIndex(ownerIndex);
+        }
+        return content;
+    }
+
     @Nullable
     public String getAnnotation() {
-        return annotation;
+        return (content == null) ? null : content.getAnnotation();
     }
 
     /**
@@ -169,6 +222,7 @@ public class MapTile {
 
     @Nullable
     public MapItem getMapItemAt(final int index) {
+        final List<MapItem> mapItems = getMapItems();
         if (mapItems == null) {
             return null;
         }
@@ -189,23 +243,22 @@ public class MapTile {
      */
     @Nullable
     public List<MapItem> getMapItems() {
-        return mapItems;
+        return (content == null) ? null : content.getMapItems();
     }
 
     public void addMapItem(final MapItem item) {
-        if (mapItems == null) {
-            mapItems = new FastTable<>();
-        }
-        mapItems.add(item);
+        getOrCreateContent().getOrCreateMapItems().add(item);
     }
 
     public void removeMapItem(final MapItem item) {
+        final List<MapItem> mapItems = getMapItems();
         if (mapItems != null) {
             mapItems.remove(item);
         }
     }
 
     public void removeMapItem(final int index) {
+        final List<MapItem> mapItems = getMapItems();
         if (mapItems != null) {
             mapItems.remove(index);
         }
@@ -216,7 +269,7 @@ public class MapTile {
      */
     @Nullable
     public MapWarpPoint getMapWarpPoint() {
-        return mapWarpPoint;
+        return (content == null) ? null : content.getMapWarpPoint();
     }
 
     public int getOverlayID() {
@@ -228,37 +281,21 @@ public class MapTile {
     }
 
     public boolean hasAnnotation() {
-        return (annotation != null) && !annotation.isEmpty();
+        return (content != null) && content.hasAnnotation();
     }
 
     public boolean hasItemAnnotation() {
-        boolean hasAnnotation = false;
-        if ((mapItems != null) && !mapItems.isEmpty()) {
-            int index = 0;
-            while (!hasAnnotation && (mapItems.size() > index)) {
-                hasAnnotation = mapItems.get(index).hasAnnotation();
-                index++;
-            }
-        }
-        return hasAnnotation;
+        return (content != null) && content.hasItemAnnotation();
     }
 
     public boolean isMapItemsDataEmpty() {
-        if (mapItems == null) {
-            return true;
-        }
-        boolean empty = true;
-        int index = 0;
-
-        while (empty && (index < mapItems.size())) {
-            empty = mapItems.get(index).isItemDataNullOrEmpty();
-            index++;
-        }
-        return empty;
+        return (content == null) || content.isMapItemsDataEmpty();
     }
 
     public void setAnnotation(@Nullable final String annotation) {
-        this.annotation = annotation;
+        if ((annotation != null) || (content != null)) {
+            getOrCreateContent().setAnnotation(annotation);
+        }
     }
 
     /**
@@ -267,7 +304,9 @@ public class MapTile {
      * @param mapWarpPoint the new warp, may be {@code null}.
      */
     public void setMapWarpPoint(@Nullable final MapWarpPoint mapWarpPoint) {
-        this.mapWarpPoint = mapWarpPoint;
+        if ((mapWarpPoint != null) || (content != null)) {
+            getOrCreateContent().setMapWarpPoint(mapWarpPoint);
+        }
     }
 
     /**
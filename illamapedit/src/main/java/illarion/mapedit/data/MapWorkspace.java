@@ -0,0 +1,230 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package illarion.mapedit.data;
+
+import gnu.trove.map.hash.TLongObjectHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * This class is the index of all maps in a directory. It stores the headers of the maps only, so the entire world is
+ * known to the editor without loading the tiles of any map.
+ * <p/>
+ * The headers are stored in a grid of square cells for every level. A map is added to all cells it overlaps, so the
+ * maps at a location or in a area are found by checking the few maps stored in the cells of that area.
+ *
+ * @author Tim
+ */
+public final class MapWorkspace {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MapWorkspace.class);
+
+    /**
+     * The size of the cells of the index, the cells are {@code 1 << CELL_SHIFT} tiles wide.
+     */
+    private static final int CELL_SHIFT = 6;
+
+    /**
+     * The directory that contains the maps.
+     */
+    @Nonnull
+    private final Path directory;
+
+    /**
+     * The headers of all maps, stored by the location of the map files.
+     */
+    @Nonnull
+    private final HashMap<Path, MapHeader> headers;
+
+    /**
+     * The headers of the maps that overlap a cell, stored by the key of the cell.
+     */
+    @Nonnull
+    private final TLongObjectHashMap<List<MapHeader>> cells;
+
+    private MapWorkspace(@Nonnull final Path directory) {
+        this.directory = directory;
+        headers = new HashMap<>();
+        cells = new TLongObjectHashMap<>();
+    }
+
+    /**
+     * Read the headers of all maps in a directory and its sub directories. Maps with a header that can't be read are
+     * skipped.
+     *
+     * @param directory the directory
+     * @return the index of the maps
+     * @throws IOException in case the directory can't be read
+     */
+    @Nonnull
+    public static MapWorkspace scan(@Nonnull final Path directory) throws IOException {
+        final MapWorkspace workspace = new MapWorkspace(directory);
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+            @Nonnull
+            @Override
+            public FileVisitResult visitFile(@Nonnull final Path file, final BasicFileAttributes attrs) {
+                final String fileName = file.getFileName().toString();
+                if (fileName.endsWith(MapIO.EXT_TILE)) {
+                    final String name = fileName.substring(0, fileName.length() - MapIO.EXT_TILE.length());
+                    try {
+                        workspace.add(MapIO.readMapHeader(file.getParent(), name));
+                    } catch (IOException e) {
+                        LOGGER.warn("Can't read the header of map {}: {}", file, e.getMessage());
+                    }
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        LOGGER.debug("Workspace {} contains {} maps", directory, workspace.headers.size());
+        return workspace;
+    }
+
+    /**
+     * Add a map to the index.
+     *
+     * @param header the header of the map
+     */
+    void add(@Nonnull final MapHeader header) {
+        headers.put(header.getPath().resolve(header.getName()), header);
+        if ((header.getWidth() <= 0) || (header.getHeight() <= 0)) {
+            return;
+        }
+        final int lastCellX = getCell((header.getX() + header.getWidth()) - 1);
+        final int lastCellY = getCell((header.getY() + header.getHeight()) - 1);
+        for (int cellX = getCell(header.getX()); cellX <= lastCellX; cellX++) {
+            for (int cellY = getCell(header.getY()); cellY <= lastCellY; cellY++) {
+                final long key = getCellKey(cellX, cellY, header.getZ());
+                List<MapHeader> cellHeaders = cells.get(key);
+                if (cellHeaders == null) {
+                    cellHeaders = new ArrayList<>(1);
+                    cells.put(key, cellHeaders);
+                }
+                cellHeaders.add(header);
+            }
+        }
+    }
+
+    @Nonnull
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Get the headers of all maps in this workspace.
+     *
+     * @return the headers
+     */
+    @Nonnull
+    public Collection<MapHeader> getHeaders() {
+        return Collections.unmodifiableCollection(headers.values());
+    }
+
+    /**
+     * Get the header of a map in this workspace.
+     *
+     * @param map the map
+     * @return the header or {@code null} in case the map is not part of this workspace
+     */
+    @Nullable
+    public MapHeader getHeader(@Nonnull final Map map) {
+        return getHeader(map.getPath(), map.getName());
+    }
+
+    /**
+     * Get the header of a map in this workspace.
+     *
+     * @param path the directory of the map
+     * @param name the name of the map
+     * @return the header or {@code null} in case the map is not part of this workspace
+     */
+    @Nullable
+    public MapHeader getHeader(@Nonnull final Path path, @Nonnull final String name) {
+        return headers.get(path.resolve(name));
+    }
+
+    /**
+     * Find the map that covers a location.
+     *
+     * @param x the x coordinate of the location
+     * @param y the y coordinate of the location
+     * @param z the level of the location
+     * @return the header of the map or {@code null} in case no map covers the location
+     */
+    @Nullable
+    public MapHeader findMapAt(final int x, final int y, final int z) {
+        final List<MapHeader> cellHeaders = cells.get(getCellKey(getCell(x), getCell(y), z));
+        if (cellHeaders != null) {
+            for (final MapHeader header : cellHeaders) {
+                if (header.contains(x, y, z)) {
+                    return header;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Find all maps of a level that overlap a area.
+     *
+     * @param fromX the smallest x coordinate of the area
+     * @param fromY the smallest y coordinate of the area
+     * @param toX the largest x coordinate of the area
+     * @param toY the largest y coordinate of the area
+     * @param z the level
+     * @return the headers of the maps
+     */
+    @Nonnull
+    public List<MapHeader> findMaps(final int fromX, final int fromY, final int toX, final int toY, final int z) {
+        final List<MapHeader> result = new ArrayList<>();
+        final int lastCellX = getCell(toX);
+        final int lastCellY = getCell(toY);
+        for (int cellX = getCell(fromX); cellX <= lastCellX; cellX++) {
+            for (int cellY = getCell(fromY); cellY <= lastCellY; cellY++) {
+                final List<MapHeader> cellHeaders = cells.get(getCellKey(cellX, cellY, z));
+                if (cellHeaders == null) {
+                    continue;
+                }
+                for (final MapHeader header : cellHeaders) {
+                    if (header.intersects(fromX, fromY, toX, toY) && !result.contains(header)) {
+                        result.add(header);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private static int getCell(final int coordinate) {
+        return coordinate >> CELL_SHIFT;
+    }
+
+    private static long getCellKey(final int cellX, final int cellY, final int z) {
+        return ((long) z << 48) ^ (((long) cellX & 0xFFFFFFL) << 24) ^ ((long) cellY & 0xFFFFFFL);
+    }
+}
@@ -15,77 +15,266 @@
  */
 package illarion.mapedit.data;
 
+import gnu.trove.list.array.TIntArrayList;
 import illarion.mapedit.events.HistoryPasteCutEvent;
-import illarion.mapedit.history.CopyPasteAction;
-import illarion.mapedit.history.GroupAction;
+import illarion.mapedit.history.RegionChangedAction;
 import org.bushe.swing.event.EventBus;
 
 import javax.annotation.Nonnull;
-import java.util.HashSet;
-import java.util.Set;
+import javax.annotation.Nullable;
+import java.awt.*;
+import java.util.BitSet;
 
 /**
+ * This class stores the selected tiles of a map. The selection is a bit set with one bit per tile in the same order
+ * as the tiles of the map, so checking and changing the selection does not create any objects. A row of selected
+ * tiles is a run of set bits, so rectangles are selected and walked one row at a time.
+ *
  * @author Fredrik K
  */
 public class SelectionManager {
+    /**
+     * The width of the map this selection belongs to.
+     */
+    private final int width;
+
+    /**
+     * The height of the map this selection belongs to.
+     */
+    private final int height;
+
+    /**
+     * The selected tiles. The bit of a tile is located at {@code y * width + x}.
+     */
     @Nonnull
-    private final Set<MapPosition> selection;
+    private final BitSet selection;
 
-    public SelectionManager() {
-        selection = new HashSet<>();
+    /**
+     * Create the selection of a map.
+     *
+     * @param width the width of the map
+     * @param height the height of the map
+     */
+    public SelectionManager(final int width, final int height) {
+        this.width = width;
+        this.height = height;
+        selection = new BitSet(width * height);
     }
 
     @Nonnull
     public MapSelection copy(@Nonnull final Map map) {
-        final MapSelection mapSelection = new MapSelection();
-        for (final MapPosition pos : selection) {
-            final MapTile tile = map.getTileAt(pos.getX(), pos.getY());
-            if (tile != null) {
-                mapSelection.addSelectedTile(pos, MapTile.MapTileFactory.copy(tile));
-            }
+        final Rectangle bounds = getBounds();
+        if (bounds == null) {
+            return new MapSelection();
+        }
+        final MapSelection mapSelection = new MapSelection(bounds.x, bounds.y, bounds.width, bounds.height);
+        for (int i = selection.nextSetBit(0); i >= 0; i = selection.nextSetBit(i + 1)) {
+            mapSelection.addSelectedTile(map, i % width, i / width);
         }
         return mapSelection;
     }
 
     @Nonnull
     public MapSelection cut(@Nonnull final Map map) {
-        final MapSelection mapSelection = new MapSelection();
-        final GroupAction action = new GroupAction();
-        for (final MapPosition pos : selection) {
-            final MapTile tile = map.getTileAt(pos.getX(), pos.getY());
-            if (tile != null) {
-                mapSelection.addSelectedTile(pos, MapTile.MapTileFactory.copy(tile));
-                final MapTile tileNew = MapTile.MapTileFactory.createNew(0, 0, 0, 0);
-                action.addAction(new CopyPasteAction(pos.getX(), pos.getY(), tile, tileNew, map));
-                map.setTileAt(pos.getX(), pos.getY(), tileNew);
-            }
+        final Rectangle bounds = getBounds();
+        if (bounds == null) {
+            return new MapSelection();
+        }
+        final MapSelection mapSelection = new MapSelection(bounds.x, bounds.y, bounds.width, bounds.height);
+        final MapDelta.Recorder recorder = MapDelta.record(map, bounds.x, bounds.y, (bounds.x + bounds.width) - 1,
+                                                           (bounds.y + bounds.height) - 1);
+        for (int i = selection.nextSetBit(0); i >= 0; i = selection.nextSetBit(i + 1)) {
+            final int x = i % width;
+            final int y = i / width;
+            mapSelection.addSelectedTile(map, x, y);
+            map.setTileAt(x, y, 0, 0, 0, 0);
+            map.setContentAtIndex(i, null);
         }
 
-        if (!action.isEmpty()) {
-            EventBus.publish(new HistoryPasteCutEvent(action));
+        final MapDelta delta = recorder.finish();
+        if (delta != null) {
+            EventBus.publish(new HistoryPasteCutEvent(new RegionChangedAction(delta)));
         }
 
         selection.clear();
         return mapSelection;
     }
 
-    @Nonnull
-    public Set<MapPosition> getSelection() {
-        return selection;
+    /**
+     * Get the smallest rectangle that contains all selected tiles.
+     *
+     * @return the rectangle or {@code null} in case no tile is selected
+     */
+    @Nullable
+    public Rectangle getBounds() {
+        final int first = selection.nextSetBit(0);
+        if (first < 0) {
+            return null;
+        }
+        int minX = width;
+        int maxX = -1;
+        int index = first;
+        while (index >= 0) {
+            final int rowStart = (index / width) * width;
+            final int rowEnd = (rowStart + width) - 1;
+            minX = Math.min(minX, index - rowStart);
+            maxX = Math.max(maxX, selection.previousSetBit(rowEnd) - rowStart);
+            index = selection.nextSetBit(rowEnd + 1);
+        }
+        final int minY = first / width;
+        final int maxY = (selection.length() - 1) / width;
+        return new Rectangle(minX, minY, (maxX - minX) + 1, (maxY - minY) + 1);
+    }
+
+    /**
+     * Get the index of the next selected tile. The index of a tile is {@code y * width + x}.
+     *
+     * @param fromIndex the first index that is checked
+     * @return the index of the next selected tile or {@code -1} in case there is none
+     */
+    public int nextSelected(final int fromIndex) {
+        return selection.nextSetBit(fromIndex);
+    }
+
+    /**
+     * Get the amount of selected tiles.
+     *
+     * @return the amount of selected tiles
+     */
+    public int getSelectedCount() {
+        return selection.cardinality();
+    }
+
+    public boolean isEmpty() {
+        return selection.isEmpty();
+    }
+
+    /**
+     * Get the width of the map. It is needed to get the coordinates of a index returned by {@link #nextSelected(int)}.
+     *
+     * @return the width of the map
+     */
+    public int getWidth() {
+        return width;
     }
 
     public void select(final int x, final int y) {
-        selection.add(new MapPosition(x, y));
+        if (contains(x, y)) {
+            selection.set((y * width) + x);
+        }
     }
 
     public void deselect(final int x, final int y) {
-        final MapPosition pos = new MapPosition(x, y);
-        if (selection.contains(pos)) {
-            selection.remove(pos);
+        if (contains(x, y)) {
+            selection.clear((y * width) + x);
         }
     }
 
     public boolean isSelected(final int x, final int y) {
-        return selection.contains(new MapPosition(x, y));
+        return contains(x, y) && selection.get((y * width) + x);
+    }
+
+    /**
+     * Select or deselect all tiles in a rectangle. The parts of the rectangle outside of the map are ignored.
+     *
+     * @param fromX the x coordinate of one corner
+     * @param fromY the y coordinate of one corner
+     * @param toX the x coordinate of the opposite corner
+     * @param toY the y coordinate of the opposite corner
+     * @param selected {@code true} to select the tiles, {@code false} to deselect them
+     */
+    public void selectRectangle(
+            final int fromX, final int fromY, final int toX, final int toY, final boolean selected) {
+        final int startX = Math.max(0, Math.min(fromX, toX));
+        final int endX = Math.min(width - 1, Math.max(fromX, toX));
+        final int startY = Math.max(0, Math.min(fromY, toY));
+        final int endY = Math.min(height - 1, Math.max(fromY, toY));
+        if ((startX > endX) || (startY > endY)) {
+            return;
+        }
+        for (int y = startY; y <= endY; y++) {
+            final int rowStart = y * width;
+            selection.set(rowStart + startX, rowStart + endX + 1, selected);
+        }
+    }
+
+    /**
+     * Select or deselect the area of connected tiles that share the tile ID of a starting tile. The area is filled
+     * one run of tiles at a time, so only the start of every run is queued.
+     *
+     * @param map the map this selection belongs to
+     * @param x the x coordinate of the starting tile
+     * @param y the y coordinate of the starting tile
+     * @param selected {@code true} to select the tiles, {@code false} to deselect them
+     */
+    public void selectFlood(@Nonnull final Map map, final int x, final int y, final boolean selected) {
+        if (!contains(x, y)) {
+            return;
+        }
+        final int tileId = map.getTileIdAt(x, y);
+        final BitSet filled = new BitSet(width * height);
+        final TIntArrayList pending = new TIntArrayList();
+        pending.add((y * width) + x);
+        while (!pending.isEmpty()) {
+            final int index = pending.removeAt(pending.size() - 1);
+            if (filled.get(index)) {
+                continue;
+            }
+            final int rowY = index / width;
+            int left = index % width;
+            while ((left > 0) && (map.getTileIdAt(left - 1, rowY) == tileId)) {
+                left--;
+            }
+            int right = index % width;
+            while ((right < (width - 1)) && (map.getTileIdAt(right + 1, rowY) == tileId)) {
+                right++;
+            }
+            final int rowStart = rowY * width;
+            filled.set(rowStart + left, rowStart + right + 1);
+            if (rowY > 0) {
+                queueRuns(map, tileId, filled, pending, left, right, rowY - 1);
+            }
+            if (rowY < (height - 1)) {
+                queueRuns(map, tileId, filled, pending, left, right, rowY + 1);
+            }
+        }
+        if (selected) {
+            selection.or(filled);
+        } else {
+            selection.andNot(filled);
+        }
+    }
+
+    /**
+     * Queue the first tile of every run of matching tiles that are not filled yet in a part of a row.
+     */
+    private void queueRuns(
+            @Nonnull final Map map,
+            final int tileId,
+            @Nonnull final BitSet filled,
+            @Nonnull final TIntArrayList pending,
+            final int left,
+            final int right,
+            final int y) {
+        final int rowStart = y * width;
+        boolean inRun = false;
+        for (int x = left; x <= right; x++) {
+            final boolean matches = !filled.get(rowStart + x) && (map.getTileIdAt(x, y) == tileId);
+            if (matches && !inRun) {
+                pending.add(rowStart + x);
+            }
+            inRun = matches;
+        }
+    }
+
+    /**
+     * Remove all tiles from the selection.
+     */
+    public void clear() {
+        selection.clear();
+    }
+
+    private boolean contains(final int x, final int y) {
+        return (x >= 0) && (x < width) && (y >= 0) && (y < height);
     }
 }
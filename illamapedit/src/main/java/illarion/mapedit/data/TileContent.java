@@ -0,0 +1,212 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package illarion.mapedit.data;
+
+import javolution.util.FastTable;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.List;
+
+/**
+ * This class stores the rarely used parts of a tile. Most tiles of a map have no items, no warp point and no
+ * annotation. So only the tiles that do have any of these receive a instance of this class.
+ *
+ * @author Tim
+ */
+final class TileContent {
+    /**
+     * The items on top of the tile.
+     */
+    @Nullable
+    private List<MapItem> mapItems;
+
+    /**
+     * The warp point on the tile.
+     */
+    @Nullable
+    private MapWarpPoint mapWarpPoint;
+
+    /**
+     * The annotation of the tile.
+     */
+    @Nullable
+    private String annotation;
+
+    @Nullable
+    List<MapItem> getMapItems() {
+        return mapItems;
+    }
+
+    /**
+     * Get the list of items and create it in case it does not exist yet.
+     */
+    @Nonnull
+    List<MapItem> getOrCreateMapItems() {
+        if (mapItems == null) {
+            mapItems = new FastTable<>();
+        }
+        return mapItems;
+    }
+
+    void setMapItems(@Nullable final List<MapItem> mapItems) {
+        this.mapItems = mapItems;
+    }
+
+    @Nullable
+    MapWarpPoint getMapWarpPoint() {
+        return mapWarpPoint;
+    }
+
+    void setMapWarpPoint(@Nullable final MapWarpPoint mapWarpPoint) {
+        this.mapWarpPoint = mapWarpPoint;
+    }
+
+    @Nullable
+    String getAnnotation() {
+        return annotation;
+    }
+
+    void setAnnotation(@Nullable final String annotation) {
+        this.annotation = annotation;
+    }
+
+    boolean hasAnnotation() {
+        return (annotation != null) && !annotation.isEmpty();
+    }
+
+    boolean hasItemAnnotation() {
+        if (mapItems == null) {
+            return false;
+        }
+        for (int i = 0; i < mapItems.size(); i++) {
+            if (mapItems.get(i).hasAnnotation()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean isMapItemsDataEmpty() {
+        if (mapItems == null) {
+            return true;
+        }
+        for (int i = 0; i < mapItems.size(); i++) {
+            if (!mapItems.get(i).isItemDataNullOrEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Create a deep copy of this content. The copy shares no mutable object with this content.
+     *
+     * @return the copy
+     */
+    @Nonnull
+    TileContent copy() {
+        final TileContent copy = new TileContent();
+        copy.mapWarpPoint = mapWarpPoint;
+        copy.annotation = annotation;
+        if (mapItems != null) {
+            final List<MapItem> items = copy.getOrCreateMapItems();
+            for (int i = 0; i < mapItems.size(); i++) {
+                final MapItem item = mapItems.get(i);
+                final MapItem itemCopy = new MapItem(item);
+                itemCopy.setAnnotation(item.getAnnotation());
+                items.add(itemCopy);
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Check if two contents hold the same data. A missing content is the same as a empty content.
+     *
+     * @param first the first content
+     * @param second the second content
+     * @return {@code true} in case both contents hold the same data
+     */
+    static boolean isSame(@Nullable final TileContent first, @Nullable final TileContent second) {
+        if ((first == null) || first.isEmpty()) {
+            return (second == null) || second.isEmpty();
+        }
+        if ((second == null) || second.isEmpty()) {
+            return false;
+        }
+        if (!isSame(first.annotation, second.annotation) || !isSame(first.mapWarpPoint, second.mapWarpPoint)) {
+            return false;
+        }
+        final int firstCount = (first.mapItems == null) ? 0 : first.mapItems.size();
+        final int secondCount = (second.mapItems == null) ? 0 : second.mapItems.size();
+        if (firstCount != secondCount) {
+            return false;
+        }
+        for (int i = 0; i < firstCount; i++) {
+            final MapItem firstItem = first.mapItems.get(i);
+            final MapItem secondItem = second.mapItems.get(i);
+            if ((firstItem.getId() != secondItem.getId()) ||
+                    (firstItem.getQualityDurability() != secondItem.getQualityDurability()) ||
+                    !isSame(firstItem.getAnnotation(), secondItem.getAnnotation()) ||
+                    !isSame(firstItem.getItemData(), secondItem.getItemData())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSame(@Nullable final MapWarpPoint first, @Nullable final MapWarpPoint second) {
+        if ((first == null) || (second == null)) {
+            return first == second;
+        }
+        return (first.getXTarget() == second.getXTarget()) && (first.getYTarget() == second.getYTarget()) &&
+                (first.getZTarget() == second.getZTarget());
+    }
+
+    private static boolean isSame(@Nullable final Object first, @Nullable final Object second) {
+        return (first == null) ? (second == null) : first.equals(second);
+    }
+
+    /**
+     * Estimate the amount of memory used by this content.
+     *
+     * @return the estimated size in bytes
+     */
+    int getMemoryUsage() {
+        int usage = 48;
+        if (annotation != null) {
+            usage += 40 + (2 * annotation.length());
+        }
+        if (mapItems != null) {
+            usage += 32;
+            for (int i = 0; i < mapItems.size(); i++) {
+                final List<String> data = mapItems.get(i).getItemData();
+                usage += 40 + ((data == null) ? 0 : (48 * data.size()));
+            }
+        }
+        return usage;
+    }
+
+    /**
+     * Check if this content holds any data.
+     *
+     * @return {@code true} in case there are no items, no warp point and no annotation
+     */
+    boolean isEmpty() {
+        return ((mapItems == null) || mapItems.isEmpty()) && (mapWarpPoint == null) && (annotation == null);
+    }
+}
@@ -19,13 +19,32 @@ import illarion.mapedit.crash.exceptions.FormatCorruptedException;
 import illarion.mapedit.data.Map;
 
 import javax.annotation.Nullable;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * @author Tim
  */
 public interface Decoder {
 
-    void decodeLine(DataType type, String line, int i) throws FormatCorruptedException;
+    /**
+     * Decode all remaining lines of a file.
+     *
+     * @param type the type of the data stored in the file
+     * @param lines the cursor that points to the lines of the file
+     * @throws FormatCorruptedException in case a line does not fit the format
+     */
+    void decode(DataType type, LineCursor lines) throws FormatCorruptedException;
+
+    /**
+     * Decode all remaining lines of a file. Large files are split into parts that are decoded in parallel by the
+     * threads of the pool. The decoded map is the same as the one of {@link #decode(DataType, LineCursor)}.
+     *
+     * @param type the type of the data stored in the file
+     * @param lines the cursor that points to the lines of the file
+     * @param pool the pool that executes the decoding of the parts
+     * @throws FormatCorruptedException in case a line does not fit the format
+     */
+    void decode(DataType type, LineCursor lines, ForkJoinPool pool) throws FormatCorruptedException;
 
     @Nullable
     Map getDecodedMap();
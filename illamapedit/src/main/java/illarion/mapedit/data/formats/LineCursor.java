@@ -0,0 +1,336 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package illarion.mapedit.data.formats;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This cursor walks over the lines of a map file that is stored in a buffer. The map files are encoded in
+ * ISO-8859-1, so each byte is one character. The fields of the lines are parsed directly from the buffer, so no
+ * string is created for a line unless the text of a field is requested.
+ *
+ * @author Martin Karing &lt;nitram@illarion.org&gt;
+ */
+public final class LineCursor {
+    private static final byte DELIMITER = ';';
+    private static final byte ESCAPE = '\\';
+
+    /**
+     * The buffer that contains the text.
+     */
+    @Nonnull
+    private final ByteBuffer buffer;
+
+    /**
+     * The position where the text of the file starts. This is used to calculate the line numbers of a part of the
+     * file.
+     */
+    private final int origin;
+
+    /**
+     * The position where the part of the text read by this cursor starts.
+     */
+    private final int start;
+
+    /**
+     * The end of the text in the buffer.
+     */
+    private final int limit;
+
+    /**
+     * The amount of lines located between the origin and the start of this cursor. {@code -1} in case this value
+     * was not calculated yet.
+     */
+    private int skippedLines;
+
+    /**
+     * The position of the first character of the current line.
+     */
+    private int lineStart;
+
+    /**
+     * The position behind the last character of the current line, excluding the line break.
+     */
+    private int lineEnd;
+
+    /**
+     * The position where the next line starts.
+     */
+    private int nextLine;
+
+    /**
+     * The position of the next character that is read from the current line.
+     */
+    private int position;
+
+    /**
+     * The number of the current line, counted from the start of this cursor.
+     */
+    private int lineNumber;
+
+    /**
+     * The buffer used to create strings.
+     */
+    @Nonnull
+    private char[] textBuffer;
+
+    /**
+     * Create a cursor that starts at the current position of the buffer.
+     *
+     * @param buffer the buffer that contains the text
+     */
+    public LineCursor(@Nonnull final ByteBuffer buffer) {
+        this(buffer, buffer.position(), buffer.position(), buffer.limit());
+        skippedLines = 0;
+    }
+
+    private LineCursor(@Nonnull final ByteBuffer buffer, final int origin, final int start, final int limit) {
+        this.buffer = buffer;
+        this.origin = origin;
+        this.start = start;
+        this.limit = limit;
+        nextLine = start;
+        skippedLines = -1;
+        textBuffer = new char[64];
+    }
+
+    /**
+     * Split the lines that were not read yet into parts of about the same size. Each part starts at the beginning
+     * of a line. The cursors of the parts are independent of each other, so they can be used by different threads.
+     * This cursor is moved to the end of the text.
+     *
+     * @param parts the amount of parts
+     * @return the cursors of the parts, in the order of the text
+     */
+    @Nonnull
+    public List<LineCursor> split(final int parts) {
+        final List<LineCursor> result = new ArrayList<>(parts);
+        final long length = limit - nextLine;
+        int partStart = nextLine;
+        for (int i = 1; (i < parts) && (partStart < limit); i++) {
+            int partEnd = Math.max(partStart, nextLine + (int) ((length * i) / parts));
+            while ((partEnd < limit) && ((partEnd == partStart) || (buffer.get(partEnd - 1) != '\n'))) {
+                partEnd++;
+            }
+            result.add(new LineCursor(buffer, origin, partStart, partEnd));
+            partStart = partEnd;
+        }
+        if (partStart < limit) {
+            result.add(new LineCursor(buffer, origin, partStart, limit));
+        }
+        nextLine = limit;
+        return result;
+    }
+
+    /**
+     * @return the amount of characters that were not read yet
+     */
+    public int remaining() {
+        return limit - nextLine;
+    }
+
+    /**
+     * Move the cursor to the next line.
+     *
+     * @return {@code true} in case there is another line
+     */
+    public boolean nextLine() {
+        if (nextLine >= limit) {
+            lineStart = limit;
+            lineEnd = limit;
+            position = limit;
+            return false;
+        }
+        lineStart = nextLine;
+        int end = lineStart;
+        while ((end < limit) && (buffer.get(end) != '\n')) {
+            end++;
+        }
+        nextLine = end + 1;
+        if ((end > lineStart) && (buffer.get(end - 1) == '\r')) {
+            end--;
+        }
+        lineEnd = end;
+        position = lineStart;
+        lineNumber++;
+        return true;
+    }
+
+    /**
+     * @return the number of the current line in the file, starting with 1
+     */
+    public int getLineNumber() {
+        if (skippedLines == -1) {
+            skippedLines = 0;
+            for (int i = origin; i < start; i++) {
+                if (buffer.get(i) == '\n') {
+                    skippedLines++;
+                }
+            }
+        }
+        return skippedLines + lineNumber;
+    }
+
+    /**
+     * @return {@code true} in case the current line contains no characters
+     */
+    public boolean isEmptyLine() {
+        return lineStart == lineEnd;
+    }
+
+    /**
+     * Check if the current line starts with a prefix.
+     *
+     * @param prefix the prefix
+     * @return {@code true} in case the line starts with the prefix
+     */
+    public boolean startsWith(@Nonnull final String prefix) {
+        final int length = prefix.length();
+        if ((lineEnd - lineStart) < length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(lineStart + i) != (byte) prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Skip a amount of characters of the current line.
+     *
+     * @param count the amount of characters
+     */
+    public void skip(final int count) {
+        position = Math.min(lineEnd, position + count);
+    }
+
+    /**
+     * @return {@code true} in case the current line contains characters that were not read yet
+     */
+    public boolean hasMoreFields() {
+        return position < lineEnd;
+    }
+
+    /**
+     * Read a integer field of the current line. The delimiter that follows the field is skipped.
+     *
+     * @return the value of the field
+     * @throws NumberFormatException in case the field is not a valid integer
+     */
+    public int nextInt() {
+        boolean negative = false;
+        if ((position < lineEnd) && (buffer.get(position) == '-')) {
+            negative = true;
+            position++;
+        }
+        final int start = position;
+        long value = 0;
+        while (position < lineEnd) {
+            final byte current = buffer.get(position);
+            if (current == DELIMITER) {
+                break;
+            }
+            if ((current < '0') || (current > '9')) {
+                throw new NumberFormatException("Illegal character in number: " + (char) current);
+            }
+            value = (value * 10) + (current - '0');
+            if (value > (Integer.MAX_VALUE + 1L)) {
+                throw new NumberFormatException("Number is out of range.");
+            }
+            position++;
+        }
+        if (position == start) {
+            throw new NumberFormatException("Number expected.");
+        }
+        skipDelimiter();
+        final long result = negative ? -value : value;
+        if (result > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Number is out of range.");
+        }
+        return (int) result;
+    }
+
+    /**
+     * Read a text field of the current line. A delimiter that is escaped with a backslash is part of the field, the
+     * backslash is kept in the text.
+     *
+     * @return the text of the field
+     */
+    @Nonnull
+    public String nextField() {
+        final int start = position;
+        while (position < lineEnd) {
+            final byte current = buffer.get(position);
+            if (current == DELIMITER) {
+                break;
+            }
+            if ((current == ESCAPE) && ((position + 1) < lineEnd)) {
+                position++;
+            }
+            position++;
+        }
+        final String result = getText(start, position);
+        skipDelimiter();
+        return result;
+    }
+
+    /**
+     * Read the remaining text of the current line.
+     *
+     * @return the remaining text
+     */
+    @Nonnull
+    public String rest() {
+        final String result = getText(position, lineEnd);
+        position = lineEnd;
+        return result;
+    }
+
+    /**
+     * @return the text of the entire current line
+     */
+    @Nullable
+    public String getLine() {
+        if (lineNumber == 0) {
+            return null;
+        }
+        return getText(lineStart, lineEnd);
+    }
+
+    private void skipDelimiter() {
+        if ((position < lineEnd) && (buffer.get(position) == DELIMITER)) {
+            position++;
+        }
+    }
+
+    @Nonnull
+    private String getText(final int start, final int end) {
+        final int length = end - start;
+        if (textBuffer.length < length) {
+            textBuffer = new char[Math.max(length, textBuffer.length * 2)];
+        }
+        for (int i = 0; i < length; i++) {
+            textBuffer[i] = (char) (buffer.get(start + i) & 0xFF);
+        }
+        return new String(textBuffer, 0, length);
+    }
+}
@@ -15,9 +15,11 @@
  */
 package illarion.mapedit.data.formats;
 
+import gnu.trove.list.array.TIntArrayList;
 import illarion.common.graphics.TileInfo;
 import illarion.mapedit.crash.exceptions.FormatCorruptedException;
 import illarion.mapedit.data.Map;
+import illarion.mapedit.data.MapIO;
 import illarion.mapedit.data.MapItem;
 import illarion.mapedit.data.MapTile;
 import illarion.mapedit.data.MapWarpPoint;
@@ -26,23 +28,31 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * @author Tim
  * @author Fredrik K
  */
 public class Version2Decoder implements Decoder {
-    private static final Pattern PATTERN_L = Pattern.compile("L: (-?\\d+)");
-    private static final Pattern PATTERN_X = Pattern.compile("X: (-?\\d+)");
-    private static final Pattern PATTERN_Y = Pattern.compile("Y: (-?\\d+)");
-    private static final Pattern PATTERN_W = Pattern.compile("W: (-?\\d+)");
-    private static final Pattern PATTERN_H = Pattern.compile("H: (-?\\d+)");
-    private static final Pattern DELIMITER = Pattern.compile(";");
-    private static final Pattern PATTERN_DATA = Pattern.compile("(?:\\\\.|[^;\\\\]++)*");
+    private static final String COMMENT = "# ";
+
+    /**
+     * The smallest part of a file in bytes that is decoded by its own task.
+     */
+    private static final int MIN_PART_SIZE = 64 * 1024;
+
+    /**
+     * The amount of parts created per thread of the pool. Some more parts than threads balance the load.
+     */
+    private static final int PARTS_PER_THREAD = 4;
+    private static final String HEADER_L = "L: ";
+    private static final String HEADER_X = "X: ";
+    private static final String HEADER_Y = "Y: ";
+    private static final String HEADER_W = "W: ";
+    private static final String HEADER_H = "H: ";
 
     private int level = -1;
     private int mapX = -1;
@@ -56,6 +66,12 @@ public class Version2Decoder implements Decoder {
     private String name;
     private Path path;
 
+    /**
+     * The list that collects the data values of a item. It is reused for all items, as the item copies the values.
+     */
+    @Nonnull
+    private final List<String> itemData;
+
     Version2Decoder(@Nonnull final String name, @Nonnull final Path path) {
         this.name = name;
         this.path = path;
@@ -65,92 +81,71 @@ public class Version2Decoder implements Decoder {
         mapY = -1;
         width = -1;
         height = -1;
+        itemData = new ArrayList<>();
     }
 
-    public void decodeItemLine(final String line, final int i) throws FormatCorruptedException {
-        if (line.startsWith("# ")) {
-            return;
-        }
-        final List<String> matches = getItemMatches(line);
-        if (matches.size() < 4) {
-            throw new FormatCorruptedException(path + ".item.txt", line, i,
-                                               "<dx>;<dy>;<item ID>;<quality>[;<data value>[;...]]");
+    public void decodeItemLine(@Nonnull final LineCursor line) {
+        //        <dx>;<dy>;<item ID>;<quality>[;<data value>[;...]]
+        final int itemX = line.nextInt();
+        final int itemY = line.nextInt();
+        final MapItem item = readItem(line, itemData);
+        if (map != null) {
+            map.addItemAt(itemX, itemY, item);
         }
-        createNewItem(matches);
     }
 
+    /**
+     * Read the item of a item line. The coordinates of the line have to be read already.
+     *
+     * @param line the cursor that points to the item line
+     * @param data the list that is used to collect the data values
+     * @return the item
+     */
     @Nonnull
-    private List<String> getItemMatches(final String line) {
-        final Matcher regexMatcher = PATTERN_DATA.matcher(line);
-        final List<String> matches = new LinkedList<>();
-        while (regexMatcher.find()) {
-            final String match = regexMatcher.group();
-            if (!match.isEmpty()) {
-                matches.add(match);
-            }
-        }
-        return matches;
-    }
+    private static MapItem readItem(@Nonnull final LineCursor line, @Nonnull final List<String> data) {
+        final int itemId = line.nextInt();
+        final int itemQuality = line.nextInt();
 
-    private void createNewItem(@Nonnull final List<String> matches) {
-        final int itemX = Integer.parseInt(matches.get(0));
-        final int itemY = Integer.parseInt(matches.get(1));
-        final int itemId = Integer.parseInt(matches.get(2));
-        final int itemQuality = Integer.parseInt(matches.get(3));
-
-        final List<String> data = new ArrayList<>();
-        if (matches.size() > 4) {
-            for (int index = 4; index < matches.size(); index++) {
-                data.add(matches.get(index));
+        data.clear();
+        while (line.hasMoreFields()) {
+            final String value = line.nextField();
+            if (!value.isEmpty()) {
+                data.add(value);
             }
         }
-
-        final MapItem item = new MapItem(itemId, data, itemQuality);
-        if (map != null) {
-            map.addItemAt(itemX, itemY, item);
-        }
+        return new MapItem(itemId, data, itemQuality);
     }
 
-    public void decodeTileLine(final String line, final int i) throws FormatCorruptedException {
-        if (line.startsWith("# ")) {
-            return;
-        }
+    public void decodeTileLine(@Nonnull final LineCursor line) {
         //        <dx>;<dy>;<tileID>;<musicID>
-
         if (map == null) {
             decodeHeader(line);
             return;
         }
-        final String[] sections = DELIMITER.split(line);
-        if (sections.length != 4) {
-            throw new FormatCorruptedException(path + ".tiles.txt", line, i, "<dx>;<dy>;<tileID>;<musicID>");
+        final int tx = line.nextInt();
+        final int ty = line.nextInt();
+        final int tid = line.nextInt();
+        final int tmid = line.nextInt();
+        if (line.hasMoreFields()) {
+            throw new NumberFormatException("Too many fields.");
         }
-        final int tx = Integer.parseInt(sections[0]);
-        final int ty = Integer.parseInt(sections[1]);
-        final int tid = Integer.parseInt(sections[2]);
-        final int tmid = Integer.parseInt(sections[3]);
-        final MapTile tile;
+        // The tile data is marked as changed once all lines are decoded.
         if (TileInfo.hasOverlay(tid)) {
-            tile = MapTile.MapTileFactory
-                    .createNew(TileInfo.getBaseID(tid), TileInfo.getOverlayID(tid), TileInfo.getShapeId(tid), tmid);
+            map.loadTileAt(tx, ty, TileInfo.getBaseID(tid), TileInfo.getOverlayID(tid), TileInfo.getShapeId(tid),
+                           tmid);
         } else {
-            tile = MapTile.MapTileFactory.createNew(tid, 0, 0, tmid);
+            map.loadTileAt(tx, ty, tid, 0, 0, tmid);
         }
-        map.setTileAt(tx, ty, tile);
     }
 
-    public void decodeAnnoLine(final String line, final int i) throws FormatCorruptedException {
-        if (line.startsWith("# ")) {
-            return;
-        }
-        final String[] sections = DELIMITER.split(line);
-        if (sections.length != 4) {
-            throw new FormatCorruptedException(path + ".annot.txt", line, i, "<sx>;<sy>;<type>;<annotation>");
+    public void decodeAnnoLine(@Nonnull final LineCursor line) {
+        final int sx = line.nextInt();
+        final int sy = line.nextInt();
+        final int index = line.nextInt();
+        final String annotation = line.nextField();
+        if (line.hasMoreFields()) {
+            throw new NumberFormatException("Too many fields.");
         }
-        final int sx = Integer.parseInt(sections[0]);
-        final int sy = Integer.parseInt(sections[1]);
-        final int index = Integer.parseInt(sections[2]);
-        final String annotation = sections[3];
 
         if (map != null) {
             final MapTile tile = map.getTileAt(sx, sy);
@@ -163,20 +158,16 @@ public class Version2Decoder implements Decoder {
         }
     }
 
-    public void decodeWarpLine(final String line, final int i) throws FormatCorruptedException {
-        if (line.startsWith("# ")) {
-            return;
-        }
+    public void decodeWarpLine(@Nonnull final LineCursor line) {
         // <sx>;<sy>;<tx>;<ty>;<tz>
-        final String[] sections = DELIMITER.split(line);
-        if (sections.length != 5) {
-            throw new FormatCorruptedException(path + ".warps.txt", line, i, "<sx>;<sy>;<tx>;<ty>;<tz>");
-        }
-        final int sx = Integer.parseInt(sections[0]);
-        final int sy = Integer.parseInt(sections[1]);
-        final int tx = Integer.parseInt(sections[2]);
-        final int ty = Integer.parseInt(sections[3]);
-        final int tz = Integer.parseInt(sections[4]);
+        final int sx = line.nextInt();
+        final int sy = line.nextInt();
+        final int tx = line.nextInt();
+        final int ty = line.nextInt();
+        final int tz = line.nextInt();
+        if (line.hasMoreFields()) {
+            throw new NumberFormatException("Too many fields.");
+        }
         final MapWarpPoint warp = new MapWarpPoint(tx, ty, tz);
         if (map != null) {
             map.setWarpAt(sx, sy, warp);
@@ -184,21 +175,174 @@ public class Version2Decoder implements Decoder {
     }
 
     @Override
-    public void decodeLine(DataType type, String line, int i) throws FormatCorruptedException {
+    public void decode(DataType type, LineCursor lines) throws FormatCorruptedException {
+        while (lines.nextLine()) {
+            decodeLine(type, lines, null);
+        }
+        if ((type == DataType.Tiles) && (map != null)) {
+            map.setTileDataChanged(true);
+        }
+    }
+
+    @Override
+    public void decode(DataType type, LineCursor lines, ForkJoinPool pool) throws FormatCorruptedException {
+        // The header of the tile file is needed to create the map that receives the tiles.
+        while ((map == null) && lines.nextLine()) {
+            decodeLine(type, lines, null);
+        }
+        final int parts = Math.min(pool.getParallelism() * PARTS_PER_THREAD, lines.remaining() / MIN_PART_SIZE);
+        if ((map == null) || (parts < 2) || ((type != DataType.Tiles) && (type != DataType.Items))) {
+            decode(type, lines);
+            return;
+        }
+
+        final List<PartTask> tasks = new ArrayList<>(parts);
+        for (final LineCursor part : lines.split(parts)) {
+            final PartTask task = new PartTask(this, type, part);
+            tasks.add(task);
+            pool.execute(task);
+        }
+        for (final PartTask task : tasks) {
+            task.join();
+        }
+        for (final PartTask task : tasks) {
+            if (task.error != null) {
+                throw task.error;
+            }
+        }
+        if (type == DataType.Tiles) {
+            map.setTileDataChanged(true);
+        }
+        // The items are added in the order of the file, so the order of the items on a tile does not depend on
+        // the timing of the threads.
+        for (final PartTask task : tasks) {
+            task.addItems(map);
+        }
+    }
+
+    /**
+     * Decode a single line.
+     *
+     * @param type the type of the data stored in the line
+     * @param line the cursor that points to the line
+     * @param part the part that collects the items, {@code null} to add the items directly to the map
+     * @throws FormatCorruptedException in case the line does not fit the format
+     */
+    private void decodeLine(@Nonnull DataType type, @Nonnull LineCursor line, @Nullable PartTask part)
+            throws FormatCorruptedException {
+        if (line.isEmptyLine() || line.startsWith(COMMENT)) {
+            return;
+        }
+        try {
+            switch (type) {
+                case Tiles:
+                    decodeTileLine(line);
+                    break;
+                case Items:
+                    if (part == null) {
+                        decodeItemLine(line);
+                    } else {
+                        part.decodeItemLine(line);
+                    }
+                    break;
+                case WarpPoints:
+                    decodeWarpLine(line);
+                    break;
+                case Annotations:
+                    decodeAnnoLine(line);
+                    break;
+            }
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw createFormatException(type, line);
+        }
+    }
+
+    /**
+     * This task decodes one part of a file. The tiles are written directly into the map, as every line writes
+     * only to its own tile. The items are collected and added to the map once all parts are done.
+     */
+    private static final class PartTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        @Nonnull
+        private final Version2Decoder decoder;
+        @Nonnull
+        private final DataType type;
+        @Nonnull
+        private final LineCursor lines;
+        @Nonnull
+        private final List<String> data;
+        @Nonnull
+        private final TIntArrayList itemPositions;
+        @Nonnull
+        private final List<MapItem> items;
+        @Nullable
+        private FormatCorruptedException error;
+
+        PartTask(@Nonnull Version2Decoder decoder, @Nonnull DataType type, @Nonnull LineCursor lines) {
+            this.decoder = decoder;
+            this.type = type;
+            this.lines = lines;
+            data = new ArrayList<>();
+            itemPositions = new TIntArrayList();
+            items = new ArrayList<>();
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                while (lines.nextLine()) {
+                    decoder.decodeLine(type, lines, this);
+                }
+            } catch (FormatCorruptedException e) {
+                error = e;
+            }
+        }
+
+        void decodeItemLine(@Nonnull final LineCursor line) {
+            final int itemX = line.nextInt();
+            final int itemY = line.nextInt();
+            final Map map = decoder.map;
+            assert map != null;
+            if (!map.contains(itemX, itemY)) {
+                throw new IllegalArgumentException("Item is out of range: " + itemX + ", " + itemY);
+            }
+            itemPositions.add(itemX);
+            itemPositions.add(itemY);
+            items.add(readItem(line, data));
+        }
+
+        void addItems(@Nonnull final Map target) {
+            for (int i = 0; i < items.size(); i++) {
+                target.addItemAt(itemPositions.get(2 * i), itemPositions.get((2 * i) + 1), items.get(i));
+            }
+        }
+    }
+
+    @Nonnull
+    private FormatCorruptedException createFormatException(@Nonnull DataType type, @Nonnull LineCursor lines) {
+        final String extension;
+        final String format;
         switch (type) {
             case Tiles:
-                decodeTileLine(line, i);
+                extension = MapIO.EXT_TILE;
+                format = "<dx>;<dy>;<tileID>;<musicID>";
                 break;
             case Items:
-                decodeItemLine(line, i);
+                extension = MapIO.EXT_ITEM;
+                format = "<dx>;<dy>;<item ID>;<quality>[;<data value>[;...]]";
                 break;
             case WarpPoints:
-                decodeWarpLine(line, i);
+                extension = MapIO.EXT_WARP;
+                format = "<sx>;<sy>;<tx>;<ty>;<tz>";
                 break;
-            case Annotations:
-                decodeAnnoLine(line, i);
+            default:
+                extension = MapIO.EXT_ANNO;
+                format = "<sx>;<sy>;<type>;<annotation>";
                 break;
         }
+        return new FormatCorruptedException(path.resolve(name + extension).toString(), lines.getLine(),
+                                            lines.getLineNumber(), format);
     }
 
     @Nullable
@@ -207,26 +351,22 @@ public class Version2Decoder implements Decoder {
         return map;
     }
 
-    private void decodeHeader(final String line) {
-        Matcher matcher = PATTERN_L.matcher(line);
-        if (matcher.find()) {
-            level = Integer.parseInt(matcher.group(1));
-        }
-        matcher = PATTERN_X.matcher(line);
-        if (matcher.find()) {
-            mapX = Integer.parseInt(matcher.group(1));
-        }
-        matcher = PATTERN_Y.matcher(line);
-        if (matcher.find()) {
-            mapY = Integer.parseInt(matcher.group(1));
-        }
-        matcher = PATTERN_W.matcher(line);
-        if (matcher.find()) {
-            width = Integer.parseInt(matcher.group(1));
-        }
-        matcher = PATTERN_H.matcher(line);
-        if (matcher.find()) {
-            height = Integer.parseInt(matcher.group(1));
+    private void decodeHeader(@Nonnull final LineCursor line) {
+        if (line.startsWith(HEADER_L)) {
+            line.skip(HEADER_L.length());
+            level = line.nextInt();
+        } else if (line.startsWith(HEADER_X)) {
+            line.skip(HEADER_X.length());
+            mapX = line.nextInt();
+        } else if (line.startsWith(HEADER_Y)) {
+            line.skip(HEADER_Y.length());
+            mapY = line.nextInt();
+        } else if (line.startsWith(HEADER_W)) {
+            line.skip(HEADER_W.length());
+            width = line.nextInt();
+        } else if (line.startsWith(HEADER_H)) {
+            line.skip(HEADER_H.length());
+            height = line.nextInt();
         }
         if ((level != -1) && (mapX != -1) && (mapY != -1) && (width != -1) && (height != -1)) {
             map = new Map(name, path, width, height, mapX, mapY, level);
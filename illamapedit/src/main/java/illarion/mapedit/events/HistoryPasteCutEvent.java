@@ -15,7 +15,6 @@
  */
 package illarion.mapedit.events;
 
-import illarion.mapedit.history.GroupAction;
 import illarion.mapedit.history.HistoryAction;
 
 /**
@@ -24,7 +23,7 @@ import illarion.mapedit.history.HistoryAction;
 public class HistoryPasteCutEvent {
     private HistoryAction action;
 
-    public HistoryPasteCutEvent(final GroupAction action) {
+    public HistoryPasteCutEvent(final HistoryAction action) {
         this.action = action;
     }
 
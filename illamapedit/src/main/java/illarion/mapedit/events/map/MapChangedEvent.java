@@ -0,0 +1,122 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package illarion.mapedit.events.map;
+
+import illarion.mapedit.data.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * This event is published once the content of a map was changed. It marks the changed area of the map, so cached
+ * graphics of this area are rendered again.
+ *
+ * @author Tim
+ */
+public class MapChangedEvent {
+    @Nullable
+    private final Map map;
+    private final int fromX;
+    private final int fromY;
+    private final int toX;
+    private final int toY;
+
+    /**
+     * Create a event that marks all maps as changed.
+     */
+    public MapChangedEvent() {
+        this(null);
+    }
+
+    /**
+     * Create a event that marks the entire map as changed.
+     *
+     * @param map the changed map or {@code null} in case all maps changed
+     */
+    public MapChangedEvent(@Nullable final Map map) {
+        this.map = map;
+        fromX = Integer.MIN_VALUE;
+        fromY = Integer.MIN_VALUE;
+        toX = Integer.MAX_VALUE;
+        toY = Integer.MAX_VALUE;
+    }
+
+    /**
+     * Create a event that marks a single tile and the tiles around it as changed. The surrounding tiles are included
+     * because the transitions of the neighbours change with the tile.
+     *
+     * @param x the x coordinate of the changed tile
+     * @param y the y coordinate of the changed tile
+     * @param map the changed map
+     */
+    public MapChangedEvent(final int x, final int y, @Nonnull final Map map) {
+        this(x - 1, y - 1, x + 1, y + 1, map);
+    }
+
+    /**
+     * Create a event that marks a area of a map as changed.
+     *
+     * @param startX the x coordinate of the first corner of the area
+     * @param startY the y coordinate of the first corner of the area
+     * @param endX the x coordinate of the second corner of the area
+     * @param endY the y coordinate of the second corner of the area
+     * @param map the changed map
+     */
+    public MapChangedEvent(
+            final int startX, final int startY, final int endX, final int endY, @Nonnull final Map map) {
+        this.map = map;
+        fromX = Math.min(startX, endX);
+        fromY = Math.min(startY, endY);
+        toX = Math.max(startX, endX);
+        toY = Math.max(startY, endY);
+    }
+
+    /**
+     * @return the changed map or {@code null} in case all maps changed
+     */
+    @Nullable
+    public Map getMap() {
+        return map;
+    }
+
+    public int getFromX() {
+        return fromX;
+    }
+
+    public int getFromY() {
+        return fromY;
+    }
+
+    public int getToX() {
+        return toX;
+    }
+
+    public int getToY() {
+        return toY;
+    }
+
+    @Nonnull
+    @Override
+    public String toString() {
+        return "MapChangedEvent{" +
+                "map=" + map +
+                ", fromX=" + fromX +
+                ", fromY=" + fromY +
+                ", toX=" + toX +
+                ", toY=" + toY +
+                '}';
+    }
+}
@@ -0,0 +1,25 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package illarion.mapedit.events.map;
+
+/**
+ * This event is published once the area of the world that is shown in the map panel changed. That happens when the
+ * view is moved or zoomed, the size of the panel changes or another level is selected.
+ *
+ * @author Martin Karing &lt;nitram@illarion.org&gt;
+ */
+public class MapViewChangedEvent {
+}
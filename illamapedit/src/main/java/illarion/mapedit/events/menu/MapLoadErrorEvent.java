@@ -15,17 +15,53 @@
  */
 package illarion.mapedit.events.menu;
 
+import javax.annotation.Nullable;
+import java.nio.file.Path;
+
 /**
  * @author Fredrik K
  */
 public class MapLoadErrorEvent {
     private final String message;
+    @Nullable
+    private final Path path;
+    @Nullable
+    private final String name;
 
     public MapLoadErrorEvent(final String message) {
+        this(message, null, null);
+    }
+
+    /**
+     * Create the event for a map that failed to load.
+     *
+     * @param message the message shown to the user
+     * @param path the directory of the map
+     * @param name the name of the map
+     */
+    public MapLoadErrorEvent(final String message, @Nullable final Path path, @Nullable final String name) {
         this.message = message;
+        this.path = path;
+        this.name = name;
     }
 
     public String getMessage() {
         return message;
     }
+
+    /**
+     * @return the directory of the map that failed to load or {@code null} in case the error is not about one map
+     */
+    @Nullable
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * @return the name of the map that failed to load or {@code null} in case the error is not about one map
+     */
+    @Nullable
+    public String getName() {
+        return name;
+    }
 }
@@ -0,0 +1,39 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package illarion.mapedit.events.menu;
+
+import illarion.mapedit.data.Map;
+
+import javax.annotation.Nonnull;
+
+/**
+ * This event is published once a map was saved in the background.
+ *
+ * @author Martin Karing &lt;nitram@illarion.org&gt;
+ */
+public class MapSavedEvent {
+    @Nonnull
+    private final Map map;
+
+    public MapSavedEvent(@Nonnull final Map map) {
+        this.map = map;
+    }
+
+    @Nonnull
+    public Map getMap() {
+        return map;
+    }
+}
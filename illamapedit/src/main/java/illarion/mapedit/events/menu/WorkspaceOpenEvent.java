@@ -0,0 +1,38 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package illarion.mapedit.events.menu;
+
+import javax.annotation.Nonnull;
+import java.nio.file.Path;
+
+/**
+ * This event is published to open all maps in a directory as one workspace.
+ *
+ * @author Tim
+ */
+public class WorkspaceOpenEvent {
+    @Nonnull
+    private final Path directory;
+
+    public WorkspaceOpenEvent(@Nonnull final Path directory) {
+        this.directory = directory;
+    }
+
+    @Nonnull
+    public Path getDirectory() {
+        return directory;
+    }
+}
@@ -19,7 +19,9 @@ import illarion.mapedit.Lang;
 import illarion.mapedit.MapEditor;
 import illarion.mapedit.data.*;
 import illarion.mapedit.events.*;
+import illarion.mapedit.events.map.MapChangedEvent;
 import illarion.mapedit.events.map.MapPositionEvent;
+import illarion.mapedit.events.map.MapViewChangedEvent;
 import illarion.mapedit.events.map.RepaintRequestEvent;
 import illarion.mapedit.events.menu.*;
 import illarion.mapedit.history.HistoryManager;
@@ -38,11 +40,16 @@ import org.slf4j.LoggerFactory;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.swing.*;
+import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * This class should contain the model, and control the view, nicely separated from each other.
@@ -53,6 +60,17 @@ public class GuiController extends WindowAdapter {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(GuiController.class);
 
+    /**
+     * The distance in tiles around the visible area in which the maps of the workspace are loaded.
+     */
+    private static final int LOAD_MARGIN = 32;
+
+    /**
+     * The distance in tiles around the visible area in which the maps of the workspace stay loaded. It is larger
+     * than the load margin, so maps at the border of the visible area are not loaded and unloaded over and over.
+     */
+    private static final int UNLOAD_MARGIN = 128;
+
     @Nonnull
     private final MainFrame mainFrame;
 
@@ -69,19 +87,55 @@ public class GuiController extends WindowAdapter {
     @Nullable
     private Map selected;
 
+    /**
+     * The map the view was moved to the last time a map was selected.
+     */
+    @Nullable
+    private Map viewMap;
+
     private boolean started;
 
     private boolean notSaved;
 
+    /**
+     * The number of maps that are queued to be saved in the background and did not report back yet.
+     */
+    private int pendingSaves;
+
+    /**
+     * This flag is set in case a map changed after the last save was queued.
+     */
+    private boolean changedSinceSave;
+
     @Nullable
     private MapSelection clipboard;
 
+    /**
+     * The index of all maps in the directory opened as workspace or {@code null} in case no workspace is open.
+     */
+    @Nullable
+    private MapWorkspace workspace;
+
+    /**
+     * The maps of the workspace that are currently loading.
+     */
+    @Nonnull
+    private final Set<MapHeader> loadingMaps;
+
+    /**
+     * The area of the last call of {@link #updateVisibleArea(int, int, int, int, int)}.
+     */
+    @Nullable
+    private Rectangle visibleArea;
+    private int visibleLevel;
+
     public GuiController() {
         AnnotationProcessor.process(this);
         mainFrame = new MainFrame(this);
         historyManager = new HistoryManager();
         annotationChecker = new AnnotationChecker();
         maps = new FastTable<>();
+        loadingMaps = new HashSet<>();
         notSaved = false;
         helpDialog = new HelpDialog(mainFrame);
     }
@@ -177,15 +231,22 @@ public class GuiController extends WindowAdapter {
 
     public void setSaved(final boolean saved) {
         notSaved = !saved;
+        if (!saved) {
+            changedSinceSave = true;
+        }
     }
 
     @Override
     public void windowClosing(final WindowEvent e) {
+        if (!MapIO.waitForSaves()) {
+            notSaved = true;
+        }
         if (notSaved) {
             if (MapDialogs.isShowSaveDialog()) {
-                onMapSave(new MapSaveEvent());
+                saveMaps();
             }
         }
+        MapIO.shutdownSaving();
         LOGGER.debug("Closing window.");
         MapEditor.exit();
     }
@@ -203,6 +264,66 @@ public class GuiController extends WindowAdapter {
 
     @EventSubscriber
     public void onMapSave(final MapSaveEvent e) {
+        saveMapsInBackground(false);
+    }
+
+    @EventSubscriber
+    public void onMapExportBinary(@Nonnull final MapExportBinaryEvent e) {
+        saveMapsInBackground(true);
+    }
+
+    /**
+     * Queue all maps to be saved in the background. The maps count as saved once all of them reported that they
+     * were written and no map changed in the meantime.
+     *
+     * @param exportBinary {@code true} to write the binary version of the maps as well
+     */
+    private void saveMapsInBackground(final boolean exportBinary) {
+        changedSinceSave = false;
+        for (final Map map : maps) {
+            if (map != null) {
+                pendingSaves++;
+                if (exportBinary) {
+                    MapIO.exportBinaryMapInBackground(map);
+                } else {
+                    MapIO.saveMapInBackground(map);
+                }
+            }
+        }
+        EventBus.publish(new UpdateMapListEvent(maps, maps.indexOf(selected)));
+    }
+
+    @EventSubscriber
+    public void onMapChanged(@Nonnull final MapChangedEvent e) {
+        final Map map = e.getMap();
+        if (map != null) {
+            map.markChanged();
+        } else if (selected != null) {
+            // The item data is only edited on the active tile of the selected map.
+            selected.markChanged();
+        }
+    }
+
+    @EventSubscriber
+    public void onMapSaved(@Nonnull final MapSavedEvent e) {
+        pendingSaves--;
+        if ((pendingSaves == 0) && !changedSinceSave) {
+            notSaved = false;
+        }
+    }
+
+    @EventSubscriber
+    public void onMapSaveError(@Nonnull final MapSaveErrorEvent e) {
+        pendingSaves--;
+        notSaved = true;
+        changedSinceSave = true;
+    }
+
+    /**
+     * Save all maps and wait until they are written.
+     */
+    private void saveMaps() {
+        boolean saved = true;
         for (final Map map : maps) {
             try {
 
@@ -211,12 +332,12 @@ public class GuiController extends WindowAdapter {
                 }
             } catch (IOException ex) {
                 LOGGER.warn("Can't save map", ex);
+                saved = false;
                 JOptionPane.showMessageDialog(MainFrame.getInstance(), Lang.getMsg("gui.error.SaveMap"),
                                               Lang.getMsg("gui.error"), JOptionPane.ERROR_MESSAGE);
             }
         }
-        notSaved = false;
-        EventBus.publish(new UpdateMapListEvent(maps, maps.indexOf(selected)));
+        notSaved = !saved;
     }
 
     @EventSubscriber
@@ -225,6 +346,11 @@ public class GuiController extends WindowAdapter {
             selected = null;
         } else {
             selected = maps.get(e.getIndex());
+        }
+        // The view moves to the selected map only in case the selection changed, so the list updates caused by
+        // loading and unloading the maps of a workspace do not move the view.
+        if ((selected != null) && (selected != viewMap)) {
+            viewMap = selected;
             final int x = SwingLocation.displayCoordinateX(selected.getX(), selected.getY(), 0);
             final int y = SwingLocation.displayCoordinateY(selected.getX(), selected.getY(), 0);
             final RendererManager manager = mainFrame.getRendererManager();
@@ -241,11 +367,155 @@ public class GuiController extends WindowAdapter {
 
     @EventSubscriber
     public void onMapLoaded(@Nonnull final MapLoadedEvent e) {
-        if (!maps.contains(e.getMap())) {
+        final MapHeader header = (workspace == null) ? null : workspace.getHeader(e.getMap());
+        if ((header != null) && loadingMaps.remove(header)) {
+            // Maps loaded for the workspace are added without taking the selection or moving the view.
+            if (!maps.contains(e.getMap())) {
+                maps.add(e.getMap());
+                final int selectedIndex = (selected == null) ? 0 : maps.indexOf(selected);
+                EventBus.publish(new UpdateMapListEvent(maps, selectedIndex));
+                EventBus.publish(new MapViewChangedEvent());
+                EventBus.publish(new RepaintRequestEvent());
+            }
+        } else if (!maps.contains(e.getMap())) {
             addMap(e.getMap());
         }
     }
 
+    @EventSubscriber
+    public void onMapLoadError(@Nonnull final MapLoadErrorEvent e) {
+        final Path path = e.getPath();
+        final String name = e.getName();
+        if ((workspace == null) || (path == null) || (name == null)) {
+            return;
+        }
+        final MapHeader header = workspace.getHeader(path, name);
+        if ((header != null) && loadingMaps.remove(header)) {
+            // Forget the visible area, so the next change of the view tries to load the map again.
+            visibleArea = null;
+        }
+    }
+
+    @EventSubscriber
+    public void onWorkspaceOpen(@Nonnull final WorkspaceOpenEvent e) {
+        MapIO.loadWorkspace(e.getDirectory());
+    }
+
+    @EventSubscriber
+    public void onWorkspaceLoaded(@Nonnull final WorkspaceLoadedEvent e) {
+        workspace = e.getWorkspace();
+        loadingMaps.clear();
+        visibleArea = null;
+        if (maps.isEmpty()) {
+            // Load one map, so the view has a location in the world to start from.
+            MapHeader first = workspace.findMapAt(0, 0, 0);
+            for (final MapHeader header : workspace.getHeaders()) {
+                if ((first == null) || (header.getName().compareTo(first.getName()) < 0)) {
+                    first = header;
+                }
+            }
+            if (first != null) {
+                loadWorkspaceMap(first);
+            }
+        }
+        EventBus.publish(new MapViewChangedEvent());
+        EventBus.publish(new RepaintRequestEvent());
+    }
+
+    /**
+     * Load the maps of the workspace around the visible area and unload the maps of the workspace that are far away
+     * from it. Maps with changes that are not saved yet and maps that are changed by entries of the history are never
+     * unloaded.
+     *
+     * @param fromX the smallest x coordinate of the visible area
+     * @param fromY the smallest y coordinate of the visible area
+     * @param toX the largest x coordinate of the visible area
+     * @param toY the largest y coordinate of the visible area
+     * @param level the visible level
+     */
+    public void updateVisibleArea(final int fromX, final int fromY, final int toX, final int toY, final int level) {
+        final MapWorkspace currentWorkspace = workspace;
+        if (currentWorkspace == null) {
+            return;
+        }
+        final Rectangle area = new Rectangle(fromX, fromY, (toX - fromX) + 1, (toY - fromY) + 1);
+        if (area.equals(visibleArea) && (level == visibleLevel)) {
+            return;
+        }
+        visibleArea = area;
+        visibleLevel = level;
+
+        for (final MapHeader header : currentWorkspace
+                .findMaps(fromX - LOAD_MARGIN, fromY - LOAD_MARGIN, toX + LOAD_MARGIN, toY + LOAD_MARGIN, level)) {
+            if (!loadingMaps.contains(header) && !isLoaded(header)) {
+                loadWorkspaceMap(header);
+            }
+        }
+
+        final List<Map> unloadMaps = new ArrayList<>();
+        for (final Map map : maps) {
+            if ((map == selected) || (currentWorkspace.getHeader(map) == null)) {
+                continue;
+            }
+            final boolean nearby = (map.getZ() == level) &&
+                    (map.getX() <= (toX + UNLOAD_MARGIN)) &&
+                    ((map.getX() + map.getWidth()) > (fromX - UNLOAD_MARGIN)) &&
+                    (map.getY() <= (toY + UNLOAD_MARGIN)) &&
+                    ((map.getY() + map.getHeight()) > (fromY - UNLOAD_MARGIN));
+            if (!nearby && !historyManager.hasEntries(map) && !map.isChanged()) {
+                unloadMaps.add(map);
+            }
+        }
+        if (!unloadMaps.isEmpty()) {
+            LOGGER.debug("Unloading {} maps outside of the visible area", unloadMaps.size());
+            maps.removeAll(unloadMaps);
+            EventBus.publish(new UpdateMapListEvent(maps, maps.indexOf(selected)));
+        }
+    }
+
+    private void loadWorkspaceMap(@Nonnull final MapHeader header) {
+        loadingMaps.add(header);
+        MapIO.loadMap(header.getPath(), header.getName());
+    }
+
+    private boolean isLoaded(@Nonnull final MapHeader header) {
+        for (final Map map : maps) {
+            if (header.isHeaderOf(map)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Find the open map that covers a location. In case a workspace is open, the index of the workspace is used to
+     * find the map.
+     *
+     * @param x the x coordinate of the location
+     * @param y the y coordinate of the location
+     * @param z the level of the location
+     * @return the map or {@code null} in case no open map covers the location
+     */
+    @Nullable
+    public Map getMapAt(final int x, final int y, final int z) {
+        if (workspace != null) {
+            final MapHeader header = workspace.findMapAt(x, y, z);
+            if (header != null) {
+                for (final Map map : maps) {
+                    if (header.isHeaderOf(map)) {
+                        return map;
+                    }
+                }
+            }
+        }
+        for (final Map map : maps) {
+            if ((map.getZ() == z) && map.contains(x - map.getX(), y - map.getY())) {
+                return map;
+            }
+        }
+        return null;
+    }
+
     @EventSubscriber
     public void onMapOpen(@Nonnull final MapOpenEvent e) {
         MapIO.loadMap(e.getPath(), e.getName());
@@ -272,6 +542,7 @@ public class GuiController extends WindowAdapter {
     public void onCutClipboard(@Nonnull final ClipboardCutEvent e) {
         if ((getSelected() != null) && !annotationChecker.isAnnotatedFill(getSelected())) {
             clipboard = getSelected().cutSelectedTiles();
+            EventBus.publish(new MapChangedEvent(getSelected()));
             EventBus.publish(new RepaintRequestEvent());
             setSaved(false);
         }
@@ -283,6 +554,7 @@ public class GuiController extends WindowAdapter {
         if ((getSelected() != null) && (clipboard != null) &&
                 !annotationChecker.isAnnotated(e.getX(), e.getY(), getSelected(), clipboard)) {
             getSelected().pasteTiles(e.getX(), e.getY(), clipboard);
+            EventBus.publish(new MapChangedEvent(getSelected()));
             EventBus.publish(new RepaintRequestEvent());
             setSaved(false);
         }
@@ -296,6 +568,7 @@ public class GuiController extends WindowAdapter {
                 historyManager.addEntry(historyAction);
                 setSaved(false);
             }
+            EventBus.publish(new MapChangedEvent(getSelected()));
             EventBus.publish(new RepaintRequestEvent());
             EventBus.publish(new ItemsUpdatedEvent(getSelected().getItemsOnActiveTile()));
         }
@@ -305,6 +578,7 @@ public class GuiController extends WindowAdapter {
     public void onItemReplace(@Nonnull final ItemReplaceEvent e) {
         if (getSelected() != null) {
             getSelected().replaceItemOnActiveTile(e.getIndex(), e.getNewIndex());
+            EventBus.publish(new MapChangedEvent(getSelected()));
             EventBus.publish(new RepaintRequestEvent());
             EventBus.publish(new ItemsUpdatedEvent(getSelected().getItemsOnActiveTile()));
         }
@@ -326,6 +600,7 @@ public class GuiController extends WindowAdapter {
         final MapTile tile = getSelected().getActiveTile();
         if (tile != null) {
             tile.setAnnotation(e.getText());
+            EventBus.publish(new MapChangedEvent(getSelected()));
             EventBus.publish(new RepaintRequestEvent());
         }
     }
@@ -21,6 +21,7 @@ import illarion.mapedit.MapEditor;
 import illarion.mapedit.events.HistoryEvent;
 import illarion.mapedit.events.map.MapPositionEvent;
 import illarion.mapedit.events.menu.MapLoadErrorEvent;
+import illarion.mapedit.events.menu.MapSaveErrorEvent;
 import illarion.mapedit.events.menu.MapSaveEvent;
 import illarion.mapedit.events.menu.ShowHelpDialogEvent;
 import illarion.mapedit.events.util.ActionEventPublisher;
@@ -200,6 +201,11 @@ public class MainFrame extends JRibbonFrame {
         showMessageDialog(e.getMessage());
     }
 
+    @org.bushe.swing.event.annotation.EventSubscriber
+    public void onMapSaveError(@Nonnull MapSaveErrorEvent e) {
+        showMessageDialog(e.getMessage());
+    }
+
     public static void showMessageDialog(final String message) {
         JOptionPane.showMessageDialog(getInstance(), message, Lang.getMsg("gui.error"), JOptionPane.ERROR_MESSAGE,
                                       ImageLoader.getImageIcon("messagebox_critical"));
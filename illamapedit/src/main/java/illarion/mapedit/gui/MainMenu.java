@@ -18,10 +18,12 @@ package illarion.mapedit.gui;
 import illarion.common.config.ConfigDialog;
 import illarion.common.config.gui.ConfigDialogSwing;
 import illarion.mapedit.Lang;
+import illarion.mapedit.events.menu.MapExportBinaryEvent;
 import illarion.mapedit.events.menu.MapLoadErrorEvent;
 import illarion.mapedit.events.menu.MapNewEvent;
 import illarion.mapedit.events.menu.MapSaveEvent;
 import illarion.mapedit.events.menu.SetFolderEvent;
+import illarion.mapedit.events.menu.WorkspaceOpenEvent;
 import illarion.mapedit.resource.loaders.ImageLoader;
 import org.bushe.swing.event.EventBus;
 import org.pushingpixels.flamingo.api.common.JCommandButton;
@@ -63,6 +65,24 @@ public class MainMenu extends RibbonApplicationMenu {
             }
         }, JCommandButton.CommandButtonKind.ACTION_ONLY
         );
+        final RibbonApplicationMenuEntryPrimary menuOpenWorkspace = new RibbonApplicationMenuEntryPrimary(
+                ImageLoader.getResizableIcon("fileopen"), Lang.getMsg("gui.mainmenu.OpenWorkspace"),
+                new ActionListener() {
+                    @Override
+                    public void actionPerformed(final ActionEvent e) {
+                        Path file = null;
+                        try {
+                            file = MapDialogs.showSetFolderDialog();
+                        } catch (IOException ex) {
+                            LOGGER.warn("Can't open workspace", ex);
+                            EventBus.publish(new MapLoadErrorEvent(Lang.getMsg("gui.error.LoadMap")));
+                        }
+                        if (file != null) {
+                            EventBus.publish(new WorkspaceOpenEvent(file));
+                        }
+                    }
+                }, JCommandButton.CommandButtonKind.ACTION_ONLY
+        );
         final RibbonApplicationMenuEntryPrimary menuNewMap = new RibbonApplicationMenuEntryPrimary(
                 ImageLoader.getResizableIcon("filenew"), Lang.getMsg("gui.mainmenu.New"), new ActionListener() {
             @Override
@@ -79,6 +99,15 @@ public class MainMenu extends RibbonApplicationMenu {
             }
         }, JCommandButton.CommandButtonKind.ACTION_ONLY
         );
+        final RibbonApplicationMenuEntryPrimary menuExportBinary = new RibbonApplicationMenuEntryPrimary(
+                ImageLoader.getResizableIcon("filesavecompile"), Lang.getMsg("gui.mainmenu.ExportBinary"),
+                new ActionListener() {
+                    @Override
+                    public void actionPerformed(final ActionEvent e) {
+                        EventBus.publish(new MapExportBinaryEvent());
+                    }
+                }, JCommandButton.CommandButtonKind.ACTION_ONLY
+        );
 
         final RibbonApplicationMenuEntryFooter settings = new RibbonApplicationMenuEntryFooter(
                 ImageLoader.getResizableIcon("configure"), Lang.getMsg("gui.mainmenu.MapEditorConfig"),
@@ -93,8 +122,10 @@ public class MainMenu extends RibbonApplicationMenu {
         addFooterEntry(settings);
 
         addMenuEntry(menuOpenMap);
+        addMenuEntry(menuOpenWorkspace);
         addMenuEntry(menuNewMap);
         addMenuEntry(menuSave);
+        addMenuEntry(menuExportBinary);
         addMenuSeparator();
     }
 }
@@ -16,6 +16,7 @@
 package illarion.mapedit.gui;
 
 import illarion.mapedit.data.Map;
+import illarion.mapedit.events.UpdateMapListEvent;
 import illarion.mapedit.events.map.*;
 import illarion.mapedit.render.RendererManager;
 import illarion.mapedit.tools.ToolManager;
@@ -32,10 +33,8 @@ import javax.annotation.Nonnull;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.Comparator;
-import java.util.List;
 
 /**
  * The map panel is the area, on which the map is rendered.
@@ -47,8 +46,6 @@ public class MapPanel extends JPanel
     private static final Logger LOGGER = LoggerFactory.getLogger(MapPanel.class);
     @Nonnull
     private final RendererManager rendererManager;
-    @Nonnull
-    private final Rectangle dirty;
     private boolean canDrag;
     private boolean isDragging;
     private int clickX;
@@ -59,11 +56,16 @@ public class MapPanel extends JPanel
     private final ToolManager toolManager;
     private final GuiController controller;
 
+    /**
+     * The open maps sorted by their level, so the lower levels are rendered first.
+     */
+    @Nonnull
+    private Map[] renderOrder = new Map[0];
+
     public MapPanel(final GuiController controller) {
         this.controller = controller;
         rendererManager = new RendererManager();
         toolManager = new ToolManager(controller);
-        dirty = new Rectangle(getWidth(), getHeight());
         addMouseWheelListener(this);
         addMouseMotionListener(this);
         addMouseListener(this);
@@ -74,27 +76,40 @@ public class MapPanel extends JPanel
     @Override
     public void paintComponent(final Graphics gt) {
         final Graphics2D g = (Graphics2D) gt;
+        Rectangle dirty = g.getClipBounds();
+        if (dirty == null) {
+            dirty = getVisibleRect();
+        }
         g.setColor(Color.BLACK);
-        g.fillRect(0, 0, getWidth(), getHeight());
-        final List<Map> maps = new ArrayList<>(controller.getMaps());
-
-        Collections.sort(maps, new Comparator<Map>() {
-
-            @Override
-            public int compare(@Nonnull final Map map1, @Nonnull final Map map2) {
-                return map1.getZ() - map2.getZ();
-            }
-        });
-        for (final Map map : maps) {
+        g.fillRect(dirty.x, dirty.y, dirty.width, dirty.height);
+        for (final Map map : renderOrder) {
             if (map.isVisible()) {
-                rendererManager.render(map, getVisibleRect(), g);
+                rendererManager.render(map, dirty, g);
             }
         }
+    }
 
-        dirty.x = 0;
-        dirty.y = 0;
-        dirty.width = 0;
-        dirty.height = 0;
+    /**
+     * Report the area of the world that is visible in this panel to the controller, so the maps of the workspace
+     * in that area are loaded.
+     */
+    private void updateVisibleArea() {
+        final Rectangle visible = getVisibleRect();
+        final int[] cornersX = {visible.x, visible.x + visible.width, visible.x, visible.x + visible.width};
+        final int[] cornersY = {visible.y, visible.y, visible.y + visible.height, visible.y + visible.height};
+        int fromX = Integer.MAX_VALUE;
+        int fromY = Integer.MAX_VALUE;
+        int toX = Integer.MIN_VALUE;
+        int toY = Integer.MIN_VALUE;
+        for (int i = 0; i < cornersX.length; i++) {
+            final int x = getMapCoordinateX(cornersX[i], cornersY[i], 0);
+            final int y = getMapCoordinateY(cornersX[i], cornersY[i], 0);
+            fromX = Math.min(fromX, x);
+            fromY = Math.min(fromY, y);
+            toX = Math.max(toX, x);
+            toY = Math.max(toY, y);
+        }
+        controller.updateVisibleArea(fromX, fromY, toX, toY, rendererManager.getSelectedLevel());
     }
 
     @Override
@@ -242,6 +257,23 @@ public class MapPanel extends JPanel
 
     }
 
+    @EventSubscriber
+    public void onUpdateMapList(@Nonnull final UpdateMapListEvent e) {
+        final Map[] maps = e.getMaps().toArray(new Map[e.getMaps().size()]);
+        Arrays.sort(maps, new Comparator<Map>() {
+            @Override
+            public int compare(@Nonnull final Map map1, @Nonnull final Map map2) {
+                return map1.getZ() - map2.getZ();
+            }
+        });
+        renderOrder = maps;
+    }
+
+    @EventSubscriber
+    public void onMapViewChanged(@Nonnull final MapViewChangedEvent e) {
+        updateVisibleArea();
+    }
+
     @EventSubscriber
     public void onRepaintRequest(@Nonnull final RepaintRequestEvent e) {
         e.doRepaint(this);
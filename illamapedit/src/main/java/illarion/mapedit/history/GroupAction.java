@@ -15,9 +15,11 @@
  */
 package illarion.mapedit.history;
 
+import illarion.mapedit.data.Map;
 import javolution.util.FastTable;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 /**
  * @author Tim
@@ -49,6 +51,42 @@ public class GroupAction extends HistoryAction {
         }
     }
 
+    /**
+     * @return the map changed by the actions of this group or {@code null} in case they change different maps
+     */
+    @Nullable
+    @Override
+    public Map getMap() {
+        Map result = null;
+        for (HistoryAction a : actions) {
+            final Map actionMap = a.getMap();
+            if ((result != null) && (result != actionMap)) {
+                return null;
+            }
+            result = actionMap;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean isChanging(@Nonnull final Map checkedMap) {
+        for (HistoryAction a : actions) {
+            if (a.isChanging(checkedMap)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public long getMemoryUsage() {
+        long usage = 0L;
+        for (HistoryAction a : actions) {
+            usage += a.getMemoryUsage();
+        }
+        return usage;
+    }
+
     public boolean isEmpty() {
         return actions.isEmpty();
     }
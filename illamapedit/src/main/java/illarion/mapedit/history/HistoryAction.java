@@ -17,10 +17,17 @@ package illarion.mapedit.history;
 
 import illarion.mapedit.data.Map;
 
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
 /**
  * @author Tim
  */
 public abstract class HistoryAction {
+    /**
+     * The memory estimated for a action that only changes a single tile.
+     */
+    private static final long DEFAULT_MEMORY_USAGE = 256L;
 
     protected final Map map;
 
@@ -28,6 +35,33 @@ public abstract class HistoryAction {
         this.map = map;
     }
 
+    /**
+     * @return the map changed by this action
+     */
+    @Nullable
+    public Map getMap() {
+        return map;
+    }
+
+    /**
+     * Check if this action changes a map.
+     *
+     * @param checkedMap the map to check
+     * @return {@code true} in case undoing or redoing this action changes the map
+     */
+    public boolean isChanging(@Nonnull final Map checkedMap) {
+        return map == checkedMap;
+    }
+
+    /**
+     * Estimate the amount of memory used by this action. The history uses this value to limit its size.
+     *
+     * @return the estimated size in bytes
+     */
+    public long getMemoryUsage() {
+        return DEFAULT_MEMORY_USAGE;
+    }
+
     /**
      * Perform the action again.
      */
@@ -15,8 +15,10 @@
  */
 package illarion.mapedit.history;
 
+import illarion.mapedit.data.Map;
 import illarion.mapedit.events.HistoryEvent;
 import illarion.mapedit.events.HistoryPasteCutEvent;
+import illarion.mapedit.events.map.MapChangedEvent;
 import illarion.mapedit.events.map.RepaintRequestEvent;
 import javolution.util.FastTable;
 import org.bushe.swing.event.EventBus;
@@ -37,7 +39,10 @@ import java.util.Deque;
  */
 public class HistoryManager {
     private static final Logger LOGGER = LoggerFactory.getLogger(HistoryManager.class);
-    private static final int MAX_HISTORY_LENGHT = 100;
+    /**
+     * The maximal amount of memory used by the entries of the history.
+     */
+    private static final long MAX_HISTORY_MEMORY = 64L * 1024L * 1024L;
     /**
      * The list of history entries that can be done again.
      */
@@ -50,6 +55,11 @@ public class HistoryManager {
     @Nonnull
     private final Deque<HistoryAction> undoList;
 
+    /**
+     * The estimated memory used by the entries in both lists.
+     */
+    private long usedMemory;
+
     public HistoryManager() {
         AnnotationProcessor.process(this);
         undoList = new FastTable<>();
@@ -58,17 +68,21 @@ public class HistoryManager {
 
     /**
      * Add a entry to the history list. This causes that the redo list is
-     * cleared and in case the undo list is getting too long the oldest entry is
-     * removed.
+     * cleared and in case the history uses too much memory the oldest entries are
+     * removed. The latest entry is always kept.
      *
      * @param entry the entry to add to this list
      */
     @SuppressWarnings("nls")
     public void addEntry(final HistoryAction entry) {
-        undoList.addLast(entry);
+        for (final HistoryAction action : redoList) {
+            usedMemory -= action.getMemoryUsage();
+        }
         redoList.clear();
-        while (undoList.size() > MAX_HISTORY_LENGHT) {
-            undoList.removeFirst();
+        undoList.addLast(entry);
+        usedMemory += entry.getMemoryUsage();
+        while ((usedMemory > MAX_HISTORY_MEMORY) && (undoList.size() > 1)) {
+            usedMemory -= undoList.removeFirst().getMemoryUsage();
         }
     }
 
@@ -90,6 +104,27 @@ public class HistoryManager {
         return !undoList.isEmpty();
     }
 
+    /**
+     * Check if this history contains entries that change a map. Such a map must stay loaded, because undoing or
+     * redoing the entries changes the instance of the map they were recorded on.
+     *
+     * @param map the map to check
+     * @return <code>true</code> in case entries that can be undone or done again change the map
+     */
+    public boolean hasEntries(@Nonnull final Map map) {
+        for (final HistoryAction action : undoList) {
+            if (action.isChanging(map)) {
+                return true;
+            }
+        }
+        for (final HistoryAction action : redoList) {
+            if (action.isChanging(map)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Do the last entry that was undone again.
      */
@@ -98,6 +133,7 @@ public class HistoryManager {
             final HistoryAction entry = redoList.removeLast();
             entry.redo();
             undoList.addLast(entry);
+            EventBus.publish(new MapChangedEvent(entry.getMap()));
         }
     }
 
@@ -109,6 +145,7 @@ public class HistoryManager {
             final HistoryAction entry = undoList.removeLast();
             entry.undo();
             redoList.addLast(entry);
+            EventBus.publish(new MapChangedEvent(entry.getMap()));
         }
     }
 
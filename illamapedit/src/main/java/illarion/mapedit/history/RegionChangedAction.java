@@ -0,0 +1,51 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package illarion.mapedit.history;
+
+import illarion.mapedit.data.MapDelta;
+
+import javax.annotation.Nonnull;
+
+/**
+ * This action stores the changes of a entire region of a map at once. It is used for operations that change many
+ * tiles, like filling a area or pasting tiles.
+ *
+ * @author Tim
+ */
+public class RegionChangedAction extends HistoryAction {
+    @Nonnull
+    private final MapDelta delta;
+
+    public RegionChangedAction(@Nonnull final MapDelta delta) {
+        super(delta.getMap());
+        this.delta = delta;
+    }
+
+    @Override
+    void redo() {
+        delta.applyNew();
+    }
+
+    @Override
+    void undo() {
+        delta.applyOld();
+    }
+
+    @Override
+    public long getMemoryUsage() {
+        return delta.getMemoryUsage();
+    }
+}
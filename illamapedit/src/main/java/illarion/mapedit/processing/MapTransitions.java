@@ -21,11 +21,17 @@ import gnu.trove.map.hash.TIntIntHashMap;
 import illarion.common.graphics.TileInfo;
 import illarion.common.types.Location;
 import illarion.mapedit.data.Map;
-import illarion.mapedit.data.MapTile;
+import illarion.mapedit.data.MapPosition;
 import illarion.mapedit.resource.Overlay;
 import illarion.mapedit.resource.loaders.OverlayLoader;
 
 import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * This class is used to calculate the proper overlays to be placed.
@@ -40,20 +46,29 @@ public final class MapTransitions {
     private static final MapTransitions INSTANCE = new MapTransitions();
 
     /**
-     * List of the amount of tiles found of each type.
+     * The smallest amount of tiles that is checked by multiple threads.
      */
-    private final TIntIntHashMap analysedTiles = new TIntIntHashMap();
+    private static final int PARALLEL_THRESHOLD = 64 * 1024;
 
     /**
-     * Helper list that stores the references to the tiles around the checked
-     * tile.
+     * The smallest amount of rows of a band that is checked by its own task.
      */
-    private final MapTile[] checkTiles = new MapTile[8];
+    private static final int MIN_BAND_ROWS = 16;
 
     /**
-     * List of the found tiles.
+     * The amount of bands created per thread of the pool.
      */
-    private final TIntList foundTiles = new TIntArrayList();
+    private static final int BANDS_PER_THREAD = 4;
+
+    /**
+     * The pool that checks the bands of large areas.
+     */
+    private static final ForkJoinPool POOL = new ForkJoinPool();
+
+    /**
+     * The analysis used by the checks that are done on the calling thread.
+     */
+    private final TileAnalysis analysis = new TileAnalysis();
 
     /**
      * This list stores the definitions for all masks avaiable. The content of
@@ -246,7 +261,7 @@ public final class MapTransitions {
      * @param loc the location of the tile to check
      */
     public void checkTile(@Nonnull final Map map, @Nonnull final Location loc/*, final GroupAction history*/) {
-        placeTransition(map, loc/*, history*/);
+        placeTransition(map, loc.getScX(), loc.getScY()/*, history*/);
     }
 
     /**
@@ -286,132 +301,214 @@ public final class MapTransitions {
     }
 
     /**
-     * Checks all tiles in the map.
-     * WARNING: This may be very slow.
+     * Check a set of changed tiles and all tiles around them. Every tile is checked only once, even in case it is
+     * next to multiple changed tiles. This should be used instead of
+     * {@link #checkTileAndSurround(Map, Location)} for every single tile, once a brush stroke, a paste or a fill
+     * changed many tiles.
+     *
+     * @param map the map that contains the tiles
+     * @param positions the positions of the changed tiles
+     */
+    public void checkTilesAndSurround(@Nonnull final Map map, @Nonnull final Collection<MapPosition> positions) {
+        final int width = map.getWidth();
+        final int height = map.getHeight();
+        final BitSet checkedTiles = new BitSet(width * height);
+        for (final MapPosition pos : positions) {
+            final int fromX = Math.max(0, pos.getX() - 1);
+            final int toX = Math.min(width - 1, pos.getX() + 1);
+            final int fromY = Math.max(0, pos.getY() - 1);
+            final int toY = Math.min(height - 1, pos.getY() + 1);
+            for (int y = fromY; y <= toY; y++) {
+                if (fromX <= toX) {
+                    checkedTiles.set((y * width) + fromX, (y * width) + toX + 1);
+                }
+            }
+        }
+        checkTiles(map, checkedTiles);
+    }
+
+    /**
+     * Checks all tiles in the map. Large maps are split into bands of rows that are checked in parallel.
      *
      * @param map
      */
     public void checkMap(@Nonnull final Map map) {
-        Location loc = new Location();
-        for (int x = 0; x < map.getWidth(); x++) {
-            for (int y = 0; y < map.getHeight(); y++) {
-                loc.setSC(x, y, 0);
-                checkTile(map, loc);
-            }
+        final BitSet checkedTiles = new BitSet(map.getWidth() * map.getHeight());
+        checkedTiles.set(0, map.getWidth() * map.getHeight());
+        checkTiles(map, checkedTiles);
+    }
+
+    /**
+     * Check a set of tiles. The transitions of all tiles are calculated first and applied to the map afterwards.
+     * The transition of a tile only depends on the base IDs of the tiles around it, and placing a transition only
+     * changes the overlay of a tile. So the result is the same as checking one tile after another.
+     *
+     * @param map the map that contains the tiles
+     * @param checkedTiles the indices of the tiles to check, the index of a tile is {@code y * width + x}
+     */
+    private void checkTiles(@Nonnull final Map map, @Nonnull final BitSet checkedTiles) {
+        final int height = map.getHeight();
+        final int bands = Math.min(POOL.getParallelism() * BANDS_PER_THREAD, height / MIN_BAND_ROWS);
+        if ((checkedTiles.cardinality() < PARALLEL_THRESHOLD) || (bands < 2)) {
+            final BandTask task = new BandTask(this, map, checkedTiles, 0, height, analysis);
+            task.compute();
+            task.applyTransitions();
+            return;
+        }
+
+        final List<BandTask> tasks = new ArrayList<>(bands);
+        for (int i = 0; i < bands; i++) {
+            final int fromRow = (height * i) / bands;
+            final int toRow = (height * (i + 1)) / bands;
+            final BandTask task = new BandTask(this, map, checkedTiles, fromRow, toRow, new TileAnalysis());
+            tasks.add(task);
+            POOL.execute(task);
+        }
+        for (final BandTask task : tasks) {
+            task.join();
+        }
+        for (final BandTask task : tasks) {
+            task.applyTransitions();
         }
     }
 
     /**
-     * Check the found tiles and generate a list with all tile IDs that occur at
-     * least 2 times around the center tile. The IDs of the found tiles are
-     * stored in {@link #foundTiles} then.
+     * This task calculates the transitions of the tiles in a band of rows of the map. The map is not changed by the
+     * task, the results are applied once all bands are done.
      */
-    private void analyseTiles() {
-        analysedTiles.clear();
-        foundTiles.clear();
-        for (int i = 0; i < 8; i++) {
-            if (checkTiles[i] == null) {
-                continue;
-            }
-            final int tileId = TileInfo.getBaseID(checkTiles[i].getId());
-            if (analysedTiles.contains(tileId)) {
-                analysedTiles.put(tileId, analysedTiles.get(tileId) + 1);
-            } else {
-                analysedTiles.put(tileId, 1);
-                foundTiles.add(tileId);
-            }
+    private static final class BandTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        @Nonnull
+        private final MapTransitions transitions;
+        @Nonnull
+        private final Map map;
+        @Nonnull
+        private final BitSet checkedTiles;
+        private final int fromRow;
+        private final int toRow;
+        @Nonnull
+        private final TileAnalysis bandAnalysis;
+
+        /**
+         * The calculated tiles. Each entry is the index of the tile followed by the new tile ID.
+         */
+        @Nonnull
+        private final TIntList results;
+
+        BandTask(
+                @Nonnull final MapTransitions transitions,
+                @Nonnull final Map map,
+                @Nonnull final BitSet checkedTiles,
+                final int fromRow,
+                final int toRow,
+                @Nonnull final TileAnalysis bandAnalysis) {
+            this.transitions = transitions;
+            this.map = map;
+            this.checkedTiles = checkedTiles;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+            this.bandAnalysis = bandAnalysis;
+            results = new TIntArrayList();
         }
-        if (foundTiles.isEmpty()) {
-            return;
+
+        @Override
+        protected void compute() {
+            final int width = map.getWidth();
+            final int end = toRow * width;
+            for (int index = checkedTiles.nextSetBit(fromRow * width); (index >= 0) && (index < end);
+                 index = checkedTiles.nextSetBit(index + 1)) {
+                final int newTileId =
+                        transitions.calculateTransition(map, index % width, index / width, bandAnalysis);
+                if (newTileId != NO_TRANSITION) {
+                    results.add(index);
+                    results.add(newTileId);
+                }
+            }
         }
-        int length = foundTiles.size();
-        for (int i = 0; i < length; i++) {
-            final int tileId = foundTiles.get(i);
-            if (analysedTiles.get(tileId) < 2) {
-                foundTiles.removeAt(i);
-                analysedTiles.remove(tileId);
-                length--;
-                i--;
+
+        void applyTransitions() {
+            final int width = map.getWidth();
+            for (int i = 0; i < results.size(); i += 2) {
+                final int index = results.get(i);
+                setTile(map, index % width, index / width, results.get(i + 1));
             }
         }
     }
 
     /**
-     * Create the mask for one tile ID.
+     * The value returned by {@link #calculateTransition(Map, int, int, TileAnalysis)} for tiles that do not take
+     * part in transitions.
+     */
+    private static final int NO_TRANSITION = -1;
+
+    /**
+     * Place a transition at one tile in case its needed.
      *
-     * @param id the ID of the tile
-     * @return the mask for a shape for this ID
+     * @param x the x coordinate of the tile where a transition could be placed
+     * @param y the y coordinate of the tile where a transition could be placed
      */
-    private int buildMask(final int id) {
-        int mask = 0;
-        for (int i = 0; i < 8; i++) {
-            if (checkTiles[i] == null) {
-                continue;
-            }
-            if (checkTiles[i].getId() == id) {
-                mask |= 1 << i;
-            }
+    private void placeTransition(@Nonnull final Map map, final int x, final int y/*, final GroupAction history*/) {
+        final int newTileId = calculateTransition(map, x, y, analysis);
+        if (newTileId != NO_TRANSITION) {
+            //history.addAction(new TileIDChangedAction(x, y, map.getTileAt(x, y), newTile, map));
+            setTile(map, x, y, newTileId);
         }
-        return mask;
     }
 
     /**
-     * Clean up the tiles list and remove all tiles that equal the ID of the
-     * tile in the center or that have a lower layer then the tile in the
-     * center. Also all tiles with ID 0 or a ID over 31 are removed.
+     * Calculate the tile ID of a tile including the transition that fits the tiles around it.
      *
-     * @param centerTileID the ID of the tile in the center
+     * @param map the map
+     * @param x the x coordinate of the tile
+     * @param y the y coordinate of the tile
+     * @param tileAnalysis the analysis used for the calculation
+     * @return the tile ID including the overlay and the shape or {@link #NO_TRANSITION}
      */
-    private void cleanupTiles(final int centerTileID) {
-        int centerLayer = 0;
-        final Overlay ovl = OverlayLoader.getInstance().getOverlayFromId(centerTileID);
-        if (ovl != null) {
-            centerLayer = ovl.getLayer();
+    private int calculateTransition(
+            @Nonnull final Map map, final int x, final int y, @Nonnull final TileAnalysis tileAnalysis) {
+        if (!map.contains(x, y)) {
+            return NO_TRANSITION;
         }
 
-        for (int i = 0; i < 8; i++) {
-            if (checkTiles[i] == null) {
-                continue;
-            }
-            final int tileId = TileInfo.getBaseID(checkTiles[i].getId());
-            if ((tileId == 0) || (tileId > 31) || (tileId == centerTileID)) {
-                checkTiles[i] = null;
-                continue;
-            }
-            final Overlay tileOvl = OverlayLoader.getInstance().getOverlayFromId(tileId);
-            if (tileOvl == null) {
-                checkTiles[i] = null;
+        final int centerTileId = TileInfo.getBaseID(map.getTileIdAt(x, y));
+        if ((centerTileId == 0) || (centerTileId > 31)) {
+            return NO_TRANSITION;
+        }
+
+        // at this point we have a tile that could possibly get a overlay
+        tileAnalysis.populateTiles(map, x, y);
+        tileAnalysis.cleanupTiles(centerTileId);
+        tileAnalysis.analyseTiles();
+
+        while (!tileAnalysis.foundTiles.isEmpty()) {
+            final int testId = tileAnalysis.findAndRemoveHighestLayer();
+            final int mask = tileAnalysis.buildMask(testId);
+            final int maskId = findMask(mask);
+            if (maskId == -1) {
                 continue;
             }
-            if (tileOvl.getLayer() <= centerLayer) {
-                checkTiles[i] = null;
-            }
+            return Overlay.generateTileId(centerTileId, testId, maskId + 1);
         }
+        return centerTileId;
     }
 
     /**
-     * Find the tile with the largest layer and remove it from the list.
+     * Set the base ID, the overlay and the shape of a tile. The tile is only changed in case the values differ.
      *
-     * @return the tile ID of the tile with the largest layer that was found
+     * @param map the map
+     * @param x the x coordinate of the tile
+     * @param y the y coordinate of the tile
+     * @param tileId the tile ID including the overlay and the shape
      */
-    @SuppressWarnings("null")
-    private int findAndRemoveHighestLayer() {
-        final int length = foundTiles.size();
-        int largestOffset = 0;
-        int largestLayer = 0;
-        int largestID = 0;
-        for (int i = 0; i < length; i++) {
-            final int tileId = foundTiles.get(i);
-            final Overlay tileOvl = OverlayLoader.getInstance().getOverlayFromId(tileId);
-            if (tileOvl.getLayer() > largestLayer) {
-                largestLayer = tileOvl.getLayer();
-                largestOffset = i;
-                largestID = tileOvl.getTileID();
-            }
+    private static void setTile(@Nonnull final Map map, final int x, final int y, final int tileId) {
+        final int baseId = TileInfo.getBaseID(tileId);
+        final int overlayId = TileInfo.getOverlayID(tileId);
+        final int shapeId = TileInfo.getShapeId(tileId);
+        if ((map.getTileIdAt(x, y) != baseId) || (map.getOverlayIdAt(x, y) != overlayId) ||
+                (map.getShapeIdAt(x, y) != shapeId)) {
+            map.setTileAt(x, y, baseId, overlayId, shapeId, map.getMusicIdAt(x, y));
         }
-
-        foundTiles.removeAt(largestOffset);
-        return largestID;
     }
 
     /**
@@ -430,75 +527,166 @@ public final class MapTransitions {
     }
 
     /**
-     * Place a transition at one tile in case its needed.
-     *
-     * @param loc the location where a transition could be placed
+     * This class stores the tiles around the checked tile. Each thread that checks tiles needs its own instance.
      */
-    private void placeTransition(@Nonnull final Map map, @Nonnull final Location loc/*, final GroupAction history*/) {
-        final MapTile centerTile = map.getTileAt(loc);
-        if (centerTile == null) {
-            return;
-        }
+    private static final class TileAnalysis {
+        /**
+         * The value stored in {@link #checkTiles} for tiles that are not part of the check.
+         */
+        private static final int NO_TILE = -1;
 
-        final int centerTileId = TileInfo.getBaseID(centerTile.getId());
-        if ((centerTileId == 0) || (centerTileId > 31)) {
-            return;
-        }
+        /**
+         * List of the amount of tiles found of each type.
+         */
+        private final TIntIntHashMap analysedTiles = new TIntIntHashMap();
 
-        // at this point we have a tile that could possibly get a overlay
-        populateTiles(map, loc);
-        cleanupTiles(centerTileId);
-        analyseTiles();
+        /**
+         * Helper list that stores the IDs of the tiles around the checked
+         * tile.
+         */
+        private final int[] checkTiles = new int[8];
 
-        while (!foundTiles.isEmpty()) {
-            final int testId = findAndRemoveHighestLayer();
-            final int mask = buildMask(testId);
-            final int maskId = findMask(mask);
-            if (maskId == -1) {
-                continue;
+        /**
+         * List of the found tiles.
+         */
+        private final TIntList foundTiles = new TIntArrayList();
+
+        /**
+         * Check the found tiles and generate a list with all tile IDs that occur at
+         * least 2 times around the center tile. The IDs of the found tiles are
+         * stored in {@link #foundTiles} then.
+         */
+        void analyseTiles() {
+            analysedTiles.clear();
+            foundTiles.clear();
+            for (int i = 0; i < 8; i++) {
+                if (checkTiles[i] == NO_TILE) {
+                    continue;
+                }
+                final int tileId = TileInfo.getBaseID(checkTiles[i]);
+                if (analysedTiles.contains(tileId)) {
+                    analysedTiles.put(tileId, analysedTiles.get(tileId) + 1);
+                } else {
+                    analysedTiles.put(tileId, 1);
+                    foundTiles.add(tileId);
+                }
+            }
+            if (foundTiles.isEmpty()) {
+                return;
+            }
+            int length = foundTiles.size();
+            for (int i = 0; i < length; i++) {
+                final int tileId = foundTiles.get(i);
+                if (analysedTiles.get(tileId) < 2) {
+                    foundTiles.removeAt(i);
+                    analysedTiles.remove(tileId);
+                    length--;
+                    i--;
+                }
             }
-            final MapTile newTile = MapTile.MapTileFactory.setOverlay(centerTileId, testId, maskId + 1, centerTile);
-            //history.addAction(new TileIDChangedAction(loc.getScX(), loc.getScY(), map.getTileAt(loc), newTile, map));
-            map.setTileAt(loc, newTile);
-            return;
         }
-        final MapTile newTile = MapTile.MapTileFactory.setId(centerTileId, centerTile);
-        //history.addAction(new TileIDChangedAction(loc.getScX(), loc.getScY(), map.getTileAt(loc), newTile, map));
-        map.setTileAt(loc, newTile);
-    }
-
-    /**
-     * Fill the {@link #checkTiles} array with the 8 tiles around the center
-     * location.
-     *
-     * @param centerLoc the center location
-     */
-    private void populateTiles(@Nonnull final Map map, @Nonnull final Location centerLoc) {
-
-        final Location searchLoc = new Location();
-
-        searchLoc.setSC(centerLoc.getScX(), centerLoc.getScY() - 1, centerLoc.getScZ());
-        checkTiles[0] = map.getTileAt(searchLoc);
 
-        searchLoc.setSC(centerLoc.getScX() + 1, centerLoc.getScY() - 1, centerLoc.getScZ());
-        checkTiles[1] = map.getTileAt(searchLoc);
+        /**
+         * Create the mask for one tile ID.
+         *
+         * @param id the ID of the tile
+         * @return the mask for a shape for this ID
+         */
+        int buildMask(final int id) {
+            int mask = 0;
+            for (int i = 0; i < 8; i++) {
+                if (checkTiles[i] == NO_TILE) {
+                    continue;
+                }
+                if (checkTiles[i] == id) {
+                    mask |= 1 << i;
+                }
+            }
+            return mask;
+        }
 
-        searchLoc.setSC(centerLoc.getScX() + 1, centerLoc.getScY(), centerLoc.getScZ());
-        checkTiles[2] = map.getTileAt(searchLoc);
+        /**
+         * Clean up the tiles list and remove all tiles that equal the ID of the
+         * tile in the center or that have a lower layer then the tile in the
+         * center. Also all tiles with ID 0 or a ID over 31 are removed.
+         *
+         * @param centerTileID the ID of the tile in the center
+         */
+        void cleanupTiles(final int centerTileID) {
+            int centerLayer = 0;
+            final Overlay ovl = OverlayLoader.getInstance().getOverlayFromId(centerTileID);
+            if (ovl != null) {
+                centerLayer = ovl.getLayer();
+            }
 
-        searchLoc.setSC(centerLoc.getScX() + 1, centerLoc.getScY() + 1, centerLoc.getScZ());
-        checkTiles[3] = map.getTileAt(searchLoc);
+            for (int i = 0; i < 8; i++) {
+                if (checkTiles[i] == NO_TILE) {
+                    continue;
+                }
+                final int tileId = TileInfo.getBaseID(checkTiles[i]);
+                if ((tileId == 0) || (tileId > 31) || (tileId == centerTileID)) {
+                    checkTiles[i] = NO_TILE;
+                    continue;
+                }
+                final Overlay tileOvl = OverlayLoader.getInstance().getOverlayFromId(tileId);
+                if (tileOvl == null) {
+                    checkTiles[i] = NO_TILE;
+                    continue;
+                }
+                if (tileOvl.getLayer() <= centerLayer) {
+                    checkTiles[i] = NO_TILE;
+                }
+            }
+        }
 
-        searchLoc.setSC(centerLoc.getScX(), centerLoc.getScY() + 1, centerLoc.getScZ());
-        checkTiles[4] = map.getTileAt(searchLoc);
+        /**
+         * Find the tile with the largest layer and remove it from the list.
+         *
+         * @return the tile ID of the tile with the largest layer that was found
+         */
+        @SuppressWarnings("null")
+        int findAndRemoveHighestLayer() {
+            final int length = foundTiles.size();
+            int largestOffset = 0;
+            int largestLayer = 0;
+            int largestID = 0;
+            for (int i = 0; i < length; i++) {
+                final int tileId = foundTiles.get(i);
+                final Overlay tileOvl = OverlayLoader.getInstance().getOverlayFromId(tileId);
+                if (tileOvl.getLayer() > largestLayer) {
+                    largestLayer = tileOvl.getLayer();
+                    largestOffset = i;
+                    largestID = tileOvl.getTileID();
+                }
+            }
 
-        searchLoc.setSC(centerLoc.getScX() - 1, centerLoc.getScY() + 1, centerLoc.getScZ());
-        checkTiles[5] = map.getTileAt(searchLoc);
+            foundTiles.removeAt(largestOffset);
+            return largestID;
+        }
 
-        searchLoc.setSC(centerLoc.getScX() - 1, centerLoc.getScY(), centerLoc.getScZ());
-        checkTiles[6] = map.getTileAt(searchLoc);
+        /**
+         * Fill the {@link #checkTiles} array with the IDs of the 8 tiles around the center
+         * location.
+         *
+         * @param x the x coordinate of the center tile
+         * @param y the y coordinate of the center tile
+         */
+        void populateTiles(@Nonnull final Map map, final int x, final int y) {
+            checkTiles[0] = getTileId(map, x, y - 1);
+            checkTiles[1] = getTileId(map, x + 1, y - 1);
+            checkTiles[2] = getTileId(map, x + 1, y);
+            checkTiles[3] = getTileId(map, x + 1, y + 1);
+            checkTiles[4] = getTileId(map, x, y + 1);
+            checkTiles[5] = getTileId(map, x - 1, y + 1);
+            checkTiles[6] = getTileId(map, x - 1, y);
+            checkTiles[7] = getTileId(map, x - 1, y - 1);
+        }
 
-        searchLoc.setSC(centerLoc.getScX() - 1, centerLoc.getScY() - 1, centerLoc.getScZ());
-        checkTiles[7] = map.getTileAt(searchLoc);
+        private static int getTileId(@Nonnull final Map map, final int x, final int y) {
+            if (!map.contains(x, y)) {
+                return NO_TILE;
+            }
+            return map.getTileIdAt(x, y);
+        }
     }
-}
\ No newline at end of file
+}
@@ -16,6 +16,7 @@
 package illarion.mapedit.render;
 
 import illarion.mapedit.data.Map;
+import illarion.mapedit.util.SwingLocation;
 import org.pushingpixels.flamingo.api.common.icon.ResizableIcon;
 import org.pushingpixels.flamingo.api.ribbon.RibbonElementPriority;
 
@@ -62,6 +63,39 @@ public abstract class AbstractMapRenderer implements Comparable<AbstractMapRende
         return viewport.contains(viewX, viewY);
     }
 
+    /**
+     * Calculate the range of the tiles that are displayed inside the viewport. This allows the renderers to touch
+     * only the tiles on the screen instead of every tile of the map.
+     *
+     * @param map the map that is rendered
+     * @param viewport the viewport in screen coordinates
+     * @param level the level that is rendered
+     * @return the range of the visible tiles
+     */
+    @Nonnull
+    protected VisibleTileRange getVisibleTiles(
+            @Nonnull final Map map, @Nonnull final Rectangle viewport, final int level) {
+        final int z = map.getZ() - level;
+        final float zoom = getZoom();
+        final float offsetX = getTranslateX() + (getTileWidth() * zoom);
+        final float offsetY = getTranslateY() + (getTileHeight() * zoom);
+
+        final float minDisplayX = (viewport.x - offsetX) / zoom;
+        final float maxDisplayX = ((viewport.x + viewport.width) - offsetX) / zoom;
+        final float minDisplayY = (viewport.y - offsetY) / zoom;
+        final float maxDisplayY = ((viewport.y + viewport.height) - offsetY) / zoom;
+
+        final int sumOffset = map.getX() + map.getY();
+        final int differenceOffset = map.getX() - map.getY();
+        final int minSum = (int) Math.floor(SwingLocation.coordinateSum(minDisplayX)) - sumOffset - 1;
+        final int maxSum = (int) Math.ceil(SwingLocation.coordinateSum(maxDisplayX)) - sumOffset + 1;
+        final int minDifference =
+                (int) Math.floor(SwingLocation.coordinateDifference(maxDisplayY, z)) - differenceOffset - 1;
+        final int maxDifference =
+                (int) Math.ceil(SwingLocation.coordinateDifference(minDisplayY, z)) - differenceOffset + 1;
+        return new VisibleTileRange(map, minSum, maxSum, minDifference, maxDifference);
+    }
+
     protected float calculateZoom(final int display, final int translate, final float size) {
         return (display * getZoom()) + translate + (size * getZoom());
     }
@@ -144,6 +178,16 @@ public abstract class AbstractMapRenderer implements Comparable<AbstractMapRende
 
     public abstract boolean isDefaultOn();
 
+    /**
+     * Check if the output of this renderer can be cached. Renderers that show the state of the editor instead of
+     * the content of the map need to be rendered every time.
+     *
+     * @return {@code true} in case the output only changes along with the map
+     */
+    public boolean isCacheable() {
+        return true;
+    }
+
     @Nonnull
     public RibbonElementPriority getPriority() {
         return RibbonElementPriority.MEDIUM;
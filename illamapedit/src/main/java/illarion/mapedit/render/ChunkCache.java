@@ -0,0 +1,298 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package illarion.mapedit.render;
+
+import illarion.mapedit.data.Map;
+import illarion.mapedit.util.SwingLocation;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * This cache stores the pre-rendered chunks of the maps. Each chunk is a square image that contains the output of
+ * one renderer for one map at one zoom level. The chunks are aligned to the map display coordinates, so they stay
+ * valid while the map is moved around. The least recently used chunks are dropped once the cache uses its share of
+ * the heap.
+ *
+ * @author Tim
+ */
+final class ChunkCache {
+    /**
+     * The width and the height of a chunk in screen pixels.
+     */
+    static final int CHUNK_SIZE = 256;
+
+    /**
+     * The distance in display pixels that graphics may reach outside of the tile they belong to. Tall items are
+     * drawn far above their tile.
+     */
+    static final int GRAPHIC_OVERHANG = 384;
+
+    /**
+     * The cache uses up to this fraction of the maximal heap size, a value of 16 means one sixteenth of the heap.
+     */
+    private static final int HEAP_FRACTION = 16;
+
+    /**
+     * The estimated memory used by one chunk. The chunks are translucent images with four bytes per pixel.
+     */
+    private static final long CHUNK_MEMORY = CHUNK_SIZE * CHUNK_SIZE * 4L;
+
+    /**
+     * The smallest amount of chunks stored in the cache, regardless of the heap size. This is about enough to cover
+     * the screen once for each renderer.
+     */
+    private static final int MIN_CACHED_CHUNKS = 64;
+
+    /**
+     * The key of a chunk in the cache.
+     */
+    private static final class ChunkKey {
+        @Nonnull
+        private final Map map;
+        @Nonnull
+        private final AbstractMapRenderer renderer;
+        private final float zoom;
+        private final int level;
+        private final int chunkX;
+        private final int chunkY;
+
+        ChunkKey(
+                @Nonnull final Map map,
+                @Nonnull final AbstractMapRenderer renderer,
+                final float zoom,
+                final int level,
+                final int chunkX,
+                final int chunkY) {
+            this.map = map;
+            this.renderer = renderer;
+            this.zoom = zoom;
+            this.level = level;
+            this.chunkX = chunkX;
+            this.chunkY = chunkY;
+        }
+
+        @Override
+        public boolean equals(@Nullable final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof ChunkKey)) {
+                return false;
+            }
+            final ChunkKey other = (ChunkKey) obj;
+            return (map == other.map) && (renderer == other.renderer) &&
+                    (Float.floatToIntBits(zoom) == Float.floatToIntBits(other.zoom)) && (level == other.level) &&
+                    (chunkX == other.chunkX) && (chunkY == other.chunkY);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = System.identityHashCode(map);
+            result = (31 * result) + System.identityHashCode(renderer);
+            result = (31 * result) + Float.floatToIntBits(zoom);
+            result = (31 * result) + level;
+            result = (31 * result) + chunkX;
+            result = (31 * result) + chunkY;
+            return result;
+        }
+    }
+
+    /**
+     * The cached chunks in the order of their last use.
+     */
+    @Nonnull
+    private final LinkedHashMap<ChunkKey, BufferedImage> chunks;
+
+    /**
+     * The maximal amount of chunks stored in the cache.
+     */
+    private final int maxCachedChunks;
+
+    ChunkCache() {
+        final long memoryBudget = Runtime.getRuntime().maxMemory() / HEAP_FRACTION;
+        maxCachedChunks = (int) Math.max(MIN_CACHED_CHUNKS, Math.min(Integer.MAX_VALUE, memoryBudget / CHUNK_MEMORY));
+        chunks = new LinkedHashMap<ChunkKey, BufferedImage>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final java.util.Map.Entry<ChunkKey, BufferedImage> eldest) {
+                return size() > maxCachedChunks;
+            }
+        };
+    }
+
+    /**
+     * Get a chunk from the cache.
+     *
+     * @return the chunk or {@code null} in case the chunk is not cached
+     */
+    @Nullable
+    BufferedImage getChunk(
+            @Nonnull final Map map,
+            @Nonnull final AbstractMapRenderer renderer,
+            final float zoom,
+            final int level,
+            final int chunkX,
+            final int chunkY) {
+        return chunks.get(new ChunkKey(map, renderer, zoom, level, chunkX, chunkY));
+    }
+
+    /**
+     * Store a chunk in the cache.
+     */
+    void putChunk(
+            @Nonnull final Map map,
+            @Nonnull final AbstractMapRenderer renderer,
+            final float zoom,
+            final int level,
+            final int chunkX,
+            final int chunkY,
+            @Nonnull final BufferedImage chunk) {
+        chunks.put(new ChunkKey(map, renderer, zoom, level, chunkX, chunkY), chunk);
+    }
+
+    /**
+     * Remove all chunks that show a area of a map.
+     *
+     * @param map the map
+     * @param fromX the lowest x coordinate of the area
+     * @param fromY the lowest y coordinate of the area
+     * @param toX the highest x coordinate of the area
+     * @param toY the highest y coordinate of the area
+     */
+    void invalidate(@Nonnull final Map map, final int fromX, final int fromY, final int toX, final int toY) {
+        final int startX = Math.max(0, fromX);
+        final int startY = Math.max(0, fromY);
+        final int endX = Math.min(map.getWidth() - 1, toX);
+        final int endY = Math.min(map.getHeight() - 1, toY);
+        if ((startX > endX) || (startY > endY)) {
+            return;
+        }
+
+        final Iterator<ChunkKey> itr = chunks.keySet().iterator();
+        while (itr.hasNext()) {
+            final ChunkKey key = itr.next();
+            if (key.map != map) {
+                continue;
+            }
+            final Rectangle area = getDisplayArea(map, key.level, startX, startY, endX, endY);
+            if ((getFirstChunk(area.x, key.zoom) <= key.chunkX) &&
+                    (getLastChunk(area.x + area.width, key.zoom) >= key.chunkX) &&
+                    (getFirstChunk(area.y, key.zoom) <= key.chunkY) &&
+                    (getLastChunk(area.y + area.height, key.zoom) >= key.chunkY)) {
+                itr.remove();
+            }
+        }
+    }
+
+    /**
+     * Remove all chunks created by one renderer.
+     *
+     * @param renderer the renderer
+     */
+    void invalidate(@Nonnull final AbstractMapRenderer renderer) {
+        final Iterator<ChunkKey> itr = chunks.keySet().iterator();
+        while (itr.hasNext()) {
+            if (itr.next().renderer == renderer) {
+                itr.remove();
+            }
+        }
+    }
+
+    /**
+     * Remove all chunks of maps that are not part of the collection.
+     *
+     * @param maps the maps that remain in the cache
+     */
+    void retainMaps(@Nonnull final Collection<Map> maps) {
+        final Iterator<ChunkKey> itr = chunks.keySet().iterator();
+        while (itr.hasNext()) {
+            final Map map = itr.next().map;
+            boolean found = false;
+            for (final Map retained : maps) {
+                if (retained == map) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                itr.remove();
+            }
+        }
+    }
+
+    /**
+     * Remove all chunks from the cache.
+     */
+    void clear() {
+        chunks.clear();
+    }
+
+    /**
+     * Get the area in display coordinates that is covered by the graphics of some tiles. This includes the
+     * graphics that reach outside of their tile.
+     *
+     * @param map the map
+     * @param level the level that is rendered
+     * @param fromX the lowest x coordinate of the tiles
+     * @param fromY the lowest y coordinate of the tiles
+     * @param toX the highest x coordinate of the tiles
+     * @param toY the highest y coordinate of the tiles
+     * @return the area in display coordinates
+     */
+    @Nonnull
+    static Rectangle getDisplayArea(
+            @Nonnull final Map map, final int level, final int fromX, final int fromY, final int toX, final int toY) {
+        final int z = map.getZ() - level;
+        final int startX = fromX + map.getX();
+        final int startY = fromY + map.getY();
+        final int endX = toX + map.getX() + 1;
+        final int endY = toY + map.getY() + 1;
+
+        final int minX = SwingLocation.displayCoordinateX(startX, startY, z);
+        final int maxX = SwingLocation.displayCoordinateX(endX, endY, z);
+        final int minY = SwingLocation.displayCoordinateY(endX, startY, z);
+        final int maxY = SwingLocation.displayCoordinateY(startX, endY, z);
+        return new Rectangle(minX - GRAPHIC_OVERHANG, minY - GRAPHIC_OVERHANG,
+                             (maxX - minX) + (2 * GRAPHIC_OVERHANG), (maxY - minY) + (2 * GRAPHIC_OVERHANG));
+    }
+
+    /**
+     * Get the index of the chunk that contains a display coordinate.
+     *
+     * @param display the display coordinate
+     * @param zoom the zoom level
+     * @return the index of the chunk
+     */
+    static int getFirstChunk(final int display, final float zoom) {
+        return (int) Math.floor((display * zoom) / CHUNK_SIZE);
+    }
+
+    /**
+     * Get the index of the chunk that contains a display coordinate. The chunk of the coordinate is rounded up.
+     *
+     * @param display the display coordinate
+     * @param zoom the zoom level
+     * @return the index of the chunk
+     */
+    static int getLastChunk(final int display, final float zoom) {
+        return (int) Math.ceil((display * zoom) / CHUNK_SIZE);
+    }
+}
@@ -17,7 +17,6 @@ package illarion.mapedit.render;
 
 import illarion.mapedit.Lang;
 import illarion.mapedit.data.Map;
-import illarion.mapedit.data.MapTile;
 import illarion.mapedit.resource.loaders.ImageLoader;
 import illarion.mapedit.util.SwingLocation;
 import org.pushingpixels.flamingo.api.common.icon.ResizableIcon;
@@ -48,15 +47,15 @@ public class ItemDataRenderer extends AbstractMapRenderer {
             @Nonnull final Rectangle viewport,
             final int level,
             @Nonnull final Graphics2D g) {
-        final int width = map.getWidth();
-        final int height = map.getHeight();
         final int z = map.getZ() - level;
         final AffineTransform transform = g.getTransform();
+        final VisibleTileRange range = getVisibleTiles(map, viewport, level);
 
-        for (int x = 0; x < width; ++x) {
-            for (int y = 0; y < height; ++y) {
-                final MapTile tile = map.getTileAt(x, y);
-                if ((tile == null) || tile.isMapItemsDataEmpty()) {
+        final int maxX = range.getMaxX();
+        for (int x = range.getMinX(); x <= maxX; ++x) {
+            final int maxY = range.getMaxY(x);
+            for (int y = range.getMinY(x); y <= maxY; ++y) {
+                if (!map.hasItemDataAt(x, y)) {
                     continue;
                 }
                 final int xDisplay = SwingLocation.displayCoordinateX(x + map.getX(), y + map.getY(), z);
@@ -49,31 +49,14 @@ public class ItemRenderer extends AbstractMapRenderer {
             final int level,
             @Nonnull final Graphics2D g) {
         final AffineTransform t = g.getTransform();
-
-        //actual H-Position
-        int actualH = 0;
-        //the start-w-position of the current diagonal iteration
-        int iterationStartW = map.getWidth() - 1;
-        //actual W-Position
-        int actualW = iterationStartW;
-        //iterate diagonal until iterations can reach the nearest tile
-        while ((iterationStartW > -map.getHeight()) && (actualH < map.getHeight())) {
-            render(actualW, actualH, viewport, map, level, g);
-            //iterate diagonal
-            actualH++;
-            actualW++;
-            //iteration will end at max W or at max H
-            if ((actualW >= map.getWidth()) || (actualH >= map.getHeight())) {
-                //start at the next lower W position
-                actualW = --iterationStartW;
-                if (actualW < 0) {
-                    //in case of the lower-left half start at left side and lower
-                    actualH = -actualW;
-                    actualW = 0;
-                } else {
-                    //otherwise start at h = 0
-                    actualH = 0;
-                }
+        final VisibleTileRange range = getVisibleTiles(map, viewport, level);
+
+        //iterate the diagonals (W - H) from the right to the left, so items in front are drawn last
+        final int minDiagonal = range.getMinDiagonal();
+        for (int diagonal = range.getMaxDiagonal(); diagonal >= minDiagonal; --diagonal) {
+            final int maxH = range.getMaxDiagonalY(diagonal);
+            for (int actualH = range.getMinDiagonalY(diagonal); actualH <= maxH; ++actualH) {
+                render(diagonal + actualH, actualH, viewport, map, level, g);
             }
         }
         g.setTransform(t);
@@ -87,7 +70,7 @@ public class ItemRenderer extends AbstractMapRenderer {
             final int level,
             @Nonnull final Graphics2D g) {
         final int z = map.getZ() - level;
-        final List<MapItem> items = map.getTileAt(x, y).getMapItems();
+        final List<MapItem> items = map.getItemsAt(x, y);
         if ((items == null) || items.isEmpty()) {
             return;
         }
@@ -50,14 +50,15 @@ public class MusicRenderer extends AbstractMapRenderer {
             @Nonnull final Rectangle viewport,
             final int level,
             @Nonnull final Graphics2D g) {
-        final int width = map.getWidth();
-        final int height = map.getHeight();
         final int z = map.getZ() - level;
         final AffineTransform transform = g.getTransform();
+        final VisibleTileRange range = getVisibleTiles(map, viewport, level);
 
-        for (int x = 0; x < width; ++x) {
-            for (int y = 0; y < height; ++y) {
-                final int id = map.getTileAt(x, y).getMusicID();
+        final int maxX = range.getMaxX();
+        for (int x = range.getMinX(); x <= maxX; ++x) {
+            final int maxY = range.getMaxY(x);
+            for (int y = range.getMinY(x); y <= maxY; ++y) {
+                final int id = map.getMusicIdAt(x, y);
                 if (id == 0) {
                     continue;
                 }
@@ -17,6 +17,9 @@ package illarion.mapedit.render;
 
 import illarion.mapedit.data.Map;
 import illarion.mapedit.events.MapScrollEvent;
+import illarion.mapedit.events.UpdateMapListEvent;
+import illarion.mapedit.events.map.MapChangedEvent;
+import illarion.mapedit.events.map.MapViewChangedEvent;
 import illarion.mapedit.events.map.RepaintRequestEvent;
 import illarion.mapedit.events.map.ZoomEvent;
 import illarion.mapedit.util.Vector2i;
@@ -31,11 +34,16 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.awt.*;
 import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
 import java.util.Collections;
 import java.util.List;
 
 /**
  * This class manages all renderers and enables, and disables them.
+ * <p/>
+ * The output of the renderers is cached in chunks. Repainting the map only draws the cached chunks, so moving and
+ * zooming the map does not require the renderers to run again. Changes of the map are announced with a
+ * {@link MapChangedEvent} that removes the affected chunks from the cache.
  *
  * @author Tim
  */
@@ -58,8 +66,12 @@ public class RendererManager {
     private int actualLevel;
     private Rectangle panelViewport;
 
+    @Nonnull
+    private final ChunkCache chunkCache;
+
     public RendererManager() {
         renderers = new FastTable<>();
+        chunkCache = new ChunkCache();
         AnnotationProcessor.process(this);
     }
 
@@ -71,21 +83,91 @@ public class RendererManager {
 
     public void removeRenderer(final AbstractMapRenderer r) {
         renderers.remove(r);
+        chunkCache.invalidate(r);
         EventBus.publish(new RepaintRequestEvent());
     }
 
+    /**
+     * Remove the cached output of a renderer. This needs to be called once the settings of the renderer change.
+     *
+     * @param r the renderer
+     */
+    public void invalidateRenderer(@Nonnull final AbstractMapRenderer r) {
+        chunkCache.invalidate(r);
+    }
+
     public void render(final Map map, @Nonnull final Rectangle viewport, @Nonnull final Graphics2D g) {
         final Rectangle renderViewport = new Rectangle((int) (viewport.x - (getTileWidth() * getZoom())),
                                                        (int) (viewport.y - (getTileHeight() * getZoom())),
                                                        (int) (viewport.width + (2 * getTileWidth() * getZoom())),
                                                        (int) (viewport.height + (2 * getTileHeight() * getZoom())));
-        final AffineTransform t = g.getTransform();
-        g.translate(translationX, translationY);
-        g.scale(getZoom(), getZoom());
+        final Rectangle mapArea =
+                ChunkCache.getDisplayArea(map, actualLevel, 0, 0, map.getWidth() - 1, map.getHeight() - 1);
+        final int firstChunkX = Math.max(getChunk(viewport.x - translationX),
+                                         ChunkCache.getFirstChunk(mapArea.x, getZoom()));
+        final int lastChunkX = Math.min(getChunk((viewport.x + viewport.width) - 1 - translationX),
+                                        ChunkCache.getLastChunk(mapArea.x + mapArea.width, getZoom()));
+        final int firstChunkY = Math.max(getChunk(viewport.y - translationY),
+                                         ChunkCache.getFirstChunk(mapArea.y, getZoom()));
+        final int lastChunkY = Math.min(getChunk((viewport.y + viewport.height) - 1 - translationY),
+                                        ChunkCache.getLastChunk(mapArea.y + mapArea.height, getZoom()));
+
         for (final AbstractMapRenderer r : renderers) {
-            r.renderMap(map, renderViewport, actualLevel, g);
+            if (r.isCacheable()) {
+                for (int chunkX = firstChunkX; chunkX <= lastChunkX; ++chunkX) {
+                    for (int chunkY = firstChunkY; chunkY <= lastChunkY; ++chunkY) {
+                        final BufferedImage chunk = getChunk(map, r, chunkX, chunkY, g);
+                        g.drawImage(chunk, translationX + (chunkX * ChunkCache.CHUNK_SIZE),
+                                    translationY + (chunkY * ChunkCache.CHUNK_SIZE), null);
+                    }
+                }
+            } else {
+                final AffineTransform t = g.getTransform();
+                g.translate(translationX, translationY);
+                g.scale(getZoom(), getZoom());
+                r.renderMap(map, renderViewport, actualLevel, g);
+                g.setTransform(t);
+            }
+        }
+    }
+
+    private static int getChunk(final int zoomed) {
+        return (int) Math.floor(zoomed / (double) ChunkCache.CHUNK_SIZE);
+    }
+
+    /**
+     * Get a chunk from the cache or render it in case it is not cached yet.
+     */
+    @Nonnull
+    private BufferedImage getChunk(
+            @Nonnull final Map map,
+            @Nonnull final AbstractMapRenderer r,
+            final int chunkX,
+            final int chunkY,
+            @Nonnull final Graphics2D g) {
+        final BufferedImage cached = chunkCache.getChunk(map, r, getZoom(), actualLevel, chunkX, chunkY);
+        if (cached != null) {
+            return cached;
         }
-        g.setTransform(t);
+
+        final BufferedImage chunk = g.getDeviceConfiguration()
+                .createCompatibleImage(ChunkCache.CHUNK_SIZE, ChunkCache.CHUNK_SIZE, Transparency.TRANSLUCENT);
+        final int originX = chunkX * ChunkCache.CHUNK_SIZE;
+        final int originY = chunkY * ChunkCache.CHUNK_SIZE;
+        final int margin = (int) Math.ceil(ChunkCache.GRAPHIC_OVERHANG * getZoom());
+        final Rectangle chunkViewport = new Rectangle((translationX + originX) - margin,
+                                                      (translationY + originY) - margin,
+                                                      ChunkCache.CHUNK_SIZE + (2 * margin),
+                                                      ChunkCache.CHUNK_SIZE + (2 * margin));
+
+        final Graphics2D chunkGraphics = chunk.createGraphics();
+        chunkGraphics.translate(-originX, -originY);
+        chunkGraphics.scale(getZoom(), getZoom());
+        r.renderMap(map, chunkViewport, actualLevel, chunkGraphics);
+        chunkGraphics.dispose();
+
+        chunkCache.putChunk(map, r, getZoom(), actualLevel, chunkX, chunkY, chunk);
+        return chunk;
     }
 
     public static float getTileHeight() {
@@ -129,6 +211,7 @@ public class RendererManager {
         translationY *= zoom;
 
         this.zoom = zoom;
+        EventBus.publish(new MapViewChangedEvent());
         EventBus.publish(new RepaintRequestEvent());
     }
 
@@ -150,6 +233,7 @@ public class RendererManager {
 
     public void setTranslationX(final int translationX) {
         this.translationX = translationX;
+        EventBus.publish(new MapViewChangedEvent());
     }
 
     public int getTranslationY() {
@@ -158,6 +242,7 @@ public class RendererManager {
 
     public void setTranslationY(final int translationY) {
         this.translationY = translationY;
+        EventBus.publish(new MapViewChangedEvent());
     }
 
     public void zoomIn(final Vector2i pos) {
@@ -194,6 +279,7 @@ public class RendererManager {
             this.panelViewport = new Rectangle();
         }
         this.panelViewport.setRect(panelViewport.x, panelViewport.y, panelViewport.width, panelViewport.height);
+        EventBus.publish(new MapViewChangedEvent());
     }
 
     public void setDefaultTranslationY(final int defaultTranslationY) {
@@ -206,6 +292,11 @@ public class RendererManager {
 
     public void setSelectedLevel(final int level) {
         actualLevel = level;
+        EventBus.publish(new MapViewChangedEvent());
+    }
+
+    public int getSelectedLevel() {
+        return actualLevel;
     }
 
     @EventSubscriber
@@ -219,6 +310,21 @@ public class RendererManager {
         }
     }
 
+    @EventSubscriber
+    public void onMapChanged(@Nonnull final MapChangedEvent e) {
+        final Map map = e.getMap();
+        if (map == null) {
+            chunkCache.clear();
+        } else {
+            chunkCache.invalidate(map, e.getFromX(), e.getFromY(), e.getToX(), e.getToY());
+        }
+    }
+
+    @EventSubscriber
+    public void onUpdateMapList(@Nonnull final UpdateMapListEvent e) {
+        chunkCache.retainMaps(e.getMaps());
+    }
+
     @EventSubscriber
     public void onScroll(@Nonnull final MapScrollEvent e) {
         changeTranslation(e.getX(), e.getY());
@@ -18,6 +18,7 @@ package illarion.mapedit.render;
 import illarion.common.config.ConfigChangedEvent;
 import illarion.mapedit.Lang;
 import illarion.mapedit.data.Map;
+import illarion.mapedit.data.SelectionManager;
 import illarion.mapedit.gui.MapEditorConfig;
 import illarion.mapedit.resource.loaders.ImageLoader;
 import illarion.mapedit.util.SwingLocation;
@@ -29,7 +30,8 @@ import java.awt.*;
 import java.awt.geom.AffineTransform;
 
 /**
- * This class renders a border around the selected tiles
+ * This class renders a border around the selected tiles. Only the selected tiles are visited, so the cost of the
+ * border does not depend on the size of the map.
  *
  * @author Fredrik K
  */
@@ -49,48 +51,45 @@ public class SelectedTileRenderer extends AbstractMapRenderer {
     public void renderMap(
             @Nonnull final Map map, final Rectangle viewport, final int level, @Nonnull final Graphics2D g) {
         final int width = map.getWidth();
-        final int height = map.getHeight();
         final int z = map.getZ() - level;
         final AffineTransform transform = g.getTransform();
 
         g.translate(0, getTileHeight() + 1);
         g.setColor(Color.ORANGE);
 
-        for (int x = 0; x < width; ++x) {
-            for (int y = 0; y < height; ++y) {
-                final int mapX = x + map.getX();
-                final int mapY = y + map.getY();
-                if (map.isActiveTile(x, y)) {
-                    g.setColor(Color.YELLOW);
-                    drawLine(mapX, mapY, mapX, mapY + 1, z, g);
-                    drawLine(mapX + 1, mapY, mapX + 1, mapY + 1, z, g);
-                    drawLine(mapX, mapY, mapX + 1, mapY, z, g);
-                    drawLine(mapX, mapY + 1, mapX + 1, mapY + 1, z, g);
-                    g.setColor(Color.ORANGE);
-                } else if (showPosition && map.isPositionAtTile(x, y)) {
-                    g.setColor(Color.CYAN);
-                    drawLine(mapX, mapY, mapX, mapY + 1, z, g);
-                    drawLine(mapX + 1, mapY, mapX + 1, mapY + 1, z, g);
-                    drawLine(mapX, mapY, mapX + 1, mapY, z, g);
-                    drawLine(mapX, mapY + 1, mapX + 1, mapY + 1, z, g);
-                    g.setColor(Color.ORANGE);
-                } else if (map.isSelected(x, y)) {
-                    if (!map.isSelected(x - 1, y)) {
-                        drawLine(mapX, mapY, mapX, mapY + 1, z, g);
-                    }
-                    if (!map.isSelected(x + 1, y)) {
-                        drawLine(mapX + 1, mapY, mapX + 1, mapY + 1, z, g);
-                    }
-                    if (!map.isSelected(x, y - 1)) {
-                        drawLine(mapX, mapY, mapX + 1, mapY, z, g);
-                    }
-                    if (!map.isSelected(x, y + 1)) {
-                        drawLine(mapX, mapY + 1, mapX + 1, mapY + 1, z, g);
-                    }
-                }
+        final SelectionManager selection = map.getSelection();
+        for (int i = selection.nextSelected(0); i >= 0; i = selection.nextSelected(i + 1)) {
+            final int x = i % width;
+            final int y = i / width;
+            if (map.isActiveTile(x, y) || (showPosition && map.isPositionAtTile(x, y))) {
+                continue;
+            }
+            final int mapX = x + map.getX();
+            final int mapY = y + map.getY();
+            if (!selection.isSelected(x - 1, y)) {
+                drawLine(mapX, mapY, mapX, mapY + 1, z, g);
+            }
+            if (!selection.isSelected(x + 1, y)) {
+                drawLine(mapX + 1, mapY, mapX + 1, mapY + 1, z, g);
+            }
+            if (!selection.isSelected(x, y - 1)) {
+                drawLine(mapX, mapY, mapX + 1, mapY, z, g);
+            }
+            if (!selection.isSelected(x, y + 1)) {
+                drawLine(mapX, mapY + 1, mapX + 1, mapY + 1, z, g);
             }
         }
 
+        if (showPosition && map.contains(map.getPositionX(), map.getPositionY())) {
+            g.setColor(Color.CYAN);
+            drawTile(map.getPositionX() + map.getX(), map.getPositionY() + map.getY(), z, g);
+        }
+        if (map.contains(map.getActiveX(), map.getActiveY())) {
+            g.setColor(Color.YELLOW);
+            drawTile(map.getActiveX() + map.getX(), map.getActiveY() + map.getY(), z, g);
+        }
+        g.setColor(Color.ORANGE);
+
         if (map.isFillDragging()) {
             final int startX = Math.min(map.getFillX(), map.getFillStartX());
             final int startY = Math.min(map.getFillY(), map.getFillStartY());
@@ -108,6 +107,13 @@ public class SelectedTileRenderer extends AbstractMapRenderer {
         g.setTransform(transform);
     }
 
+    private void drawTile(final int mapX, final int mapY, final int z, @Nonnull final Graphics2D g) {
+        drawLine(mapX, mapY, mapX, mapY + 1, z, g);
+        drawLine(mapX + 1, mapY, mapX + 1, mapY + 1, z, g);
+        drawLine(mapX, mapY, mapX + 1, mapY, z, g);
+        drawLine(mapX, mapY + 1, mapX + 1, mapY + 1, z, g);
+    }
+
     private void drawLine(
             final int fromX, final int fromY, final int toX, final int toY, final int z, @Nonnull final Graphics2D g) {
         g.drawLine(SwingLocation.displayCoordinateX(fromX, fromY, z), SwingLocation.displayCoordinateY(fromX, fromY, z),
@@ -134,6 +140,11 @@ public class SelectedTileRenderer extends AbstractMapRenderer {
         return true;
     }
 
+    @Override
+    public boolean isCacheable() {
+        return false;
+    }
+
     @EventTopicSubscriber(topic = MapEditorConfig.SHOW_MAP_POSITION)
     public void onConfigChanged(@Nonnull final String topic, final ConfigChangedEvent event) {
         if (topic.equals(MapEditorConfig.SHOW_MAP_POSITION)) {
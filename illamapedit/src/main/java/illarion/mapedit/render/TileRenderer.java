@@ -17,7 +17,6 @@ package illarion.mapedit.render;
 
 import illarion.mapedit.Lang;
 import illarion.mapedit.data.Map;
-import illarion.mapedit.data.MapTile;
 import illarion.mapedit.resource.Overlay;
 import illarion.mapedit.resource.TileImg;
 import illarion.mapedit.resource.loaders.ImageLoader;
@@ -69,21 +68,24 @@ public class TileRenderer extends AbstractMapRenderer {
             @Nonnull final Graphics2D g) {
         final int z = map.getZ() - level;
         final AffineTransform transform = g.getTransform();
+        final VisibleTileRange range = getVisibleTiles(map, viewport, level);
 
-        for (int x = 0; x < map.getWidth(); ++x) {
-            for (int y = 0; y < map.getHeight(); ++y) {
+        final int maxX = range.getMaxX();
+        for (int x = range.getMinX(); x <= maxX; ++x) {
+            final int maxY = range.getMaxY(x);
+            for (int y = range.getMinY(x); y <= maxY; ++y) {
                 final int xdisp = SwingLocation.displayCoordinateX(x + map.getX(), y + map.getY(), z);
                 final int ydisp = SwingLocation.displayCoordinateY(x + map.getX(), y + map.getY(), z);
                 if (viewport.contains((xdisp * getZoom()) + getTranslateX() + (getTileWidth() * getZoom()),
                                       (ydisp * getZoom()) + getTranslateY() + (getTileHeight() * getZoom()))) {
-                    final MapTile mt = map.getTileAt(x, y);
-                    if (renderEmpty || (mt != null && mt.getId() != 0)) {
-                        final TileImg t = TileLoader.getInstance().getTileFromId(mt.getId());
+                    final int tileId = map.getTileIdAt(x, y);
+                    if (renderEmpty || (tileId != 0)) {
+                        final TileImg t = TileLoader.getInstance().getTileFromId(tileId);
                         if (t != null) {
                             final AffineTransform tr = g.getTransform();
                             if (getZoom() > getMinZoom()) {
                                 renderTile(xdisp, ydisp, g, t.getImg()[0]);
-                                renderOverlay(g, mt);
+                                renderOverlay(g, map.getOverlayIdAt(x, y), map.getShapeIdAt(x, y));
                             } else {
                                 if (t.getInfo().getMapColor() != 0) {
                                     g.translate(xdisp, ydisp);
@@ -110,10 +112,10 @@ public class TileRenderer extends AbstractMapRenderer {
         graphics.drawImage(image, 0, 0, null);
     }
 
-    private void renderOverlay(@Nonnull final Graphics2D graphics, @Nonnull final MapTile mapTile) {
-        final Overlay o = OverlayLoader.getInstance().getOverlayFromId(mapTile.getOverlayID());
+    private void renderOverlay(@Nonnull final Graphics2D graphics, final int overlayId, final int shapeId) {
+        final Overlay o = OverlayLoader.getInstance().getOverlayFromId(overlayId);
         if (o != null) {
-            final Image imageOverlay = o.getImgs()[mapTile.getShapeID() - 1];
+            final Image imageOverlay = o.getImgs()[shapeId - 1];
             if (imageOverlay != null) {
                 graphics.drawImage(imageOverlay, 0, 0, null);
             }
@@ -160,6 +162,7 @@ public class TileRenderer extends AbstractMapRenderer {
 
     public void setRenderEmptyTiles(final boolean renderEmptyTiles) {
         renderEmpty = renderEmptyTiles;
+        getManager().invalidateRenderer(this);
     }
 
     @Nonnull
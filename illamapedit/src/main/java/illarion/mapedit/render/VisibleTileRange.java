@@ -0,0 +1,144 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package illarion.mapedit.render;
+
+import illarion.mapedit.data.Map;
+
+import javax.annotation.Nonnull;
+
+/**
+ * The range of the tiles of a map that are located inside the viewport. The viewport covers a diagonal strip of
+ * the isometric map. It is described by the range of the sum and the range of the difference of the x and y
+ * coordinates of the tiles. The ranges contain a small margin, so the renderers still have to check the tiles at
+ * the border of the range.
+ *
+ * @author Tim
+ */
+final class VisibleTileRange {
+    /**
+     * The width of the map.
+     */
+    private final int width;
+
+    /**
+     * The height of the map.
+     */
+    private final int height;
+
+    /**
+     * The lowest value of {@code x + y} that is visible.
+     */
+    private final int minSum;
+
+    /**
+     * The highest value of {@code x + y} that is visible.
+     */
+    private final int maxSum;
+
+    /**
+     * The lowest value of {@code x - y} that is visible.
+     */
+    private final int minDifference;
+
+    /**
+     * The highest value of {@code x - y} that is visible.
+     */
+    private final int maxDifference;
+
+    VisibleTileRange(
+            @Nonnull final Map map,
+            final int minSum,
+            final int maxSum,
+            final int minDifference,
+            final int maxDifference) {
+        width = map.getWidth();
+        height = map.getHeight();
+        this.minSum = minSum;
+        this.maxSum = maxSum;
+        this.minDifference = minDifference;
+        this.maxDifference = maxDifference;
+    }
+
+    /**
+     * @return the lowest x coordinate of a visible tile
+     */
+    public int getMinX() {
+        return Math.max(0, floorHalf(minSum + minDifference));
+    }
+
+    /**
+     * @return the highest x coordinate of a visible tile
+     */
+    public int getMaxX() {
+        return Math.min(width - 1, ceilHalf(maxSum + maxDifference));
+    }
+
+    /**
+     * @param x the x coordinate of the column
+     * @return the lowest y coordinate of a visible tile in the column
+     */
+    public int getMinY(final int x) {
+        return Math.max(0, Math.max(minSum - x, x - maxDifference));
+    }
+
+    /**
+     * @param x the x coordinate of the column
+     * @return the highest y coordinate of a visible tile in the column
+     */
+    public int getMaxY(final int x) {
+        return Math.min(height - 1, Math.min(maxSum - x, x - minDifference));
+    }
+
+    /**
+     * The diagonals are the lines of tiles with the same value of {@code x - y}.
+     *
+     * @return the lowest diagonal with visible tiles
+     */
+    public int getMinDiagonal() {
+        return Math.max(1 - height, minDifference);
+    }
+
+    /**
+     * @return the highest diagonal with visible tiles
+     */
+    public int getMaxDiagonal() {
+        return Math.min(width - 1, maxDifference);
+    }
+
+    /**
+     * @param diagonal the diagonal, this is the value of {@code x - y}
+     * @return the lowest y coordinate of a visible tile on the diagonal
+     */
+    public int getMinDiagonalY(final int diagonal) {
+        return Math.max(Math.max(0, -diagonal), floorHalf(minSum - diagonal));
+    }
+
+    /**
+     * @param diagonal the diagonal, this is the value of {@code x - y}
+     * @return the highest y coordinate of a visible tile on the diagonal
+     */
+    public int getMaxDiagonalY(final int diagonal) {
+        return Math.min(Math.min(height - 1, width - 1 - diagonal), ceilHalf(maxSum - diagonal));
+    }
+
+    private static int floorHalf(final int value) {
+        return (int) Math.floor(value / 2.0);
+    }
+
+    private static int ceilHalf(final int value) {
+        return (int) Math.ceil(value / 2.0);
+    }
+}
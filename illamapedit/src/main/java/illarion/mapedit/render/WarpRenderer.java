@@ -17,7 +17,6 @@ package illarion.mapedit.render;
 
 import illarion.mapedit.Lang;
 import illarion.mapedit.data.Map;
-import illarion.mapedit.data.MapTile;
 import illarion.mapedit.data.MapWarpPoint;
 import illarion.mapedit.util.SwingLocation;
 import org.pushingpixels.flamingo.api.common.icon.ResizableIcon;
@@ -47,19 +46,16 @@ public class WarpRenderer extends AbstractMapRenderer {
             @Nonnull final Rectangle viewport,
             final int level,
             @Nonnull final Graphics2D g) {
-        final int width = map.getWidth();
-        final int height = map.getHeight();
         final int z = map.getZ() - level;
         final AffineTransform transform = g.getTransform();
+        final VisibleTileRange range = getVisibleTiles(map, viewport, level);
 
-        for (int x = 0; x < width; ++x) {
-            for (int y = 0; y < height; ++y) {
-                final MapTile tile = map.getTileAt(x, y);
-                if (tile != null) {
-                    final MapWarpPoint wp = tile.getMapWarpPoint();
-                    if (wp == null) {
-                        continue;
-                    }
+        final int maxX = range.getMaxX();
+        for (int x = range.getMinX(); x <= maxX; ++x) {
+            final int maxY = range.getMaxY(x);
+            for (int y = range.getMinY(x); y <= maxY; ++y) {
+                final MapWarpPoint wp = map.getWarpPointAt(x, y);
+                if (wp != null) {
                     final int xdisp = SwingLocation.displayCoordinateX(x + map.getX(), y + map.getY(), z);
                     final int ydisp = SwingLocation.displayCoordinateY(x + map.getX(), y + map.getY(), z);
                     if (viewport.contains((xdisp * getZoom()) + getTranslateX() + (getTileWidth() * getZoom()),
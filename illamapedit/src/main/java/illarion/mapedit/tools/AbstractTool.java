@@ -15,11 +15,14 @@
  */
 package illarion.mapedit.tools;
 
+import illarion.common.types.Location;
 import illarion.mapedit.data.Map;
+import illarion.mapedit.data.MapDelta;
 import illarion.mapedit.data.MapPosition;
-import illarion.mapedit.data.MapTile;
-import illarion.mapedit.history.GroupAction;
+import illarion.mapedit.data.SelectionManager;
 import illarion.mapedit.history.HistoryManager;
+import illarion.mapedit.history.RegionChangedAction;
+import illarion.mapedit.processing.MapTransitions;
 import org.pushingpixels.flamingo.api.common.icon.ResizableIcon;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,6 +30,9 @@ import org.slf4j.LoggerFactory;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * @author Tim
@@ -39,6 +45,13 @@ public abstract class AbstractTool {
 
     private ToolManager manager;
 
+    /**
+     * The positions of the tiles changed by the fill that is currently done. The transitions around these tiles are
+     * checked once the fill is done. {@code null} while no fill is done.
+     */
+    @Nullable
+    private List<MapPosition> filledTiles;
+
     /**
      * X and Y are tile coordinates.
      *
@@ -62,7 +75,15 @@ public abstract class AbstractTool {
 
     public abstract boolean isWarnAnnotated();
 
-    public abstract void paintSelected(int x, int y, Map map, GroupAction action);
+    /**
+     * Apply this tool to one tile of a fill. The fill stores the changed region in the history as a whole, so no
+     * history action is created for the single tiles.
+     *
+     * @param x the x coordinate of the tile
+     * @param y the y coordinate of the tile
+     * @param map the filled map
+     */
+    public abstract void paintSelected(int x, int y, Map map);
 
     public final void registerManager(@Nonnull final ToolManager toolManager) {
         manager = toolManager;
@@ -70,16 +91,24 @@ public abstract class AbstractTool {
     }
 
     public void fillSelected(@Nonnull final Map map) {
-        final GroupAction action = new GroupAction();
-        for (final MapPosition pos : map.getSelectedTiles()) {
-            final MapTile tile = map.getTileAt(pos.getX(), pos.getY());
-            if (tile != null) {
-                paintSelected(pos.getX(), pos.getY(), map, action);
-            }
+        final SelectionManager selection = map.getSelection();
+        final Rectangle bounds = selection.getBounds();
+        if (bounds == null) {
+            return;
         }
-        if (!action.isEmpty()) {
-            getHistory().addEntry(action);
+
+        final MapDelta.Recorder recorder = MapDelta.record(map, bounds.x - 1, bounds.y - 1, bounds.x + bounds.width,
+                                                           bounds.y + bounds.height);
+        filledTiles = new ArrayList<>();
+        try {
+            final int width = selection.getWidth();
+            for (int i = selection.nextSelected(0); i >= 0; i = selection.nextSelected(i + 1)) {
+                paintSelected(i % width, i / width, map);
+            }
+        } finally {
+            finishFill(map);
         }
+        addRegionEntry(recorder);
     }
 
     public void fillArea(final int startX, final int startY, final int endX, final int endY, final Map map) {
@@ -87,14 +116,59 @@ public abstract class AbstractTool {
         final int toX = Math.max(startX, endX);
         final int fromY = Math.min(startY, endY);
         final int toY = Math.max(startY, endY);
-        final GroupAction action = new GroupAction();
-        for (int x = fromX; x <= toX; x++) {
-            for (int y = fromY; y <= toY; y++) {
-                paintSelected(x, y, map, action);
+        final MapDelta.Recorder recorder = MapDelta.record(map, fromX - 1, fromY - 1, toX + 1, toY + 1);
+        filledTiles = new ArrayList<>();
+        try {
+            for (int x = fromX; x <= toX; x++) {
+                for (int y = fromY; y <= toY; y++) {
+                    paintSelected(x, y, map);
+                }
             }
+        } finally {
+            finishFill(map);
         }
-        if (!action.isEmpty()) {
-            getHistory().addEntry(action);
+        addRegionEntry(recorder);
+    }
+
+    /**
+     * Check the transitions around a tile that was changed by this tool. During a fill the check is delayed until
+     * the fill is done, so every tile of the filled area is checked only once.
+     *
+     * @param x the x coordinate of the changed tile
+     * @param y the y coordinate of the changed tile
+     * @param map the map that contains the tile
+     */
+    protected final void checkTransitions(final int x, final int y, @Nonnull final Map map) {
+        if (filledTiles == null) {
+            MapTransitions.getInstance().checkTileAndSurround(map, new Location(x, y, 0));
+        } else {
+            filledTiles.add(new MapPosition(x, y));
+        }
+    }
+
+    /**
+     * Check the transitions around all tiles changed by the fill.
+     *
+     * @param map the filled map
+     */
+    private void finishFill(@Nonnull final Map map) {
+        final List<MapPosition> changedTiles = filledTiles;
+        filledTiles = null;
+        if ((changedTiles != null) && !changedTiles.isEmpty()) {
+            MapTransitions.getInstance().checkTilesAndSurround(map, changedTiles);
+        }
+    }
+
+    /**
+     * Store the changes of a region in the history. The region includes the border around the painted tiles, so
+     * the transitions changed next to the painted area are restored as well.
+     *
+     * @param recorder the recorder that captured the region before it was painted
+     */
+    private void addRegionEntry(@Nonnull final MapDelta.Recorder recorder) {
+        final MapDelta delta = recorder.finish();
+        if (delta != null) {
+            getHistory().addEntry(new RegionChangedAction(delta));
         }
     }
 
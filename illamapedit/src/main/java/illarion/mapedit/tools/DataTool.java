@@ -20,7 +20,6 @@ import illarion.mapedit.data.Map;
 import illarion.mapedit.data.MapTile;
 import illarion.mapedit.events.TileAnnotationEvent;
 import illarion.mapedit.events.ToolSelectedEvent;
-import illarion.mapedit.history.GroupAction;
 import illarion.mapedit.tools.panel.DataPanel;
 import org.bushe.swing.event.annotation.AnnotationProcessor;
 import org.bushe.swing.event.annotation.EventSubscriber;
@@ -87,7 +86,7 @@ public class DataTool extends AbstractTool {
     }
 
     @Override
-    public void paintSelected(final int x, final int y, final Map map, final GroupAction action) {
+    public void paintSelected(final int x, final int y, final Map map) {
     }
 
     @EventSubscriber
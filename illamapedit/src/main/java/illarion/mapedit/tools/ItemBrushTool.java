@@ -19,7 +19,6 @@ import illarion.mapedit.Lang;
 import illarion.mapedit.data.Map;
 import illarion.mapedit.data.MapItem;
 import illarion.mapedit.data.MapTile;
-import illarion.mapedit.history.GroupAction;
 import illarion.mapedit.history.ItemPlacedAction;
 import illarion.mapedit.resource.ItemImg;
 import illarion.mapedit.tools.panel.ItemBrushPanel;
@@ -43,22 +42,20 @@ public class ItemBrushTool extends AbstractTool {
 
     @Override
     public void clickedAt(final int x, final int y, @Nonnull final Map map) {
-        final ItemPlacedAction newAction = addItem(x, y, map);
+        final ItemPlacedAction newAction = addItem(x, y, map, true);
         if (newAction != null) {
             getHistory().addEntry(newAction);
         }
     }
 
     @Override
-    public void paintSelected(final int x, final int y, @Nonnull final Map map, @Nonnull final GroupAction action) {
-        final ItemPlacedAction newAction = addItem(x, y, map);
-        if (newAction != null) {
-            action.addAction(newAction);
-        }
+    public void paintSelected(final int x, final int y, @Nonnull final Map map) {
+        addItem(x, y, map, false);
     }
 
     @Nullable
-    private ItemPlacedAction addItem(final int x, final int y, @Nonnull final Map map) {
+    private ItemPlacedAction addItem(
+            final int x, final int y, @Nonnull final Map map, final boolean createAction) {
         final ItemImg item = getManager().getSelectedItem();
         if (item == null) {
             return null;
@@ -69,7 +66,7 @@ public class ItemBrushTool extends AbstractTool {
         }
         final MapItem mapItem = new MapItem(item.getItemId());
         tile.addMapItem(mapItem);
-        return new ItemPlacedAction(x, y, mapItem, map);
+        return createAction ? new ItemPlacedAction(x, y, mapItem, map) : null;
     }
 
     @Override
@@ -45,22 +45,20 @@ public class ItemEraserTool extends AbstractTool {
 
     @Override
     public void clickedAt(final int x, final int y, @Nonnull final Map map) {
-        final HistoryAction newAction = removeItem(x, y, map);
+        final HistoryAction newAction = removeItem(x, y, map, true);
         if (newAction != null) {
             getHistory().addEntry(newAction);
         }
     }
 
     @Override
-    public void paintSelected(final int x, final int y, @Nonnull final Map map, @Nonnull final GroupAction action) {
-        final HistoryAction newAction = removeItem(x, y, map);
-        if (newAction != null) {
-            action.addAction(newAction);
-        }
+    public void paintSelected(final int x, final int y, @Nonnull final Map map) {
+        removeItem(x, y, map, false);
     }
 
     @Nullable
-    private HistoryAction removeItem(final int x, final int y, @Nonnull final Map map) {
+    private HistoryAction removeItem(
+            final int x, final int y, @Nonnull final Map map, final boolean createAction) {
         if (!map.contains(x, y)) {
             return null;
         }
@@ -74,9 +72,9 @@ public class ItemEraserTool extends AbstractTool {
         }
         final HistoryAction action;
         if (panel.shouldClear()) {
-            action = clearItems(x, y, map, items);
+            action = clearItems(x, y, map, items, createAction);
         } else {
-            action = removeTopItem(x, y, map, items);
+            action = removeTopItem(x, y, map, items, createAction);
         }
         return action;
     }
@@ -86,17 +84,23 @@ public class ItemEraserTool extends AbstractTool {
             final int x,
             final int y,
             final Map map,
-            @Nonnull final List<MapItem> items) {
+            @Nonnull final List<MapItem> items,
+            final boolean createAction) {
         final MapItem item = items.remove(items.size() - 1);
-        return new ItemPlacedAction(x, y, item, null, map);
+        return createAction ? new ItemPlacedAction(x, y, item, null, map) : null;
     }
 
-    @Nonnull
+    @Nullable
     private static HistoryAction clearItems(
             final int x,
             final int y,
             @Nonnull final Map map,
-            @Nonnull final Collection<MapItem> items) {
+            @Nonnull final Collection<MapItem> items,
+            final boolean createAction) {
+        if (!createAction) {
+            items.clear();
+            return null;
+        }
         final GroupAction action = new GroupAction();
         for (final MapItem item : items) {
             action.addAction(new ItemPlacedAction(x, y, item, null, map));
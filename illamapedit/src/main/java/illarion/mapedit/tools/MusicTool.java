@@ -18,7 +18,6 @@ package illarion.mapedit.tools;
 import illarion.mapedit.Lang;
 import illarion.mapedit.data.Map;
 import illarion.mapedit.data.MapTile;
-import illarion.mapedit.history.GroupAction;
 import illarion.mapedit.history.MusicIDChangedAction;
 import illarion.mapedit.tools.panel.MusicPanel;
 import org.pushingpixels.flamingo.api.common.icon.ResizableIcon;
@@ -41,22 +40,20 @@ public class MusicTool extends AbstractTool {
 
     @Override
     public void clickedAt(final int x, final int y, @Nonnull final Map map) {
-        final MusicIDChangedAction newAction = addMusic(x, y, map);
+        final MusicIDChangedAction newAction = addMusic(x, y, map, true);
         if (newAction != null) {
             getHistory().addEntry(newAction);
         }
     }
 
     @Override
-    public void paintSelected(final int x, final int y, @Nonnull final Map map, @Nonnull final GroupAction action) {
-        final MusicIDChangedAction newAction = addMusic(x, y, map);
-        if (newAction != null) {
-            action.addAction(newAction);
-        }
+    public void paintSelected(final int x, final int y, @Nonnull final Map map) {
+        addMusic(x, y, map, false);
     }
 
     @Nullable
-    public MusicIDChangedAction addMusic(final int x, final int y, @Nonnull final Map map) {
+    private MusicIDChangedAction addMusic(
+            final int x, final int y, @Nonnull final Map map, final boolean createAction) {
         final MapTile tile = map.getTileAt(x, y);
         final int musicID = panel.getMusicID();
         if ((tile == null) || (tile.getMusicID() == musicID)) {
@@ -64,7 +61,7 @@ public class MusicTool extends AbstractTool {
         }
         MapTile newTile = MapTile.MapTileFactory.setMusicId(musicID, tile);
         map.setTileAt(x, y, newTile);
-        return new MusicIDChangedAction(x, y, tile.getMusicID(), musicID, map);
+        return createAction ? new MusicIDChangedAction(x, y, tile.getMusicID(), musicID, map) : null;
     }
 
     @Override
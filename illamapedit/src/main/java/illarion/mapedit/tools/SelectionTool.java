@@ -17,7 +17,6 @@ package illarion.mapedit.tools;
 
 import illarion.mapedit.Lang;
 import illarion.mapedit.data.Map;
-import illarion.mapedit.history.GroupAction;
 import illarion.mapedit.tools.panel.SelectionPanel;
 import org.pushingpixels.flamingo.api.common.icon.ResizableIcon;
 
@@ -40,14 +39,18 @@ public class SelectionTool extends AbstractTool {
 
     @Override
     public void clickedAt(final int x, final int y, @Nonnull final Map map) {
-        final int radius = panel.getRadius();
-        for (int i = (x - radius) + 1; i <= ((x + radius) - 1); i++) {
-            for (int j = (y - radius) + 1; j <= ((y + radius) - 1); j++) {
-                if (map.contains(i, j)) {
-                    map.setSelected(i, j, !panel.isDeselectChecked());
-                }
-            }
+        if (panel.isFloodChecked()) {
+            map.getSelection().selectFlood(map, x, y, !panel.isDeselectChecked());
+            return;
         }
+        final int radius = panel.getRadius();
+        map.getSelection().selectRectangle((x - radius) + 1, (y - radius) + 1, (x + radius) - 1, (y + radius) - 1,
+                                           !panel.isDeselectChecked());
+    }
+
+    @Override
+    public void fillArea(final int startX, final int startY, final int endX, final int endY, final Map map) {
+        map.getSelection().selectRectangle(startX, startY, endX, endY, !panel.isDeselectChecked());
     }
 
     @Override
@@ -83,7 +86,7 @@ public class SelectionTool extends AbstractTool {
     }
 
     @Override
-    public void paintSelected(final int x, final int y, @Nonnull final Map map, final GroupAction action) {
+    public void paintSelected(final int x, final int y, @Nonnull final Map map) {
         if (map.contains(x, y)) {
             map.setSelected(x, y, !panel.isDeselectChecked());
         }
@@ -15,13 +15,10 @@
  */
 package illarion.mapedit.tools;
 
-import illarion.common.types.Location;
 import illarion.mapedit.Lang;
 import illarion.mapedit.data.Map;
 import illarion.mapedit.data.MapTile;
-import illarion.mapedit.history.GroupAction;
 import illarion.mapedit.history.TileIDChangedAction;
-import illarion.mapedit.processing.MapTransitions;
 import illarion.mapedit.resource.TileImg;
 import illarion.mapedit.tools.panel.TileBrushPanel;
 import org.pushingpixels.flamingo.api.common.icon.ResizableIcon;
@@ -44,22 +41,20 @@ public class TileBrushTool extends AbstractTool {
 
     @Override
     public void clickedAt(final int x, final int y, @Nonnull final Map map) {
-        TileIDChangedAction newAction = addTile(x, y, map);
+        TileIDChangedAction newAction = addTile(x, y, map, true);
         if (newAction != null) {
             getHistory().addEntry(newAction);
         }
     }
 
     @Override
-    public void paintSelected(final int x, final int y, @Nonnull final Map map, @Nonnull final GroupAction action) {
-        TileIDChangedAction newAction = addTile(x, y, map);
-        if (newAction != null) {
-            action.addAction(newAction);
-        }
+    public void paintSelected(final int x, final int y, @Nonnull final Map map) {
+        addTile(x, y, map, false);
     }
 
     @Nullable
-    private TileIDChangedAction addTile(final int x, final int y, @Nonnull final Map map) {
+    private TileIDChangedAction addTile(
+            final int x, final int y, @Nonnull final Map map, final boolean createAction) {
         final TileImg tile = getManager().getSelectedTile();
         if (tile == null) {
             return null;
@@ -68,10 +63,12 @@ public class TileBrushTool extends AbstractTool {
         TileIDChangedAction action = null;
         if ((oldTile != null) && (oldTile.getId() != tile.getId())) {
             final MapTile newTile = MapTile.MapTileFactory.setId(tile.getId(), oldTile);
-            action = new TileIDChangedAction(x, y, oldTile, newTile, map);
+            if (createAction) {
+                action = new TileIDChangedAction(x, y, oldTile, newTile, map);
+            }
             map.setTileAt(x, y, newTile);
             newTile.setAnnotation(null);
-            MapTransitions.getInstance().checkTileAndSurround(map, new Location(x, y, 0));
+            checkTransitions(x, y, map);
         }
         return action;
     }
@@ -18,7 +18,6 @@ package illarion.mapedit.tools;
 import illarion.mapedit.Lang;
 import illarion.mapedit.data.Map;
 import illarion.mapedit.data.MapTile;
-import illarion.mapedit.history.GroupAction;
 import illarion.mapedit.history.TileIDChangedAction;
 import illarion.mapedit.tools.panel.TileEraserPanel;
 import org.pushingpixels.flamingo.api.common.icon.ResizableIcon;
@@ -41,22 +40,20 @@ public class TileEraserTool extends AbstractTool {
 
     @Override
     public void clickedAt(final int x, final int y, @Nonnull final Map map) {
-        final TileIDChangedAction newAction = eraseTile(x, y, map);
+        final TileIDChangedAction newAction = eraseTile(x, y, map, true);
         if (newAction != null) {
             getHistory().addEntry(newAction);
         }
     }
 
     @Override
-    public void paintSelected(final int x, final int y, @Nonnull final Map map, @Nonnull final GroupAction action) {
-        final TileIDChangedAction newAction = eraseTile(x, y, map);
-        if (newAction != null) {
-            action.addAction(newAction);
-        }
+    public void paintSelected(final int x, final int y, @Nonnull final Map map) {
+        eraseTile(x, y, map, false);
     }
 
     @Nullable
-    private static TileIDChangedAction eraseTile(final int x, final int y, @Nonnull final Map map) {
+    private static TileIDChangedAction eraseTile(
+            final int x, final int y, @Nonnull final Map map, final boolean createAction) {
         final MapTile oldTile = map.getTileAt(x, y);
         if (oldTile == null) {
             return null;
@@ -64,7 +61,7 @@ public class TileEraserTool extends AbstractTool {
         final MapTile newTile = MapTile.MapTileFactory.createNew(0, 0, 0, 0);
         map.setTileAt(x, y, newTile);
 
-        return new TileIDChangedAction(x, y, oldTile, newTile, map);
+        return createAction ? new TileIDChangedAction(x, y, oldTile, newTile, map) : null;
     }
 
     @Override
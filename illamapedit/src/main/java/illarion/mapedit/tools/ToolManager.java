@@ -18,6 +18,7 @@ package illarion.mapedit.tools;
 import illarion.mapedit.data.Map;
 import illarion.mapedit.data.MapTile;
 import illarion.mapedit.events.*;
+import illarion.mapedit.events.map.MapChangedEvent;
 import illarion.mapedit.events.map.MapClickedEvent;
 import illarion.mapedit.events.map.MapDragFinishedEvent;
 import illarion.mapedit.events.map.MapDraggedEvent;
@@ -104,11 +105,13 @@ public final class ToolManager implements Disposable {
             doPaste = false;
         } else if ((actualTool != null) && isFillAction(e)) {
             actualTool.fillSelected(e.getMap());
+            EventBus.publish(new MapChangedEvent(e.getMap()));
             EventBus.publish(new RepaintRequestEvent());
             e.getMap().setActiveTile(e.getX(), e.getY());
             controller.setSaved(false);
         } else if ((actualTool != null) && !actualTool.isFillSelected()) {
             actualTool.clickedAt(e.getX(), e.getY(), e.getMap());
+            EventBus.publish(new MapChangedEvent(e.getX(), e.getY(), e.getMap()));
             EventBus.publish(new RepaintRequestEvent());
             e.getMap().setActiveTile(e.getX(), e.getY());
             controller.setSaved(false);
@@ -138,6 +141,7 @@ public final class ToolManager implements Disposable {
                 currentX = e.getX();
                 currentY = e.getY();
                 actualTool.clickedAt(e.getX(), e.getY(), e.getMap());
+                EventBus.publish(new MapChangedEvent(e.getX(), e.getY(), e.getMap()));
                 EventBus.publish(new RepaintRequestEvent());
                 e.getMap().setActiveTile(e.getX(), e.getY());
                 controller.setSaved(false);
@@ -152,6 +156,8 @@ public final class ToolManager implements Disposable {
             currentY = Integer.MIN_VALUE;
             e.getMap().setFillDragging(false);
             actualTool.fillArea(e.getStartX(), e.getStartY(), e.getEndX(), e.getEndY(), e.getMap());
+            EventBus.publish(new MapChangedEvent(e.getStartX() - 1, e.getStartY() - 1, e.getEndX() + 1,
+                                                 e.getEndY() + 1, e.getMap()));
             EventBus.publish(new RepaintRequestEvent());
             e.getMap().setActiveTile(e.getEndX(), e.getEndY());
             controller.setSaved(false);
@@ -19,7 +19,6 @@ import illarion.mapedit.Lang;
 import illarion.mapedit.data.Map;
 import illarion.mapedit.data.MapTile;
 import illarion.mapedit.data.MapWarpPoint;
-import illarion.mapedit.history.GroupAction;
 import illarion.mapedit.history.WarpPlacedAction;
 import illarion.mapedit.tools.panel.WarpPanel;
 import org.pushingpixels.flamingo.api.common.icon.ResizableIcon;
@@ -36,22 +35,20 @@ public class WarpTool extends AbstractTool {
 
     @Override
     public void clickedAt(final int x, final int y, @Nonnull final Map map) {
-        final WarpPlacedAction newAction = addWarp(x, y, map);
+        final WarpPlacedAction newAction = addWarp(x, y, map, true);
         if (newAction != null) {
             getHistory().addEntry(newAction);
         }
     }
 
     @Override
-    public void paintSelected(final int x, final int y, @Nonnull final Map map, @Nonnull final GroupAction action) {
-        final WarpPlacedAction newAction = addWarp(x, y, map);
-        if (newAction != null) {
-            action.addAction(newAction);
-        }
+    public void paintSelected(final int x, final int y, @Nonnull final Map map) {
+        addWarp(x, y, map, false);
     }
 
     @Nullable
-    public WarpPlacedAction addWarp(final int x, final int y, @Nonnull final Map map) {
+    private WarpPlacedAction addWarp(
+            final int x, final int y, @Nonnull final Map map, final boolean createAction) {
         final MapTile tile = map.getTileAt(x, y);
         if (tile == null) {
             return null;
@@ -62,7 +59,7 @@ public class WarpTool extends AbstractTool {
             point = new MapWarpPoint(panel.getTargetX(), panel.getTargetY(), panel.getTargetZ());
         }
         tile.setMapWarpPoint(point);
-        return new WarpPlacedAction(x, y, tile.getMapWarpPoint(), point, map);
+        return createAction ? new WarpPlacedAction(x, y, tile.getMapWarpPoint(), point, map) : null;
     }
 
     @Override
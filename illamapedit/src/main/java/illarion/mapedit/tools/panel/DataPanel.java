@@ -17,6 +17,7 @@ package illarion.mapedit.tools.panel;
 
 import illarion.mapedit.data.MapItem;
 import illarion.mapedit.events.*;
+import illarion.mapedit.events.map.MapChangedEvent;
 import illarion.mapedit.events.map.RepaintRequestEvent;
 import illarion.mapedit.tools.panel.components.ItemDataPanel;
 import illarion.mapedit.tools.panel.components.ItemInspectorList;
@@ -73,16 +74,19 @@ public class DataPanel extends JPanel {
     @EventSubscriber
     public void onItemDataChanged(@Nonnull final ItemItemDataChangedEvent e) {
         itemPanel.getSelectedItem().addItemData(e.getRow(), e.getData());
+        EventBus.publish(new MapChangedEvent());
     }
 
     @EventSubscriber
     public void onItemDataRemoved(@Nonnull final ItemDataRemovedEvent e) {
         itemPanel.getSelectedItem().removeItemData(e.getIndex());
+        EventBus.publish(new MapChangedEvent());
     }
 
     @EventSubscriber
     public void onItemDataAdded(@Nonnull final ItemDataAddedEvent e) {
         itemPanel.getSelectedItem().addItemData(e.getData());
+        EventBus.publish(new MapChangedEvent());
     }
 
     @EventSubscriber
@@ -97,6 +101,7 @@ public class DataPanel extends JPanel {
     @EventSubscriber
     public void onItemDataAnnotation(@Nonnull final ItemDataAnnotationEvent e) {
         itemPanel.getSelectedItem().setAnnotation(e.getText());
+        EventBus.publish(new MapChangedEvent());
         EventBus.publish(new RepaintRequestEvent());
     }
 }
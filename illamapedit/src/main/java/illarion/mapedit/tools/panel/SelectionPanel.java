@@ -32,6 +32,8 @@ public class SelectionPanel extends JPanel {
     protected JCheckBox delCheckBox;
     @Nonnull
     private final JSpinner radiusSpinner;
+    @Nonnull
+    private final JCheckBox floodCheckBox;
 
     /**
      * Default constructor
@@ -42,11 +44,14 @@ public class SelectionPanel extends JPanel {
         final JPanel northPanel = new JPanel(new GridLayout(0, 2));
         delCheckBox = new JCheckBox();
         radiusSpinner = new JSpinner(new SpinnerNumberModel(1, 1, ToolManager.TOOL_RADIUS, 1));
+        floodCheckBox = new JCheckBox();
 
         northPanel.add(new JLabel(Lang.getMsg("tools.SelectionTool.Delete")));
         northPanel.add(delCheckBox);
         northPanel.add(new JLabel(Lang.getMsg("tools.SelectionTool.Radius")));
         northPanel.add(radiusSpinner);
+        northPanel.add(new JLabel(Lang.getMsg("tools.SelectionTool.Flood")));
+        northPanel.add(floodCheckBox);
 
         add(northPanel, BorderLayout.NORTH);
     }
@@ -63,4 +68,13 @@ public class SelectionPanel extends JPanel {
     public boolean isDeselectChecked() {
         return delCheckBox.isSelected();
     }
+
+    /**
+     * Check if the connected area checkbox is selected
+     *
+     * @return {@code true} if the area of connected tiles with the same tile should be selected
+     */
+    public boolean isFloodChecked() {
+        return floodCheckBox.isSelected();
+    }
 }
@@ -15,6 +15,7 @@
  */
 package illarion.mapedit.util;
 
+import illarion.common.graphics.MapConstants;
 import illarion.common.types.Location;
 
 /**
@@ -53,4 +54,27 @@ public class SwingLocation {
     public static int displayCoordinateY(final int x, final int y, final int z) {
         return -Location.displayCoordinateY(x, y, z);
     }
+
+    /**
+     * Get the sum of the x and the y server coordinate of the locations that are displayed at a x display
+     * coordinate. This is the inverse of {@link #displayCoordinateX(int, int, int)}.
+     *
+     * @param displayX the x display coordinate
+     * @return the sum of the x and y server coordinate
+     */
+    public static float coordinateSum(final float displayX) {
+        return displayX / MapConstants.STEP_X;
+    }
+
+    /**
+     * Get the difference of the x and the y server coordinate of the locations that are displayed at a y display
+     * coordinate. This is the inverse of {@link #displayCoordinateY(int, int, int)}.
+     *
+     * @param displayY the y display coordinate
+     * @param z the z server coordinate
+     * @return the x server coordinate minus the y server coordinate
+     */
+    public static float coordinateDifference(final float displayY, final int z) {
+        return (-displayY / MapConstants.STEP_Y) - (Location.DISPLAY_Z_OFFSET_MOD * z);
+    }
 }
@@ -0,0 +1,143 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package illarion.mapedit.data;
+
+import illarion.mapedit.resource.Overlay;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+
+/**
+ * @author Martin Karing &lt;nitram@illarion.org&gt;
+ */
+public class BinaryMapFormatTest {
+    private static final Charset CHARSET = Charset.forName("ISO-8859-1");
+    private static final String[] EXTENSIONS = {MapIO.EXT_TILE, MapIO.EXT_ITEM, MapIO.EXT_WARP, MapIO.EXT_ANNO};
+
+    private Path directory;
+
+    @BeforeMethod
+    public void before() throws IOException {
+        directory = Files.createTempDirectory("binary-map-test");
+        write("source" + MapIO.EXT_TILE,
+              "V: 2\nL: 1\nX: 10\nY: -5\nW: 3\nH: 2\n" +
+                      "0;0;1;0\n1;0;2;7\n2;0;" + Overlay.generateTileId(3, 4, 5) + ";0\n" +
+                      "0;1;4;0\n1;1;5;0\n2;1;6;12\n");
+        write("source" + MapIO.EXT_ITEM,
+              "0;0;100;333\n0;0;101;555;name=Test;description=With\\;escaped delimiter\n2;1;102;999\n");
+        write("source" + MapIO.EXT_WARP, "1;1;20;30;-1\n");
+        write("source" + MapIO.EXT_ANNO, "0;0;0;Tile annotation\n0;0;2;Item annotation\n");
+    }
+
+    @AfterMethod
+    public void after() throws IOException {
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    @Test
+    public void testTextBinaryTextRoundTrip() throws IOException {
+        Map loaded = MapIO.loadMapThread(directory, "source");
+        Assert.assertNotNull(loaded);
+        MapIO.saveMap(loaded, "text", directory);
+
+        Path binaryFile = directory.resolve("binary" + MapIO.EXT_BINARY);
+        BinaryMapFormat.write(new MapSnapshot(loaded, true), binaryFile, MapIO.getTextFiles(directory, "source"));
+        Map binary = BinaryMapFormat.read(binaryFile, "binary", directory);
+        MapIO.saveMap(binary, "binary", directory);
+
+        for (String extension : EXTENSIONS) {
+            Assert.assertEquals(read("binary" + extension), read("text" + extension),
+                                "Content of the " + extension + " file changed");
+        }
+    }
+
+    @Test
+    public void testBinaryContent() throws IOException {
+        Map loaded = MapIO.loadMapThread(directory, "source");
+        Assert.assertNotNull(loaded);
+        Path binaryFile = directory.resolve("binary" + MapIO.EXT_BINARY);
+        BinaryMapFormat.write(new MapSnapshot(loaded, true), binaryFile, MapIO.getTextFiles(directory, "source"));
+
+        MapHeader header = BinaryMapFormat.readHeader(binaryFile, "binary", directory);
+        Assert.assertEquals(header.getX(), 10);
+        Assert.assertEquals(header.getY(), -5);
+        Assert.assertEquals(header.getZ(), 1);
+        Assert.assertEquals(header.getWidth(), 3);
+        Assert.assertEquals(header.getHeight(), 2);
+
+        Map map = BinaryMapFormat.read(binaryFile, "binary", directory);
+        Assert.assertEquals(map.getTileIdAt(2, 0), 3);
+        Assert.assertEquals(map.getOverlayIdAt(2, 0), 4);
+        Assert.assertEquals(map.getShapeIdAt(2, 0), 5);
+        Assert.assertEquals(map.getMusicIdAt(2, 1), 12);
+        Assert.assertEquals(map.getItemsAt(0, 0).size(), 2);
+        Assert.assertEquals(map.getItemsAt(0, 0).get(1).getItemData().size(), 2);
+        Assert.assertEquals(map.getItemsAt(0, 0).get(1).getAnnotation(), "Item annotation");
+        Assert.assertEquals(map.getTileAt(0, 0).getAnnotation(), "Tile annotation");
+        MapWarpPoint warp = map.getWarpPointAt(1, 1);
+        Assert.assertNotNull(warp);
+        Assert.assertEquals(warp.getXTarget(), 20);
+        Assert.assertEquals(warp.getZTarget(), -1);
+    }
+
+    @Test
+    public void testChangedTextFileInvalidatesBinary() throws IOException {
+        Map loaded = MapIO.loadMapThread(directory, "source");
+        Assert.assertNotNull(loaded);
+        Path[] textFiles = MapIO.getTextFiles(directory, "source");
+        Path binaryFile = directory.resolve("source" + MapIO.EXT_BINARY);
+        BinaryMapFormat.write(new MapSnapshot(loaded, true), binaryFile, textFiles);
+        Assert.assertTrue(BinaryMapFormat.isCurrent(binaryFile, textFiles));
+
+        // An edited file with an older modification time than the binary file, as left behind by a copy or a checkout.
+        FileTime modified = Files.getLastModifiedTime(textFiles[1]);
+        write("source" + MapIO.EXT_ITEM,
+              "0;0;104;333\n0;0;101;555;name=Test;description=With\\;escaped delimiter\n2;1;102;999\n");
+        Files.setLastModifiedTime(textFiles[1], FileTime.fromMillis(modified.toMillis() - 60000L));
+        Assert.assertFalse(BinaryMapFormat.isCurrent(binaryFile, textFiles));
+
+        Map reloaded = MapIO.loadMapThread(directory, "source");
+        Assert.assertNotNull(reloaded);
+        Assert.assertEquals(reloaded.getItemsAt(0, 0).get(0).getId(), 104);
+    }
+
+    private void write(String fileName, String content) throws IOException {
+        Files.write(directory.resolve(fileName), content.getBytes(CHARSET));
+    }
+
+    private String read(String fileName) throws IOException {
+        return new String(Files.readAllBytes(directory.resolve(fileName)), CHARSET);
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package illarion.mapedit.data.formats;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.List;
+
+/**
+ * @author Martin Karing &lt;nitram@illarion.org&gt;
+ */
+public class LineCursorTest {
+    private static final Charset CHARSET = Charset.forName("ISO-8859-1");
+
+    @Test
+    public void testCrLfLineBreaks() {
+        LineCursor cursor = createCursor("1;2\r\n\r\n-3;4\r\n");
+
+        Assert.assertTrue(cursor.nextLine());
+        Assert.assertEquals(cursor.getLine(), "1;2");
+        Assert.assertEquals(cursor.nextInt(), 1);
+        Assert.assertEquals(cursor.nextInt(), 2);
+        Assert.assertFalse(cursor.hasMoreFields());
+
+        Assert.assertTrue(cursor.nextLine());
+        Assert.assertTrue(cursor.isEmptyLine());
+
+        Assert.assertTrue(cursor.nextLine());
+        Assert.assertEquals(cursor.nextInt(), -3);
+        Assert.assertEquals(cursor.nextInt(), 4);
+        Assert.assertEquals(cursor.getLineNumber(), 3);
+        Assert.assertFalse(cursor.nextLine());
+    }
+
+    @Test
+    public void testLastLineWithoutLineBreak() {
+        LineCursor cursor = createCursor("1\n2");
+
+        Assert.assertTrue(cursor.nextLine());
+        Assert.assertEquals(cursor.nextInt(), 1);
+        Assert.assertTrue(cursor.nextLine());
+        Assert.assertEquals(cursor.nextInt(), 2);
+        Assert.assertFalse(cursor.nextLine());
+    }
+
+    @Test
+    public void testFields() {
+        LineCursor cursor = createCursor("5;a\\;b;;last;rest;of;line\n");
+
+        Assert.assertTrue(cursor.nextLine());
+        Assert.assertEquals(cursor.nextInt(), 5);
+        Assert.assertEquals(cursor.nextField(), "a\\;b");
+        Assert.assertEquals(cursor.nextField(), "");
+        Assert.assertEquals(cursor.nextField(), "last");
+        Assert.assertEquals(cursor.rest(), "rest;of;line");
+        Assert.assertFalse(cursor.hasMoreFields());
+    }
+
+    @Test
+    public void testTrailingDelimiter() {
+        LineCursor cursor = createCursor("1;2;\n");
+
+        Assert.assertTrue(cursor.nextLine());
+        Assert.assertEquals(cursor.nextInt(), 1);
+        Assert.assertEquals(cursor.nextInt(), 2);
+        Assert.assertFalse(cursor.hasMoreFields());
+    }
+
+    @Test
+    public void testIntegerLimits() {
+        LineCursor cursor = createCursor("2147483647;-2147483648\n");
+
+        Assert.assertTrue(cursor.nextLine());
+        Assert.assertEquals(cursor.nextInt(), Integer.MAX_VALUE);
+        Assert.assertEquals(cursor.nextInt(), Integer.MIN_VALUE);
+    }
+
+    @Test(expectedExceptions = NumberFormatException.class)
+    public void testIntegerOverflow() {
+        LineCursor cursor = createCursor("2147483648\n");
+        cursor.nextLine();
+        cursor.nextInt();
+    }
+
+    @Test(expectedExceptions = NumberFormatException.class)
+    public void testIllegalCharacterInInteger() {
+        LineCursor cursor = createCursor("12x;3\n");
+        cursor.nextLine();
+        cursor.nextInt();
+    }
+
+    @Test(expectedExceptions = NumberFormatException.class)
+    public void testEmptyInteger() {
+        LineCursor cursor = createCursor(";3\n");
+        cursor.nextLine();
+        cursor.nextInt();
+    }
+
+    @Test(expectedExceptions = NumberFormatException.class)
+    public void testMissingInteger() {
+        LineCursor cursor = createCursor("1\n");
+        cursor.nextLine();
+        cursor.nextInt();
+        cursor.nextInt();
+    }
+
+    @Test
+    public void testSplitStartsAtLines() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            text.append(i).append(";1\r\n");
+        }
+        LineCursor cursor = createCursor(text.toString());
+        List<LineCursor> parts = cursor.split(7);
+
+        Assert.assertEquals(cursor.remaining(), 0);
+        int expected = 0;
+        for (LineCursor part : parts) {
+            while (part.nextLine()) {
+                Assert.assertEquals(part.getLineNumber(), expected + 1);
+                Assert.assertEquals(part.nextInt(), expected);
+                Assert.assertEquals(part.nextInt(), 1);
+                expected++;
+            }
+        }
+        Assert.assertEquals(expected, 1000);
+    }
+
+    private static LineCursor createCursor(String text) {
+        return new LineCursor(ByteBuffer.wrap(text.getBytes(CHARSET)));
+    }
+}
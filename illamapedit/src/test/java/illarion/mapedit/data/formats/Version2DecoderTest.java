@@ -0,0 +1,159 @@
+/*
+ * This file is part of the Illarion project.
+ *
+ * Copyright © 2014 - Illarion e.V.
+ *
+ * Illarion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Illarion is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package illarion.mapedit.data.formats;
+
+import illarion.mapedit.crash.exceptions.FormatCorruptedException;
+import illarion.mapedit.data.Map;
+import illarion.mapedit.data.MapItem;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * @author Martin Karing &lt;nitram@illarion.org&gt;
+ */
+public class Version2DecoderTest {
+    private static final Charset CHARSET = Charset.forName("ISO-8859-1");
+    private static final String HEADER = "L: 0\r\nX: 0\r\nY: 0\r\nW: 2\r\nH: 2\r\n";
+
+    @Test
+    public void testCrLfTiles() throws FormatCorruptedException {
+        Map map = decodeTiles(HEADER + "# comment\r\n\r\n0;0;1;0\r\n1;0;2;0\r\n0;1;3;0\r\n1;1;4;9\r\n");
+
+        Assert.assertEquals(map.getWidth(), 2);
+        Assert.assertEquals(map.getHeight(), 2);
+        Assert.assertEquals(map.getTileIdAt(0, 0), 1);
+        Assert.assertEquals(map.getTileIdAt(1, 1), 4);
+        Assert.assertEquals(map.getMusicIdAt(1, 1), 9);
+    }
+
+    @Test
+    public void testItemDataFields() throws FormatCorruptedException {
+        Decoder decoder = createDecoder();
+        decoder.decode(DataType.Tiles, createCursor(HEADER + "0;0;1;0\n"));
+        decoder.decode(DataType.Items, createCursor("0;0;100;333;\r\n1;1;101;555;a=1;b=2\n"));
+        Map map = decoder.getDecodedMap();
+        Assert.assertNotNull(map);
+
+        MapItem plain = map.getItemsAt(0, 0).get(0);
+        Assert.assertEquals(plain.getId(), 100);
+        Assert.assertTrue(plain.isItemDataNullOrEmpty());
+
+        List<String> data = map.getItemsAt(1, 1).get(0).getItemData();
+        Assert.assertEquals(data.size(), 2);
+        Assert.assertEquals(data.get(0), "a=1");
+        Assert.assertEquals(data.get(1), "b=2");
+    }
+
+    @Test
+    public void testTrailingTileField() {
+        assertCorrupted(DataType.Tiles, "0;0;1;0\n1;0;2;0;5\n", 7);
+    }
+
+    @Test
+    public void testTrailingWarpField() {
+        assertCorrupted(DataType.WarpPoints, "0;0;1;2;3;4\n", 1);
+    }
+
+    @Test
+    public void testMalformedTileLine() {
+        assertCorrupted(DataType.Tiles, "0;0;1;0\r\n0;x;2;0\r\n", 7);
+    }
+
+    @Test
+    public void testMissingTileField() {
+        assertCorrupted(DataType.Tiles, "0;0;1\n", 6);
+    }
+
+    @Test
+    public void testTileOutOfRange() {
+        assertCorrupted(DataType.Tiles, "5;0;1;0\n", 6);
+    }
+
+    @Test
+    public void testParallelDecodingMatchesSequential() throws FormatCorruptedException {
+        int size = 300;
+        StringBuilder tiles = new StringBuilder();
+        tiles.append("L: 0\nX: 0\nY: 0\nW: ").append(size).append("\nH: ").append(size).append('\n');
+        StringBuilder items = new StringBuilder();
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                tiles.append(x).append(';').append(y).append(';').append((x + y) % 20).append(";0\n");
+                items.append(x).append(';').append(y).append(';').append(x).append(";333\n");
+                items.append(x).append(';').append(y).append(';').append(y).append(";333\n");
+            }
+        }
+
+        Decoder sequential = createDecoder();
+        sequential.decode(DataType.Tiles, createCursor(tiles.toString()));
+        sequential.decode(DataType.Items, createCursor(items.toString()));
+        Decoder parallel = createDecoder();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            parallel.decode(DataType.Tiles, createCursor(tiles.toString()), pool);
+            parallel.decode(DataType.Items, createCursor(items.toString()), pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        Map expected = sequential.getDecodedMap();
+        Map actual = parallel.getDecodedMap();
+        Assert.assertNotNull(expected);
+        Assert.assertNotNull(actual);
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                Assert.assertEquals(actual.getTileIdAt(x, y), expected.getTileIdAt(x, y));
+                Assert.assertEquals(actual.getItemsAt(x, y), expected.getItemsAt(x, y));
+            }
+        }
+    }
+
+    private static void assertCorrupted(DataType type, String lines, int lineNumber) {
+        Decoder decoder = createDecoder();
+        try {
+            if (type == DataType.Tiles) {
+                decoder.decode(DataType.Tiles, createCursor(HEADER + lines));
+            } else {
+                decoder.decode(DataType.Tiles, createCursor(HEADER));
+                decoder.decode(type, createCursor(lines));
+            }
+            Assert.fail("Corrupted line was not detected");
+        } catch (FormatCorruptedException e) {
+            Assert.assertEquals(e.getLineNr(), lineNumber);
+        }
+    }
+
+    private static Decoder createDecoder() {
+        return new DecoderFactory().getDecoder(2, "test", Paths.get("."));
+    }
+
+    private static Map decodeTiles(String text) throws FormatCorruptedException {
+        Decoder decoder = createDecoder();
+        decoder.decode(DataType.Tiles, createCursor(text));
+        Map map = decoder.getDecodedMap();
+        Assert.assertNotNull(map);
+        return map;
+    }
+
+    private static LineCursor createCursor(String text) {
+        return new LineCursor(ByteBuffer.wrap(text.getBytes(CHARSET)));
+    }
+}